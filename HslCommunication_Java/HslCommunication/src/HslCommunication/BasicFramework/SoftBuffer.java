@@ -90,6 +90,62 @@ public class SoftBuffer {
         return result;
     }
 
+    /**
+     * 设置指定的位置开始的多个bool值，如果超出，则丢弃超出的数据
+     * @param value bool数组
+     * @param destIndex 目标存储的位索引
+     */
+    public void SetBool( boolean[] value, int destIndex )
+    {
+        if (value != null && destIndex < capacity * 8 && destIndex >= 0 )
+        {
+            hybirdLock.Enter( );
+
+            for (int i = 0; i < value.length && destIndex + i < capacity * 8; i++)
+            {
+                int byteIndex = (destIndex + i) / 8;
+                int offect = (destIndex + i) % 8;
+
+                if (value[i])
+                {
+                    buffer[byteIndex] = (byte)(buffer[byteIndex] | getOrByte( offect ));
+                }
+                else
+                {
+                    buffer[byteIndex] = (byte)(buffer[byteIndex] & getAndByte( offect ));
+                }
+            }
+
+            hybirdLock.Leave( );
+        }
+    }
+
+    /**
+     * 获取指定的位置开始的多个bool值，如果超出，则引发异常
+     * @param destIndex 目标存储的位索引
+     * @param length 读取的位数
+     * @return bool数组
+     * @throws IndexOutOfBoundsException
+     */
+    public boolean[] GetBool( int destIndex, int length ) throws IndexOutOfBoundsException
+    {
+        if (destIndex < 0 || length < 0 || destIndex + length > capacity * 8)
+        {
+            throw new IndexOutOfBoundsException( "destIndex" );
+        }
+
+        boolean[] result = new boolean[length];
+        hybirdLock.Enter( );
+
+        for (int i = 0; i < length; i++)
+        {
+            result[i] = (buffer[(destIndex + i) / 8] & getOrByte( (destIndex + i) % 8 )) != 0;
+        }
+
+        hybirdLock.Leave( );
+        return result;
+    }
+
     private byte getAndByte(int offect )
     {
         switch (offect)
@@ -217,6 +273,32 @@ public class SoftBuffer {
         return result;
     }
 
+    /**
+     * 获取内存指定长度的数据信息，复制到目标数组中，不创建新的数组，如果超出，则引发异常
+     * @param index 起始位置
+     * @param dest 目标数组
+     * @param destIndex 目标数组的起始位置
+     * @param length 数据长度
+     * @throws IndexOutOfBoundsException
+     */
+    public void GetBytes( int index, byte[] dest, int destIndex, int length ) throws IndexOutOfBoundsException
+    {
+        if (index < 0 || length < 0 || index + length > buffer.length)
+        {
+            throw new IndexOutOfBoundsException( "index" );
+        }
+
+        hybirdLock.Enter( );
+        try
+        {
+            System.arraycopy( buffer, index, dest, destIndex, length );
+        }
+        finally
+        {
+            hybirdLock.Leave( );
+        }
+    }
+
     /**
      * 获取内存所有的数据信息
      * @return 实际的数据信息
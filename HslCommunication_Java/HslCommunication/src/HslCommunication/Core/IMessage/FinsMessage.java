@@ -1,8 +1,7 @@
 package HslCommunication.Core.IMessage;
 
-import HslCommunication.Utilities;
 
-public class FinsMessage implements INetMessage
+public class FinsMessage implements INetMessage, INetMessageFraming
 {
 
     /**
@@ -19,13 +18,7 @@ public class FinsMessage implements INetMessage
      */
     public int GetContentLengthByHeadBytes(){
         if(HeadBytes == null) return 0;
-
-        byte[] buffer = new byte[4];
-        buffer[0] = HeadBytes[7];
-        buffer[1] = HeadBytes[6];
-        buffer[2] = HeadBytes[5];
-        buffer[3] = HeadBytes[4];
-        return Utilities.getInt(buffer,0);
+        return GetContentLengthByHeadBytes(HeadBytes, SendBytes);
     }
 
 
@@ -37,21 +30,59 @@ public class FinsMessage implements INetMessage
     public boolean CheckHeadBytesLegal(byte[] token)
     {
         if(HeadBytes == null) return false;
-        if(HeadBytes[0] == 0x46 && HeadBytes[1] == 0x49 && HeadBytes[2] == 0x4E && HeadBytes[3] == 0x53){
-            return true;
-        }
-        else {
-            return false;
-        }
+        return CheckHeadBytesLegal(HeadBytes, SendBytes, token);
     }
 
 
     /**
      * 获取头子节里的消息标识
-     * @return
+     * @return 消息标识
      */
     public int GetHeadBytesIdentity(){
+        if(HeadBytes == null) return 0;
+        return GetHeadBytesIdentity(HeadBytes);
+    }
+
+
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send){
+        return ((head[4] & 0xff) << 24) | ((head[5] & 0xff) << 16) | ((head[6] & 0xff) << 8) | (head[7] & 0xff);
+    }
+
+
+    /**
+     * 获取消息头前面不属于本条消息的字节数
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
+     */
+    public int GetHeadBytesOffset(byte[] head){
+        return 0;
+    }
+
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
+     */
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token){
+        return head[0] == 0x46 && head[1] == 0x49 && head[2] == 0x4E && head[3] == 0x53;
+    }
 
+
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(byte[] head){
         return 0;
     }
 
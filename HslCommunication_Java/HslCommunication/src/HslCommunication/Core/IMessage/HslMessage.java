@@ -7,7 +7,7 @@ import HslCommunication.Utilities;
 /**
  * 本组件系统使用的默认的消息规则，说明解析和反解析规则的
  */
-public class HslMessage implements INetMessage
+public class HslMessage implements INetMessage, INetMessageFraming
 {
 
     /**
@@ -24,9 +24,7 @@ public class HslMessage implements INetMessage
      */
     public int GetContentLengthByHeadBytes(){
         if(HeadBytes == null) return 0;
-        if(HeadBytes.length != 32) return 0;
-
-        return Utilities.getInt(HeadBytes,28);
+        return GetContentLengthByHeadBytes(HeadBytes, SendBytes);
     }
 
 
@@ -35,18 +33,64 @@ public class HslMessage implements INetMessage
      * @param token 特殊的令牌，有些特殊消息的验证
      * @return 是否合法的验证
      */
-    public boolean CheckHeadBytesLegal(byte[] token){
-        return SoftBasic.IsTwoBytesEquel(HeadBytes,12,token,0,16);
+    public boolean CheckHeadBytesLegal(byte[] token)
+    {
+        if(HeadBytes == null) return false;
+        return CheckHeadBytesLegal(HeadBytes, SendBytes, token);
     }
 
 
     /**
      * 获取头子节里的消息标识
-     * @return
+     * @return 消息标识
      */
     public int GetHeadBytesIdentity(){
+        if(HeadBytes == null) return 0;
+        return GetHeadBytesIdentity(HeadBytes);
+    }
+
+
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send){
+        if(head.length != 32) return 0;
+        return Utilities.getInt(head,28);
+    }
 
-        return Utilities.getInt(HeadBytes,0);
+
+    /**
+     * 获取消息头前面不属于本条消息的字节数
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
+     */
+    public int GetHeadBytesOffset(byte[] head){
+        return 0;
+    }
+
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
+     */
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token){
+        return SoftBasic.IsTwoBytesEquel(head,12,token,0,16);
+    }
+
+
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(byte[] head){
+        return Utilities.getInt(head,0);
     }
 
 
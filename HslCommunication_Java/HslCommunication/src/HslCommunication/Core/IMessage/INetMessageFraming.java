@@ -0,0 +1,45 @@
+package HslCommunication.Core.IMessage;
+
+/**
+ * 无状态的消息分帧规则，所有的信息都通过参数传入，一个实例可以被多个连接及线程同时使用，接收报文的时候不需要为每次请求创建消息对象 ->
+ * The stateless framing rule of a message, one instance can be shared by all connections and threads
+ */
+public interface INetMessageFraming {
+
+    /**
+     * 消息头的指令长度
+     * @return 长度
+     */
+    int ProtocolHeadBytesLength();
+
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头，长度为ProtocolHeadBytesLength
+     * @param send 发送的报文，可能为null
+     * @return 接下来的数据内容长度
+     */
+    int GetContentLengthByHeadBytes(byte[] head, byte[] send);
+
+    /**
+     * 获取消息头前面不属于本条消息的字节数，完整的报文从该位置开始，通常为0
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
+     */
+    int GetHeadBytesOffset(byte[] head);
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文，可能为null
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
+     */
+    boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token);
+
+    /**
+     * 获取消息头里的消息标识，用于匹配请求和反馈
+     * @param head 消息头，可以是发送的报文
+     * @return 消息标识
+     */
+    int GetHeadBytesIdentity(byte[] head);
+}
@@ -1,6 +1,6 @@
 package HslCommunication.Core.IMessage;
 
-public class MelsecA1EBinaryMessage implements INetMessage {
+public class MelsecA1EBinaryMessage implements INetMessage, INetMessageFraming {
 
     /**
      * 消息头的指令长度
@@ -16,24 +16,55 @@ public class MelsecA1EBinaryMessage implements INetMessage {
      */
     public int GetContentLengthByHeadBytes(){
         if(HeadBytes == null) return 0;
+        return GetContentLengthByHeadBytes(HeadBytes, SendBytes);
+    }
+
+
+    /**
+     * 检查头子节的合法性
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法的验证
+     */
+    public boolean CheckHeadBytesLegal(byte[] token)
+    {
+        if(HeadBytes == null) return false;
+        return CheckHeadBytesLegal(HeadBytes, SendBytes, token);
+    }
+
+
+    /**
+     * 获取头子节里的消息标识
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(){
+        if(HeadBytes == null) return 0;
+        return GetHeadBytesIdentity(HeadBytes);
+    }
 
-        int contentLength = 0;
 
-        if (HeadBytes[1] == 0x5B)
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send){
+        int contentLength = 0;
+        if (head[1] == 0x5B)
         {
             contentLength = 2; //结束代码 + 0x00
             return contentLength;
         }
         else
         {
-            int length = (SendBytes[10] % 2 == 0) ? SendBytes[10] : SendBytes[10] + 1;
-            switch (HeadBytes[0])
+            int length = (send[10] % 2 == 0) ? send[10] : send[10] + 1;
+            switch (head[0])
             {
                 case (byte) 0x80: //位单位成批读出后，回复副标题
                     contentLength = length / 2;
                     break;
                 case (byte) 0x81: //字单位成批读出后，回复副标题
-                    contentLength = SendBytes[10] * 2;
+                    contentLength = send[10] * 2;
                     break;
                 case (byte) 0x82: //位单位成批写入后，回复副标题
                     break;
@@ -50,26 +81,33 @@ public class MelsecA1EBinaryMessage implements INetMessage {
 
 
     /**
-     * 检查头子节的合法性
-     * @param token 特殊的令牌，有些特殊消息的验证
-     * @return 是否合法的验证
+     * 获取消息头前面不属于本条消息的字节数
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
      */
-    public boolean CheckHeadBytesLegal(byte[] token)
-    {
-        if (HeadBytes != null)
-        {
-            if ((HeadBytes[0] - SendBytes[0]) == (byte) 0x80) { return true; }
-        }
-        return false;
+    public int GetHeadBytesOffset(byte[] head){
+        return 0;
     }
 
 
     /**
-     * 获取头子节里的消息标识
-     * @return
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
      */
-    public int GetHeadBytesIdentity(){
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token){
+        return (head[0] - send[0]) == (byte) 0x80;
+    }
+
 
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(byte[] head){
         return 0;
     }
 
@@ -1,8 +1,7 @@
 package HslCommunication.Core.IMessage;
 
-import HslCommunication.Utilities;
 
-public class MelsecQnA3EAsciiMessage implements INetMessage
+public class MelsecQnA3EAsciiMessage implements INetMessage, INetMessageFraming
 {
     /**
      * 消息头的指令长度
@@ -18,14 +17,7 @@ public class MelsecQnA3EAsciiMessage implements INetMessage
      */
     public int GetContentLengthByHeadBytes(){
         if(HeadBytes == null) return 0;
-
-        byte[] buffer = new byte[4];
-        buffer[0] = HeadBytes[14];
-        buffer[1] = HeadBytes[15];
-        buffer[2] = HeadBytes[16];
-        buffer[3] = HeadBytes[17];
-
-        return Integer.parseInt(Utilities.getString(buffer,"ascii"),16);
+        return GetContentLengthByHeadBytes(HeadBytes, SendBytes);
     }
 
 
@@ -37,21 +29,61 @@ public class MelsecQnA3EAsciiMessage implements INetMessage
     public boolean CheckHeadBytesLegal(byte[] token)
     {
         if(HeadBytes == null) return false;
-        if(HeadBytes[0] == (byte)'D' && HeadBytes[1] == (byte)'0' && HeadBytes[2] == (byte)'0' && HeadBytes[3] == (byte)'0'){
-            return true;
-        }
-        else {
-            return false;
-        }
+        return CheckHeadBytesLegal(HeadBytes, SendBytes, token);
     }
 
 
     /**
      * 获取头子节里的消息标识
-     * @return
+     * @return 消息标识
      */
     public int GetHeadBytesIdentity(){
+        if(HeadBytes == null) return 0;
+        return GetHeadBytesIdentity(HeadBytes);
+    }
+
 
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send){
+        int length = 0;
+        for (int i = 14; i < 18; i++) length = length * 16 + Character.digit(head[i], 16);
+        return length;
+    }
+
+
+    /**
+     * 获取消息头前面不属于本条消息的字节数
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
+     */
+    public int GetHeadBytesOffset(byte[] head){
+        return 0;
+    }
+
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
+     */
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token){
+        return head[0] == (byte)'D' && head[1] == (byte)'0' && head[2] == (byte)'0' && head[3] == (byte)'0';
+    }
+
+
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(byte[] head){
         return 0;
     }
 
@@ -1,6 +1,6 @@
 package HslCommunication.Core.IMessage;
 
-public class MelsecQnA3EBinaryMessage implements INetMessage
+public class MelsecQnA3EBinaryMessage implements INetMessage, INetMessageFraming
 {
 
     /**
@@ -17,8 +17,7 @@ public class MelsecQnA3EBinaryMessage implements INetMessage
      */
     public int GetContentLengthByHeadBytes(){
         if(HeadBytes == null) return 0;
-
-        return (HeadBytes[7]&0xff) + (HeadBytes[8]&0xff)*256;
+        return GetContentLengthByHeadBytes(HeadBytes, SendBytes);
     }
 
 
@@ -30,21 +29,59 @@ public class MelsecQnA3EBinaryMessage implements INetMessage
     public boolean CheckHeadBytesLegal(byte[] token)
     {
         if(HeadBytes == null) return false;
-        if((HeadBytes[0]&0xff)==0xd0 && HeadBytes[1] == 0x00){
-            return true;
-        }
-        else {
-            return false;
-        }
+        return CheckHeadBytesLegal(HeadBytes, SendBytes, token);
     }
 
 
     /**
      * 获取头子节里的消息标识
-     * @return
+     * @return 消息标识
      */
     public int GetHeadBytesIdentity(){
+        if(HeadBytes == null) return 0;
+        return GetHeadBytesIdentity(HeadBytes);
+    }
+
+
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send){
+        return (head[7]&0xff) + (head[8]&0xff)*256;
+    }
+
+
+    /**
+     * 获取消息头前面不属于本条消息的字节数
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
+     */
+    public int GetHeadBytesOffset(byte[] head){
+        return 0;
+    }
+
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
+     */
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token){
+        return (head[0]&0xff)==0xd0 && head[1] == 0x00;
+    }
 
+
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(byte[] head){
         return 0;
     }
 
@@ -4,7 +4,7 @@ package HslCommunication.Core.IMessage;
 /**
  * Modbus Tcp协议的消息对象，用来确定接收规则的
  */
-public class ModbusTcpMessage implements INetMessage
+public class ModbusTcpMessage implements INetMessage, INetMessageFraming
 {
 
     /**
@@ -22,17 +22,14 @@ public class ModbusTcpMessage implements INetMessage
     public int GetContentLengthByHeadBytes() {
         if (HeadBytes == null) return 0;
         if (HeadBytes.length >= ProtocolHeadBytesLength()) {
-            int length = (HeadBytes[4] & 0xff) * 256 + (HeadBytes[5] & 0xff);
-            if (length == 0) {
-                byte[] buffer = new byte[ProtocolHeadBytesLength() - 1];
-                for (int i = 0; i < buffer.length; i++) {
-                    buffer[i] = HeadBytes[i + 1];
-                }
+            int offset = GetHeadBytesOffset(HeadBytes);
+            int length = GetContentLengthByHeadBytes(HeadBytes, SendBytes);
+            if (offset > 0) {
+                byte[] buffer = new byte[HeadBytes.length - offset];
+                System.arraycopy(HeadBytes, offset, buffer, 0, buffer.length);
                 HeadBytes = buffer;
-                return (HeadBytes[5] & 0xff) * 256 + (HeadBytes[6] & 0xff) - 1;
-            } else {
-                return length - 2;
             }
+            return length;
         }
 
         return 0;
@@ -47,22 +44,62 @@ public class ModbusTcpMessage implements INetMessage
     public boolean CheckHeadBytesLegal(byte[] token)
     {
         if(HeadBytes == null) return false;
-        if(HeadBytes[2]==0x00 && HeadBytes[3] == 0x00){
-            return true;
-        }
-        else {
-            return false;
-        }
+        return CheckHeadBytesLegal(HeadBytes, SendBytes, token);
     }
 
 
     /**
-     * 获取头子节里的消息标识
-     * @return
+     * 获取头子节里的消息标识，也就是报文头的消息号
+     * @return 消息标识
      */
     public int GetHeadBytesIdentity(){
+        if (HeadBytes == null || HeadBytes.length < 2) return 0;
+        return GetHeadBytesIdentity(HeadBytes);
+    }
 
-        return 0;
+
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度，长度为0时报文前面多了一个字节，实际的长度往后偏移一个字节
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send) {
+        int length = (head[4] & 0xff) * 256 + (head[5] & 0xff);
+        if (length == 0) return (head[6] & 0xff) * 256 + (head[7] & 0xff) - 1;
+        return length - 2;
+    }
+
+
+    /**
+     * 获取消息头前面不属于本条消息的字节数，长度为0时第一个字节不属于本条消息
+     * @param head 接收的消息头
+     * @return 需要跳过的字节数
+     */
+    public int GetHeadBytesOffset(byte[] head) {
+        return (head[4] == 0x00 && head[5] == 0x00) ? 1 : 0;
+    }
+
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌，有些特殊消息的验证
+     * @return 是否合法
+     */
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token) {
+        return head[2] == 0x00 && head[3] == 0x00;
+    }
+
+
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    public int GetHeadBytesIdentity(byte[] head) {
+        return (head[0] & 0xff) * 256 + (head[1] & 0xff);
     }
 
 
@@ -0,0 +1,84 @@
+package HslCommunication.Core.IMessage;
+
+import HslCommunication.Core.Types.FunctionOperate;
+
+/**
+ * 将有状态的消息类适配为无状态的分帧规则，每次调用时通过工厂创建新的消息对象，用于没有实现INetMessageFraming的自定义消息 ->
+ * Adapt a stateful message class to the stateless framing rule, a new message object is created by the factory on every call
+ */
+public class NetMessageFramingAdapter implements INetMessageFraming {
+
+    /**
+     * 使用消息对象的工厂实例化一个适配对象
+     * @param factory 创建消息对象的方法
+     */
+    public NetMessageFramingAdapter(FunctionOperate<? extends INetMessage> factory) {
+        this.factory = factory;
+        this.headLength = factory.Action().ProtocolHeadBytesLength();
+    }
+
+
+    /**
+     * 消息头的指令长度
+     * @return 长度
+     */
+    @Override
+    public int ProtocolHeadBytesLength() {
+        return headLength;
+    }
+
+    /**
+     * 从接收的消息头中提取出接下来需要接收的数据长度
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @return 接下来的数据内容长度
+     */
+    @Override
+    public int GetContentLengthByHeadBytes(byte[] head, byte[] send) {
+        return CreateMessage(head, send).GetContentLengthByHeadBytes();
+    }
+
+    /**
+     * 有状态的消息类不支持跳过报文头前面的字节
+     * @param head 接收的消息头
+     * @return 总是为0
+     */
+    @Override
+    public int GetHeadBytesOffset(byte[] head) {
+        return 0;
+    }
+
+    /**
+     * 检查消息头的合法性
+     * @param head 接收的消息头
+     * @param send 发送的报文
+     * @param token 特殊的令牌
+     * @return 是否合法
+     */
+    @Override
+    public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token) {
+        return CreateMessage(head, send).CheckHeadBytesLegal(token);
+    }
+
+    /**
+     * 获取消息头里的消息标识
+     * @param head 消息头
+     * @return 消息标识
+     */
+    @Override
+    public int GetHeadBytesIdentity(byte[] head) {
+        return CreateMessage(head, null).GetHeadBytesIdentity();
+    }
+
+
+    private INetMessage CreateMessage(byte[] head, byte[] send) {
+        INetMessage netMsg = factory.Action();
+        netMsg.setSendBytes(send);
+        netMsg.setHeadBytes(head);
+        return netMsg;
+    }
+
+
+    private FunctionOperate<? extends INetMessage> factory = null;      // 创建消息对象的方法
+    private int headLength = 0;                                          // 消息头的长度
+}
@@ -1,8 +1,13 @@
 package HslCommunication.Core.Net;
 
+import HslCommunication.Core.Net.Nio.NioEventLoopGroup;
 import HslCommunication.Core.Types.IDataTransfer;
 import HslCommunication.Core.Types.OperateResult;
 import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * 所有设备交互类的统一的读写接口
@@ -111,6 +116,22 @@ public interface IReadWriteNet {
     <T extends IDataTransfer> OperateResultExOne<T> ReadCustomer(String address,Class<T> tClass);
 
 
+    /**
+     * 读取自定义的数据类型到指定的对象中，不需要反射创建对象，周期性的读取时可以重复使用同一个对象
+     * @param address 起始地址
+     * @param content 接收数据的对象
+     * @param <T> 自定义的类型
+     * @return 带有成功标识的自定义类型数据，内容就是传入的对象
+     */
+    default <T extends IDataTransfer> OperateResultExOne<T> ReadCustomer(String address, T content) {
+        OperateResultExOne<byte[]> read = Read(address, content.getReadCount());
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+
+        content.ParseSource(read.Content);
+        return OperateResultExOne.CreateSuccessResult(content);
+    }
+
+
 
 
 
@@ -224,4 +245,345 @@ public interface IReadWriteNet {
      */
     <T extends IDataTransfer> OperateResult WriteCustomer(String address, T value);
 
+
+    /*
+     * 异步的读写方法，默认的实现在全局的阻塞任务线程池中调用同步的方法，不占用调用者的线程，已有的实现类不需要修改，
+     * NetworkDeviceBase覆盖了这些方法，使用NIO的事件循环完成
+     */
+
+    /**
+     * 异步的批量读取底层的数据信息，需要指定地址和长度
+     * @param address 地址信息
+     * @param length 数据长度
+     * @return 带有成功标识的byte[]数组的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<byte[]>> ReadAsync(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<byte[]>>() {
+            @Override
+            public OperateResultExOne<byte[]> get() {
+                return Read(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取16位的有符号整型
+     * @param address 起始地址
+     * @return 带有成功标识的short数据的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<Short>> ReadInt16Async(final String address) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<Short>>() {
+            @Override
+            public OperateResultExOne<Short> get() {
+                return ReadInt16(address);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取16位的有符号整型数组
+     * @param address 起始地址
+     * @param length 读取的数组长度
+     * @return 带有成功标识的short数组的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<short[]>> ReadInt16Async(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<short[]>>() {
+            @Override
+            public OperateResultExOne<short[]> get() {
+                return ReadInt16(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取32位的有符号整型
+     * @param address 起始地址
+     * @return 带有成功标识的int数据的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<Integer>> ReadInt32Async(final String address) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<Integer>>() {
+            @Override
+            public OperateResultExOne<Integer> get() {
+                return ReadInt32(address);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取32位的有符号整型数组
+     * @param address 起始地址
+     * @param length 读取的数组长度
+     * @return 带有成功标识的int数组的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<int[]>> ReadInt32Async(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<int[]>>() {
+            @Override
+            public OperateResultExOne<int[]> get() {
+                return ReadInt32(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取64位的有符号整型
+     * @param address 起始地址
+     * @return 带有成功标识的long数据的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<Long>> ReadInt64Async(final String address) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<Long>>() {
+            @Override
+            public OperateResultExOne<Long> get() {
+                return ReadInt64(address);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取64位的有符号整型数组
+     * @param address 起始地址
+     * @param length 读取的数组长度
+     * @return 带有成功标识的long数组的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<long[]>> ReadInt64Async(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<long[]>>() {
+            @Override
+            public OperateResultExOne<long[]> get() {
+                return ReadInt64(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取单精度的浮点数
+     * @param address 起始地址
+     * @return 带有成功标识的float数据的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<Float>> ReadFloatAsync(final String address) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<Float>>() {
+            @Override
+            public OperateResultExOne<Float> get() {
+                return ReadFloat(address);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取单精度的浮点数数组
+     * @param address 起始地址
+     * @param length 读取的数组长度
+     * @return 带有成功标识的float数组的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<float[]>> ReadFloatAsync(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<float[]>>() {
+            @Override
+            public OperateResultExOne<float[]> get() {
+                return ReadFloat(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取双精度的浮点数
+     * @param address 起始地址
+     * @return 带有成功标识的double数据的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<Double>> ReadDoubleAsync(final String address) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<Double>>() {
+            @Override
+            public OperateResultExOne<Double> get() {
+                return ReadDouble(address);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取双精度的浮点数数组
+     * @param address 起始地址
+     * @param length 读取的数组长度
+     * @return 带有成功标识的double数组的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<double[]>> ReadDoubleAsync(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<double[]>>() {
+            @Override
+            public OperateResultExOne<double[]> get() {
+                return ReadDouble(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步读取字符串数据
+     * @param address 起始地址
+     * @param length 数据长度
+     * @return 带有成功标识的String数据的异步任务
+     */
+    default CompletableFuture<OperateResultExOne<String>> ReadStringAsync(final String address, final short length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<String>>() {
+            @Override
+            public OperateResultExOne<String> get() {
+                return ReadString(address, length);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步的写入原始的byte数组数据
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 带有成功标识的结果类对象的异步任务，默认的实现因为接口没有写入原始数据的方法，返回不支持的结果
+     */
+    default CompletableFuture<OperateResult> WriteAsync(String address, byte[] value) {
+        return CompletableFuture.<OperateResult>completedFuture(new OperateResult(StringResources.Language.NotSupportedFunction()));
+    }
+
+    /**
+     * 异步写入short数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final short value) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, value);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入short数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final short[] values) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, values);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入int数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final int value) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, value);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入int数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final int[] values) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, values);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入long数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final long value) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, value);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入long数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final long[] values) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, values);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入float数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final float value) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, value);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入float数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final float[] values) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, values);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入double数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final double value) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, value);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
+    /**
+     * 异步写入double数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带有成功标识的结果类对象的异步任务
+     */
+    default CompletableFuture<OperateResult> WriteAsync(final String address, final double[] values) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResult>() {
+            @Override
+            public OperateResult get() {
+                return Write(address, values);
+            }
+        }, NioEventLoopGroup.getBlockingExecutor());
+    }
+
 }
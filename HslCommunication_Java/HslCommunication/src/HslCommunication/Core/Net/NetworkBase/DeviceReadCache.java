@@ -0,0 +1,248 @@
+package HslCommunication.Core.Net.NetworkBase;
+
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExTwo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 设备读取结果的缓存，读取的数据按照区域及偏移地址保存，在有效期内读取相同或是被包含的地址直接返回缓存的数据，不再访问设备。
+ * 写入重叠的地址时缓存失效，无法拆分的地址写入时清空整个缓存。每个缓存只能用于一个设备对象 ->
+ * The read result cache of a device, reads of the same or a contained range within the time to live are served from the cache,
+ * writes to overlapping ranges invalidate the cache
+ */
+public class DeviceReadCache {
+
+    /**
+     * 实例化一个缓存，同时设置到设备对象上
+     * @param device 设备对象
+     * @param timeToLive 默认的有效期，单位毫秒
+     */
+    public DeviceReadCache(NetworkDeviceBase<?, ?> device, int timeToLive) {
+        this.device = device;
+        this.timeToLive = timeToLive;
+        device.setReadCache(this);
+    }
+
+
+    /**
+     * 获取默认的有效期，单位毫秒
+     * @return 有效期
+     */
+    public int getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * 设置默认的有效期，单位毫秒，没有单独设置有效期的地址使用该值
+     * @param timeToLive 有效期
+     */
+    public void setTimeToLive(int timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * 设置一段地址的有效期，读取的数据和多段地址重叠时使用最短的有效期，为0时该段地址不缓存
+     * @param address 起始地址
+     * @param length 长度，单位和设备的Read方法一致
+     * @param timeToLive 有效期，单位毫秒
+     * @return 地址是否能被设备拆分
+     */
+    public OperateResult SetTimeToLive(String address, short length, int timeToLive) {
+        OperateResultExTwo<String, Integer> analysis = device.AnalysisAddressOffset(address);
+        if (!analysis.IsSuccess) return analysis;
+
+        int unit = GetUnitBytes();
+        synchronized (this) {
+            rules.add(new Rule(analysis.Content1, analysis.Content2 * unit, length * unit, timeToLive));
+            Clear();
+        }
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 获取缓存命中的次数
+     * @return 次数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 获取缓存没有命中，需要访问设备的次数，无法拆分的地址不计算在内
+     * @return 次数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 清空命中及没有命中的次数
+     */
+    public void ResetStatistics() {
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    /**
+     * 清空所有缓存的数据
+     */
+    public synchronized void Clear() {
+        areas.clear();
+        version++;
+    }
+
+
+    /**
+     * 获取缓存的版本，每次失效时增加，读取之前获取，保存时版本已经变化说明读取期间发生了写入，不能保存
+     * @return 版本号
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * 从缓存中获取数据，没有命中时返回null
+     * @param area 区域
+     * @param offset 偏移地址，单位和设备的Read方法一致
+     * @param length 长度，单位和设备的Read方法一致
+     * @return 数据的副本
+     */
+    byte[] Get(String area, int offset, int length) {
+        int unit = GetUnitBytes();
+        int start = offset * unit;
+        int count = length * unit;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            ArrayList<Entry> entries = areas.get(area);
+            if (entries != null) {
+                Iterator<Entry> iterator = entries.iterator();
+                while (iterator.hasNext()) {
+                    Entry entry = iterator.next();
+                    if (entry.expireTime <= now) {
+                        iterator.remove();
+                        continue;
+                    }
+                    if (entry.start <= start && start + count <= entry.start + entry.data.length) {
+                        byte[] buffer = new byte[count];
+                        System.arraycopy(entry.data, start - entry.start, buffer, 0, count);
+                        hitCount.incrementAndGet();
+                        return buffer;
+                    }
+                }
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 保存读取的数据，被新的数据包含的旧数据直接删除
+     * @param area 区域
+     * @param offset 偏移地址，单位和设备的Read方法一致
+     * @param data 读取的数据
+     * @param version 读取之前的缓存版本
+     */
+    void Set(String area, int offset, byte[] data, long version) {
+        int start = offset * GetUnitBytes();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (version != this.version) return;
+            int ttl = GetTimeToLive(area, start, data.length);
+            if (ttl <= 0) return;
+
+            ArrayList<Entry> entries = areas.get(area);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                areas.put(area, entries);
+            }
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.expireTime <= now || (start <= entry.start && entry.start + entry.data.length <= start + data.length))
+                    iterator.remove();
+            }
+            if (entries.size() >= MaxEntriesOfArea) entries.remove(0);
+            entries.add(new Entry(start, data.clone(), now + ttl));
+        }
+    }
+
+    /**
+     * 删除和写入的地址重叠的数据
+     * @param area 区域
+     * @param offset 偏移地址，单位和设备的Read方法一致
+     * @param byteLength 写入的字节数
+     */
+    synchronized void Invalidate(String area, int offset, int byteLength) {
+        version++;
+        ArrayList<Entry> entries = areas.get(area);
+        if (entries == null) return;
+
+        int start = offset * GetUnitBytes();
+        int end = start + Math.max(byteLength, 1);
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.start < end && start < entry.start + entry.data.length) iterator.remove();
+        }
+    }
+
+    private int GetTimeToLive(String area, int start, int length) {
+        int ttl = timeToLive;
+        boolean isMatched = false;
+        for (Rule rule : rules) {
+            if (rule.area.equals(area) && rule.start < start + length && start < rule.start + rule.length) {
+                ttl = isMatched ? Math.min(ttl, rule.timeToLive) : rule.timeToLive;
+                isMatched = true;
+            }
+        }
+        return ttl;
+    }
+
+    private int GetUnitBytes() {
+        // Read方法的一个长度单位对应的字节数，西门子为1，其他按字读取的设备为2
+        return Math.max(2 / Math.max(device.WordLength, 1), 1);
+    }
+
+
+    private NetworkDeviceBase<?, ?> device = null;                               // 设备对象
+    private volatile int timeToLive = 100;                                       // 默认的有效期
+    private ArrayList<Rule> rules = new ArrayList<>();                           // 每段地址的有效期
+    private HashMap<String, ArrayList<Entry>> areas = new HashMap<>();           // 每个区域缓存的数据
+    private AtomicLong hitCount = new AtomicLong();                              // 命中的次数
+    private AtomicLong missCount = new AtomicLong();                             // 没有命中的次数
+    private long version = 0;                                                    // 缓存的版本，失效时增加
+
+    private static final int MaxEntriesOfArea = 64;                              // 每个区域最多缓存的数据块
+
+
+    private static class Entry {
+        Entry(int start, byte[] data, long expireTime) {
+            this.start = start;
+            this.data = data;
+            this.expireTime = expireTime;
+        }
+
+        int start;                  // 起始的字节偏移
+        byte[] data;                // 数据
+        long expireTime;            // 失效的时间
+    }
+
+    private static class Rule {
+        Rule(String area, int start, int length, int timeToLive) {
+            this.area = area;
+            this.start = start;
+            this.length = length;
+            this.timeToLive = timeToLive;
+        }
+
+        String area;                // 区域
+        int start;                  // 起始的字节偏移
+        int length;                 // 字节长度
+        int timeToLive;             // 有效期
+    }
+}
@@ -0,0 +1,157 @@
+package HslCommunication.Core.Net.NetworkBase;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * 设备正在进行的读取请求，并发读取相同或是被包含的地址时共享同一个请求的结果，不再重复发送报文。
+ * 写入之后不能再加入写入之前发出的请求，保证写入完成之后的读取能获取新的数据
+ */
+class DeviceReadFlights {
+
+    /**
+     * 查找包含该地址的正在进行的请求，没有时创建一个新的请求，返回的请求的IsOwner为true时需要由调用者读取并调用Complete
+     * @param area 区域
+     * @param start 起始的字节偏移
+     * @param length 字节长度
+     * @return 请求对象
+     */
+    synchronized Flight Acquire(String area, int start, int length) {
+        ArrayList<Flight> flights = areas.get(area);
+        if (flights == null) {
+            flights = new ArrayList<>();
+            areas.put(area, flights);
+        }
+        for (Flight flight : flights) {
+            if (flight.version == version && flight.start <= start && start + length <= flight.start + flight.length) {
+                joinCount++;
+                return new Flight(flight, start, length);
+            }
+        }
+
+        Flight flight = new Flight(area, start, length, version);
+        flights.add(flight);
+        return flight;
+    }
+
+    /**
+     * 请求完成，通知所有等待的调用者
+     * @param flight 请求对象
+     * @param result 读取的结果
+     */
+    void Complete(Flight flight, OperateResultExOne<byte[]> result) {
+        synchronized (this) {
+            ArrayList<Flight> flights = areas.get(flight.area);
+            if (flights != null) {
+                flights.remove(flight);
+                if (flights.isEmpty()) areas.remove(flight.area);
+            }
+        }
+        flight.done.complete(result);
+    }
+
+    /**
+     * 发生了写入，之后的读取不再加入当前正在进行的请求
+     */
+    synchronized void Invalidate() {
+        version++;
+    }
+
+    /**
+     * 获取加入其他请求，没有单独发送报文的读取次数
+     * @return 次数
+     */
+    synchronized long getJoinCount() {
+        return joinCount;
+    }
+
+
+    private HashMap<String, ArrayList<Flight>> areas = new HashMap<>();     // 每个区域正在进行的请求
+    private long version = 0;                                               // 写入的版本，写入时增加
+    private long joinCount = 0;                                             // 加入其他请求的次数
+
+
+    /**
+     * 一个正在进行的读取请求，或是加入该请求的调用者
+     */
+    static class Flight {
+        Flight(String area, int start, int length, long version) {
+            this.area = area;
+            this.start = start;
+            this.length = length;
+            this.version = version;
+            this.owner = null;
+            this.done = new CompletableFuture<>();
+        }
+
+        Flight(Flight owner, int start, int length) {
+            this.area = owner.area;
+            this.start = start;
+            this.length = length;
+            this.version = owner.version;
+            this.owner = owner;
+            this.done = owner.done;
+        }
+
+        /**
+         * 是否需要由调用者发送请求
+         */
+        boolean IsOwner() {
+            return owner == null;
+        }
+
+        /**
+         * 等待发送请求的调用者完成，截取自身地址范围的数据
+         * @return 读取的结果
+         */
+        OperateResultExOne<byte[]> Await() {
+            try {
+                return Slice(done.get());
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return new OperateResultExOne<>(ex.getMessage());
+            }
+            catch (ExecutionException ex) {
+                return new OperateResultExOne<>(ex.getMessage());
+            }
+        }
+
+        /**
+         * 不占用线程的等待发送请求的调用者完成，截取自身地址范围的数据
+         * @return 读取的结果的异步任务
+         */
+        CompletableFuture<OperateResultExOne<byte[]>> AwaitAsync() {
+            return done.thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<byte[]>>() {
+                @Override
+                public OperateResultExOne<byte[]> apply(OperateResultExOne<byte[]> result) {
+                    return Slice(result);
+                }
+            });
+        }
+
+        private OperateResultExOne<byte[]> Slice(OperateResultExOne<byte[]> result) {
+            if (!result.IsSuccess) return OperateResultExOne.CreateFailedResult(result);
+            int index = start - owner.start;
+            if (index + length > result.Content.length)
+                return new OperateResultExOne<>(StringResources.Language.ReceiveDataLengthTooShort() + result.Content.length);
+
+            byte[] buffer = new byte[length];
+            System.arraycopy(result.Content, index, buffer, 0, length);
+            return OperateResultExOne.CreateSuccessResult(buffer);
+        }
+
+        String area;                                        // 区域
+        int start;                                          // 起始的字节偏移
+        int length;                                         // 字节长度
+        long version;                                       // 发出请求时的写入版本
+        Flight owner;                                       // 发送请求的对象，为null时是自身
+        CompletableFuture<OperateResultExOne<byte[]>> done; // 请求完成时设置读取的结果
+    }
+}
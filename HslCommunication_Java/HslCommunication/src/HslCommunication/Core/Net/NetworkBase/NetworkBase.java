@@ -1,8 +1,11 @@
 package HslCommunication.Core.Net.NetworkBase;
 
 import HslCommunication.Core.IMessage.INetMessage;
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.Thread.HslTimerWheel;
 import HslCommunication.Core.Types.HslTimeOut;
 import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultBuffer;
 import HslCommunication.Core.Types.OperateResultExOne;
 import HslCommunication.LogNet.Core.ILogNet;
 import HslCommunication.StringResources;
@@ -12,7 +15,6 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
-import java.util.Date;
 import java.util.UUID;
 
 
@@ -38,13 +40,17 @@ public abstract class NetworkBase {
 
 
     /**
-     * 线程检查是否发生了超时的方法
+     * 注册一个连接或是验证的超时检查，到期时如果操作还没有成功，就关闭套接字，使得阻塞的连接或接收立即返回。
+     * 检查注册到共享的时间轮中，调用之后立即返回，不占用线程，操作成功之后可以取消返回的对象
      * @param timeout 超时对象
      * @param millisecond 超时时间，单位：毫秒
+     * @return 时间轮中的超时对象
      */
-    public static void ThreadPoolCheckConnect(HslTimeOut timeout, int millisecond) {
-        while (!timeout.IsSuccessful) {
-            if ((new Date().getTime() - timeout.StartTime.getTime()) > millisecond) {
+    public static HslTimerWheel.Timeout ThreadPoolCheckConnect(final HslTimeOut timeout, int millisecond) {
+        long delay = millisecond - (System.currentTimeMillis() - timeout.StartTime.getTime());
+        return HslTimerWheel.getDefault().Schedule(new Runnable() {
+            @Override
+            public void run() {
                 // 连接超时或是验证超时
                 if (!timeout.IsSuccessful) {
                     try {
@@ -55,9 +61,8 @@ public abstract class NetworkBase {
                         // 不处理，放弃
                     }
                 }
-                break;
             }
-        }
+        }, delay);
     }
 
 
@@ -167,6 +172,88 @@ public abstract class NetworkBase {
     }
 
 
+    /**
+     * 从套接字接收一条完整的消息到可以重复使用的缓存中，使用无状态的分帧规则，报文头和内容连续的存放，接收的过程中不分配新的数组 ->
+     * Receive a complete message into a reusable buffer by the stateless framing rule, no arrays are allocated while receiving
+     * @param socket 网络套接字
+     * @param timeOut 超时时间
+     * @param framing 消息的分帧规则
+     * @param send 发送的报文，用于分帧规则的校验
+     * @param buffer 接收的缓存，同时也是返回的结果
+     * @return 传入的缓存对象
+     */
+    protected OperateResultBuffer ReceiveMessage(Socket socket, int timeOut, INetMessageFraming framing, byte[] send, OperateResultBuffer buffer)
+    {
+        // 接收指令头
+        int headLength = framing.ProtocolHeadBytesLength();
+        byte[] head = buffer.GetHeadBuffer( headLength );
+        try {
+            if(timeOut>0) socket.setSoTimeout(timeOut);
+        }
+        catch (IOException ex)
+        {
+            CloseSocket(socket);
+            buffer.SetFailed( ex.getMessage() );
+            return buffer;
+        }
+        if (!ReceiveInto( socket, head, 0, headLength, buffer )) return buffer;
+
+        if (!framing.CheckHeadBytesLegal( head, send, GetTokenBytes( ) ))
+        {
+            // 令牌校验失败
+            CloseSocket(socket);
+            if(LogNet != null) LogNet.WriteError( toString( ), StringResources.Language.TokenCheckFailed() );
+            buffer.SetFailed( StringResources.Language.TokenCheckFailed() );
+            return buffer;
+        }
+
+        // 内容直接接收到报文头的后面
+        int offset = framing.GetHeadBytesOffset( head );
+        int contentLength = Math.max( framing.GetContentLengthByHeadBytes( head, send ), 0 );
+        byte[] data = buffer.EnsureCapacity( headLength - offset + contentLength );
+        System.arraycopy( head, offset, data, 0, headLength - offset );
+        if (!ReceiveInto( socket, data, headLength - offset, contentLength, buffer )) return buffer;
+
+        buffer.SetSuccess( );
+        buffer.setLength( headLength - offset + contentLength );
+        return buffer;
+    }
+
+    private byte[] GetTokenBytes( )
+    {
+        // 令牌通常不会改变，缓存转换后的字节，令牌被重新赋值时再转换
+        TokenBytes cache = tokenCache;
+        UUID token = Token;
+        if (cache == null || cache.token != token)
+        {
+            cache = new TokenBytes( token, Utilities.UUID2Byte( token ) );
+            tokenCache = cache;
+        }
+        return cache.bytes;
+    }
+
+    private boolean ReceiveInto(Socket socket, byte[] data, int offset, int length, OperateResultBuffer buffer)
+    {
+        int count_receive = 0;
+        try {
+            InputStream input = socket.getInputStream();
+            while (count_receive<length)
+            {
+                int count = input.read(data, offset + count_receive, length - count_receive);
+                if (count < 0) throw new EOFException( StringResources.Language.RemoteClosedConnection() );
+                count_receive += count;
+            }
+        }
+        catch (IOException ex)
+        {
+            CloseSocket(socket);
+            buffer.SetFailed( ex.getMessage() );
+            return false;
+        }
+        return true;
+    }
+
+
     /**
      * 发送一串数据到网络套接字中
      * @param socket 网络套接字
@@ -299,6 +386,18 @@ public abstract class NetworkBase {
      */
     public UUID Token = null;
 
+    private volatile TokenBytes tokenCache = null;       // 令牌及对应的字节
+
+    private static class TokenBytes {
+        TokenBytes(UUID token, byte[] bytes) {
+            this.token = token;
+            this.bytes = bytes;
+        }
+
+        final UUID token;
+        final byte[] bytes;
+    }
+
 
 
     /**
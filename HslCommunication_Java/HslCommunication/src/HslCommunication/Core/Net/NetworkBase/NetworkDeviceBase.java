@@ -3,12 +3,25 @@ package HslCommunication.Core.Net.NetworkBase;
 import HslCommunication.BasicFramework.SoftBasic;
 import HslCommunication.Core.IMessage.INetMessage;
 import HslCommunication.Core.Net.IReadWriteNet;
+import HslCommunication.Core.Net.Nio.NioEventLoopGroup;
+import HslCommunication.Core.Reflection.HslStructMapper;
 import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.DeviceBlock;
 import HslCommunication.Core.Types.IDataTransfer;
 import HslCommunication.Core.Types.OperateResult;
 import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import HslCommunication.StringResources;
 import HslCommunication.Utilities;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 
 /**
  * 设备类的基类，提供了基础的字节读写方法，采用泛型继承实现
@@ -32,6 +45,14 @@ public class NetworkDeviceBase<TNetMessage extends INetMessage,TTransform extend
 
     protected short WordLength = 1;
 
+    /**
+     * 多条报文读写时，同一个连接上同时等待反馈的最大报文数量，为1时按顺序依次交互
+     */
+    protected int PipelineDepth = 1;
+
+    private volatile DeviceReadCache readCache = null;          // 读取结果的缓存
+    private volatile DeviceReadFlights readFlights = null;      // 正在进行的读取请求，为null时不合并
+
 
     /**
      * 从设备读取原始数据
@@ -55,6 +76,277 @@ public class NetworkDeviceBase<TNetMessage extends INetMessage,TTransform extend
     }
 
 
+    /**
+     * 构建读取原始数据的报文，超过协议单次长度上限的时候返回多条报文，子类重写之后同步和异步的读取共用这一套规则，返回null表示不支持
+     * @param address 起始地址
+     * @param length 数据长度
+     * @return 完整的报文数组
+     */
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
+        return null;
+    }
+
+    /**
+     * 从一条读取报文的反馈中校验并提取出实际的数据
+     * @param send 发送的报文
+     * @param response 设备反馈的完整报文
+     * @return 实际的数据
+     */
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
+        return OperateResultExOne.CreateSuccessResult(response);
+    }
+
+    /**
+     * 构建写入原始数据的报文，超过协议单次长度上限的时候返回多条报文，返回null表示不支持
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 完整的报文数组
+     */
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
+        return null;
+    }
+
+    /**
+     * 校验一条写入报文的反馈是否成功
+     * @param send 发送的报文
+     * @param response 设备反馈的完整报文
+     * @return 是否写入成功
+     */
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 使用BuildReadCommands及ExtractReadResponse的规则同步的读取数据，多条报文的结果按顺序拼接，每次读取都会分配反馈报文及结果的数组
+     * @param address 起始地址
+     * @param length 数据长度
+     * @return 带有成功标识的结果对象
+     */
+    protected OperateResultExOne<byte[]> ReadByCommands(String address, short length) {
+        DeviceReadCache cache = readCache;
+        DeviceReadFlights flights = readFlights;
+        OperateResultExTwo<String, Integer> range = cache == null && flights == null ? null : AnalysisAddressOffset(address);
+        if (range == null || !range.IsSuccess) return ReadByCommandsCore(address, length);
+
+        // 缓存中有包含该地址的有效数据时不访问设备
+        long version = 0;
+        if (cache != null) {
+            version = cache.getVersion();
+            byte[] hit = cache.Get(range.Content1, range.Content2, length);
+            if (hit != null) return OperateResultExOne.CreateSuccessResult(hit);
+        }
+
+        // 有包含该地址的请求正在进行时等待其结果，不再重复发送报文
+        DeviceReadFlights.Flight flight = null;
+        if (flights != null) {
+            int unit = Math.max(2 / Math.max(WordLength, 1), 1);
+            flight = flights.Acquire(range.Content1, range.Content2 * unit, length * unit);
+            if (!flight.IsOwner()) return flight.Await();
+        }
+
+        OperateResultExOne<byte[]> read = null;
+        try {
+            read = ReadByCommandsCore(address, length);
+        }
+        finally {
+            if (flight != null) flights.Complete(flight, read != null ? read : new OperateResultExOne<byte[]>(StringResources.Language.UnknownError()));
+        }
+        if (read.IsSuccess && cache != null) cache.Set(range.Content1, range.Content2, read.Content, version);
+        return read;
+    }
+
+    private OperateResultExOne<byte[]> ReadByCommandsCore(String address, short length) {
+        OperateResultExOne<byte[][]> command = BuildReadCommands(address, length);
+        if (command == null) return new OperateResultExOne<>(StringResources.Language.NotSupportedFunction());
+        if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult(command);
+
+        OperateResultExOne<byte[][]> read = ReadFromCoreServer(command.Content, PipelineDepth);
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+
+        byte[][] results = new byte[command.Content.length][];
+        for (int i = 0; i < command.Content.length; i++) {
+            OperateResultExOne<byte[]> extract = ExtractReadResponse(command.Content[i], read.Content[i]);
+            if (!extract.IsSuccess) return OperateResultExOne.CreateFailedResult(extract);
+            results[i] = extract.Content;
+        }
+        return OperateResultExOne.CreateSuccessResult(SpliceByteArrays(results));
+    }
+
+    /**
+     * 使用BuildWriteCommands及CheckWriteResponse的规则同步的写入数据
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 带有成功标识的结果对象
+     */
+    protected OperateResult WriteByCommands(String address, byte[] value) {
+        OperateResultExOne<byte[][]> command = BuildWriteCommands(address, value);
+        if (command == null) return new OperateResult(StringResources.Language.NotSupportedFunction());
+        if (!command.IsSuccess) return command;
+
+        // 写入的前后都需要使缓存失效，写入期间开始的读取结果不会被保存
+        InvalidateReadCache(address, value.length);
+        OperateResultExOne<byte[][]> read = ReadFromCoreServer(command.Content, PipelineDepth);
+        InvalidateReadCache(address, value.length);
+        if (!read.IsSuccess) return read;
+
+        for (int i = 0; i < command.Content.length; i++) {
+            OperateResult check = CheckWriteResponse(command.Content[i], read.Content[i]);
+            if (!check.IsSuccess) return check;
+        }
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 获取设备读取结果的缓存，为null时不使用缓存
+     * @return 缓存对象
+     */
+    public DeviceReadCache getReadCache() {
+        return readCache;
+    }
+
+    /**
+     * 设置设备读取结果的缓存，只对能拆分为区域及偏移地址的读取有效，为null时不使用缓存
+     * @param readCache 缓存对象
+     */
+    public void setReadCache(DeviceReadCache readCache) {
+        this.readCache = readCache;
+    }
+
+    /**
+     * 获取是否合并并发的读取请求，默认为false
+     * @return 是否合并
+     */
+    public boolean getReadCoalescing() {
+        return readFlights != null;
+    }
+
+    /**
+     * 设置是否合并并发的读取请求，为true时同时读取相同或是被包含的地址只发送一次报文，所有的调用者共享同一个结果，
+     * 只对能拆分为区域及偏移地址的读取有效，写入之后开始的读取不会共享写入之前发出的请求
+     * @param readCoalescing 是否合并
+     */
+    public void setReadCoalescing(boolean readCoalescing) {
+        if (readCoalescing == (readFlights != null)) return;
+        readFlights = readCoalescing ? new DeviceReadFlights() : null;
+    }
+
+    /**
+     * 获取合并到其他请求中，没有单独发送报文的读取次数
+     * @return 次数
+     */
+    public long getReadCoalescingCount() {
+        DeviceReadFlights flights = readFlights;
+        return flights == null ? 0 : flights.getJoinCount();
+    }
+
+    /**
+     * 写入数据之后使读取的缓存失效，并且之后的读取不再合并到正在进行的请求中，没有通过WriteByCommands写入的方法需要调用，无法拆分的地址清空整个缓存
+     * @param address 写入的地址
+     * @param byteLength 写入的字节数
+     */
+    protected void InvalidateReadCache(String address, int byteLength) {
+        DeviceReadFlights flights = readFlights;
+        if (flights != null) flights.Invalidate();
+
+        DeviceReadCache cache = readCache;
+        if (cache == null) return;
+
+        OperateResultExTwo<String, Integer> range = AnalysisAddressOffset(address);
+        if (range.IsSuccess) cache.Invalidate(range.Content1, range.Content2, byteLength);
+        else cache.Clear();
+    }
+
+    private static byte[] SpliceByteArrays(byte[][] arrays) {
+        if (arrays.length == 1) return arrays[0];
+
+        int length = 0;
+        for (int i = 0; i < arrays.length; i++) length += arrays[i].length;
+
+        byte[] buffer = new byte[length];
+        int index = 0;
+        for (int i = 0; i < arrays.length; i++) {
+            System.arraycopy(arrays[i], 0, buffer, index, arrays[i].length);
+            index += arrays[i].length;
+        }
+        return buffer;
+    }
+
+
+    /**
+     * 获取一个字的数据在Read方法中对应的长度，西门子按字节读取为2，其他按字读取的设备为1
+     * @return 长度
+     */
+    public short getWordLength() {
+        return WordLength;
+    }
+
+    /**
+     * 将地址拆分为区域及偏移地址，同一个区域的相邻地址可以合并为一次读取，偏移的单位和Read方法的长度单位一致，默认不支持拆分 ->
+     * Split the address into area and offset, the neighbouring addresses of the same area can be merged into one read
+     * @param address 地址信息
+     * @return Content1为区域，Content2为偏移地址
+     */
+    public OperateResultExTwo<String, Integer> AnalysisAddressOffset(String address) {
+        return new OperateResultExTwo<>(StringResources.Language.NotSupportedFunction());
+    }
+
+    /**
+     * 根据区域及偏移地址创建读取的地址，和AnalysisAddressOffset的拆分规则对应
+     * @param area 区域
+     * @param offset 偏移地址
+     * @return 地址信息
+     */
+    public String CreateAddressOffset(String area, int offset) {
+        return area + offset;
+    }
+
+    /**
+     * 将位地址拆分为读取的地址及位索引，使用Read方法读取该地址一个单位的数据之后，第i位为第i/8个字节的第i%8位。
+     * 默认读取的地址不变，位索引为0，适用于三菱的位软元件及Modbus的线圈这类按位打包返回的地址 ->
+     * Split the bit address into the address for the Read method and the bit index in the returned data
+     * @param address 位地址
+     * @return Content1为读取的地址，Content2为位索引
+     */
+    public OperateResultExTwo<String, Integer> AnalysisBitAddress(String address) {
+        return OperateResultExTwo.CreateSuccessResult(address, 0);
+    }
+
+    /**
+     * 拆分"地址.位"格式的位地址，字的数据高位在前时，0到7位在第二个字节
+     * @param address 位地址
+     * @param isHighByteFirst 读取的字是否高位在前
+     * @return Content1为读取的地址，Content2为位索引
+     */
+    protected static OperateResultExTwo<String, Integer> AnalysisBitAddress(String address, boolean isHighByteFirst) {
+        int index = address.lastIndexOf('.');
+        try {
+            int bit = Integer.parseInt(address.substring(index + 1));
+            if (index <= 0 || bit < 0 || bit >= (isHighByteFirst ? 16 : 8))
+                return new OperateResultExTwo<>(StringResources.Language.NotSupportedDataType());
+            if (isHighByteFirst) bit = bit < 8 ? bit + 8 : bit - 8;
+            return OperateResultExTwo.CreateSuccessResult(address.substring(0, index), bit);
+        }
+        catch (NumberFormatException ex) {
+            return new OperateResultExTwo<>(ex.getMessage());
+        }
+    }
+
+    /**
+     * 使用正则表达式拆分地址，第一个分组为区域，第二个分组为十进制的偏移地址
+     * @param address 地址信息
+     * @param pattern 正则表达式
+     * @return Content1为区域，Content2为偏移地址
+     */
+    protected static OperateResultExTwo<String, Integer> AnalysisAddressOffset(String address, Pattern pattern) {
+        Matcher matcher = pattern.matcher(address);
+        if (!matcher.matches()) return new OperateResultExTwo<>(StringResources.Language.NotSupportedDataType());
+        try {
+            return OperateResultExTwo.CreateSuccessResult(matcher.group(1), Integer.parseInt(matcher.group(2)));
+        }
+        catch (NumberFormatException ex) {
+            return new OperateResultExTwo<>(ex.getMessage());
+        }
+    }
 
 
 
@@ -67,18 +359,30 @@ public class NetworkDeviceBase<TNetMessage extends INetMessage,TTransform extend
      */
     public <T extends IDataTransfer> OperateResultExOne<T> ReadCustomer(String address ,Class<T> tClass)
     {
-        OperateResultExOne<T> result = new OperateResultExOne<T>();
         T Content;
         try {
             Content = tClass.newInstance();
         }
         catch (Exception ex){
-            Content = null;
+            return new OperateResultExOne<T>(ex.getMessage());
         }
-        OperateResultExOne<byte[]> read = Read(address, Content.getReadCount());
+        return ReadCustomer(address, Content);
+    }
+
+    /**
+     * 读取自定义类型的数据到指定的对象中，不需要反射创建对象，周期性的读取时可以重复使用同一个对象
+     * @param address 起始地址
+     * @param content 接收数据的对象
+     * @param <T> 类型名称
+     * @return 带有成功标识的结果对象，内容就是传入的对象
+     */
+    public <T extends IDataTransfer> OperateResultExOne<T> ReadCustomer(String address, T content)
+    {
+        OperateResultExOne<T> result = new OperateResultExOne<T>();
+        OperateResultExOne<byte[]> read = Read(address, content.getReadCount());
         if (read.IsSuccess) {
-            Content.ParseSource(read.Content);
-            result.Content = Content;
+            content.ParseSource(read.Content);
+            result.Content = content;
             result.IsSuccess = true;
         } else {
             result.ErrorCode = read.ErrorCode;
@@ -88,6 +392,110 @@ public class NetworkDeviceBase<TNetMessage extends INetMessage,TTransform extend
     }
 
 
+    /**
+     * 读取带有HslStructField注解的类型的数据，一次读取整个结构体的长度，按照字段的偏移依次解析 ->
+     * Read a class with HslStructField annotations, the whole struct is read as one block
+     * @param address 起始地址
+     * @param tClass 类，需要有无参数的构造方法
+     * @param <T> 类型名称
+     * @return 带有成功标识的结果对象
+     */
+    public <T> OperateResultExOne<T> ReadStruct(String address, Class<T> tClass) {
+        // 类的注解不正确或是没有无参数的构造方法时，映射抛出的异常转换为失败的结果
+        try {
+            HslStructMapper<T> mapper = HslStructMapper.getMapper(tClass);
+            OperateResultExOne<byte[]> read = ReadStructBytes(address, mapper);
+            if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+            return OperateResultExOne.CreateSuccessResult(mapper.Parse(getByteTransform(), read.Content, 0));
+        }
+        catch (RuntimeException ex) {
+            return new OperateResultExOne<>(ex.getMessage());
+        }
+    }
+
+    /**
+     * 读取带有HslStructField注解的类型的数据到指定的对象中，周期性的读取时可以重复使用同一个对象
+     * @param address 起始地址
+     * @param target 接收数据的对象
+     * @param <T> 类型名称
+     * @return 带有成功标识的结果对象，内容就是传入的对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> OperateResultExOne<T> ReadStruct(String address, T target) {
+        try {
+            HslStructMapper<T> mapper = HslStructMapper.getMapper((Class<T>) target.getClass());
+            OperateResultExOne<byte[]> read = ReadStructBytes(address, mapper);
+            if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+            mapper.Parse(getByteTransform(), read.Content, 0, target);
+            return OperateResultExOne.CreateSuccessResult(target);
+        }
+        catch (RuntimeException ex) {
+            return new OperateResultExOne<>(ex.getMessage());
+        }
+    }
+
+    /**
+     * 写入带有HslStructField注解的类型的数据，先读取结构体的整个范围，只改变字段覆盖的字节及位，
+     * 字段之间的间隔及没有映射的位保持PLC中原来的值。读取和写入之间PLC程序修改的这部分数据会被覆盖回去 ->
+     * Write a class with HslStructField annotations, the struct range is read first, so only the mapped bytes and bits change
+     * @param address 起始地址
+     * @param value 对象
+     * @param <T> 类型名称
+     * @return 带有成功标识的结果对象
+     */
+    public <T> OperateResult WriteStruct(String address, T value) {
+        return WriteStruct(address, value, true);
+    }
+
+    /**
+     * 写入带有HslStructField注解的类型的数据，写入整个结构体的长度。isReadBeforeWrite为false时不读取，少一次通信，
+     * 但是字段之间的间隔及没有映射的位全部写入0，会清掉PLC中这个范围内类型没有描述的数据，只应该用于完整描述了整个范围的类型
+     * @param address 起始地址
+     * @param value 对象
+     * @param isReadBeforeWrite 是否先读取结构体的整个范围，只改变字段覆盖的数据
+     * @param <T> 类型名称
+     * @return 带有成功标识的结果对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> OperateResult WriteStruct(String address, T value, boolean isReadBeforeWrite) {
+        try {
+            HslStructMapper<T> mapper = HslStructMapper.getMapper((Class<T>) value.getClass());
+            byte[] buffer;
+            if (isReadBeforeWrite) {
+                // 不能使用缓存中的旧数据，否则会把过期的值写回PLC
+                InvalidateReadCache(address, mapper.getByteLength());
+                OperateResultExOne<byte[]> read = ReadStructBytes(address, mapper);
+                if (!read.IsSuccess) return read;
+                buffer = read.Content;
+            }
+            else {
+                int unit = Math.max(2 / Math.max(WordLength, 1), 1);
+                buffer = new byte[GetStructReadCount(mapper) * unit];
+            }
+            mapper.Build(getByteTransform(), value, buffer, 0);
+            return Write(address, buffer);
+        }
+        catch (RuntimeException ex) {
+            return new OperateResult(ex.getMessage());
+        }
+    }
+
+    private OperateResultExOne<byte[]> ReadStructBytes(String address, HslStructMapper<?> mapper) {
+        // 读取结构体的整个范围，设备反馈的数据不够时返回失败，不在解析时越界
+        OperateResultExOne<byte[]> read = Read(address, GetStructReadCount(mapper));
+        if (!read.IsSuccess) return read;
+        if (read.Content.length < mapper.getByteLength())
+            return new OperateResultExOne<>(StringResources.Language.ReceiveDataLengthTooShort() + read.Content.length);
+        return read;
+    }
+
+    private short GetStructReadCount(HslStructMapper<?> mapper) {
+        // 结构体的字节长度换算为Read方法的长度，按字读取的设备向上取整
+        int unit = Math.max(2 / Math.max(WordLength, 1), 1);
+        return (short) ((mapper.getByteLength() + unit - 1) / unit);
+    }
+
+
     /**
      * 写入自定义类型的数据到设备去，需要规定生成字节的方法
      * @param address 起始地址
@@ -242,6 +650,20 @@ public class NetworkDeviceBase<TNetMessage extends INetMessage,TTransform extend
     }
 
 
+    /**
+     * 读取一段原始数据，返回按照设备的变换规则访问的视图，不解析整个数组，只需要其中部分数据时使用 ->
+     * Read the raw data and return a typed view over it, values are decoded on access
+     * @param address 起始地址
+     * @param length 数据长度，单位和Read方法一致
+     * @return 带成功标志的结果数据对象
+     */
+    public OperateResultExOne<DeviceBlock> ReadBlock(String address, short length) {
+        OperateResultExOne<byte[]> read = Read(address, length);
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+        return OperateResultExOne.CreateSuccessResult(new DeviceBlock(read.Content, 0, read.Content.length, getByteTransform(), WordLength));
+    }
+
+
 
     /**
      * 读取设备的字符串数据，编码为ASCII
@@ -434,6 +856,476 @@ public class NetworkDeviceBase<TNetMessage extends INetMessage,TTransform extend
     }
 
 
+    /**************************************************************************************************
+     *
+     *    异步的读写方法，设置了NIO的事件循环组并且子类支持报文构建的时候，不占用任何的线程等待，
+     *    子类不支持报文构建时在事件循环组的连接线程池中调用同步的方法，未设置事件循环组时在全局的阻塞任务线程池中调用同步的方法
+     *
+     **************************************************************************************************/
+
+
+    /**
+     * 异步的从设备读取原始数据
+     * @param address 地址信息
+     * @param length 数据长度
+     * @return 带有成功标识的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<byte[]>> ReadAsync(final String address, final short length) {
+        final CompletableFuture<OperateResultExOne<byte[]>> future = new CompletableFuture<>();
+
+        OperateResultExOne<byte[][]> command = getNioEventLoopGroup() == null ? null : BuildReadCommands(address, length);
+        if (command == null) {
+            ExecuteBlocking(new Runnable() {
+                @Override
+                public void run() {
+                    future.complete(Read(address, length));
+                }
+            });
+            return future;
+        }
+        if (!command.IsSuccess) {
+            future.complete(OperateResultExOne.<byte[]>CreateFailedResult(command));
+            return future;
+        }
+
+        final DeviceReadCache cache = readCache;
+        final DeviceReadFlights flights = readFlights;
+        final OperateResultExTwo<String, Integer> range = cache == null && flights == null ? null : AnalysisAddressOffset(address);
+        if (range == null || !range.IsSuccess) {
+            ReadCommandsAsync(command.Content, 0, new byte[command.Content.length][], future);
+            return future;
+        }
+
+        // 和同步的读取一样先查找缓存，再合并到正在进行的请求中
+        final long version = cache == null ? 0 : cache.getVersion();
+        if (cache != null) {
+            byte[] hit = cache.Get(range.Content1, range.Content2, length);
+            if (hit != null) {
+                future.complete(OperateResultExOne.CreateSuccessResult(hit));
+                return future;
+            }
+        }
+
+        final DeviceReadFlights.Flight flight;
+        if (flights != null) {
+            int unit = Math.max(2 / Math.max(WordLength, 1), 1);
+            flight = flights.Acquire(range.Content1, range.Content2 * unit, length * unit);
+            if (!flight.IsOwner()) return flight.AwaitAsync();
+        }
+        else {
+            flight = null;
+        }
+
+        // 保存缓存及通知等待的调用者之后才完成返回的异步任务，之后的读取一定能命中缓存
+        CompletableFuture<OperateResultExOne<byte[]>> wire = new CompletableFuture<>();
+        wire.thenAccept(new Consumer<OperateResultExOne<byte[]>>() {
+            @Override
+            public void accept(OperateResultExOne<byte[]> read) {
+                if (read.IsSuccess && cache != null) cache.Set(range.Content1, range.Content2, read.Content, version);
+                if (flight != null) flights.Complete(flight, read);
+                future.complete(read);
+            }
+        });
+        try {
+            ReadCommandsAsync(command.Content, 0, new byte[command.Content.length][], wire);
+        }
+        catch (RuntimeException ex) {
+            wire.complete(new OperateResultExOne<byte[]>(ex.getMessage()));
+        }
+        return future;
+    }
+
+    private void ReadCommandsAsync(final byte[][] commands, final int index, final byte[][] results, final CompletableFuture<OperateResultExOne<byte[]>> future) {
+        BeginReadFromCoreServer(commands[index], new ActionOperateExOne<OperateResultExOne<byte[]>>() {
+            @Override
+            public void Action(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) {
+                    future.complete(OperateResultExOne.<byte[]>CreateFailedResult(read));
+                    return;
+                }
+
+                // 回调中的异常会被IO线程吞掉，必须在这里转换为失败的结果，否则异步任务永远不会完成
+                try {
+                    OperateResultExOne<byte[]> extract = ExtractReadResponse(commands[index], read.Content);
+                    if (!extract.IsSuccess) {
+                        future.complete(OperateResultExOne.<byte[]>CreateFailedResult(extract));
+                        return;
+                    }
+
+                    results[index] = extract.Content;
+                    if (index + 1 < commands.length) ReadCommandsAsync(commands, index + 1, results, future);
+                    else future.complete(OperateResultExOne.CreateSuccessResult(SpliceByteArrays(results)));
+                }
+                catch (RuntimeException ex) {
+                    future.complete(new OperateResultExOne<byte[]>(ex.getMessage()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 异步的将原始数据写入设备
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 带有成功标识的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(final String address, final byte[] value) {
+        final CompletableFuture<OperateResult> future = new CompletableFuture<>();
+
+        OperateResultExOne<byte[][]> command = getNioEventLoopGroup() == null ? null : BuildWriteCommands(address, value);
+        if (command == null) {
+            ExecuteBlocking(new Runnable() {
+                @Override
+                public void run() {
+                    future.complete(Write(address, value));
+                }
+            });
+            return future;
+        }
+        if (!command.IsSuccess) {
+            future.complete(command);
+            return future;
+        }
+
+        InvalidateReadCache(address, value.length);
+        if (readCache != null || readFlights != null) {
+            future.thenAccept(new Consumer<OperateResult>() {
+                @Override
+                public void accept(OperateResult write) {
+                    InvalidateReadCache(address, value.length);
+                }
+            });
+        }
+        WriteCommandsAsync(command.Content, 0, future);
+        return future;
+    }
+
+    private void WriteCommandsAsync(final byte[][] commands, final int index, final CompletableFuture<OperateResult> future) {
+        BeginReadFromCoreServer(commands[index], new ActionOperateExOne<OperateResultExOne<byte[]>>() {
+            @Override
+            public void Action(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) {
+                    future.complete(read);
+                    return;
+                }
+
+                // 回调中的异常会被IO线程吞掉，必须在这里转换为失败的结果，否则异步任务永远不会完成
+                try {
+                    OperateResult check = CheckWriteResponse(commands[index], read.Content);
+                    if (!check.IsSuccess) {
+                        future.complete(check);
+                        return;
+                    }
+
+                    if (index + 1 < commands.length) WriteCommandsAsync(commands, index + 1, future);
+                    else future.complete(OperateResult.CreateSuccessResult());
+                }
+                catch (RuntimeException ex) {
+                    future.complete(new OperateResult(ex.getMessage()));
+                }
+            }
+        });
+    }
+
+    private void ExecuteBlocking(Runnable task) {
+        // 线程池的线程数量都有上限，未设置事件循环组或是已经关闭时使用全局的阻塞任务线程池，不占用调用者的线程，也不为每个请求创建线程
+        NioEventLoopGroup group = getNioEventLoopGroup();
+        if (group != null) {
+            try {
+                group.getConnectExecutor().execute(task);
+                return;
+            }
+            catch (RejectedExecutionException ex) {
+                // 事件循环组已经关闭
+            }
+        }
+        NioEventLoopGroup.getBlockingExecutor().execute(task);
+    }
+
+
+    /**
+     * 异步读取设备的short类型的数据
+     * @param address 起始地址
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<Short>> ReadInt16Async(String address) {
+        return ReadAsync(address, WordLength).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<Short>>() {
+            @Override
+            public OperateResultExOne<Short> apply(OperateResultExOne<byte[]> read) {
+                return GetInt16ResultFromBytes(read);
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的short类型的数组
+     * @param address 起始地址
+     * @param length 数组长度
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<short[]>> ReadInt16Async(String address, final short length) {
+        return ReadAsync(address, (short) (length * WordLength)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<short[]>>() {
+            @Override
+            public OperateResultExOne<short[]> apply(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+                return OperateResultExOne.CreateSuccessResult(getByteTransform().TransInt16(read.Content, 0, length));
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的int类型的数据
+     * @param address 起始地址
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<Integer>> ReadInt32Async(String address) {
+        return ReadAsync(address, (short) (2 * WordLength)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<Integer>>() {
+            @Override
+            public OperateResultExOne<Integer> apply(OperateResultExOne<byte[]> read) {
+                return GetInt32ResultFromBytes(read);
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的int类型的数组
+     * @param address 起始地址
+     * @param length 数组长度
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<int[]>> ReadInt32Async(String address, final short length) {
+        return ReadAsync(address, (short) (length * WordLength * 2)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<int[]>>() {
+            @Override
+            public OperateResultExOne<int[]> apply(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+                return OperateResultExOne.CreateSuccessResult(getByteTransform().TransInt32(read.Content, 0, length));
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的long类型的数据
+     * @param address 起始地址
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<Long>> ReadInt64Async(String address) {
+        return ReadAsync(address, (short) (4 * WordLength)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<Long>>() {
+            @Override
+            public OperateResultExOne<Long> apply(OperateResultExOne<byte[]> read) {
+                return GetInt64ResultFromBytes(read);
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的long类型的数组
+     * @param address 起始地址
+     * @param length 数组长度
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<long[]>> ReadInt64Async(String address, final short length) {
+        return ReadAsync(address, (short) (length * WordLength * 4)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<long[]>>() {
+            @Override
+            public OperateResultExOne<long[]> apply(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+                return OperateResultExOne.CreateSuccessResult(getByteTransform().TransInt64(read.Content, 0, length));
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的float类型的数据
+     * @param address 起始地址
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<Float>> ReadFloatAsync(String address) {
+        return ReadAsync(address, (short) (2 * WordLength)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<Float>>() {
+            @Override
+            public OperateResultExOne<Float> apply(OperateResultExOne<byte[]> read) {
+                return GetSingleResultFromBytes(read);
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的float类型的数组
+     * @param address 起始地址
+     * @param length 数组长度
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<float[]>> ReadFloatAsync(String address, final short length) {
+        return ReadAsync(address, (short) (length * WordLength * 2)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<float[]>>() {
+            @Override
+            public OperateResultExOne<float[]> apply(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+                return OperateResultExOne.CreateSuccessResult(getByteTransform().TransSingle(read.Content, 0, length));
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的double类型的数据
+     * @param address 起始地址
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<Double>> ReadDoubleAsync(String address) {
+        return ReadAsync(address, (short) (4 * WordLength)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<Double>>() {
+            @Override
+            public OperateResultExOne<Double> apply(OperateResultExOne<byte[]> read) {
+                return GetDoubleResultFromBytes(read);
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的double类型的数组
+     * @param address 起始地址
+     * @param length 数组长度
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<double[]>> ReadDoubleAsync(String address, final short length) {
+        return ReadAsync(address, (short) (length * WordLength * 4)).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<double[]>>() {
+            @Override
+            public OperateResultExOne<double[]> apply(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+                return OperateResultExOne.CreateSuccessResult(getByteTransform().TransDouble(read.Content, 0, length));
+            }
+        });
+    }
+
+    /**
+     * 异步读取一段原始数据，返回按照设备的变换规则访问的视图
+     * @param address 起始地址
+     * @param length 数据长度，单位和Read方法一致
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<DeviceBlock>> ReadBlockAsync(String address, short length) {
+        return ReadAsync(address, length).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<DeviceBlock>>() {
+            @Override
+            public OperateResultExOne<DeviceBlock> apply(OperateResultExOne<byte[]> read) {
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+                return OperateResultExOne.CreateSuccessResult(new DeviceBlock(read.Content, 0, read.Content.length, getByteTransform(), WordLength));
+            }
+        });
+    }
+
+    /**
+     * 异步读取设备的字符串数据，编码为ASCII
+     * @param address 起始地址
+     * @param length 数据长度
+     * @return 带成功标志的结果数据对象的异步任务
+     */
+    public CompletableFuture<OperateResultExOne<String>> ReadStringAsync(String address, short length) {
+        return ReadAsync(address, length).thenApply(new Function<OperateResultExOne<byte[]>, OperateResultExOne<String>>() {
+            @Override
+            public OperateResultExOne<String> apply(OperateResultExOne<byte[]> read) {
+                return GetStringResultFromBytes(read);
+            }
+        });
+    }
+
+
+    /**
+     * 异步向设备中写入short数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, short[] values) {
+        return WriteAsync(address, getByteTransform().TransByte(values));
+    }
+
+    /**
+     * 异步向设备中写入short数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, short value) {
+        return WriteAsync(address, new short[]{value});
+    }
+
+    /**
+     * 异步向设备中写入int数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, int[] values) {
+        return WriteAsync(address, getByteTransform().TransByte(values));
+    }
+
+    /**
+     * 异步向设备中写入int数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, int value) {
+        return WriteAsync(address, new int[]{value});
+    }
+
+    /**
+     * 异步向设备中写入long数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, long[] values) {
+        return WriteAsync(address, getByteTransform().TransByte(values));
+    }
+
+    /**
+     * 异步向设备中写入long数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, long value) {
+        return WriteAsync(address, new long[]{value});
+    }
+
+    /**
+     * 异步向设备中写入float数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, float[] values) {
+        return WriteAsync(address, getByteTransform().TransByte(values));
+    }
+
+    /**
+     * 异步向设备中写入float数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, float value) {
+        return WriteAsync(address, new float[]{value});
+    }
+
+    /**
+     * 异步向设备中写入double数组
+     * @param address 起始地址
+     * @param values 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, double[] values) {
+        return WriteAsync(address, getByteTransform().TransByte(values));
+    }
+
+    /**
+     * 异步向设备中写入double数据
+     * @param address 起始地址
+     * @param value 写入值
+     * @return 带成功标志的结果对象的异步任务
+     */
+    public CompletableFuture<OperateResult> WriteAsync(String address, double value) {
+        return WriteAsync(address, new double[]{value});
+    }
+
+
     /**
      * 返回表示当前对象的字符串
      * @return 字符串数据
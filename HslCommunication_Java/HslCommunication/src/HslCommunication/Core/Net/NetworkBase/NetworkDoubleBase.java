@@ -2,16 +2,35 @@ package HslCommunication.Core.Net.NetworkBase;
 
 import HslCommunication.BasicFramework.SoftBasic;
 import HslCommunication.Core.IMessage.INetMessage;
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.IMessage.NetMessageFramingAdapter;
+import HslCommunication.Core.Net.Nio.NioEventLoop;
+import HslCommunication.Core.Net.Nio.NioEventLoopGroup;
+import HslCommunication.Core.Net.Nio.NioRequest;
+import HslCommunication.Core.Net.Nio.NioSession;
 import HslCommunication.Core.Net.StateOne.AlienSession;
+import HslCommunication.Core.Thread.HslTimerWheel;
 import HslCommunication.Core.Thread.SimpleHybirdLock;
 import HslCommunication.Core.Transfer.ByteTransformHelper;
 import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.FunctionOperate;
+import HslCommunication.Core.Types.HslTimeOut;
 import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultBuffer;
 import HslCommunication.Core.Types.OperateResultExOne;
 import HslCommunication.StringResources;
+import HslCommunication.Utilities;
 
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 双模式的客户端基类，
@@ -50,6 +69,21 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
     private boolean IsSocketError = false;                // 指示长连接的套接字是否处于错误的状态
     private boolean isUseSpecifiedSocket = false;         // 指示是否使用指定的网络套接字访问数据
     private String connectionId = "";                     // 当前连接
+    private NioEventLoopGroup nioEventLoopGroup = null;   // NIO模式下的事件循环组
+    private NioSession nioSession = null;                 // NIO模式下的会话
+    private volatile NetworkSocketPool socketPool = null; // 多连接模式下的连接池
+    private final Object handshakeLock = new Object();    // 连接握手的同步锁
+    private volatile OperateResultExOne<INetMessageFraming> messageFraming = null;  // 无状态的消息分帧规则，只读的共享结果
+    private static final int NioWaitMargin = 5000;        // NIO模式下同步等待的时间在接收超时之外的余量，单位毫秒
+
+    // 每个线程接收报文的缓存，接收之后只复制一次，接收过超大的报文之后释放，不会一直占用内存
+    private static final ThreadLocal<OperateResultBuffer> receiveCache = new ThreadLocal<OperateResultBuffer>( ) {
+        @Override
+        protected OperateResultBuffer initialValue( ) {
+            return new OperateResultBuffer( 1024 );
+        }
+    };
+    private static final int ReceiveCacheMaxCapacity = 16384;     // 每个线程保留的接收缓存的最大容量，单位字节
 
 
 
@@ -191,6 +225,113 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
 
 
 
+    /**
+     * 获取NIO模式的事件循环组，为null时表示使用阻塞的套接字通讯
+     * @return 事件循环组
+     */
+    public NioEventLoopGroup getNioEventLoopGroup() {
+        return nioEventLoopGroup;
+    }
+
+    /**
+     * 设置NIO模式的事件循环组，设置之后数据交互由事件循环的IO线程完成，不再每个设备占用一个阻塞的线程，连接始终为长连接，对异形客户端无效。设置为null时恢复阻塞的套接字模式 ->
+     * Set the event loop group of nio mode, then the communication is done by the io threads of the loop instead of a blocking thread per device
+     * @param group 事件循环组，可以使用NioEventLoopGroup.getDefault()
+     */
+    public void setNioEventLoopGroup(NioEventLoopGroup group) {
+        simpleHybirdLock.Enter();
+        if (nioSession != null) nioSession.Close(StringResources.Language.NetEngineClose());
+        nioSession = null;
+        nioEventLoopGroup = group;
+        simpleHybirdLock.Leave();
+    }
+
+
+
+    /**
+     * 获取消息的分帧规则，消息类实现了INetMessageFraming时所有的请求共用一个实例，否则每次接收都通过反射创建消息对象
+     * @return 分帧规则
+     */
+    public INetMessageFraming getMessageFraming() {
+        return GetMessageFraming( ).Content;
+    }
+
+    /**
+     * 设置消息的分帧规则，自定义的消息类可以提供无状态的实现，或是使用NetMessageFramingAdapter指定创建消息对象的方法，避免反射
+     * @param framing 分帧规则
+     */
+    public void setMessageFraming(INetMessageFraming framing) {
+        this.messageFraming = framing == null ? null : OperateResultExOne.CreateSuccessResult( framing );
+    }
+
+    private OperateResultExOne<INetMessageFraming> GetMessageFraming( )
+    {
+        OperateResultExOne<INetMessageFraming> result = messageFraming;
+        if (result != null) return result;
+
+        // 只在第一次使用时创建一次消息对象，内置的消息类都是无状态的分帧规则
+        INetMessageFraming framing;
+        try {
+            TNetMessage netMsg = netMessageClass.newInstance( );
+            if (netMsg instanceof INetMessageFraming)
+            {
+                framing = (INetMessageFraming) netMsg;
+            }
+            else
+            {
+                framing = new NetMessageFramingAdapter( new FunctionOperate<TNetMessage>( ) {
+                    @Override
+                    public TNetMessage Action( ) {
+                        try {
+                            return netMessageClass.newInstance( );
+                        }
+                        catch (Exception ex) {
+                            throw new RuntimeException( ex );
+                        }
+                    }
+                } );
+            }
+        }
+        catch (Exception ex) {
+            return new OperateResultExOne<>( ex.getMessage( ) );
+        }
+
+        result = OperateResultExOne.CreateSuccessResult( framing );
+        messageFraming = result;
+        return result;
+    }
+
+
+    /**
+     * 获取当前的连接池，为null时表示只使用一个连接
+     * @return 连接池
+     */
+    public NetworkSocketPool getConnectionPool() {
+        return socketPool;
+    }
+
+    /**
+     * 设置同一个设备的连接数量，大于1时使用连接池，多个线程的请求可以在不同的连接上同时进行，不再排队等待同一个连接，对NIO模式及异形客户端无效 ->
+     * Set the connection count of the device, when greater than 1, requests from multiple threads are done on different pooled connections in parallel
+     * @param size 连接数量，设备允许的最大连接数需要大于等于该值
+     */
+    public void setConnectionPoolSize(int size) {
+        simpleHybirdLock.Enter();
+        if (socketPool != null) socketPool.Close();
+        socketPool = null;
+        if (size > 1) {
+            socketPool = new NetworkSocketPool(size, new FunctionOperate<OperateResultExOne<Socket>>() {
+                @Override
+                public OperateResultExOne<Socket> Action() {
+                    return CreateSocketAndInitialication();
+                }
+            });
+        }
+        simpleHybirdLock.Leave();
+    }
+
+
+
     /**
      * 当前的异形连接对象，如果设置了异性连接的话
      */
@@ -216,6 +357,8 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
         isPersistentConn = true;
         OperateResult result = new OperateResult( );
 
+        if (nioEventLoopGroup != null) return ConnectNioServer( );
+
         // 重新连接之前，先将旧的数据进行清空
         CloseSocket(CoreSocket);
 
@@ -297,6 +440,9 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
         // 关闭信息
         if(CoreSocket != null ) CloseSocket(CoreSocket);
         CoreSocket = null;
+        if(nioSession != null) nioSession.Close( StringResources.Language.NetEngineClose() );
+        nioSession = null;
+        if(socketPool != null) socketPool.Clear();
 
         simpleHybirdLock.Leave();
 
@@ -403,8 +549,20 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
         OperateResultExOne<Socket> result = CreateSocketAndConnect(  ipAddress , port , connectTimeOut );
         if (result.IsSuccess)
         {
-            // 初始化
-            OperateResult initi = InitializationOnConnect( result.Content );
+            // 初始化的握手可能有多次往返，整个握手的时间超过限制时关闭套接字
+            HslTimeOut hslTimeOut = new HslTimeOut( );
+            hslTimeOut.DelayTime = connectTimeOut + receiveTimeOut;
+            hslTimeOut.WorkSocket = result.Content;
+            HslTimerWheel.Timeout check = receiveTimeOut > 0 ? ThreadPoolCheckConnect( hslTimeOut, hslTimeOut.DelayTime ) : null;
+
+            // 初始化，连接池同时创建多个连接时握手依次进行，握手写入的设备状态不会交错
+            OperateResult initi;
+            synchronized (handshakeLock)
+            {
+                initi = InitializationOnConnect( result.Content );
+            }
+            hslTimeOut.IsSuccessful = true;
+            if (check != null) check.Cancel( );
             if (!initi.IsSuccess)
             {
                 CloseSocket(result.Content);
@@ -417,54 +575,63 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
 
 
     /**
-     * 在其他指定的套接字上，使用报文来通讯，传入需要发送的消息，返回一条完整的数据指令
+     * 在其他指定的套接字上，使用报文来通讯，传入需要发送的消息，返回一条完整的数据指令。
+     * 报文接收到当前线程的缓存中，每次调用依然会分配返回的数组及结果对象，不分配的版本需要传入OperateResultBuffer
      * @param socket 指定的套接字
      * @param send 发送的完整的报文信息
      * @return 接收的完整的报文信息
      */
     public OperateResultExOne<byte[]> ReadFromCoreServer( Socket socket, byte[] send )
     {
-        TNetMessage netMsg;
-        try {
-            netMsg = netMessageClass.newInstance();
-        }
-        catch (Exception ex){
-            return new OperateResultExOne<>(ex.getMessage());
-        }
+        OperateResultBuffer read = ReadFromCoreServer( socket, send, receiveCache.get( ) );
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult( read );
 
+        byte[] content = read.ToArray( );
+        TrimReceiveCache( read );
+        return OperateResultExOne.CreateSuccessResult( content );
+    }
 
-        netMsg.setSendBytes(send);
+    private static void TrimReceiveCache( OperateResultBuffer buffer )
+    {
+        // 接收线程通常是长期存在的线程池线程，偶尔的大报文扩大的缓存不保留
+        if (buffer.getBuffer( ).length > ReceiveCacheMaxCapacity) receiveCache.remove( );
+    }
+
+    /**
+     * 在其他指定的套接字上，使用报文来通讯，反馈的报文接收到传入的缓存中，稳定的运行时不分配新的数组。
+     * 设备的Read，ReadByCommands及扫描引擎返回的是新的数组，只有这类传入缓存的原始报文方法不分配 ->
+     * Communicate on the specified socket, the response is received into the reusable buffer
+     * @param socket 指定的套接字
+     * @param send 发送的完整的报文信息
+     * @param buffer 接收的缓存，同时也是返回的结果
+     * @return 传入的缓存对象，内容为接收的完整的报文信息
+     */
+    public OperateResultBuffer ReadFromCoreServer( Socket socket, byte[] send, OperateResultBuffer buffer )
+    {
+        OperateResultExOne<INetMessageFraming> framing = GetMessageFraming( );
+        if (!framing.IsSuccess)
+        {
+            buffer.SetFailed( framing );
+            return buffer;
+        }
 
         // send data
-        OperateResult resultSend = Send( socket, send );
-        if (!resultSend.IsSuccess)
+        try {
+            socket.getOutputStream( ).write( send, 0, send.length );
+        }
+        catch (IOException ex)
         {
             CloseSocket(socket);
-            return OperateResultExOne.CreateFailedResult(resultSend);
+            buffer.SetFailed( ex.getMessage() );
+            return buffer;
         }
 
         // 接收超时时间大于0时才允许接收远程的数据
-        if (receiveTimeOut >= 0) {
-            // 接收数据信息
-            OperateResultExOne<TNetMessage> resultReceive = ReceiveMessage(socket, receiveTimeOut, netMsg);
-            if (!resultReceive.IsSuccess) {
-                CloseSocket(socket);
-                return OperateResultExOne.CreateFailedResult(resultReceive);
-            }
-
-            // 复制结果
-            byte[] Content1 = resultReceive.Content.getHeadBytes();
-            byte[] Content2 = resultReceive.Content.getContentBytes();
-
-
-            byte[] Content = new byte[Content1.length + Content2.length];
-            if (Content1.length > 0) System.arraycopy(Content1, 0, Content, 0, Content1.length);
-            if (Content2.length > 0) System.arraycopy(Content2, 0, Content, Content1.length, Content2.length);
-
-            return OperateResultExOne.CreateSuccessResult(Content);
+        if (receiveTimeOut < 0) {
+            buffer.SetFailed( StringResources.Language.UnknownError() );
+            return buffer;
         }
-
-        return new OperateResultExOne<byte[]>();
+        return ReceiveMessage( socket, receiveTimeOut, framing.Content, send, buffer );
     }
 
 
@@ -476,6 +643,10 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
      */
     public OperateResultExOne<byte[]> ReadFromCoreServer( byte[] send )
     {
+        if (nioEventLoopGroup != null && !isUseSpecifiedSocket) return ReadFromNioServer( send );
+        NetworkSocketPool pool = socketPool;
+        if (pool != null && !isUseSpecifiedSocket) return ReadFromPoolServer( pool, send );
+
         OperateResultExOne<byte[]> result = new OperateResultExOne<byte[]>( );
         // string tmp1 = BasicFramework.SoftBasic.ByteToHexString( send, '-' );
 
@@ -514,6 +685,380 @@ public class NetworkDoubleBase<TNetMessage extends INetMessage  ,TTransform exte
     }
 
 
+    /**
+     * 使用底层的数据报文来通讯，反馈的报文接收到传入的缓存中，周期性的读取时重复使用同一个缓存对象，稳定的运行时不分配新的数组。
+     * 每个线程应该使用自己的缓存对象，NIO模式下接收的数据还需要复制一次。设备的Read，ReadByCommands及扫描引擎不使用这个方法，每次读取都会分配结果的数组 ->
+     * Communicate with the underlying message, the response is received into the reusable buffer, no arrays are allocated in steady state
+     * @param send 发送的完整的报文信息
+     * @param buffer 接收的缓存，同时也是返回的结果
+     * @return 传入的缓存对象，内容为接收的完整的报文信息
+     */
+    public OperateResultBuffer ReadFromCoreServer( byte[] send, OperateResultBuffer buffer )
+    {
+        if (nioEventLoopGroup != null && !isUseSpecifiedSocket)
+        {
+            OperateResultExOne<byte[]> read = ReadFromNioServer( send );
+            if (!read.IsSuccess)
+            {
+                buffer.SetFailed( read );
+                return buffer;
+            }
+
+            buffer.SetSuccess( );
+            System.arraycopy( read.Content, 0, buffer.EnsureCapacity( read.Content.length ), 0, read.Content.length );
+            buffer.setLength( read.Content.length );
+            return buffer;
+        }
+
+        NetworkSocketPool pool = socketPool;
+        if (pool != null && !isUseSpecifiedSocket)
+        {
+            OperateResultExOne<NetworkSocketPool.PooledSocket> resultSocket = pool.Acquire( receiveTimeOut );
+            if (!resultSocket.IsSuccess)
+            {
+                buffer.SetFailed( resultSocket );
+                return buffer;
+            }
+
+            ReadFromCoreServer( resultSocket.Content.getSocket( ), send, buffer );
+            pool.Release( resultSocket.Content, !buffer.IsSuccess );
+            return buffer;
+        }
+
+        simpleHybirdLock.Enter( );
+
+        OperateResultExOne<Socket> resultSocket = GetAvailableSocket( );
+        if (!resultSocket.IsSuccess)
+        {
+            IsSocketError = true;
+            if (AlienSession != null) AlienSession.setIsStatusOk( false );
+            simpleHybirdLock.Leave( );
+            buffer.SetFailed( resultSocket );
+            return buffer;
+        }
+
+        ReadFromCoreServer( resultSocket.Content, send, buffer );
+        IsSocketError = !buffer.IsSuccess;
+        if (!buffer.IsSuccess && AlienSession != null) AlienSession.setIsStatusOk( false );
+
+        simpleHybirdLock.Leave( );
+        if (!isPersistentConn) CloseSocket( resultSocket.Content );
+        return buffer;
+    }
+
+
+    /**
+     * 从连接池中获取一个连接进行数据交互，不需要等待同步锁，发生错误的连接直接丢弃
+     * @param pool 连接池
+     * @param send 发送的完整的报文信息
+     * @return 接收的完整的报文信息
+     */
+    private OperateResultExOne<byte[]> ReadFromPoolServer( NetworkSocketPool pool, byte[] send )
+    {
+        OperateResultExOne<NetworkSocketPool.PooledSocket> resultSocket = pool.Acquire( receiveTimeOut );
+        if (!resultSocket.IsSuccess) return OperateResultExOne.CreateFailedResult( resultSocket );
+
+        OperateResultExOne<byte[]> read = ReadFromCoreServer( resultSocket.Content.getSocket( ), send );
+        pool.Release( resultSocket.Content, !read.IsSuccess );
+        return read;
+    }
+
+
+    /**
+     * 使用流水线的方式发送多条报文，同一个连接上最多同时有depth条报文等待反馈，根据消息标识匹配反馈的报文，消息类需要实现GetHeadBytesIdentity，
+     * 并且请求和反馈的标识在报文头的相同位置。depth小于等于1或是NIO模式时按顺序依次交互 ->
+     * Send multiple messages in pipeline, up to depth messages are outstanding on one connection, responses are matched by the identity of the message head
+     * @param sends 发送的完整的报文信息
+     * @param depth 同时等待反馈的最大报文数量
+     * @return 接收的完整的报文信息，顺序和发送的报文一致
+     */
+    public OperateResultExOne<byte[][]> ReadFromCoreServer( byte[][] sends, int depth )
+    {
+        byte[][] results = new byte[sends.length][];
+        if (depth <= 1 || sends.length <= 1 || receiveTimeOut < 0 || (nioEventLoopGroup != null && !isUseSpecifiedSocket))
+        {
+            for (int i = 0; i < sends.length; i++)
+            {
+                OperateResultExOne<byte[]> read = ReadFromCoreServer( sends[i] );
+                if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult( read );
+                results[i] = read.Content;
+            }
+            return OperateResultExOne.CreateSuccessResult( results );
+        }
+
+        NetworkSocketPool pool = socketPool;
+        if (pool != null && !isUseSpecifiedSocket)
+        {
+            OperateResultExOne<NetworkSocketPool.PooledSocket> resultSocket = pool.Acquire( receiveTimeOut );
+            if (!resultSocket.IsSuccess) return OperateResultExOne.CreateFailedResult( resultSocket );
+
+            OperateResult read = ReadPipelineFromSocket( resultSocket.Content.getSocket( ), sends, depth, results );
+            pool.Release( resultSocket.Content, !read.IsSuccess );
+            if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult( read );
+            return OperateResultExOne.CreateSuccessResult( results );
+        }
+
+        simpleHybirdLock.Enter( );
+
+        OperateResultExOne<Socket> resultSocket = GetAvailableSocket( );
+        if (!resultSocket.IsSuccess)
+        {
+            IsSocketError = true;
+            if (AlienSession != null) AlienSession.setIsStatusOk( false );
+            simpleHybirdLock.Leave( );
+            return OperateResultExOne.CreateFailedResult( resultSocket );
+        }
+
+        OperateResult read = ReadPipelineFromSocket( resultSocket.Content, sends, depth, results );
+        IsSocketError = !read.IsSuccess;
+        if (!read.IsSuccess && AlienSession != null) AlienSession.setIsStatusOk( false );
+
+        simpleHybirdLock.Leave( );
+        if (!isPersistentConn) CloseSocket( resultSocket.Content );
+
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult( read );
+        return OperateResultExOne.CreateSuccessResult( results );
+    }
+
+    private OperateResult ReadPipelineFromSocket( Socket socket, byte[][] sends, int depth, byte[][] results )
+    {
+        OperateResultExOne<INetMessageFraming> framing = GetMessageFraming( );
+        if (!framing.IsSuccess) return framing;
+
+        // 计算每条报文的标识，发送的报文头和反馈的报文头的标识在相同的位置
+        int[] identities = new int[sends.length];
+        for (int i = 0; i < sends.length; i++)
+        {
+            identities[i] = framing.Content.GetHeadBytesIdentity( sends[i] );
+        }
+
+        HashMap<Integer, Integer> outstanding = new HashMap<>( );
+        int sendIndex = 0;
+        int receiveCount = 0;
+        while (receiveCount < sends.length)
+        {
+            // 窗口未满，并且标识没有重复时继续发送
+            while (sendIndex < sends.length && outstanding.size( ) < depth && !outstanding.containsKey( identities[sendIndex] ))
+            {
+                OperateResult resultSend = Send( socket, sends[sendIndex] );
+                if (!resultSend.IsSuccess)
+                {
+                    CloseSocket( socket );
+                    return resultSend;
+                }
+                outstanding.put( identities[sendIndex], sendIndex );
+                sendIndex++;
+            }
+
+            OperateResultBuffer resultReceive = ReceiveMessage( socket, receiveTimeOut, framing.Content, null, receiveCache.get( ) );
+            if (!resultReceive.IsSuccess)
+            {
+                CloseSocket( socket );
+                return resultReceive;
+            }
+
+            int identity = framing.Content.GetHeadBytesIdentity( resultReceive.getBuffer( ) );
+            Integer index = outstanding.remove( identity );
+            if (index == null)
+            {
+                CloseSocket( socket );
+                return new OperateResult( StringResources.Language.ResponseIdentityNotMatch( ) + identity );
+            }
+
+            results[index] = resultReceive.ToArray( );
+            TrimReceiveCache( resultReceive );
+            receiveCount++;
+        }
+        return OperateResult.CreateSuccessResult( );
+    }
+
+
+    /***************************************************************************************
+     *
+     *    NIO模式的数据交互，连接及握手在阻塞模式下完成，然后切换为非阻塞交给事件循环
+     *
+     **************************************************************************************/
+
+
+    /**
+     * 使用底层的数据报文来通讯，不阻塞当前的线程，结果通过回调返回。未设置事件循环组时，在当前的线程中同步完成 ->
+     * Communicate with the underlying message without blocking the current thread, the result is returned by the callback
+     * @param send 发送的完整的报文信息
+     * @param callback 接收完整报文的回调，在IO线程中执行，不应该在里面执行耗时的操作
+     */
+    public void BeginReadFromCoreServer( final byte[] send, final ActionOperateExOne<OperateResultExOne<byte[]>> callback )
+    {
+        final NioEventLoopGroup group = nioEventLoopGroup;
+        if (group == null || isUseSpecifiedSocket)
+        {
+            callback.Action( ReadFromCoreServer( send ) );
+            return;
+        }
+
+        NioSession session = nioSession;
+        if (session != null && !session.IsClosed( ))
+        {
+            SendNioRequest( session, send, callback );
+            return;
+        }
+
+        // 连接的过程是阻塞的，放到连接的线程池中执行，线程的数量有上限，大量的设备同时重连时排队执行
+        try
+        {
+            group.getConnectExecutor( ).execute( new Runnable( ) {
+                @Override
+                public void run( ) {
+                    OperateResultExOne<NioSession> rSession = GetAvailableNioSession( );
+                    if (!rSession.IsSuccess)
+                    {
+                        callback.Action( OperateResultExOne.<byte[]>CreateFailedResult( rSession ) );
+                        return;
+                    }
+                    SendNioRequest( rSession.Content, send, callback );
+                }
+            } );
+        }
+        catch (RejectedExecutionException ex)
+        {
+            // 事件循环组已经关闭
+            callback.Action( new OperateResultExOne<byte[]>( StringResources.Language.ConnectionIsNotAvailable( ) ) );
+        }
+    }
+
+    private OperateResultExOne<byte[]> ReadFromNioServer( byte[] send )
+    {
+        OperateResultExOne<NioSession> rSession = GetAvailableNioSession( );
+        if (!rSession.IsSuccess) return OperateResultExOne.CreateFailedResult( rSession );
+
+        // 在IO线程中同步等待会造成死锁
+        if (rSession.Content.getEventLoop( ).IsInEventLoop( ))
+            return new OperateResultExOne<>( StringResources.Language.ConnectionIsNotAvailable( ) );
+
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        final OperateResultExOne<byte[]> result = new OperateResultExOne<>( );
+        SendNioRequest( rSession.Content, send, new ActionOperateExOne<OperateResultExOne<byte[]>>( ) {
+            @Override
+            public void Action( OperateResultExOne<byte[]> content ) {
+                result.IsSuccess = content.IsSuccess;
+                result.Content = content.Content;
+                result.CopyErrorFromOther( content );
+                latch.countDown( );
+            }
+        } );
+
+        // 请求本身有接收超时，等待的时间再加上在同一会话中其他请求之后排队的余量，超时为0时表示不限制
+        try {
+            if (receiveTimeOut <= 0) latch.await( );
+            else if (!latch.await( receiveTimeOut + NioWaitMargin, TimeUnit.MILLISECONDS ))
+                return new OperateResultExOne<>( StringResources.Language.ReceiveDataTimeout( ) + receiveTimeOut );
+        }
+        catch (InterruptedException ex) {
+            return new OperateResultExOne<>( ex.getMessage( ) );
+        }
+        return result;
+    }
+
+    private void SendNioRequest( NioSession session, byte[] send, ActionOperateExOne<OperateResultExOne<byte[]>> callback )
+    {
+        OperateResultExOne<INetMessageFraming> framing = GetMessageFraming( );
+        if (!framing.IsSuccess)
+        {
+            callback.Action( OperateResultExOne.<byte[]>CreateFailedResult( framing ) );
+            return;
+        }
+
+        session.Send( new NioRequest( send, framing.Content, receiveTimeOut, callback ) );
+    }
+
+    private OperateResultExOne<NioSession> GetAvailableNioSession( )
+    {
+        simpleHybirdLock.Enter( );
+        OperateResultExOne<NioSession> result;
+        if (nioSession != null && !nioSession.IsClosed( ))
+        {
+            result = OperateResultExOne.CreateSuccessResult( nioSession );
+        }
+        else
+        {
+            result = CreateNioSession( );
+            if (result.IsSuccess) nioSession = result.Content;
+        }
+        simpleHybirdLock.Leave( );
+        return result;
+    }
+
+    private OperateResult ConnectNioServer( )
+    {
+        simpleHybirdLock.Enter( );
+        if (nioSession != null) nioSession.Close( StringResources.Language.NetEngineClose( ) );
+        nioSession = null;
+
+        OperateResultExOne<NioSession> rSession = CreateNioSession( );
+        if (rSession.IsSuccess)
+        {
+            nioSession = rSession.Content;
+            if(LogNet != null) LogNet.WriteDebug( toString( ), StringResources.Language.NetEngineStart() );
+        }
+        simpleHybirdLock.Leave( );
+        return rSession;
+    }
+
+    private OperateResultExOne<NioSession> CreateNioSession( )
+    {
+        NioEventLoopGroup group = nioEventLoopGroup;
+        if (group == null) return new OperateResultExOne<>( StringResources.Language.ConnectionIsNotAvailable( ) );
+
+        NioEventLoop loop = group.Next( );
+        if (loop.IsShutdown( )) return new OperateResultExOne<>( StringResources.Language.ConnectionIsNotAvailable( ) );
+
+        SocketChannel channel = null;
+        HslTimerWheel.Timeout check = null;
+        try
+        {
+            channel = SocketChannel.open( );
+            channel.socket( ).connect( new InetSocketAddress( ipAddress, port ), connectTimeOut );
+
+            // 握手报文依然使用阻塞的方式完成，和阻塞模式的连接一样，整个握手的时间超过限制时关闭通道
+            HslTimeOut hslTimeOut = new HslTimeOut( );
+            hslTimeOut.DelayTime = connectTimeOut + receiveTimeOut;
+            hslTimeOut.WorkSocket = channel.socket( );
+            if (receiveTimeOut > 0) check = ThreadPoolCheckConnect( hslTimeOut, hslTimeOut.DelayTime );
+
+            OperateResult initi = InitializationOnConnect( channel.socket( ) );
+            hslTimeOut.IsSuccessful = true;
+            if (check != null) check.Cancel( );
+            if (!initi.IsSuccess)
+            {
+                channel.close( );
+                return OperateResultExOne.CreateFailedResult( initi );
+            }
+
+            channel.configureBlocking( false );
+            NioSession session = new NioSession( loop, channel, Utilities.UUID2Byte( Token ) );
+            if (!session.Start( ))
+            {
+                channel.close( );
+                return new OperateResultExOne<>( StringResources.Language.ConnectionIsNotAvailable( ) );
+            }
+            return OperateResultExOne.CreateSuccessResult( session );
+        }
+        catch (IOException | RuntimeException ex)
+        {
+            if (check != null) check.Cancel( );
+            if (channel != null)
+            {
+                try {
+                    channel.close( );
+                }
+                catch (IOException ex2) {
+
+                }
+            }
+            return new OperateResultExOne<>( StringResources.Language.ConnectedFailed( ) + ex.getMessage( ) );
+        }
+    }
+
+
     /**
      * 返回表示当前对象的字符串
      * @return
@@ -0,0 +1,261 @@
+package HslCommunication.Core.Net.NetworkBase;
+
+import HslCommunication.Core.Thread.HslTimerWheel;
+import HslCommunication.Core.Types.FunctionOperate;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单个设备的长连接池，最多同时保持指定数量的连接，按照请求的先后顺序公平的分配，取出时检查连接是否可用，长时间空闲的连接自动关闭 ->
+ * The persistent connection pool of one device, checkout is fair, connections are checked before use and idle connections are evicted
+ */
+public class NetworkSocketPool {
+
+    /**
+     * 实例化一个连接池
+     * @param maxConnections 最大的连接数量
+     * @param socketCreator 创建连接并完成握手的方法
+     */
+    public NetworkSocketPool(int maxConnections, FunctionOperate<OperateResultExOne<Socket>> socketCreator) {
+        if (maxConnections < 1) maxConnections = 1;
+        this.maxConnections = maxConnections;
+        this.socketCreator = socketCreator;
+        this.semaphore = new Semaphore(maxConnections, true);
+    }
+
+
+    /**
+     * 获取一个可用的连接，如果没有空闲的连接，并且没有超过最大的数量，就创建新的连接
+     * @param timeout 等待可用连接的超时时间，单位毫秒
+     * @return 连接对象
+     */
+    public OperateResultExOne<PooledSocket> Acquire(int timeout) {
+        if (isClosed) return new OperateResultExOne<>(StringResources.Language.ConnectionIsNotAvailable());
+
+        try {
+            if (timeout > 0) {
+                if (!semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS))
+                    return new OperateResultExOne<>(StringResources.Language.ConnectionIsNotAvailable());
+            }
+            else {
+                semaphore.acquire();
+            }
+        }
+        catch (InterruptedException ex) {
+            return new OperateResultExOne<>(ex.getMessage());
+        }
+
+        // 没有成功取出连接时必须归还许可，包括握手时抛出的运行时异常，否则连接池最终会被耗尽
+        boolean isAcquired = false;
+        try {
+            // 优先使用最近使用过的连接，让多余的连接空闲下来被回收
+            PooledSocket pooled;
+            while ((pooled = idleSockets.pollFirst()) != null) {
+                if (pooled.generation == generation && CheckHealth(pooled)) {
+                    isAcquired = true;
+                    return OperateResultExOne.CreateSuccessResult(pooled);
+                }
+                CloseSocket(pooled.socket);
+            }
+
+            OperateResultExOne<Socket> create = socketCreator.Action();
+            if (!create.IsSuccess) return OperateResultExOne.CreateFailedResult(create);
+
+            isAcquired = true;
+            return OperateResultExOne.CreateSuccessResult(new PooledSocket(create.Content, generation));
+        }
+        finally {
+            if (!isAcquired) semaphore.release();
+        }
+    }
+
+    /**
+     * 归还一个连接，发生了通讯错误的连接直接关闭
+     * @param pooled 连接对象
+     * @param isBroken 连接是否已经损坏
+     */
+    public void Release(PooledSocket pooled, boolean isBroken) {
+        if (isBroken || isClosed || pooled.generation != generation) {
+            CloseSocket(pooled.socket);
+        }
+        else {
+            pooled.lastUsedTime = System.currentTimeMillis();
+            idleSockets.offerFirst(pooled);
+            StartEvictTimer();
+        }
+        semaphore.release();
+    }
+
+    /**
+     * 关闭所有的空闲连接，正在使用的连接在归还时关闭，之后的请求重新创建连接
+     */
+    public void Clear() {
+        generation++;
+        PooledSocket pooled;
+        while ((pooled = idleSockets.poll()) != null) CloseSocket(pooled.socket);
+    }
+
+    /**
+     * 关闭连接池，之后不能再获取连接
+     */
+    public void Close() {
+        isClosed = true;
+        Clear();
+    }
+
+    /**
+     * 获取最大的连接数量
+     * @return 数量
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * 获取当前空闲的连接数量
+     * @return 数量
+     */
+    public int getIdleConnections() {
+        return idleSockets.size();
+    }
+
+    /**
+     * 获取空闲连接被关闭的时间，单位毫秒，默认60秒
+     * @return 空闲时间
+     */
+    public int getIdleTimeOut() {
+        return idleTimeOut;
+    }
+
+    /**
+     * 设置空闲连接被关闭的时间，单位毫秒
+     * @param idleTimeOut 空闲时间
+     */
+    public void setIdleTimeOut(int idleTimeOut) {
+        this.idleTimeOut = idleTimeOut;
+    }
+
+    /**
+     * 获取空闲多久以后，取出连接时需要检查连接是否可用，单位毫秒，默认5秒
+     * @return 时间
+     */
+    public int getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    /**
+     * 设置空闲多久以后，取出连接时需要检查连接是否可用，单位毫秒
+     * @param healthCheckInterval 时间
+     */
+    public void setHealthCheckInterval(int healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+
+    private boolean CheckHealth(PooledSocket pooled) {
+        Socket socket = pooled.socket;
+        if (socket.isClosed() || !socket.isConnected() || socket.isInputShutdown()) return false;
+        if (System.currentTimeMillis() - pooled.lastUsedTime < healthCheckInterval) return true;
+
+        // 空闲的连接上不应该有任何数据，读到了结束符或是多余的数据都视为不可用
+        int soTimeout = 0;
+        try {
+            soTimeout = socket.getSoTimeout();
+            socket.setSoTimeout(1);
+            InputStream input = socket.getInputStream();
+            input.read();
+            return false;
+        }
+        catch (SocketTimeoutException ex) {
+            try {
+                socket.setSoTimeout(soTimeout);
+            }
+            catch (IOException ex2) {
+                return false;
+            }
+            return true;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private void StartEvictTimer() {
+        // 多个线程同时归还连接时只能有一个定时器
+        if (!isEvictScheduled.compareAndSet(false, true)) return;
+        HslTimerWheel.getDefault().Schedule(new Runnable() {
+            @Override
+            public void run() {
+                isEvictScheduled.set(false);
+                EvictIdleSockets();
+                if (!idleSockets.isEmpty()) StartEvictTimer();
+            }
+        }, Math.max(idleTimeOut / 2, 1000));
+    }
+
+    private void EvictIdleSockets() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledSocket> iterator = idleSockets.iterator();
+        while (iterator.hasNext()) {
+            PooledSocket pooled = iterator.next();
+            if (now - pooled.lastUsedTime > idleTimeOut && idleSockets.removeFirstOccurrence(pooled)) {
+                CloseSocket(pooled.socket);
+            }
+        }
+    }
+
+    private static void CloseSocket(Socket socket) {
+        try {
+            socket.close();
+        }
+        catch (IOException ex) {
+
+        }
+    }
+
+
+    private int maxConnections = 1;                                                        // 最大的连接数
+    private FunctionOperate<OperateResultExOne<Socket>> socketCreator = null;              // 创建连接的方法
+    private Semaphore semaphore = null;                                                    // 公平的连接许可
+    private ConcurrentLinkedDeque<PooledSocket> idleSockets = new ConcurrentLinkedDeque<>();  // 空闲的连接
+    private int idleTimeOut = 60000;                                                       // 空闲连接的关闭时间
+    private int healthCheckInterval = 5000;                                                // 需要检查可用性的空闲时间
+    private volatile boolean isClosed = false;                                             // 是否已经关闭
+    private volatile int generation = 0;                                                   // 连接的批次，清空之后旧的连接不再使用
+    private final AtomicBoolean isEvictScheduled = new AtomicBoolean(false);               // 回收的定时任务是否已经启动
+
+
+    /**
+     * 连接池中的连接对象
+     */
+    public static class PooledSocket {
+
+        private PooledSocket(Socket socket, int generation) {
+            this.socket = socket;
+            this.generation = generation;
+            this.lastUsedTime = System.currentTimeMillis();
+        }
+
+        /**
+         * 获取实际的网络套接字
+         * @return 套接字
+         */
+        public Socket getSocket() {
+            return socket;
+        }
+
+        private Socket socket;
+        private int generation;
+        private volatile long lastUsedTime;
+    }
+}
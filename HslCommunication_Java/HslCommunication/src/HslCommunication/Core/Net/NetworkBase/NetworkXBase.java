@@ -3,6 +3,7 @@ package HslCommunication.Core.Net.NetworkBase;
 import HslCommunication.BasicFramework.SoftBasic;
 import HslCommunication.Core.Net.HslProtocol;
 import HslCommunication.Core.Net.StateOne.AppSession;
+import HslCommunication.Core.Thread.HslTimerWheel;
 import HslCommunication.Core.Types.*;
 import HslCommunication.StringResources;
 import HslCommunication.Utilities;
@@ -347,15 +348,16 @@ public class NetworkXBase extends NetworkBase
         hslTimeOut.WorkSocket = socket;
 
 
-        //if (timeout > 0) ThreadPool.QueueUserWorkItem( new WaitCallback( ThreadPoolCheckTimeOut ), hslTimeOut );
+        // 整个报文头的接收时间超过限制时关闭套接字，检查注册到共享的时间轮
+        HslTimerWheel.Timeout check = timeout > 0 ? ThreadPoolCheckConnect( hslTimeOut, timeout ) : null;
 
         // 接收头指令
         OperateResultExOne<byte[]> headResult = Receive(socket, HslProtocol.HeadByteLength, timeout);
+        hslTimeOut.IsSuccessful = true;
+        if (check != null) check.Cancel();
         if (!headResult.IsSuccess) {
-            hslTimeOut.IsSuccessful = true;
             return OperateResultExTwo.<byte[],byte[]>CreateFailedResult(headResult);
         }
-        hslTimeOut.IsSuccessful = true;
 
         // 检查令牌
         if (!CheckRemoteToken(headResult.Content)) {
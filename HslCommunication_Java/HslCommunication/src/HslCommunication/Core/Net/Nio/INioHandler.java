@@ -0,0 +1,22 @@
+package HslCommunication.Core.Net.Nio;
+
+import java.nio.channels.SelectionKey;
+
+/**
+ * 注册到NIO事件循环上的通道处理接口，所有的方法都在事件循环的线程中调用 ->
+ * The handler of the channel registered on the nio event loop, all methods are called in the event loop thread
+ */
+public interface INioHandler {
+
+    /**
+     * 通道就绪时的处理方法
+     * @param key 就绪的选择键
+     */
+    void OnSelected(SelectionKey key);
+
+    /**
+     * 事件循环关闭时的处理方法，此时应当释放通道的资源
+     * @param message 关闭的原因
+     */
+    void OnLoopClosed(String message);
+}
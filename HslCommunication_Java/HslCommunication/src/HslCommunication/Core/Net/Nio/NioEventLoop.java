@@ -0,0 +1,222 @@
+package HslCommunication.Core.Net.Nio;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 基于Selector的事件循环，一个线程负责多个通道的读写，任务和定时任务也在该线程中执行 ->
+ * Selector based event loop, one thread services the read and write of many channels, tasks and timers are executed in the same thread
+ */
+public class NioEventLoop {
+
+    /**
+     * 实例化一个事件循环，并启动后台的线程
+     * @param name 线程的名称
+     */
+    public NioEventLoop(String name) {
+        try {
+            selector = Selector.open();
+        }
+        catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ThreadBackground();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * 获取当前的事件循环的选择器
+     * @return 选择器
+     */
+    public Selector getSelector() {
+        return selector;
+    }
+
+    /**
+     * 当前的线程是否是事件循环的线程
+     * @return 是否在事件循环中
+     */
+    public boolean IsInEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 事件循环是否已经关闭
+     * @return 是否关闭
+     */
+    public boolean IsShutdown() {
+        return isShutdown;
+    }
+
+    /**
+     * 将一个任务放到事件循环的线程中执行，事件循环关闭之后不再接收任务
+     * @param task 任务
+     * @return 是否接收了任务，事件循环已经关闭时返回false，任务不会被执行
+     */
+    public boolean Execute(Runnable task) {
+        if (isShutdown) return false;
+        taskQueue.add(task);
+
+        // 和关闭同时发生时，任务没有被线程最后的清理取走的话就撤回
+        if (isShutdown && taskQueue.remove(task)) return false;
+        if (!IsInEventLoop()) selector.wakeup();
+        return true;
+    }
+
+    /**
+     * 在事件循环的线程中延时执行一个任务，返回的对象可以取消执行
+     * @param task 任务
+     * @param delay 延时的时间，单位毫秒
+     * @return 定时任务对象
+     */
+    public ScheduledTask Schedule(Runnable task, long delay) {
+        final ScheduledTask scheduledTask = new ScheduledTask(task, System.currentTimeMillis() + delay);
+        Execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!scheduledTask.isCanceled) timerQueue.add(scheduledTask);
+            }
+        });
+        return scheduledTask;
+    }
+
+    /**
+     * 将通道注册到当前的选择器上，只能在事件循环的线程中调用
+     * @param channel 通道
+     * @param ops 感兴趣的操作
+     * @param handler 处理对象
+     * @return 选择键
+     * @throws ClosedChannelException 通道已经关闭
+     */
+    public SelectionKey Register(SelectableChannel channel, int ops, INioHandler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    /**
+     * 关闭事件循环，所有注册的通道都会收到关闭的通知
+     */
+    public void Shutdown() {
+        isShutdown = true;
+        selector.wakeup();
+    }
+
+
+    private void ThreadBackground() {
+        while (!isShutdown) {
+            try {
+                long wait = 0;
+                ScheduledTask first = timerQueue.peek();
+                if (first != null) wait = Math.max(1, first.deadline - System.currentTimeMillis());
+
+                if (!taskQueue.isEmpty()) selector.selectNow();
+                else selector.select(wait);
+
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    if (key.isValid()) ((INioHandler) key.attachment()).OnSelected(key);
+                }
+
+                RunAllTasks();
+                RunScheduledTasks();
+            }
+            catch (Exception ex) {
+                // 单个通道的异常不能影响整个事件循环
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            try {
+                ((INioHandler) key.attachment()).OnLoopClosed("NioEventLoop Shutdown");
+            }
+            catch (Exception ex) {
+
+            }
+        }
+        try {
+            selector.close();
+        }
+        catch (IOException ex) {
+
+        }
+
+        // 关闭之前已经接收的任务依然执行，通道都已经关闭，任务中等待的请求会收到失败的结果
+        RunAllTasks();
+    }
+
+    private void RunAllTasks() {
+        Runnable task;
+        while ((task = taskQueue.poll()) != null) {
+            try {
+                task.run();
+            }
+            catch (Exception ex) {
+
+            }
+        }
+    }
+
+    private void RunScheduledTasks() {
+        long now = System.currentTimeMillis();
+        while (!timerQueue.isEmpty() && timerQueue.peek().deadline <= now) {
+            ScheduledTask task = timerQueue.poll();
+            if (task.isCanceled) continue;
+            try {
+                task.task.run();
+            }
+            catch (Exception ex) {
+
+            }
+        }
+    }
+
+
+    private Selector selector = null;                                                       // 选择器
+    private Thread thread = null;                                                           // 事件循环的线程
+    private volatile boolean isShutdown = false;                                            // 是否已经关闭
+    private ConcurrentLinkedQueue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();      // 等待执行的任务
+    private PriorityQueue<ScheduledTask> timerQueue = new PriorityQueue<>();                // 定时任务，只在事件循环中访问
+
+
+    /**
+     * 事件循环中的定时任务
+     */
+    public static class ScheduledTask implements Comparable<ScheduledTask> {
+
+        private ScheduledTask(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消当前的定时任务
+         */
+        public void Cancel() {
+            isCanceled = true;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            return Long.compare(deadline, other.deadline);
+        }
+
+        private Runnable task;
+        private long deadline;
+        private volatile boolean isCanceled = false;
+    }
+}
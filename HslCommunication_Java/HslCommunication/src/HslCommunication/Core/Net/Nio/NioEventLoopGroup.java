@@ -0,0 +1,131 @@
+package HslCommunication.Core.Net.Nio;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 事件循环组，包含固定数量的IO线程，成千上万的设备连接轮流分配到各个事件循环上 ->
+ * The event loop group, contains a fixed number of io threads, thousands of device connections are assigned to the loops in turn
+ */
+public class NioEventLoopGroup {
+
+    /**
+     * 实例化一个事件循环组，连接的线程池的线程数量和IO线程的数量一致
+     * @param threadCount IO线程的数量
+     */
+    public NioEventLoopGroup(int threadCount) {
+        this(threadCount, threadCount);
+    }
+
+    /**
+     * 实例化一个事件循环组，连接的线程池的线程数量是固定的，大量的设备同时断线重连时在队列中排队，不会为每个设备创建一个线程
+     * @param threadCount IO线程的数量
+     * @param connectThreadCount 建立连接及握手的线程的最大数量
+     */
+    public NioEventLoopGroup(int threadCount, int connectThreadCount) {
+        if (threadCount < 1) threadCount = 1;
+        if (connectThreadCount < 1) connectThreadCount = 1;
+        loops = new NioEventLoop[threadCount];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new NioEventLoop("HslNioEventLoop-" + i);
+        }
+
+        // 空闲的连接线程60秒之后退出
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(connectThreadCount, connectThreadCount,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "HslNioConnector");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        connectExecutor = executor;
+    }
+
+
+    /**
+     * 按照轮询的方式获取下一个事件循环
+     * @return 事件循环
+     */
+    public NioEventLoop Next() {
+        return loops[(index.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    /**
+     * 获取事件循环的数量
+     * @return 数量
+     */
+    public int getLoopCount() {
+        return loops.length;
+    }
+
+    /**
+     * 获取用于建立连接及握手的线程池，连接的过程是阻塞的，不能放到事件循环中执行，线程的数量是有上限的
+     * @return 线程池
+     */
+    public ExecutorService getConnectExecutor() {
+        return connectExecutor;
+    }
+
+    /**
+     * 关闭所有的事件循环
+     */
+    public void Shutdown() {
+        for (int i = 0; i < loops.length; i++) {
+            loops[i].Shutdown();
+        }
+        connectExecutor.shutdown();
+    }
+
+
+    private NioEventLoop[] loops = null;                             // 所有的事件循环
+    private AtomicInteger index = new AtomicInteger(0);              // 轮询的索引
+    private ExecutorService connectExecutor = null;                  // 连接的线程池，线程数量固定
+
+
+    private static NioEventLoopGroup defaultGroup = null;
+
+    /**
+     * 获取默认的全局事件循环组，线程数量和CPU的核数一致
+     * @return 事件循环组
+     */
+    public static synchronized NioEventLoopGroup getDefault() {
+        if (defaultGroup == null) {
+            defaultGroup = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
+        }
+        return defaultGroup;
+    }
+
+
+    private static ExecutorService blockingExecutor = null;
+
+    /**
+     * 获取全局的阻塞任务线程池，未设置事件循环组的设备的异步方法在这里调用同步的方法，线程的数量有上限，空闲60秒之后退出
+     * @return 线程池
+     */
+    public static synchronized ExecutorService getBlockingExecutor() {
+        if (blockingExecutor == null) {
+            int threadCount = Math.max(Runtime.getRuntime().availableProcessors() * 2, 4);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "HslBlocking-" + blockingThreadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.allowCoreThreadTimeOut(true);
+            blockingExecutor = executor;
+        }
+        return blockingExecutor;
+    }
+
+    private static AtomicInteger blockingThreadIndex = new AtomicInteger(0);
+}
@@ -0,0 +1,45 @@
+package HslCommunication.Core.Net.Nio;
+
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.OperateResultExOne;
+
+/**
+ * 提交到NIO会话上的一次请求，包含发送的报文，消息规则及完成时的回调
+ */
+public class NioRequest {
+
+    /**
+     * 实例化一个请求对象
+     * @param sendBytes 发送的完整报文
+     * @param framing 接收的消息分帧规则
+     * @param receiveTimeOut 接收的超时时间，为负数时不接收反馈，为0时不检查超时
+     * @param callback 完成时的回调，在事件循环的线程中执行
+     */
+    public NioRequest(byte[] sendBytes, INetMessageFraming framing, int receiveTimeOut, ActionOperateExOne<OperateResultExOne<byte[]>> callback) {
+        this.SendBytes = sendBytes;
+        this.Framing = framing;
+        this.ReceiveTimeOut = receiveTimeOut;
+        this.Callback = callback;
+    }
+
+    /**
+     * 发送的完整报文
+     */
+    public byte[] SendBytes = null;
+
+    /**
+     * 接收的消息分帧规则
+     */
+    public INetMessageFraming Framing = null;
+
+    /**
+     * 接收的超时时间
+     */
+    public int ReceiveTimeOut = 10000;
+
+    /**
+     * 完成时的回调
+     */
+    public ActionOperateExOne<OperateResultExOne<byte[]>> Callback = null;
+}
@@ -0,0 +1,286 @@
+package HslCommunication.Core.Net.Nio;
+
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.Types.OperateResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于NIO事件循环的服务器基类，接收的连接轮流分配到事件循环组的各个线程上，使用INetMessageFraming的规则分帧，
+ * 子类只需要根据请求的报文返回反馈的报文，主要用于设备的仿真及客户端的压力测试 ->
+ * The base class of the server based on the nio event loop, accepted connections are assigned to the loops in turn,
+ * the subclass only needs to build the response of a framed request, mainly used to simulate devices for load testing
+ */
+public abstract class NioServer {
+
+    /**
+     * 使用请求的分帧规则实例化一个服务器
+     * @param framing 请求报文的分帧规则
+     */
+    protected NioServer(INetMessageFraming framing) {
+        this.framing = framing;
+    }
+
+
+    /**
+     * 在指定的端口上启动服务器，使用和处理器核心数量相同的IO线程，关闭服务器时同时关闭这些线程，已经启动时不再创建线程
+     * @param port 端口号
+     * @return 是否启动成功
+     */
+    public synchronized OperateResult ServerStart(int port) {
+        if (serverChannel != null) return OperateResult.CreateSuccessResult();
+
+        NioEventLoopGroup group = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors());
+        OperateResult start = ServerStart(port, group);
+        if (!start.IsSuccess) group.Shutdown();
+        else ownGroup = group;
+        return start;
+    }
+
+    /**
+     * 在指定的端口上启动服务器，使用外部的事件循环组，关闭服务器时不关闭事件循环组
+     * @param port 端口号，为0时由系统分配，可以通过getPort获取
+     * @param group 事件循环组
+     * @return 是否启动成功
+     */
+    public synchronized OperateResult ServerStart(int port, final NioEventLoopGroup group) {
+        if (serverChannel != null) return OperateResult.CreateSuccessResult();
+
+        final ServerSocketChannel channel;
+        try {
+            channel = ServerSocketChannel.open();
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(port), 1024);
+            channel.configureBlocking(false);
+            this.port = ((InetSocketAddress) channel.getLocalAddress()).getPort();
+        }
+        catch (IOException ex) {
+            return new OperateResult(ex.getMessage());
+        }
+
+        this.group = group;
+        this.serverChannel = channel;
+        this.acceptLoop = group.Next();
+        acceptLoop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    acceptLoop.Register(channel, SelectionKey.OP_ACCEPT, new AcceptHandler(channel));
+                }
+                catch (IOException ex) {
+                    ServerClose();
+                }
+            }
+        });
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 关闭服务器，同时关闭所有的客户端连接
+     */
+    public synchronized void ServerClose() {
+        if (serverChannel == null) return;
+
+        final ServerSocketChannel channel = serverChannel;
+        serverChannel = null;
+        acceptLoop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    channel.close();
+                }
+                catch (IOException ex) {
+
+                }
+            }
+        });
+        for (NioServerSession session : sessions) {
+            session.Close();
+        }
+        if (ownGroup != null) {
+            ownGroup.Shutdown();
+            ownGroup = null;
+        }
+    }
+
+    /**
+     * 获取服务器监听的端口号
+     * @return 端口号
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * 获取服务器是否已经启动
+     * @return 是否启动
+     */
+    public boolean IsStarted() {
+        return serverChannel != null;
+    }
+
+    /**
+     * 获取当前在线的客户端数量
+     * @return 数量
+     */
+    public int getOnlineCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 获取启动以来处理的请求数量
+     * @return 数量
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * 获取消息头校验使用的令牌
+     * @return 令牌
+     */
+    public byte[] getToken() {
+        return token;
+    }
+
+    /**
+     * 设置消息头校验使用的令牌
+     * @param token 令牌
+     */
+    public void setToken(byte[] token) {
+        this.token = token;
+    }
+
+
+    /**
+     * 获取每个请求的反馈延时的基准值
+     * @return 延时，单位毫秒
+     */
+    public int getResponseLatency() {
+        return responseLatency;
+    }
+
+    /**
+     * 获取每个请求的反馈延时的抖动范围
+     * @return 抖动，单位毫秒
+     */
+    public int getResponseJitter() {
+        return responseJitter;
+    }
+
+    /**
+     * 设置每个请求的反馈延时，用于模拟真实设备的响应时间，实际的延时在latency-jitter到latency+jitter之间均匀分布，
+     * 同一个连接上流水线发送的请求的延时互相重叠，但是反馈的顺序和请求一致
+     * @param latency 延时的基准值，单位毫秒，为0时不延时
+     * @param jitter 延时的抖动范围，单位毫秒
+     */
+    public void setResponseDelay(int latency, int jitter) {
+        this.responseLatency = Math.max(latency, 0);
+        this.responseJitter = Math.max(jitter, 0);
+    }
+
+
+    /**
+     * 获取请求报文的分帧规则
+     * @return 分帧规则
+     */
+    protected INetMessageFraming getFraming() {
+        return framing;
+    }
+
+    /**
+     * 处理一个完整的请求报文，在会话所属的事件循环线程中调用，不能阻塞。返回空数组时不反馈，可以之后通过会话的Send方法发送，
+     * 返回null时关闭连接
+     * @param session 客户端的会话
+     * @param request 完整的请求报文
+     * @return 反馈的报文
+     */
+    protected abstract byte[] ProcessRequest(NioServerSession session, byte[] request);
+
+
+    void IncrementRequestCount() {
+        requestCount.incrementAndGet();
+    }
+
+    void RemoveSession(NioServerSession session) {
+        sessions.remove(session);
+    }
+
+    long NextResponseDelay() {
+        int latency = responseLatency;
+        int jitter = responseJitter;
+        if (jitter == 0) return latency;
+        return Math.max(0, latency + ThreadLocalRandom.current().nextInt(-jitter, jitter + 1));
+    }
+
+
+    private INetMessageFraming framing = null;                                                  // 请求报文的分帧规则
+    private byte[] token = null;                                                                // 令牌
+    private volatile ServerSocketChannel serverChannel = null;                                  // 监听的通道
+    private NioEventLoop acceptLoop = null;                                                     // 接收连接的事件循环
+    private NioEventLoopGroup group = null;                                                     // 分配连接的事件循环组
+    private NioEventLoopGroup ownGroup = null;                                                  // 服务器自己创建的事件循环组
+    private volatile int port = 0;                                                              // 监听的端口号
+    private Set<NioServerSession> sessions = Collections.newSetFromMap(
+            new ConcurrentHashMap<NioServerSession, Boolean>());                                // 在线的会话
+    private AtomicLong requestCount = new AtomicLong();                                         // 处理的请求数量
+    private volatile int responseLatency = 0;                                                   // 反馈延时的基准值
+    private volatile int responseJitter = 0;                                                    // 反馈延时的抖动范围
+
+
+    private class AcceptHandler implements INioHandler {
+        AcceptHandler(ServerSocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void OnSelected(SelectionKey key) {
+            while (true) {
+                SocketChannel socket = null;
+                try {
+                    socket = channel.accept();
+                    if (socket == null) return;
+                    socket.configureBlocking(false);
+                    socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+                catch (IOException ex) {
+                    if (socket != null) {
+                        try {
+                            socket.close();
+                        }
+                        catch (IOException ignored) {
+
+                        }
+                    }
+                    return;
+                }
+
+                NioServerSession session = new NioServerSession(NioServer.this, group.Next(), socket);
+                sessions.add(session);
+                session.Start();
+            }
+        }
+
+        @Override
+        public void OnLoopClosed(String message) {
+            try {
+                channel.close();
+            }
+            catch (IOException ex) {
+
+            }
+        }
+
+        private ServerSocketChannel channel;
+    }
+}
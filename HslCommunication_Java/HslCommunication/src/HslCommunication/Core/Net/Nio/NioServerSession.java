@@ -0,0 +1,305 @@
+package HslCommunication.Core.Net.Nio;
+
+import HslCommunication.Core.IMessage.INetMessageFraming;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * 服务器端的一个客户端连接的NIO会话，使用INetMessageFraming的规则分帧，一次读取中包含的多个请求依次处理，
+ * 所有的反馈合并之后一次发送，发送的缓存没有清空之前暂停读取 ->
+ * The nio session of a client connection on the server side, pipelined requests in one read are all processed
+ * and the responses are flushed together, reading is paused until the pending responses are written
+ */
+public class NioServerSession implements INioHandler {
+
+    NioServerSession(NioServer server, NioEventLoop loop, SocketChannel channel) {
+        this.server = server;
+        this.loop = loop;
+        this.channel = channel;
+        this.head = new byte[server.getFraming().ProtocolHeadBytesLength()];
+        try {
+            this.remoteAddress = channel.getRemoteAddress();
+        }
+        catch (IOException ex) {
+
+        }
+    }
+
+
+    /**
+     * 获取客户端的地址
+     * @return 地址
+     */
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    /**
+     * 获取所属的事件循环
+     * @return 事件循环
+     */
+    public NioEventLoop getEventLoop() {
+        return loop;
+    }
+
+    /**
+     * 获取会话的自定义数据，例如协议握手之后的状态
+     * @return 自定义数据
+     */
+    public Object getTag() {
+        return tag;
+    }
+
+    /**
+     * 设置会话的自定义数据
+     * @param tag 自定义数据
+     */
+    public void setTag(Object tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * 获取当前的会话是否已经关闭
+     * @return 是否关闭
+     */
+    public boolean IsClosed() {
+        return isClosed;
+    }
+
+    /**
+     * 发送数据到客户端，可以在任意的线程中调用
+     * @param data 数据
+     */
+    public void Send(final byte[] data) {
+        if (loop.IsInEventLoop()) {
+            SendInLoop(data);
+            return;
+        }
+        loop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                SendInLoop(data);
+            }
+        });
+    }
+
+    /**
+     * 关闭会话
+     */
+    public void Close() {
+        loop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                CloseInLoop();
+            }
+        });
+    }
+
+
+    @Override
+    public void OnSelected(SelectionKey key) {
+        try {
+            if (key.isWritable()) Flush();
+            if (key.isValid() && key.isReadable()) DoRead();
+        }
+        catch (IOException ex) {
+            CloseInLoop();
+        }
+    }
+
+    @Override
+    public void OnLoopClosed(String message) {
+        CloseInLoop();
+    }
+
+
+    void Start() {
+        loop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    selectionKey = loop.Register(channel, SelectionKey.OP_READ, NioServerSession.this);
+                    Flush();
+                }
+                catch (IOException ex) {
+                    CloseInLoop();
+                }
+            }
+        });
+    }
+
+    private void SendInLoop(byte[] data) {
+        if (isClosed || data == null) return;
+        Append(data);
+        try {
+            Flush();
+        }
+        catch (IOException ex) {
+            CloseInLoop();
+        }
+    }
+
+    private void DoRead() throws IOException {
+        if (!readBuffer.hasRemaining()) readBuffer = Grow(readBuffer, readBuffer.capacity() * 2);
+        int count = channel.read(readBuffer);
+        if (count < 0) {
+            CloseInLoop();
+            return;
+        }
+
+        readBuffer.flip();
+        INetMessageFraming framing = server.getFraming();
+        while (readBuffer.remaining() >= head.length) {
+            int position = readBuffer.position();
+            readBuffer.get(head);
+            readBuffer.position(position);
+            if (!framing.CheckHeadBytesLegal(head, null, server.getToken())) {
+                CloseInLoop();
+                return;
+            }
+
+            int offset = framing.GetHeadBytesOffset(head);
+            int total = head.length + Math.max(framing.GetContentLengthByHeadBytes(head, null), 0);
+            if (total > MaxFrameLength) {
+                CloseInLoop();
+                return;
+            }
+            if (readBuffer.remaining() < total) {
+                if (readBuffer.capacity() < total) {
+                    readBuffer.compact();
+                    readBuffer = Grow(readBuffer, total);
+                    readBuffer.flip();
+                }
+                break;
+            }
+
+            byte[] request = new byte[total - offset];
+            readBuffer.position(position + offset);
+            readBuffer.get(request);
+
+            byte[] response;
+            try {
+                response = server.ProcessRequest(this, request);
+            }
+            catch (Exception ex) {
+                response = null;
+            }
+            server.IncrementRequestCount();
+            if (response == null) {
+                // 无法处理的请求关闭连接
+                CloseInLoop();
+                return;
+            }
+            if (response.length > 0) {
+                // 设置了延时或者还有没到期的反馈时放入延时队列，保证反馈的顺序
+                long delay = server.NextResponseDelay();
+                if (delay > 0 || !delayQueue.isEmpty()) Delay(response, delay);
+                else Append(response);
+            }
+        }
+        readBuffer.compact();
+        Flush();
+    }
+
+    private void Delay(byte[] response, long delay) {
+        // 到期时间不早于前一个反馈，到期时按照顺序发送所有已经到期的反馈
+        long now = System.currentTimeMillis();
+        long deadline = Math.max(now + delay, lastDeadline);
+        lastDeadline = deadline;
+        delayQueue.add(new DelayedResponse(response, deadline));
+        loop.Schedule(sendDelayed, deadline - now);
+    }
+
+    private void SendDelayed() {
+        if (isClosed) return;
+        long now = System.currentTimeMillis();
+        while (!delayQueue.isEmpty() && delayQueue.peek().deadline <= now) {
+            Append(delayQueue.poll().data);
+        }
+        try {
+            Flush();
+        }
+        catch (IOException ex) {
+            CloseInLoop();
+        }
+    }
+
+    private void Append(byte[] data) {
+        if (writeBuffer.remaining() < data.length)
+            writeBuffer = Grow(writeBuffer, Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + data.length));
+        writeBuffer.put(data);
+    }
+
+    private void Flush() throws IOException {
+        if (isClosed || selectionKey == null) return;
+        if (writeBuffer.position() > 0) {
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            writeBuffer.compact();
+        }
+
+        // 还有没有发送完成的数据时只等待可写，暂停读取新的请求
+        int ops = writeBuffer.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (selectionKey.interestOps() != ops) selectionKey.interestOps(ops);
+    }
+
+    private void CloseInLoop() {
+        if (isClosed) return;
+        isClosed = true;
+
+        if (selectionKey != null) selectionKey.cancel();
+        try {
+            channel.close();
+        }
+        catch (IOException ex) {
+
+        }
+        server.RemoveSession(this);
+    }
+
+    private static ByteBuffer Grow(ByteBuffer buffer, int capacity) {
+        // buffer处于写入的状态，已经写入的数据复制到新的缓存
+        ByteBuffer grow = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grow.put(buffer);
+        return grow;
+    }
+
+
+    private NioServer server = null;                                           // 所属的服务器
+    private NioEventLoop loop = null;                                          // 所属的事件循环
+    private SocketChannel channel = null;                                      // 网络通道
+    private SelectionKey selectionKey = null;                                  // 选择键
+    private SocketAddress remoteAddress = null;                                // 客户端的地址
+    private volatile boolean isClosed = false;                                 // 是否已经关闭
+    private volatile Object tag = null;                                        // 自定义数据
+    private byte[] head = null;                                                // 指令头的缓存
+    private ByteBuffer readBuffer = ByteBuffer.allocate(4096);                 // 接收的缓存，处于写入的状态
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(4096);                // 发送的缓存，处于写入的状态
+    private ArrayDeque<DelayedResponse> delayQueue = new ArrayDeque<>();       // 等待延时发送的反馈
+    private long lastDeadline = 0;                                             // 最后一个延时反馈的到期时间
+    private Runnable sendDelayed = new Runnable() {                            // 发送到期的延时反馈
+        @Override
+        public void run() {
+            SendDelayed();
+        }
+    };
+
+    private static final int MaxFrameLength = 1024 * 1024;                     // 单个请求的最大长度
+
+
+    private static class DelayedResponse {
+        DelayedResponse(byte[] data, long deadline) {
+            this.data = data;
+            this.deadline = deadline;
+        }
+
+        private byte[] data;                                                   // 反馈的数据
+        private long deadline;                                                 // 到期的时间
+    }
+}
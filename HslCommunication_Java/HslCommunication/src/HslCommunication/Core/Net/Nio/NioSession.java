@@ -0,0 +1,265 @@
+package HslCommunication.Core.Net.Nio;
+
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+
+/**
+ * 一条设备连接的NIO会话，请求按照先后顺序依次发送，使用INetMessageFraming的规则分帧接收，同一时刻只有一个请求在等待反馈 ->
+ * The nio session of a device connection, requests are sent in order, the response is framed by the rule of INetMessageFraming
+ */
+public class NioSession implements INioHandler {
+
+    /**
+     * 使用已经连接成功的非阻塞通道实例化一个会话
+     * @param loop 所属的事件循环
+     * @param channel 已经连接并设置为非阻塞的通道
+     * @param token 令牌，用于消息头的校验
+     */
+    public NioSession(NioEventLoop loop, SocketChannel channel, byte[] token) {
+        this.loop = loop;
+        this.channel = channel;
+        this.token = token;
+    }
+
+
+    /**
+     * 将通道注册到事件循环上，开始工作
+     * @return 是否成功提交，事件循环已经关闭时返回false
+     */
+    public boolean Start() {
+        return loop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    selectionKey = loop.Register(channel, SelectionKey.OP_READ, NioSession.this);
+                }
+                catch (IOException | RuntimeException ex) {
+                    // 选择器已经关闭时抛出的是运行时异常
+                    CloseInLoop(ex.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * 提交一个请求，可以在任意的线程中调用，结果通过请求的回调返回
+     * @param request 请求对象
+     */
+    public void Send(final NioRequest request) {
+        boolean accepted = loop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                if (isClosed) {
+                    Callback(request, new OperateResultExOne<byte[]>(StringResources.Language.ConnectionIsNotAvailable()));
+                    return;
+                }
+                pendingRequests.add(request);
+                if (currentRequest == null) StartNext();
+            }
+        });
+
+        // 事件循环已经关闭，请求不会被执行，直接返回失败
+        if (!accepted) Callback(request, new OperateResultExOne<byte[]>(StringResources.Language.ConnectionIsNotAvailable()));
+    }
+
+    /**
+     * 获取当前的会话是否已经关闭，所属的事件循环关闭之后也视为关闭
+     * @return 是否关闭
+     */
+    public boolean IsClosed() {
+        return isClosed || loop.IsShutdown();
+    }
+
+    /**
+     * 获取所属的事件循环
+     * @return 事件循环
+     */
+    public NioEventLoop getEventLoop() {
+        return loop;
+    }
+
+    /**
+     * 关闭会话，所有等待中的请求都返回失败
+     * @param message 失败的原因
+     */
+    public void Close(final String message) {
+        loop.Execute(new Runnable() {
+            @Override
+            public void run() {
+                CloseInLoop(message);
+            }
+        });
+    }
+
+
+    @Override
+    public void OnSelected(SelectionKey key) {
+        try {
+            if (key.isWritable()) DoWrite();
+            if (key.isValid() && key.isReadable()) DoRead();
+        }
+        catch (IOException ex) {
+            CloseInLoop(ex.getMessage());
+        }
+    }
+
+    @Override
+    public void OnLoopClosed(String message) {
+        CloseInLoop(message);
+    }
+
+
+    private void StartNext() {
+        currentRequest = pendingRequests.poll();
+        if (currentRequest == null) return;
+
+        writeBuffer = ByteBuffer.wrap(currentRequest.SendBytes == null ? new byte[0] : currentRequest.SendBytes);
+        headBuffer = ByteBuffer.allocate(currentRequest.Framing.ProtocolHeadBytesLength());
+        contentBuffer = null;
+
+        if (currentRequest.ReceiveTimeOut > 0) {
+            final NioRequest request = currentRequest;
+            timeoutTask = loop.Schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (currentRequest == request) CloseInLoop(StringResources.Language.ReceiveDataTimeout() + request.ReceiveTimeOut);
+                }
+            }, currentRequest.ReceiveTimeOut);
+        }
+
+        try {
+            DoWrite();
+        }
+        catch (IOException ex) {
+            CloseInLoop(ex.getMessage());
+        }
+    }
+
+    private void DoWrite() throws IOException {
+        if (currentRequest == null || writeBuffer == null) return;
+
+        channel.write(writeBuffer);
+        if (writeBuffer.hasRemaining()) {
+            selectionKey.interestOps(SelectionKey.OP_WRITE);
+            return;
+        }
+
+        writeBuffer = null;
+        selectionKey.interestOps(SelectionKey.OP_READ);
+        if (currentRequest.ReceiveTimeOut < 0) {
+            // 不接收反馈的数据
+            Complete(new OperateResultExOne<byte[]>());
+        }
+    }
+
+    private void DoRead() throws IOException {
+        if (currentRequest == null || writeBuffer != null) {
+            // 空闲时读取的数据直接丢弃，主要用于检测对方关闭了连接
+            if (idleBuffer == null) idleBuffer = ByteBuffer.allocate(256);
+            idleBuffer.clear();
+            if (channel.read(idleBuffer) < 0) CloseInLoop(StringResources.Language.RemoteClosedConnection());
+            return;
+        }
+
+        while (true) {
+            ByteBuffer buffer = contentBuffer == null ? headBuffer : contentBuffer;
+            int count = channel.read(buffer);
+            if (count < 0) {
+                CloseInLoop(StringResources.Language.RemoteClosedConnection());
+                return;
+            }
+            if (buffer.hasRemaining()) return;
+
+            INetMessageFraming framing = currentRequest.Framing;
+            if (contentBuffer == null) {
+                // 接收完了指令头，内容接收到报文头的后面，接收完成之后就是完整的报文
+                byte[] head = headBuffer.array();
+                if (!framing.CheckHeadBytesLegal(head, currentRequest.SendBytes, token)) {
+                    CloseInLoop(StringResources.Language.TokenCheckFailed());
+                    return;
+                }
+
+                int offset = framing.GetHeadBytesOffset(head);
+                int contentLength = Math.max(framing.GetContentLengthByHeadBytes(head, currentRequest.SendBytes), 0);
+                contentBuffer = ByteBuffer.allocate(head.length - offset + contentLength);
+                contentBuffer.put(head, offset, head.length - offset);
+                if (contentLength == 0) {
+                    Complete(OperateResultExOne.CreateSuccessResult(contentBuffer.array()));
+                    return;
+                }
+            }
+            else {
+                Complete(OperateResultExOne.CreateSuccessResult(contentBuffer.array()));
+                return;
+            }
+        }
+    }
+
+    private void Complete(OperateResultExOne<byte[]> result) {
+        NioRequest request = currentRequest;
+        currentRequest = null;
+        headBuffer = null;
+        contentBuffer = null;
+        if (timeoutTask != null) {
+            timeoutTask.Cancel();
+            timeoutTask = null;
+        }
+
+        Callback(request, result);
+        if (!isClosed) StartNext();
+    }
+
+    private void CloseInLoop(String message) {
+        if (isClosed) return;
+        isClosed = true;
+
+        if (selectionKey != null) selectionKey.cancel();
+        try {
+            channel.close();
+        }
+        catch (IOException ex) {
+
+        }
+        if (timeoutTask != null) timeoutTask.Cancel();
+
+        if (currentRequest != null) {
+            Callback(currentRequest, new OperateResultExOne<byte[]>(message));
+            currentRequest = null;
+        }
+
+        NioRequest request;
+        while ((request = pendingRequests.poll()) != null) {
+            Callback(request, new OperateResultExOne<byte[]>(message));
+        }
+    }
+
+    private static void Callback(NioRequest request, OperateResultExOne<byte[]> result) {
+        try {
+            if (request.Callback != null) request.Callback.Action(result);
+        }
+        catch (Exception ex) {
+            // 用户的回调异常不能影响事件循环
+        }
+    }
+
+
+    private NioEventLoop loop = null;                                          // 所属的事件循环
+    private SocketChannel channel = null;                                      // 网络通道
+    private SelectionKey selectionKey = null;                                  // 选择键
+    private byte[] token = null;                                               // 令牌
+    private volatile boolean isClosed = false;                                 // 是否已经关闭
+    private ArrayDeque<NioRequest> pendingRequests = new ArrayDeque<>();       // 等待发送的请求，只在事件循环中访问
+    private NioRequest currentRequest = null;                                  // 当前正在处理的请求
+    private NioEventLoop.ScheduledTask timeoutTask = null;                     // 当前请求的超时任务
+    private ByteBuffer writeBuffer = null;                                     // 发送的缓存
+    private ByteBuffer headBuffer = null;                                      // 指令头的缓存
+    private ByteBuffer contentBuffer = null;                                   // 内容的缓存
+    private ByteBuffer idleBuffer = null;                                      // 空闲时的缓存
+}
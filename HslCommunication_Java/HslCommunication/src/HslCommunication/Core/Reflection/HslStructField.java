@@ -0,0 +1,39 @@
+package HslCommunication.Core.Reflection;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 结构体字段在设备数据中的位置，数据类型由字段的类型决定，支持boolean，byte，short，int，long，float，double，String及其数组 ->
+ * The position of a struct field in the device data, the data type is taken from the java type of the field
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface HslStructField {
+
+    /**
+     * 相对于结构体起始位置的字节偏移
+     * @return 字节偏移
+     */
+    int offset();
+
+    /**
+     * boolean字段在字节中的位，从低位开始为0到7，boolean数组从该位开始连续排列，为-1时boolean字段占用一个字节
+     * @return 位索引
+     */
+    int bit() default -1;
+
+    /**
+     * 数组字段的元素个数，或是字符串字段的字节长度
+     * @return 长度
+     */
+    int length() default 0;
+
+    /**
+     * 字符串字段的编码
+     * @return 编码
+     */
+    String encoding() default "US-ASCII";
+}
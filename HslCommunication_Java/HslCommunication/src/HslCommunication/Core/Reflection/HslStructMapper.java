@@ -0,0 +1,380 @@
+package HslCommunication.Core.Reflection;
+
+import HslCommunication.Core.Transfer.IByteTransform;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带有HslStructField注解的类和设备原始数据之间的映射，每个类只在第一次使用时分析一次，之后通过MethodHandle直接读写字段，
+ * 解析时按照字段依次从字节数组中取值，不再使用反射查找字段或是创建对象 ->
+ * The mapper between a class with HslStructField annotations and the raw device data, the class is analysed once,
+ * afterwards the fields are accessed through method handles
+ * @param <T> 结构体的类型
+ */
+public final class HslStructMapper<T> {
+
+    private HslStructMapper(Class<T> tClass) {
+        this.tClass = tClass;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            Constructor<T> constructor = tClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            this.constructor = lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        }
+        catch (Exception ex) {
+            this.constructor = null;
+        }
+
+        ArrayList<FieldMapper> list = new ArrayList<>();
+        int length = 0;
+        for (Class<?> c = tClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                HslStructField annotation = field.getAnnotation(HslStructField.class);
+                if (annotation == null) continue;
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))
+                    throw new IllegalArgumentException("field can't be static or final: " + field.getName());
+
+                FieldMapper mapper = new FieldMapper(lookup, field, annotation);
+                list.add(mapper);
+                length = Math.max(length, mapper.offset + mapper.byteLength);
+            }
+        }
+        this.fields = list.toArray(new FieldMapper[0]);
+        this.byteLength = length;
+    }
+
+
+    /**
+     * 获取一个类的映射，第一次获取时分析类的字段，之后返回缓存的对象
+     * @param tClass 类
+     * @param <T> 类型
+     * @return 映射对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> HslStructMapper<T> getMapper(Class<T> tClass) {
+        HslStructMapper<?> mapper = mappers.get(tClass);
+        if (mapper == null) {
+            mapper = new HslStructMapper<>(tClass);
+            HslStructMapper<?> exist = mappers.putIfAbsent(tClass, mapper);
+            if (exist != null) mapper = exist;
+        }
+        return (HslStructMapper<T>) mapper;
+    }
+
+
+    /**
+     * 获取结构体的字节长度，为所有字段的结束位置的最大值
+     * @return 字节长度
+     */
+    public int getByteLength() {
+        return byteLength;
+    }
+
+    /**
+     * 获取映射的类
+     * @return 类
+     */
+    public Class<T> getStructClass() {
+        return tClass;
+    }
+
+    /**
+     * 从原始数据中解析出一个新的对象，类需要有无参数的构造方法
+     * @param byteTransform 数据的变换规则
+     * @param buffer 原始数据
+     * @param index 结构体的起始位置
+     * @return 新的对象
+     */
+    @SuppressWarnings("unchecked")
+    public T Parse(IByteTransform byteTransform, byte[] buffer, int index) {
+        if (constructor == null) throw new IllegalStateException("no parameterless constructor: " + tClass.getName());
+        T target;
+        try {
+            target = (T) constructor.invokeExact();
+        }
+        catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+        Parse(byteTransform, buffer, index, target);
+        return target;
+    }
+
+    /**
+     * 将原始数据解析到已有的对象中，数组字段的长度一致时直接填充原来的数组
+     * @param byteTransform 数据的变换规则
+     * @param buffer 原始数据
+     * @param index 结构体的起始位置
+     * @param target 接收数据的对象
+     */
+    public void Parse(IByteTransform byteTransform, byte[] buffer, int index, T target) {
+        if (index + byteLength > buffer.length) throw new IndexOutOfBoundsException("length:" + buffer.length + " need:" + (index + byteLength));
+        try {
+            for (FieldMapper field : fields) field.Parse(byteTransform, buffer, index + field.offset, target);
+        }
+        catch (RuntimeException ex) {
+            throw ex;
+        }
+        catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * 将对象生成原始数据，没有字段覆盖的字节为0
+     * @param byteTransform 数据的变换规则
+     * @param source 对象
+     * @return 原始数据
+     */
+    public byte[] Build(IByteTransform byteTransform, T source) {
+        byte[] buffer = new byte[byteLength];
+        Build(byteTransform, source, buffer, 0);
+        return buffer;
+    }
+
+    /**
+     * 将对象生成原始数据，写入到指定的数组中，只改变字段覆盖的字节及位，字符串及数组比字段的长度短时剩余的部分写入0，
+     * 值为null的字符串及数组字段不改变
+     * @param byteTransform 数据的变换规则
+     * @param source 对象
+     * @param buffer 目标数组
+     * @param index 结构体的起始位置
+     */
+    public void Build(IByteTransform byteTransform, T source, byte[] buffer, int index) {
+        if (index + byteLength > buffer.length) throw new IndexOutOfBoundsException("length:" + buffer.length + " need:" + (index + byteLength));
+        try {
+            for (FieldMapper field : fields) field.Build(byteTransform, source, buffer, index + field.offset);
+        }
+        catch (RuntimeException ex) {
+            throw ex;
+        }
+        catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+
+    private Class<T> tClass = null;                                 // 映射的类
+    private MethodHandle constructor = null;                        // 无参数的构造方法，没有时为null
+    private FieldMapper[] fields = null;                            // 所有的字段
+    private int byteLength = 0;                                     // 结构体的字节长度
+
+    private static final ConcurrentHashMap<Class<?>, HslStructMapper<?>> mappers = new ConcurrentHashMap<>();    // 所有的映射
+
+
+    private static final int TypeBool = 0;
+    private static final int TypeByte = 1;
+    private static final int TypeInt16 = 2;
+    private static final int TypeInt32 = 3;
+    private static final int TypeInt64 = 4;
+    private static final int TypeFloat = 5;
+    private static final int TypeDouble = 6;
+    private static final int TypeString = 7;
+    private static final int TypeBoolArray = 8;
+    private static final int TypeByteArray = 9;
+    private static final int TypeInt16Array = 10;
+    private static final int TypeInt32Array = 11;
+    private static final int TypeInt64Array = 12;
+    private static final int TypeFloatArray = 13;
+    private static final int TypeDoubleArray = 14;
+
+
+    /**
+     * 一个字段的映射，getter及setter转换为确定的类型，使用invokeExact调用
+     */
+    private static class FieldMapper {
+        FieldMapper(MethodHandles.Lookup lookup, Field field, HslStructField annotation) {
+            Class<?> type = field.getType();
+            offset = annotation.offset();
+            bit = annotation.bit();
+            length = annotation.length();
+            encoding = annotation.encoding();
+
+            if (type == boolean.class) kind = TypeBool;
+            else if (type == byte.class) kind = TypeByte;
+            else if (type == short.class) kind = TypeInt16;
+            else if (type == int.class) kind = TypeInt32;
+            else if (type == long.class) kind = TypeInt64;
+            else if (type == float.class) kind = TypeFloat;
+            else if (type == double.class) kind = TypeDouble;
+            else if (type == String.class) kind = TypeString;
+            else if (type == boolean[].class) kind = TypeBoolArray;
+            else if (type == byte[].class) kind = TypeByteArray;
+            else if (type == short[].class) kind = TypeInt16Array;
+            else if (type == int[].class) kind = TypeInt32Array;
+            else if (type == long[].class) kind = TypeInt64Array;
+            else if (type == float[].class) kind = TypeFloatArray;
+            else if (type == double[].class) kind = TypeDoubleArray;
+            else throw new IllegalArgumentException("not supported type: " + type.getName() + " " + field.getName());
+
+            if (offset < 0) throw new IllegalArgumentException("offset can't be negative: " + field.getName());
+            if (bit > 7) throw new IllegalArgumentException("bit must be 0-7: " + field.getName());
+            if (kind >= TypeString && length <= 0) throw new IllegalArgumentException("length is required: " + field.getName());
+
+            switch (kind) {
+                case TypeBool: byteLength = 1; break;
+                case TypeByte: byteLength = 1; break;
+                case TypeInt16: byteLength = 2; break;
+                case TypeInt32: case TypeFloat: byteLength = 4; break;
+                case TypeInt64: case TypeDouble: byteLength = 8; break;
+                case TypeString: case TypeByteArray: byteLength = length; break;
+                case TypeBoolArray: byteLength = bit < 0 ? length : (bit + length + 7) / 8; break;
+                case TypeInt16Array: byteLength = 2 * length; break;
+                case TypeInt32Array: case TypeFloatArray: byteLength = 4 * length; break;
+                default: byteLength = 8 * length; break;
+            }
+
+            try {
+                field.setAccessible(true);
+                Class<?> exact = type.isPrimitive() ? type : Object.class;
+                getter = lookup.unreflectGetter(field).asType(MethodType.methodType(exact, Object.class));
+                setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, exact));
+            }
+            catch (IllegalAccessException ex) {
+                throw new IllegalArgumentException(ex);
+            }
+        }
+
+        void Parse(IByteTransform transform, byte[] buffer, int index, Object target) throws Throwable {
+            switch (kind) {
+                case TypeBool:
+                    setter.invokeExact(target, bit < 0 ? buffer[index] != 0 : (buffer[index] & (1 << bit)) != 0);
+                    break;
+                case TypeByte: setter.invokeExact(target, buffer[index]); break;
+                case TypeInt16: setter.invokeExact(target, transform.TransInt16(buffer, index)); break;
+                case TypeInt32: setter.invokeExact(target, transform.TransInt32(buffer, index)); break;
+                case TypeInt64: setter.invokeExact(target, transform.TransInt64(buffer, index)); break;
+                case TypeFloat: setter.invokeExact(target, transform.TransSingle(buffer, index)); break;
+                case TypeDouble: setter.invokeExact(target, transform.TransDouble(buffer, index)); break;
+                case TypeString: {
+                    Object value = TrimEnd(transform.TransString(buffer, index, length, encoding));
+                    setter.invokeExact(target, value);
+                    break;
+                }
+                default: {
+                    // 长度一致的数组直接填充，周期性的解析到同一个对象时不分配新的数组
+                    Object array = (Object) getter.invokeExact(target);
+                    Object fill = ParseArray(transform, buffer, index, array);
+                    if (fill != array) setter.invokeExact(target, fill);
+                    break;
+                }
+            }
+        }
+
+        private Object ParseArray(IByteTransform transform, byte[] buffer, int index, Object array) {
+            switch (kind) {
+                case TypeBoolArray: {
+                    boolean[] values = array instanceof boolean[] && ((boolean[]) array).length == length ? (boolean[]) array : new boolean[length];
+                    for (int i = 0; i < length; i++) {
+                        values[i] = bit < 0 ? buffer[index + i] != 0 : (buffer[index + (bit + i) / 8] & (1 << ((bit + i) % 8))) != 0;
+                    }
+                    return values;
+                }
+                case TypeByteArray: {
+                    byte[] values = array instanceof byte[] && ((byte[]) array).length == length ? (byte[]) array : new byte[length];
+                    System.arraycopy(buffer, index, values, 0, length);
+                    return values;
+                }
+                case TypeInt16Array: {
+                    short[] values = array instanceof short[] && ((short[]) array).length == length ? (short[]) array : new short[length];
+                    transform.TransInt16(buffer, index, values, 0, length);
+                    return values;
+                }
+                case TypeInt32Array: {
+                    int[] values = array instanceof int[] && ((int[]) array).length == length ? (int[]) array : new int[length];
+                    transform.TransInt32(buffer, index, values, 0, length);
+                    return values;
+                }
+                case TypeInt64Array: {
+                    long[] values = array instanceof long[] && ((long[]) array).length == length ? (long[]) array : new long[length];
+                    transform.TransInt64(buffer, index, values, 0, length);
+                    return values;
+                }
+                case TypeFloatArray: {
+                    float[] values = array instanceof float[] && ((float[]) array).length == length ? (float[]) array : new float[length];
+                    transform.TransSingle(buffer, index, values, 0, length);
+                    return values;
+                }
+                default: {
+                    double[] values = array instanceof double[] && ((double[]) array).length == length ? (double[]) array : new double[length];
+                    transform.TransDouble(buffer, index, values, 0, length);
+                    return values;
+                }
+            }
+        }
+
+        void Build(IByteTransform transform, Object source, byte[] buffer, int index) throws Throwable {
+            switch (kind) {
+                case TypeBool: SetBool(buffer, index, bit, (boolean) getter.invokeExact(source)); break;
+                case TypeByte: buffer[index] = (byte) getter.invokeExact(source); break;
+                case TypeInt16: Copy(transform.TransByte((short) getter.invokeExact(source)), buffer, index); break;
+                case TypeInt32: Copy(transform.TransByte((int) getter.invokeExact(source)), buffer, index); break;
+                case TypeInt64: Copy(transform.TransByte((long) getter.invokeExact(source)), buffer, index); break;
+                case TypeFloat: Copy(transform.TransByte((float) getter.invokeExact(source)), buffer, index); break;
+                case TypeDouble: Copy(transform.TransByte((double) getter.invokeExact(source)), buffer, index); break;
+                default: {
+                    Object value = (Object) getter.invokeExact(source);
+                    if (value != null) BuildArray(transform, value, buffer, index);
+                    break;
+                }
+            }
+        }
+
+        private void BuildArray(IByteTransform transform, Object value, byte[] buffer, int index) {
+            // 数组中原来的数据可能是PLC中读取的，字段覆盖的范围先清零，按位的数组只清除字段的位
+            if (kind != TypeBoolArray || bit < 0) Arrays.fill(buffer, index, index + byteLength, (byte) 0);
+            switch (kind) {
+                case TypeString: Copy(transform.TransByte((String) value, encoding), buffer, index); break;
+                case TypeBoolArray: {
+                    boolean[] values = (boolean[]) value;
+                    for (int i = 0; i < length; i++) {
+                        boolean item = i < values.length && values[i];
+                        if (bit < 0) buffer[index + i] = (byte) (item ? 0x01 : 0x00);
+                        else SetBool(buffer, index + (bit + i) / 8, (bit + i) % 8, item);
+                    }
+                    break;
+                }
+                case TypeByteArray: Copy((byte[]) value, buffer, index); break;
+                case TypeInt16Array: Copy(transform.TransByte((short[]) value), buffer, index); break;
+                case TypeInt32Array: Copy(transform.TransByte((int[]) value), buffer, index); break;
+                case TypeInt64Array: Copy(transform.TransByte((long[]) value), buffer, index); break;
+                case TypeFloatArray: Copy(transform.TransByte((float[]) value), buffer, index); break;
+                default: Copy(transform.TransByte((double[]) value), buffer, index); break;
+            }
+        }
+
+        private void Copy(byte[] data, byte[] buffer, int index) {
+            // 超过字段长度的部分截断，不能覆盖其他字段
+            System.arraycopy(data, 0, buffer, index, Math.min(data.length, byteLength));
+        }
+
+        private static void SetBool(byte[] buffer, int index, int bit, boolean value) {
+            if (bit < 0) buffer[index] = (byte) (value ? 0x01 : 0x00);
+            else if (value) buffer[index] |= (byte) (1 << bit);
+            else buffer[index] &= (byte) ~(1 << bit);
+        }
+
+        private static String TrimEnd(String value) {
+            int end = value.length();
+            while (end > 0 && value.charAt(end - 1) == '\0') end--;
+            return value.substring(0, end);
+        }
+
+        int offset;                         // 字节偏移
+        int bit;                            // 位索引
+        int length;                         // 数组或字符串的长度
+        String encoding;                    // 字符串的编码
+        int kind;                           // 字段的类型
+        int byteLength;                     // 字段占用的字节数
+        MethodHandle getter;                // 字段的读取
+        MethodHandle setter;                // 字段的写入
+    }
+}
@@ -0,0 +1,58 @@
+package HslCommunication.Core.Scan;
+
+/**
+ * 扫描点位的数据类型，解析时使用设备的IByteTransform
+ */
+public enum ScanDataType {
+    /**
+     * 布尔值，使用第一个字节
+     */
+    Bool(1),
+    /**
+     * 有符号的16位整数
+     */
+    Int16(2),
+    /**
+     * 无符号的16位整数
+     */
+    UInt16(2),
+    /**
+     * 有符号的32位整数
+     */
+    Int32(4),
+    /**
+     * 无符号的32位整数
+     */
+    UInt32(4),
+    /**
+     * 有符号的64位整数
+     */
+    Int64(8),
+    /**
+     * 单精度的浮点数
+     */
+    Float(4),
+    /**
+     * 双精度的浮点数
+     */
+    Double(8),
+    /**
+     * ASCII编码的字符串，长度由点位指定
+     */
+    String(0);
+
+
+    ScanDataType(int byteLength) {
+        this.byteLength = byteLength;
+    }
+
+    /**
+     * 获取数据的字节长度，字符串为0
+     * @return 字节长度
+     */
+    public int getByteLength() {
+        return byteLength;
+    }
+
+    private int byteLength;
+}
@@ -0,0 +1,19 @@
+package HslCommunication.Core.Scan;
+
+/**
+ * 数值点位的死区类型，新的值和上一次通知的值的差超过死区时才通知
+ */
+public enum ScanDeadbandMode {
+    /**
+     * 没有死区，原始数据变化时就通知
+     */
+    None,
+    /**
+     * 绝对值的死区，差的绝对值超过死区时通知
+     */
+    Absolute,
+    /**
+     * 百分比的死区，差的绝对值超过上一次通知的值的百分比时通知
+     */
+    Percent
+}
@@ -0,0 +1,347 @@
+package HslCommunication.Core.Scan;
+
+import HslCommunication.Core.Net.NetworkBase.NetworkDeviceBase;
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 点位的扫描引擎，点位按照设备及扫描周期分组，同一组中相邻的地址合并为数据块读取，使用设备的IByteTransform解析之后通知监听对象，
+ * 默认只通知原始数据变化或是超过死区的点位。
+ * 所有的分组在固定数量的线程中调度，每一组按照固定的周期执行，同一组不会重叠执行，来不及执行的周期直接跳过并计数，
+ * 不同的分组的起始时间错开，避免同一时刻集中读取 ->
+ * The tag scan engine, tags are grouped by device and scan rate, neighbouring addresses are read as one block, all groups run on a bounded scheduler
+ */
+public class ScanEngine {
+
+    /**
+     * 实例化一个默认使用8个扫描线程的引擎
+     */
+    public ScanEngine() {
+        this(8);
+    }
+
+    /**
+     * 实例化一个指定扫描线程数量的引擎，同一时刻最多有该数量的设备正在读取
+     * @param threadCount 扫描线程的数量
+     */
+    public ScanEngine(int threadCount) {
+        executor = new ScheduledThreadPoolExecutor(Math.max(threadCount, 1), new ThreadFactory() {
+            private AtomicInteger index = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "HslScanEngine-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+
+    /**
+     * 添加一个点位，地址能被设备拆分为区域及偏移时参与合并读取
+     * @param device 设备对象
+     * @param address 地址
+     * @param dataType 数据类型，字符串需要使用指定长度的重载方法
+     * @param scanRate 扫描周期，单位毫秒
+     * @return 点位对象
+     */
+    public ScanTag AddTag(NetworkDeviceBase<?, ?> device, String address, ScanDataType dataType, int scanRate) {
+        return AddTag(device, address, dataType, dataType.getByteLength(), scanRate);
+    }
+
+    /**
+     * 添加一个点位，地址能被设备拆分为区域及偏移时参与合并读取
+     * @param device 设备对象
+     * @param address 地址
+     * @param dataType 数据类型
+     * @param length 字符串的字节长度，其他类型忽略该参数
+     * @param scanRate 扫描周期，单位毫秒
+     * @return 点位对象
+     */
+    public ScanTag AddTag(NetworkDeviceBase<?, ?> device, String address, ScanDataType dataType, int length, int scanRate) {
+        ScanTag tag = new ScanTag(device, address, dataType, Math.max(length, 1), Math.max(scanRate, 1));
+        if (dataType == ScanDataType.Bool) {
+            // 位点位读取所在的字节或字，按照位索引解析，所在的字能拆分时同样参与合并读取
+            OperateResultExTwo<String, Integer> bit = device.AnalysisBitAddress(address);
+            if (bit.IsSuccess) tag.SetBitAddress(bit.Content1, bit.Content2);
+        }
+        OperateResultExTwo<String, Integer> analysis = device.AnalysisAddressOffset(tag.readAddress);
+        if (analysis.IsSuccess) {
+            tag.area = analysis.Content1;
+            tag.offset = analysis.Content2;
+        }
+
+        ScanGroup group;
+        boolean isNew = false;
+        synchronized (groups) {
+            HashMap<Integer, ScanGroup> rates = groups.get(device);
+            if (rates == null) {
+                rates = new HashMap<>();
+                groups.put(device, rates);
+            }
+            group = rates.get(tag.getScanRate());
+            if (group == null) {
+                group = new ScanGroup(device, tag.getScanRate());
+                rates.put(tag.getScanRate(), group);
+                isNew = true;
+            }
+            group.AddTag(tag);
+            if (isNew && isStarted) StartGroup(group);
+        }
+        return tag;
+    }
+
+    /**
+     * 移除一个点位，分组中没有点位之后停止扫描
+     * @param tag 点位对象
+     * @return 是否移除成功
+     */
+    public boolean RemoveTag(ScanTag tag) {
+        synchronized (groups) {
+            HashMap<Integer, ScanGroup> rates = groups.get(tag.getDevice());
+            if (rates == null) return false;
+            ScanGroup group = rates.get(tag.getScanRate());
+            if (group == null || !group.RemoveTag(tag)) return false;
+
+            if (group.IsEmpty()) {
+                group.isRemoved = true;
+                if (group.future != null) group.future.cancel(false);
+                rates.remove(tag.getScanRate());
+                if (rates.isEmpty()) groups.remove(tag.getDevice());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 添加一个监听对象，点位变化之后调用，调用在扫描的线程中执行，不能长时间阻塞
+     * @param listener 监听对象
+     */
+    public void AddListener(ActionOperateExOne<ScanTag> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 移除一个监听对象
+     * @param listener 监听对象
+     */
+    public void RemoveListener(ActionOperateExOne<ScanTag> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 启动所有分组的扫描
+     */
+    public void Start() {
+        synchronized (groups) {
+            if (isStarted) return;
+            isStarted = true;
+            for (HashMap<Integer, ScanGroup> rates : groups.values()) {
+                for (ScanGroup group : rates.values()) StartGroup(group);
+            }
+        }
+    }
+
+    /**
+     * 停止扫描，正在进行的读取完成之后不再调度，可以再次启动
+     */
+    public void Stop() {
+        synchronized (groups) {
+            isStarted = false;
+            for (HashMap<Integer, ScanGroup> rates : groups.values()) {
+                for (ScanGroup group : rates.values()) {
+                    if (group.future != null) group.future.cancel(false);
+                    group.future = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 停止扫描并释放扫描线程，之后不能再启动
+     */
+    public void Shutdown() {
+        Stop();
+        executor.shutdown();
+    }
+
+
+    /**
+     * 获取两个地址之间间隔的字节数小于等于该值时合并读取，默认32
+     * @return 间隔的字节数
+     */
+    public int getMergeGap() {
+        return mergeGap;
+    }
+
+    /**
+     * 设置两个地址之间间隔的字节数小于等于该值时合并读取
+     * @param mergeGap 间隔的字节数
+     */
+    public void setMergeGap(int mergeGap) {
+        this.mergeGap = Math.max(mergeGap, 0);
+    }
+
+    /**
+     * 获取合并之后的一个数据块的最大字节数，默认480
+     * @return 最大字节数
+     */
+    public int getMaxBlockLength() {
+        return maxBlockLength;
+    }
+
+    /**
+     * 设置合并之后的一个数据块的最大字节数，超过设备单条报文长度的数据块由设备拆分为多条报文
+     * @param maxBlockLength 最大字节数
+     */
+    public void setMaxBlockLength(int maxBlockLength) {
+        this.maxBlockLength = Math.max(maxBlockLength, 2);
+    }
+
+    /**
+     * 获取是否只通知变化的点位，默认为true，第一次扫描及读取结果的成功或失败变化时总是通知
+     * @return 是否按变化通知
+     */
+    public boolean getReportByException() {
+        return reportByException;
+    }
+
+    /**
+     * 设置是否只通知变化的点位，为false时每次扫描都通知所有的点位
+     * @param reportByException 是否按变化通知
+     */
+    public void setReportByException(boolean reportByException) {
+        this.reportByException = reportByException;
+    }
+
+    /**
+     * 获取所有分组完成的扫描次数
+     * @return 扫描次数
+     */
+    public long getScanCount() {
+        return scanCount.get();
+    }
+
+    /**
+     * 获取因为上一次扫描还没有完成而跳过的周期数
+     * @return 跳过的周期数
+     */
+    public long getOverrunCount() {
+        return overrunCount.get();
+    }
+
+    /**
+     * 获取扫描的实际开始时间和计划时间的最大偏差，单位毫秒
+     * @return 最大偏差
+     */
+    public long getMaxJitter() {
+        return maxJitter.get();
+    }
+
+    /**
+     * 清空扫描次数，跳过的周期数及最大偏差的统计
+     */
+    public void ResetStatistics() {
+        scanCount.set(0);
+        overrunCount.set(0);
+        maxJitter.set(0);
+    }
+
+
+    private void StartGroup(ScanGroup group) {
+        // 按照黄金分割错开每一组的起始时间，分组数量增加时仍然分布均匀
+        double phase = (groupIndex++ * 0.6180339887) % 1.0;
+        long delay = (long) (group.scanRate * phase);
+        group.nextTime = System.currentTimeMillis() + delay;
+        // 重新启动之后，停止之前正在扫描的调度链不再继续
+        group.generation++;
+        ScheduleGroup(group, delay, group.generation);
+    }
+
+    private void ScheduleGroup(final ScanGroup group, long delay, final int generation) {
+        group.future = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                RunGroup(group, generation);
+            }
+        }, Math.max(delay, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void RunGroup(ScanGroup group, int generation) {
+        if (group.isRemoved || !isStarted || group.generation != generation) return;
+
+        long jitter = System.currentTimeMillis() - group.nextTime;
+        long max;
+        while (jitter > (max = maxJitter.get()) && !maxJitter.compareAndSet(max, jitter)) ;
+
+        ArrayList<ScanTag> updated = null;
+        try {
+            updated = group.Scan(mergeGap, maxBlockLength, reportByException);
+        }
+        catch (Exception ex) {
+            // 单个设备的异常不能影响其他的分组
+        }
+        scanCount.incrementAndGet();
+        if (updated != null) Publish(updated);
+
+        // 按照计划时间计算下一次，不累积误差，已经错过的周期直接跳过
+        long now = System.currentTimeMillis();
+        long next = group.nextTime + group.scanRate;
+        if (next <= now) {
+            long missed = (now - next) / group.scanRate + 1;
+            overrunCount.addAndGet(missed);
+            next += missed * group.scanRate;
+        }
+        group.nextTime = next;
+
+        synchronized (groups) {
+            if (!group.isRemoved && isStarted && group.generation == generation) ScheduleGroup(group, next - now, generation);
+        }
+    }
+
+    private void Publish(ArrayList<ScanTag> updated) {
+        for (ScanTag tag : updated) {
+            ActionOperateExOne<ScanTag> listener = tag.getListener();
+            if (listener != null) {
+                try {
+                    listener.Action(tag);
+                }
+                catch (Exception ex) {
+
+                }
+            }
+            for (ActionOperateExOne<ScanTag> action : listeners) {
+                try {
+                    action.Action(tag);
+                }
+                catch (Exception ex) {
+
+                }
+            }
+        }
+    }
+
+
+    private ScheduledThreadPoolExecutor executor = null;                                                  // 扫描的线程
+    private HashMap<NetworkDeviceBase<?, ?>, HashMap<Integer, ScanGroup>> groups = new HashMap<>();       // 按照设备及周期的分组
+    private CopyOnWriteArrayList<ActionOperateExOne<ScanTag>> listeners = new CopyOnWriteArrayList<>();   // 所有的监听对象
+    private volatile boolean isStarted = false;                                                           // 是否已经启动
+    private volatile int mergeGap = 32;                                                                   // 合并的间隔字节数
+    private volatile int maxBlockLength = 480;                                                            // 数据块的最大字节数
+    private volatile boolean reportByException = true;                                                    // 是否只通知变化的点位
+    private int groupIndex = 0;                                                                           // 分组的序号，用于错开起始时间
+    private AtomicLong scanCount = new AtomicLong();                                                      // 扫描的次数
+    private AtomicLong overrunCount = new AtomicLong();                                                   // 跳过的周期数
+    private AtomicLong maxJitter = new AtomicLong();                                                      // 最大的偏差
+}
@@ -0,0 +1,216 @@
+package HslCommunication.Core.Scan;
+
+import HslCommunication.Core.Net.NetworkBase.NetworkDeviceBase;
+import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 同一个设备及同一个扫描周期的点位，相邻的地址合并为数据块读取，一个周期内按顺序读取所有的数据块
+ */
+class ScanGroup {
+
+    ScanGroup(NetworkDeviceBase<?, ?> device, int scanRate) {
+        this.device = device;
+        this.scanRate = scanRate;
+    }
+
+
+    synchronized void AddTag(ScanTag tag) {
+        tags.add(tag);
+        blocks = null;
+    }
+
+    synchronized boolean RemoveTag(ScanTag tag) {
+        boolean remove = tags.remove(tag);
+        if (remove) blocks = null;
+        return remove;
+    }
+
+    synchronized boolean IsEmpty() {
+        return tags.isEmpty();
+    }
+
+    /**
+     * 获取当前的数据块，点位变化之后重新合并
+     */
+    synchronized ScanBlock[] GetBlocks(int mergeGap, int maxBlockLength) {
+        if (blocks == null || this.mergeGap != mergeGap || this.maxBlockLength != maxBlockLength) {
+            blocks = CreateBlocks(mergeGap, maxBlockLength);
+            this.mergeGap = mergeGap;
+            this.maxBlockLength = maxBlockLength;
+        }
+        return blocks;
+    }
+
+    /**
+     * 读取所有的数据块，解析之后更新点位的值
+     * @param reportByException 是否只返回变化的点位，变化按照原始数据及死区判断，读取结果的成功或失败变化时总是返回
+     * @return 本次扫描需要通知的点位
+     */
+    ArrayList<ScanTag> Scan(int mergeGap, int maxBlockLength, boolean reportByException) {
+        ScanBlock[] plan = GetBlocks(mergeGap, maxBlockLength);
+        IByteTransform transform = device.getByteTransform();
+        int unitBytes = GetUnitBytes();
+        ArrayList<ScanTag> updated = new ArrayList<>();
+
+        for (ScanBlock block : plan) {
+            OperateResultExOne<byte[]> read = device.Read(block.address, (short) block.length);
+            long timestamp = System.currentTimeMillis();
+            byte[] last = block.lastData;
+            block.lastData = read.IsSuccess ? read.Content : null;
+
+            if (!read.IsSuccess) {
+                for (ScanTag tag : block.tags) {
+                    boolean changed = tag.getQuality().IsSuccess || tag.getTimestamp() == 0;
+                    tag.Update(null, read, timestamp);
+                    if (changed || !reportByException) updated.add(tag);
+                }
+                continue;
+            }
+
+            // 整个数据块的原始数据都没有变化时不需要解析
+            boolean isSame = reportByException && last != null && Arrays.equals(last, read.Content);
+            for (ScanTag tag : block.tags) {
+                boolean isRecovered = !tag.getQuality().IsSuccess;
+                if (isSame && !isRecovered) continue;
+
+                int index = block.area == null ? 0 : (tag.offset - block.start) * unitBytes;
+                if (index + tag.getLength() > read.Content.length) {
+                    tag.Update(null, new OperateResult(StringResources.Language.ReceiveDataLengthTooShort() + read.Content.length), timestamp);
+                    updated.add(tag);
+                    continue;
+                }
+
+                // 和点位自身保存的原始数据比较，数据块重新合并之后没有变化的点位也不会通知
+                boolean isCheck = reportByException && !isRecovered;
+                boolean isRawSame = RangeEquals(tag.lastData, read.Content, index, tag.getLength());
+                if (!isRawSame) tag.lastData = Arrays.copyOfRange(read.Content, index, index + tag.getLength());
+                if (isCheck && isRawSame) continue;
+
+                Object value = Decode(transform, tag.getDataType(), read.Content, index, tag.getLength(), tag.bit);
+                if (isCheck && !tag.IsOutsideDeadband(value)) continue;
+
+                tag.Update(value, read, timestamp);
+                updated.add(tag);
+            }
+        }
+        return updated;
+    }
+
+    private static boolean RangeEquals(byte[] last, byte[] buffer, int index, int length) {
+        if (last == null || last.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (last[i] != buffer[index + i]) return false;
+        }
+        return true;
+    }
+
+
+    private ScanBlock[] CreateBlocks(int mergeGap, int maxBlockLength) {
+        int unitBytes = GetUnitBytes();
+        int gapUnits = mergeGap / unitBytes;
+        int maxUnits = Math.max(maxBlockLength / unitBytes, 1);
+
+        ArrayList<ScanTag> mergeable = new ArrayList<>();
+        ArrayList<ScanBlock> result = new ArrayList<>();
+        for (ScanTag tag : tags) {
+            if (tag.area == null) {
+                // 地址不支持拆分的点位单独读取
+                ScanBlock block = new ScanBlock(null, tag.readAddress, 0, GetUnits(tag, unitBytes));
+                block.tags.add(tag);
+                result.add(block);
+            }
+            else {
+                mergeable.add(tag);
+            }
+        }
+
+        Collections.sort(mergeable, new Comparator<ScanTag>() {
+            @Override
+            public int compare(ScanTag a, ScanTag b) {
+                int area = a.area.compareTo(b.area);
+                if (area != 0) return area;
+                return Integer.compare(a.offset, b.offset);
+            }
+        });
+
+        ScanBlock current = null;
+        for (ScanTag tag : mergeable) {
+            int units = GetUnits(tag, unitBytes);
+            int end = tag.offset + units;
+            if (current == null || !current.area.equals(tag.area) || tag.offset > current.start + current.length + gapUnits ||
+                    Math.max(end, current.start + current.length) - current.start > maxUnits) {
+                current = new ScanBlock(tag.area, device.CreateAddressOffset(tag.area, tag.offset), tag.offset, units);
+                result.add(current);
+            }
+            else {
+                current.length = Math.max(current.length, end - current.start);
+            }
+            current.tags.add(tag);
+        }
+        return result.toArray(new ScanBlock[0]);
+    }
+
+    private int GetUnitBytes() {
+        // Read方法的一个长度单位对应的字节数，西门子为1，其他按字读取的设备为2
+        return Math.max(2 / Math.max(device.getWordLength(), 1), 1);
+    }
+
+    private static int GetUnits(ScanTag tag, int unitBytes) {
+        return Math.max((tag.getLength() + unitBytes - 1) / unitBytes, 1);
+    }
+
+    static Object Decode(IByteTransform transform, ScanDataType type, byte[] buffer, int index, int length, int bit) {
+        switch (type) {
+            case Bool: return (buffer[index + bit / 8] & (1 << (bit % 8))) != 0;
+            case Int16: return transform.TransInt16(buffer, index);
+            case UInt16: return transform.TransInt16(buffer, index) & 0xFFFF;
+            case Int32: return transform.TransInt32(buffer, index);
+            case UInt32: return transform.TransInt32(buffer, index) & 0xFFFFFFFFL;
+            case Int64: return transform.TransInt64(buffer, index);
+            case Float: return transform.TransSingle(buffer, index);
+            case Double: return transform.TransDouble(buffer, index);
+            default: return transform.TransString(buffer, index, length, "US-ASCII");
+        }
+    }
+
+
+    NetworkDeviceBase<?, ?> device = null;                          // 所在的设备
+    int scanRate = 1000;                                            // 扫描周期
+    volatile boolean isRemoved = false;                             // 是否已经从引擎中移除
+    volatile int generation = 0;                                    // 启动的批次
+    long nextTime = 0;                                              // 下一次扫描的计划时间
+    ScheduledFuture<?> future = null;                               // 下一次扫描的定时任务
+    private ArrayList<ScanTag> tags = new ArrayList<>();            // 所有的点位
+    private ScanBlock[] blocks = null;                              // 合并之后的数据块
+    private int mergeGap = 0;                                       // 创建数据块时的合并间隔
+    private int maxBlockLength = 0;                                 // 创建数据块时的最大长度
+
+
+    /**
+     * 一次读取的数据块
+     */
+    static class ScanBlock {
+        ScanBlock(String area, String address, int start, int length) {
+            this.area = area;
+            this.address = address;
+            this.start = start;
+            this.length = length;
+        }
+
+        String area;                                                // 区域，为null时是单独读取的点位
+        String address;                                             // 读取的地址
+        int start;                                                  // 起始的偏移地址
+        int length;                                                 // 读取的长度
+        ArrayList<ScanTag> tags = new ArrayList<>();                // 包含的点位
+        byte[] lastData = null;                                     // 上一次读取的原始数据
+    }
+}
@@ -0,0 +1,184 @@
+package HslCommunication.Core.Scan;
+
+import HslCommunication.Core.Net.NetworkBase.NetworkDeviceBase;
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.OperateResult;
+
+/**
+ * 扫描引擎中的一个点位，包含地址，数据类型，扫描周期，以及最近一次扫描的值和结果 ->
+ * A tag of the scan engine, contains the address, data type, scan rate and the value of the last scan
+ */
+public class ScanTag {
+
+    ScanTag(NetworkDeviceBase<?, ?> device, String address, ScanDataType dataType, int length, int scanRate) {
+        this.device = device;
+        this.address = address;
+        this.dataType = dataType;
+        this.length = dataType == ScanDataType.String ? length : dataType.getByteLength();
+        this.scanRate = scanRate;
+        this.readAddress = address;
+    }
+
+
+    /**
+     * 获取点位所在的设备
+     * @return 设备对象
+     */
+    public NetworkDeviceBase<?, ?> getDevice() {
+        return device;
+    }
+
+    /**
+     * 获取点位的地址
+     * @return 地址信息
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * 获取点位的数据类型
+     * @return 数据类型
+     */
+    public ScanDataType getDataType() {
+        return dataType;
+    }
+
+    /**
+     * 获取点位数据的字节长度
+     * @return 字节长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获取扫描的周期，单位毫秒
+     * @return 扫描周期
+     */
+    public int getScanRate() {
+        return scanRate;
+    }
+
+    /**
+     * 获取最近一次通知的值，类型和数据类型对应，UInt16为Integer，UInt32为Long，读取失败时保留上一次的值
+     * @return 值
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * 获取最近一次扫描的结果，读取失败时包含错误信息
+     * @return 扫描结果
+     */
+    public OperateResult getQuality() {
+        return quality;
+    }
+
+    /**
+     * 获取最近一次通知的时间，单位毫秒，按变化通知时没有变化的扫描不更新
+     * @return 时间戳
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 获取点位自身的监听对象
+     * @return 监听对象
+     */
+    public ActionOperateExOne<ScanTag> getListener() {
+        return listener;
+    }
+
+    /**
+     * 设置点位自身的监听对象，点位需要通知时调用，调用在扫描的线程中执行
+     * @param listener 监听对象
+     */
+    public void setListener(ActionOperateExOne<ScanTag> listener) {
+        this.listener = listener;
+    }
+
+
+    /**
+     * 获取死区的类型
+     * @return 死区类型
+     */
+    public ScanDeadbandMode getDeadbandMode() {
+        return deadbandMode;
+    }
+
+    /**
+     * 获取死区的大小，百分比的死区单位为%
+     * @return 死区大小
+     */
+    public double getDeadband() {
+        return deadband;
+    }
+
+    /**
+     * 设置数值点位的死区，只对数值类型有效，原始数据变化但是没有超过死区时不通知，也不更新点位的值
+     * @param mode 死区类型
+     * @param deadband 死区大小，百分比的死区单位为%
+     */
+    public void setDeadband(ScanDeadbandMode mode, double deadband) {
+        this.deadbandMode = mode;
+        this.deadband = Math.abs(deadband);
+    }
+
+
+    /**
+     * 设置位点位实际读取的地址及位索引，长度为位索引所在的字节数
+     */
+    void SetBitAddress(String readAddress, int bit) {
+        this.readAddress = readAddress;
+        this.bit = bit;
+        this.length = bit / 8 + 1;
+    }
+
+    /**
+     * 新的值是否超过了死区，和上一次通知的值比较，非数值的点位比较值是否相等
+     */
+    boolean IsOutsideDeadband(Object newValue) {
+        if (!(newValue instanceof Number) || !(value instanceof Number)) return value == null || !value.equals(newValue);
+        if (deadbandMode == ScanDeadbandMode.None) return true;
+
+        double last = ((Number) value).doubleValue();
+        double diff = Math.abs(((Number) newValue).doubleValue() - last);
+        if (Double.isNaN(diff)) return true;
+        if (deadbandMode == ScanDeadbandMode.Absolute) return diff > deadband;
+        return diff > Math.abs(last) * deadband / 100.0;
+    }
+
+    void Update(Object value, OperateResult quality, long timestamp) {
+        if (quality.IsSuccess) this.value = value;
+        this.quality = quality;
+        this.timestamp = timestamp;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ScanTag[" + address + "," + dataType + "," + scanRate + "ms]";
+    }
+
+
+    private NetworkDeviceBase<?, ?> device = null;                  // 所在的设备
+    private String address = null;                                  // 地址
+    private ScanDataType dataType = ScanDataType.Int16;             // 数据类型
+    private int length = 0;                                         // 字节长度
+    private int scanRate = 1000;                                    // 扫描周期
+    private volatile Object value = null;                           // 最近一次的值
+    private volatile OperateResult quality = new OperateResult();   // 最近一次的结果
+    private volatile long timestamp = 0;                            // 最近一次的时间
+    private volatile ActionOperateExOne<ScanTag> listener = null;   // 点位的监听
+    private volatile ScanDeadbandMode deadbandMode = ScanDeadbandMode.None;  // 死区类型
+    private volatile double deadband = 0;                           // 死区大小
+
+    String readAddress = null;                                      // 实际读取的地址，位点位为所在的字节或字
+    int bit = 0;                                                    // 位点位在读取的数据中的位索引
+    String area = null;                                             // 拆分后的区域，为null时不能合并读取
+    int offset = 0;                                                 // 拆分后的偏移地址
+    byte[] lastData = null;                                         // 上一次读取的原始数据，数据块重新合并之后仍然保留
+}
@@ -0,0 +1,216 @@
+package HslCommunication.Core.Thread;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 哈希时间轮，所有的连接，接收及握手的超时都注册到同一个后台线程中，添加和取消都是O(1)的操作，
+ * 没有定时任务的时候后台线程挂起，不占用CPU。到期的任务在时间轮的线程中执行，必须是很短的操作，比如关闭套接字 ->
+ * Hashed timer wheel, timeouts of all devices are registered to one background thread, add and cancel are O(1), the thread parks while idle
+ */
+public class HslTimerWheel {
+
+    /**
+     * 实例化一个时间轮
+     * @param name 后台线程的名称
+     * @param tickDuration 每一格的时间，单位毫秒，超时的精度
+     * @param wheelSize 格子的数量，会调整为2的幂
+     */
+    public HslTimerWheel(String name, int tickDuration, int wheelSize) {
+        this.name = name;
+        this.tickDuration = Math.max(tickDuration, 1);
+        int size = 1;
+        while (size < wheelSize) size <<= 1;
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+    }
+
+
+    /**
+     * 获取全局共享的时间轮，精度为10毫秒
+     * @return 时间轮
+     */
+    public static HslTimerWheel getDefault() {
+        return DefaultHolder.wheel;
+    }
+
+    /**
+     * 注册一个延时执行的任务，返回的对象可以取消执行
+     * @param task 到期时执行的任务
+     * @param delay 延时的时间，单位毫秒
+     * @return 超时对象
+     */
+    public Timeout Schedule(Runnable task, long delay) {
+        Timeout timeout = new Timeout(this, task, System.currentTimeMillis() + Math.max(delay, 0));
+        pendingTimeouts.add(timeout);
+        if (timeoutCount.getAndIncrement() == 0) Start();
+        return timeout;
+    }
+
+    /**
+     * 获取当前还没有到期或取消的任务的数量
+     * @return 任务数量
+     */
+    public int getPendingCount() {
+        return timeoutCount.get();
+    }
+
+
+    private void Start() {
+        Thread worker = thread;
+        if (worker == null) {
+            synchronized (this) {
+                if (thread == null) {
+                    thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            ThreadBackground();
+                        }
+                    }, name);
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                return;
+            }
+        }
+        LockSupport.unpark(worker);
+    }
+
+    private void ThreadBackground() {
+        long tick = System.currentTimeMillis() / tickDuration;
+        while (true) {
+            if (timeoutCount.get() == 0) {
+                // 没有任务的时候挂起，直到新的任务注册
+                LockSupport.park(this);
+                tick = System.currentTimeMillis() / tickDuration;
+                continue;
+            }
+
+            long now = System.currentTimeMillis();
+            long current = now / tickDuration;
+            TransferPending(current);
+            // 线程被延迟时补上中间的格子，最多转一圈
+            long from = Math.max(tick, current - mask);
+            for (long i = from; i <= current; i++) ExpireBucket((int) (i & mask), now);
+            tick = current + 1;
+
+            long sleep = tick * tickDuration - System.currentTimeMillis();
+            if (sleep > 0) LockSupport.parkNanos(this, sleep * 1000000L);
+        }
+    }
+
+    private void TransferPending(long current) {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.state.get() != StateInit) continue;
+            // 向上取整到格子的开始时间，经过该格子时一定已经到期；已经过期的任务放到当前的格子，超过一圈的任务在每次经过时检查截止时间
+            long deadlineTick = (timeout.deadline + tickDuration - 1) / tickDuration;
+            int index = (int) (Math.max(deadlineTick, current) & mask);
+            timeout.next = buckets[index];
+            buckets[index] = timeout;
+        }
+    }
+
+    private void ExpireBucket(int index, long now) {
+        Timeout previous = null;
+        Timeout timeout = buckets[index];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean remove;
+            if (timeout.state.get() != StateInit) {
+                remove = true;
+            }
+            else if (timeout.deadline <= now) {
+                remove = true;
+                timeout.Expire();
+            }
+            else {
+                remove = false;
+            }
+
+            if (remove) {
+                if (previous == null) buckets[index] = next;
+                else previous.next = next;
+                timeout.next = null;
+            }
+            else {
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+
+    private String name = null;                                                             // 后台线程的名称
+    private int tickDuration = 10;                                                          // 每一格的时间
+    private Timeout[] buckets = null;                                                       // 所有的格子，只在后台线程中访问
+    private int mask = 0;                                                                   // 格子的掩码
+    private volatile Thread thread = null;                                                  // 后台线程
+    private ConcurrentLinkedQueue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>(); // 刚注册还没有放到格子中的任务
+    private AtomicInteger timeoutCount = new AtomicInteger();                               // 还没有结束的任务数量
+
+    private static final int StateInit = 0;
+    private static final int StateCanceled = 1;
+    private static final int StateExpired = 2;
+
+    private static class DefaultHolder {
+        static final HslTimerWheel wheel = new HslTimerWheel("HslTimerWheel", 10, 512);
+    }
+
+
+    /**
+     * 时间轮中的超时任务
+     */
+    public static class Timeout {
+
+        private Timeout(HslTimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消当前的任务，已经执行的任务无法取消
+         * @return 是否取消成功
+         */
+        public boolean Cancel() {
+            if (!state.compareAndSet(StateInit, StateCanceled)) return false;
+            wheel.timeoutCount.decrementAndGet();
+            return true;
+        }
+
+        /**
+         * 任务是否已经取消
+         * @return 是否取消
+         */
+        public boolean IsCanceled() {
+            return state.get() == StateCanceled;
+        }
+
+        /**
+         * 任务是否已经到期执行
+         * @return 是否到期
+         */
+        public boolean IsExpired() {
+            return state.get() == StateExpired;
+        }
+
+        private void Expire() {
+            if (!state.compareAndSet(StateInit, StateExpired)) return;
+            wheel.timeoutCount.decrementAndGet();
+            try {
+                task.run();
+            }
+            catch (Exception ex) {
+                // 单个任务的异常不能影响时间轮
+            }
+        }
+
+        private HslTimerWheel wheel;
+        private Runnable task;
+        private long deadline;
+        private Timeout next = null;
+        private AtomicInteger state = new AtomicInteger(StateInit);
+    }
+}
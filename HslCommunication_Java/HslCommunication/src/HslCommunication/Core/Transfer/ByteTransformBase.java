@@ -2,6 +2,9 @@ package HslCommunication.Core.Transfer;
 
 import HslCommunication.Utilities;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 
 /**
  * 字节转换类的基类，提供了一些基础的转换方法
@@ -59,7 +62,8 @@ public class ByteTransformBase implements IByteTransform {
      * @return short对象
      */
     public short TransInt16(byte[] buffer, int index) {
-        return Utilities.getShort(buffer, index);
+        short value = Utilities.getShort(buffer, index);
+        return IsInt16Reverse() ? Short.reverseBytes(value) : value;
     }
 
     /**
@@ -72,10 +76,24 @@ public class ByteTransformBase implements IByteTransform {
      */
     public short[] TransInt16(byte[] buffer, int index, int length) {
         short[] tmp = new short[length];
+        TransInt16(buffer, index, tmp, 0, length);
+        return tmp;
+    }
+
+    /**
+     * 从缓存中提取short数组结果到指定的数组中，不创建新的数组，周期性的解析时可以重复使用同一个数组
+     *
+     * @param buffer 缓存数据
+     * @param index  索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    public void TransInt16(byte[] buffer, int index, short[] values, int offset, int length) {
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(IsInt16Reverse() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
         for (int i = 0; i < length; i++) {
-            tmp[i] = TransInt16(buffer, index + 2 * i);
+            values[offset + i] = view.getShort(index + 2 * i);
         }
-        return tmp;
     }
 
     /**
@@ -86,7 +104,7 @@ public class ByteTransformBase implements IByteTransform {
      * @return int对象
      */
     public int TransInt32(byte[] buffer, int index) {
-        return Utilities.getInt(ByteTransDataFormat4(buffer, index),0);
+        return TransDataFormat(Utilities.getInt(buffer, index), GetTransDataFormat());
     }
 
 
@@ -100,10 +118,25 @@ public class ByteTransformBase implements IByteTransform {
      */
     public int[] TransInt32(byte[] buffer, int index, int length) {
         int[] tmp = new int[length];
+        TransInt32(buffer, index, tmp, 0, length);
+        return tmp;
+    }
+
+    /**
+     * 从缓存中提取int数组结果到指定的数组中，不创建新的数组，周期性的解析时可以重复使用同一个数组
+     *
+     * @param buffer 缓存数据
+     * @param index  索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    public void TransInt32(byte[] buffer, int index, int[] values, int offset, int length) {
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < length; i++) {
-            tmp[i] = TransInt32(buffer, index + 4 * i);
+            values[offset + i] = TransDataFormat(view.getInt(index + 4 * i), format);
         }
-        return tmp;
     }
 
 
@@ -115,7 +148,7 @@ public class ByteTransformBase implements IByteTransform {
      * @return long对象
      */
     public long TransInt64(byte[] buffer, int index) {
-        return Utilities.getLong(ByteTransDataFormat8(buffer, index),0);
+        return TransDataFormat(Utilities.getLong(buffer, index), GetTransDataFormat());
     }
 
 
@@ -129,10 +162,25 @@ public class ByteTransformBase implements IByteTransform {
      */
     public long[] TransInt64(byte[] buffer, int index, int length) {
         long[] tmp = new long[length];
+        TransInt64(buffer, index, tmp, 0, length);
+        return tmp;
+    }
+
+    /**
+     * 从缓存中提取long数组结果到指定的数组中，不创建新的数组，周期性的解析时可以重复使用同一个数组
+     *
+     * @param buffer 缓存数据
+     * @param index  索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    public void TransInt64(byte[] buffer, int index, long[] values, int offset, int length) {
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < length; i++) {
-            tmp[i] = TransInt64(buffer, index + 8 * i);
+            values[offset + i] = TransDataFormat(view.getLong(index + 8 * i), format);
         }
-        return tmp;
     }
 
 
@@ -144,7 +192,7 @@ public class ByteTransformBase implements IByteTransform {
      * @return float对象
      */
     public float TransSingle(byte[] buffer, int index) {
-        return Utilities.getFloat(ByteTransDataFormat4(buffer, index),0);
+        return Float.intBitsToFloat(TransDataFormat(Utilities.getInt(buffer, index), GetTransDataFormat()));
     }
 
 
@@ -158,10 +206,25 @@ public class ByteTransformBase implements IByteTransform {
      */
     public float[] TransSingle(byte[] buffer, int index, int length) {
         float[] tmp = new float[length];
+        TransSingle(buffer, index, tmp, 0, length);
+        return tmp;
+    }
+
+    /**
+     * 从缓存中提取float数组结果到指定的数组中，不创建新的数组，周期性的解析时可以重复使用同一个数组
+     *
+     * @param buffer 缓存数据
+     * @param index  索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    public void TransSingle(byte[] buffer, int index, float[] values, int offset, int length) {
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < length; i++) {
-            tmp[i] = TransSingle(buffer, index + 4 * i);
+            values[offset + i] = Float.intBitsToFloat(TransDataFormat(view.getInt(index + 4 * i), format));
         }
-        return tmp;
     }
 
 
@@ -173,7 +236,7 @@ public class ByteTransformBase implements IByteTransform {
      * @return double对象
      */
     public double TransDouble(byte[] buffer, int index) {
-        return Utilities.getDouble(ByteTransDataFormat8(buffer, index),0);
+        return Double.longBitsToDouble(TransDataFormat(Utilities.getLong(buffer, index), GetTransDataFormat()));
     }
 
 
@@ -187,10 +250,25 @@ public class ByteTransformBase implements IByteTransform {
      */
     public double[] TransDouble(byte[] buffer, int index, int length) {
         double[] tmp = new double[length];
+        TransDouble(buffer, index, tmp, 0, length);
+        return tmp;
+    }
+
+    /**
+     * 从缓存中提取double数组结果到指定的数组中，不创建新的数组，周期性的解析时可以重复使用同一个数组
+     *
+     * @param buffer 缓存数据
+     * @param index  索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    public void TransDouble(byte[] buffer, int index, double[] values, int offset, int length) {
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < length; i++) {
-            tmp[i] = TransDouble(buffer, index + 8 * i);
+            values[offset + i] = Double.longBitsToDouble(TransDataFormat(view.getLong(index + 8 * i), format));
         }
-        return tmp;
     }
 
 
@@ -265,9 +343,11 @@ public class ByteTransformBase implements IByteTransform {
      */
     public byte[] TransByte(short[] values) {
         if (values == null) return null;
+
         byte[] buffer = new byte[values.length * 2];
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(IsInt16Reverse() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
         for (int i = 0; i < values.length; i++) {
-            System.arraycopy(Utilities.getBytes(values[i]), 0, buffer, 2 * i, 2);
+            view.putShort(2 * i, values[i]);
         }
         return buffer;
     }
@@ -294,10 +374,11 @@ public class ByteTransformBase implements IByteTransform {
         if (values == null) return null;
 
         byte[] buffer = new byte[values.length * 4];
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < values.length; i++) {
-            System.arraycopy(ByteTransDataFormat4(Utilities.getBytes(values[i])), 0, buffer, 4 * i, 4);
+            view.putInt(4 * i, TransDataFormat(values[i], format));
         }
-
         return buffer;
     }
 
@@ -322,10 +403,11 @@ public class ByteTransformBase implements IByteTransform {
         if (values == null) return null;
 
         byte[] buffer = new byte[values.length * 8];
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < values.length; i++) {
-            System.arraycopy(ByteTransDataFormat8(Utilities.getBytes(values[i])), 0, buffer, 8 * i, 8);
+            view.putLong(8 * i, TransDataFormat(values[i], format));
         }
-
         return buffer;
     }
 
@@ -351,10 +433,11 @@ public class ByteTransformBase implements IByteTransform {
         if (values == null) return null;
 
         byte[] buffer = new byte[values.length * 4];
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < values.length; i++) {
-            System.arraycopy(ByteTransDataFormat4(Utilities.getBytes(values[i])), 0, buffer, 4 * i, 4);
+            view.putInt(4 * i, TransDataFormat(Float.floatToIntBits(values[i]), format));
         }
-
         return buffer;
     }
 
@@ -379,10 +462,11 @@ public class ByteTransformBase implements IByteTransform {
         if (values == null) return null;
 
         byte[] buffer = new byte[values.length * 8];
+        ByteBuffer view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        DataFormat format = GetTransDataFormat();
         for (int i = 0; i < values.length; i++) {
-            System.arraycopy(ByteTransDataFormat8(Utilities.getBytes(values[i])), 0, buffer, 8 * i, 8);
+            view.putLong(8 * i, TransDataFormat(Double.doubleToLongBits(values[i]), format));
         }
-
         return buffer;
     }
 
@@ -419,6 +503,53 @@ public class ByteTransformBase implements IByteTransform {
     }
 
 
+    /**
+     * 2字节的数据是否按照大端处理，默认按照小端处理，不受数据格式的影响
+     *
+     * @return 是否按照大端处理
+     */
+    protected boolean IsInt16Reverse() {
+        return false;
+    }
+
+    /**
+     * 获取4字节及8字节的数据实际使用的格式，默认就是设置的数据格式，子类对字节有额外变换时重写，批量处理时每次调用只获取一次
+     *
+     * @return 实际使用的格式
+     */
+    protected DataFormat GetTransDataFormat() {
+        return dataFormat;
+    }
+
+    /**
+     * 将按照小端读取的4字节数据按照数据格式转换为实际的数据，每种格式的变换执行两次都会还原，所以解析和生成共用
+     */
+    private static int TransDataFormat(int value, DataFormat format) {
+        switch (format) {
+            case ABCD: return Integer.reverseBytes(value);
+            case BADC: return Integer.rotateLeft(value, 16);
+            case CDAB: return ((value & 0x00FF00FF) << 8) | ((value >>> 8) & 0x00FF00FF);
+            default: return value;
+        }
+    }
+
+    /**
+     * 将按照小端读取的8字节数据按照数据格式转换为实际的数据，每种格式的变换执行两次都会还原，所以解析和生成共用
+     */
+    private static long TransDataFormat(long value, DataFormat format) {
+        switch (format) {
+            case ABCD: return Long.reverseBytes(value);
+            case BADC: return SwapBytesInWords(Long.reverseBytes(value));
+            case CDAB: return SwapBytesInWords(value);
+            default: return value;
+        }
+    }
+
+    private static long SwapBytesInWords(long value) {
+        return ((value & 0x00FF00FF00FF00FFL) << 8) | ((value >>> 8) & 0x00FF00FF00FF00FFL);
+    }
+
+
     /**
      * 反转多字节的数据信息
      *
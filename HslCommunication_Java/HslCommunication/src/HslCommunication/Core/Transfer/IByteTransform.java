@@ -46,6 +46,20 @@ public interface IByteTransform {
      */
     short[] TransInt16( byte[] buffer, int index, int length );
 
+    /**
+     * 从缓存中提取short数组结果到指定的数组中，不创建新的数组，默认逐个提取，ByteTransformBase按照ByteBuffer的视图批量提取
+     * @param buffer 缓存数据
+     * @param index 索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    default void TransInt16( byte[] buffer, int index, short[] values, int offset, int length ) {
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = TransInt16( buffer, index + 2 * i );
+        }
+    }
+
     /**
      * 从缓存中提取int结果
      * @param buffer 缓存数据
@@ -64,6 +78,20 @@ public interface IByteTransform {
      */
     int[] TransInt32( byte[] buffer, int index, int length );
 
+    /**
+     * 从缓存中提取int数组结果到指定的数组中，不创建新的数组，默认逐个提取，ByteTransformBase按照ByteBuffer的视图批量提取
+     * @param buffer 缓存数据
+     * @param index 索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    default void TransInt32( byte[] buffer, int index, int[] values, int offset, int length ) {
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = TransInt32( buffer, index + 4 * i );
+        }
+    }
+
 
     /**
      * 从缓存中提取long结果
@@ -83,6 +111,20 @@ public interface IByteTransform {
      */
     long[] TransInt64( byte[] buffer, int index, int length );
 
+    /**
+     * 从缓存中提取long数组结果到指定的数组中，不创建新的数组，默认逐个提取，ByteTransformBase按照ByteBuffer的视图批量提取
+     * @param buffer 缓存数据
+     * @param index 索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    default void TransInt64( byte[] buffer, int index, long[] values, int offset, int length ) {
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = TransInt64( buffer, index + 8 * i );
+        }
+    }
+
 
     /**
      * 从缓存中提取float结果
@@ -102,6 +144,20 @@ public interface IByteTransform {
      */
     float[] TransSingle( byte[] buffer, int index, int length );
 
+    /**
+     * 从缓存中提取float数组结果到指定的数组中，不创建新的数组，默认逐个提取，ByteTransformBase按照ByteBuffer的视图批量提取
+     * @param buffer 缓存数据
+     * @param index 索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    default void TransSingle( byte[] buffer, int index, float[] values, int offset, int length ) {
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = TransSingle( buffer, index + 4 * i );
+        }
+    }
+
 
     /**
      * 从缓存中提取double结果
@@ -121,6 +177,20 @@ public interface IByteTransform {
      */
     double[] TransDouble( byte[] buffer, int index, int length );
 
+    /**
+     * 从缓存中提取double数组结果到指定的数组中，不创建新的数组，默认逐个提取，ByteTransformBase按照ByteBuffer的视图批量提取
+     * @param buffer 缓存数据
+     * @param index 索引位置
+     * @param values 保存结果的数组
+     * @param offset 数组的起始位置
+     * @param length 提取的数据个数
+     */
+    default void TransDouble( byte[] buffer, int index, double[] values, int offset, int length ) {
+        for (int i = 0; i < length; i++) {
+            values[offset + i] = TransDouble( buffer, index + 8 * i );
+        }
+    }
+
 
     /**
      * 从缓存中提取string结果，使用指定的编码
@@ -56,14 +56,12 @@ public class ReverseWordTransform extends ByteTransformBase
 
 
     /**
-     * 从缓存中提取short结果
-     * @param buffer 缓存数据
-     * @param index 索引位置
-     * @return short对象
+     * 2字节的数据按照字反转，即大端处理
+     * @return 是否按照大端处理
      */
     @Override
-    public short TransInt16( byte[] buffer, int index ) {
-        return Utilities.getShort(ReverseBytesByWord(buffer, index, 2), 0);
+    protected boolean IsInt16Reverse( ) {
+        return true;
     }
 
 
@@ -101,26 +99,6 @@ public class ReverseWordTransform extends ByteTransformBase
 
 
 
-    /**
-     * short数组变量转化缓存数据
-     * @param values 等待转化的数组
-     * @return buffer数据
-     */
-    @Override
-    public byte[] TransByte( short[] values ) {
-        if (values == null) return null;
-
-        byte[] buffer = new byte[values.length * 2];
-        for (int i = 0; i < values.length; i++) {
-            byte[] tmp = Utilities.getBytes(values[i]);
-            System.arraycopy(tmp, 0, buffer, 2 * i, tmp.length);
-        }
-
-        return ReverseBytesByWord(buffer);
-    }
-
-
-
     /**
      * 使用指定的编码字符串转化缓存数据
      * @param value 等待转化的数据
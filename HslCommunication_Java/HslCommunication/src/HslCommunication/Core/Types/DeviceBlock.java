@@ -0,0 +1,195 @@
+package HslCommunication.Core.Types;
+
+import HslCommunication.Core.Transfer.IByteTransform;
+
+/**
+ * 设备读取的一段原始数据的视图，直接引用读取的字节数组，按照设备的IByteTransform随机访问其中的数据，不需要解析整个数组。
+ * 索引是相对于起始地址的偏移，单位和设备的地址一致，按字读取的设备一个单位是2个字节，西门子一个单位是1个字节 ->
+ * A typed view over a device read buffer, values are decoded on access by the device's IByteTransform,
+ * the index is the address offset relative to the start address of the block
+ */
+public class DeviceBlock {
+
+    /**
+     * 实例化一个视图，不复制数据
+     * @param buffer 原始数据
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据的字节长度
+     * @param byteTransform 数据的变换规则
+     * @param wordLength 设备的一个字在Read方法中对应的长度，西门子为2，其他按字读取的设备为1
+     */
+    public DeviceBlock(byte[] buffer, int offset, int length, IByteTransform byteTransform, short wordLength) {
+        if (offset < 0 || length < 0 || offset + length > buffer.length) throw new IndexOutOfBoundsException();
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.byteTransform = byteTransform;
+        this.unitBytes = Math.max(2 / Math.max(wordLength, 1), 1);
+    }
+
+
+    /**
+     * 获取引用的原始数组，有效的数据从getOffset开始，长度为getLength
+     * @return 原始数组
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * 获取数据在数组中的起始位置
+     * @return 起始位置
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * 获取数据的字节长度
+     * @return 字节长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获取一个地址单位对应的字节数，按字读取的设备为2，西门子为1
+     * @return 字节数
+     */
+    public int getUnitBytes() {
+        return unitBytes;
+    }
+
+    /**
+     * 获取数据的变换规则
+     * @return 变换规则
+     */
+    public IByteTransform getByteTransform() {
+        return byteTransform;
+    }
+
+
+    /**
+     * 获取一个位，按字读取的设备每个字16位，按照字的数值从低位开始计数，西门子每个字节8位，例如D100开始的数据中D101.2的索引是18，M10开始的数据中M11.2的索引是10
+     * @param bit 相对于起始地址的位偏移
+     * @return bool值
+     */
+    public boolean getBool(int bit) {
+        if (unitBytes == 1) return (buffer[CheckIndex(bit / 8, 1)] & (1 << (bit % 8))) != 0;
+        return (getInt16(bit / 16) & (1 << (bit % 16))) != 0;
+    }
+
+    /**
+     * 获取一个字节
+     * @param index 相对于起始地址的字节偏移
+     * @return byte值
+     */
+    public byte getByte(int index) {
+        return buffer[CheckIndex(index, 1)];
+    }
+
+    /**
+     * 获取short数据
+     * @param index 相对于起始地址的偏移
+     * @return short值
+     */
+    public short getInt16(int index) {
+        return byteTransform.TransInt16(buffer, CheckIndex(index * unitBytes, 2));
+    }
+
+    /**
+     * 获取无符号的short数据
+     * @param index 相对于起始地址的偏移
+     * @return ushort值
+     */
+    public int getUInt16(int index) {
+        return getInt16(index) & 0xFFFF;
+    }
+
+    /**
+     * 获取int数据
+     * @param index 相对于起始地址的偏移
+     * @return int值
+     */
+    public int getInt32(int index) {
+        return byteTransform.TransInt32(buffer, CheckIndex(index * unitBytes, 4));
+    }
+
+    /**
+     * 获取无符号的int数据
+     * @param index 相对于起始地址的偏移
+     * @return uint值
+     */
+    public long getUInt32(int index) {
+        return getInt32(index) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 获取long数据
+     * @param index 相对于起始地址的偏移
+     * @return long值
+     */
+    public long getInt64(int index) {
+        return byteTransform.TransInt64(buffer, CheckIndex(index * unitBytes, 8));
+    }
+
+    /**
+     * 获取float数据
+     * @param index 相对于起始地址的偏移
+     * @return float值
+     */
+    public float getFloat(int index) {
+        return byteTransform.TransSingle(buffer, CheckIndex(index * unitBytes, 4));
+    }
+
+    /**
+     * 获取double数据
+     * @param index 相对于起始地址的偏移
+     * @return double值
+     */
+    public double getDouble(int index) {
+        return byteTransform.TransDouble(buffer, CheckIndex(index * unitBytes, 8));
+    }
+
+    /**
+     * 获取字符串数据
+     * @param index 相对于起始地址的偏移
+     * @param byteLength 字符串的字节长度
+     * @param encoding 字符串的编码
+     * @return 字符串
+     */
+    public String getString(int index, int byteLength, String encoding) {
+        return byteTransform.TransString(buffer, CheckIndex(index * unitBytes, byteLength), byteLength, encoding);
+    }
+
+    /**
+     * 获取一段地址的视图，共享同一个数组
+     * @param index 相对于起始地址的偏移
+     * @param count 长度，单位和地址一致
+     * @return 新的视图
+     */
+    public DeviceBlock Slice(int index, int count) {
+        int start = CheckIndex(index * unitBytes, count * unitBytes);
+        return new DeviceBlock(buffer, start, count * unitBytes, byteTransform, (short) (2 / unitBytes));
+    }
+
+
+    private int CheckIndex(int byteIndex, int size) {
+        if (byteIndex < 0 || size < 0 || byteIndex + size > length) throw new IndexOutOfBoundsException(
+                "index:" + byteIndex + " size:" + size + " length:" + length);
+        return offset + byteIndex;
+    }
+
+
+    @Override
+    public String toString() {
+        return "DeviceBlock[" + length + "]";
+    }
+
+
+    private byte[] buffer = null;                       // 原始数据
+    private int offset = 0;                             // 数据在数组中的起始位置
+    private int length = 0;                             // 数据的字节长度
+    private IByteTransform byteTransform = null;        // 数据的变换规则
+    private int unitBytes = 2;                          // 一个地址单位对应的字节数
+}
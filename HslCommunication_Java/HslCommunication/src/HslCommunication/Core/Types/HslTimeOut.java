@@ -24,7 +24,7 @@ public class HslTimeOut {
     /**
      * 操作是否成功
      */
-    public boolean IsSuccessful = false;
+    public volatile boolean IsSuccessful = false;
 
 
     /**
@@ -0,0 +1,128 @@
+package HslCommunication.Core.Types;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 可以重复使用的字节缓存的结果类，数据是缓存中的前Length个字节，下一次使用同一个对象接收数据时内容被覆盖，
+ * 周期性的读取时重复使用同一个对象，就不需要每次都分配新的数组 ->
+ * A reusable byte buffer result, the data is the first Length bytes of the buffer and is overwritten by the next receive
+ */
+public class OperateResultBuffer extends OperateResult {
+
+    /**
+     * 实例化一个默认256字节容量的缓存
+     */
+    public OperateResultBuffer() {
+        this(256);
+    }
+
+    /**
+     * 实例化一个指定初始容量的缓存，容量不够时自动扩大
+     * @param capacity 初始的容量
+     */
+    public OperateResultBuffer(int capacity) {
+        buffer = new byte[Math.max(capacity, 16)];
+    }
+
+
+    /**
+     * 获取实际的缓存数组，有效的数据从0开始，长度为getLength
+     * @return 缓存数组
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * 获取有效的数据长度
+     * @return 数据长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 设置有效的数据长度，不能超过缓存的容量
+     * @param length 数据长度
+     */
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    /**
+     * 获取缓存上的ByteBuffer视图，position为0，limit为有效的数据长度，每次获取时重置位置，不会创建新的对象
+     * @return ByteBuffer视图
+     */
+    public ByteBuffer getByteBuffer() {
+        if (byteBuffer == null || byteBuffer.array() != buffer) byteBuffer = ByteBuffer.wrap(buffer);
+        byteBuffer.clear();
+        byteBuffer.limit(length);
+        return byteBuffer;
+    }
+
+    /**
+     * 确保缓存至少有指定的容量，扩大时保留已有的数据
+     * @param capacity 需要的容量
+     * @return 缓存数组
+     */
+    public byte[] EnsureCapacity(int capacity) {
+        if (buffer.length < capacity) buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        return buffer;
+    }
+
+    /**
+     * 获取一个长度正好为指定值的报文头数组，长度不变时重复使用
+     * @param headLength 报文头的长度
+     * @return 报文头数组
+     */
+    public byte[] GetHeadBuffer(int headLength) {
+        if (head == null || head.length != headLength) head = new byte[headLength];
+        return head;
+    }
+
+    /**
+     * 将有效的数据复制到一个新的数组
+     * @return 新的数组
+     */
+    public byte[] ToArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * 重置为成功的状态，并且清空数据
+     */
+    public void SetSuccess() {
+        IsSuccess = true;
+        ErrorCode = 0;
+        Message = "success";
+        length = 0;
+    }
+
+    /**
+     * 重置为失败的状态，并且清空数据
+     * @param message 错误消息
+     */
+    public void SetFailed(String message) {
+        IsSuccess = false;
+        ErrorCode = 10000;
+        Message = message;
+        length = 0;
+    }
+
+    /**
+     * 重置为失败的状态，错误信息从另一个结果中复制
+     * @param result 失败的结果
+     */
+    public void SetFailed(OperateResult result) {
+        IsSuccess = false;
+        CopyErrorFromOther(result);
+        length = 0;
+    }
+
+
+    private byte[] buffer = null;            // 实际的缓存
+    private byte[] head = null;              // 报文头的缓存
+    private int length = 0;                  // 有效的数据长度
+    private ByteBuffer byteBuffer = null;    // 缓存上的视图
+}
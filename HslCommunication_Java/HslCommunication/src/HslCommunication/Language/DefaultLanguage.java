@@ -24,6 +24,8 @@ public class DefaultLanguage
     public String SuccessText (){ return "成功"; }
     public String TwoParametersLengthIsNotSame (){ return "两个参数的个数不一致"; }
     public String NotSupportedDataType (){ return "输入的类型不支持，请重新输入"; }
+    public String NotSupportedFunction (){ return "当前的功能不支持"; }
+    public String ResponseIdentityNotMatch (){ return "反馈的报文标识和发送的报文不一致："; }
     public String DataLengthIsNotEnough (){ return "接收的数据长度不足，应该值:{0},实际值:{1}"; }
     public String ReceiveDataTimeout (){ return "接收数据超时："; }
     public String ReceiveDataLengthTooShort (){ return "接收的数据长度太短："; }
@@ -171,6 +173,7 @@ public class DefaultLanguage
     public String ModbusAsciiFormatCheckFailed (){ return "Modbus的ascii指令检查失败，不是modbus-ascii报文"; }
     public String ModbusCRCCheckFailed (){ return "Modbus的CRC校验检查失败"; }
     public String ModbusLRCCheckFailed (){ return "Modbus的LRC校验检查失败"; }
+    public String ModbusBitAreaNotSplit (){ return "线圈及离散输入按位读取，不能拆分为区域及偏移地址"; }
     public String ModbusMatchFailed (){ return "不是标准的modbus协议"; }
 
 
@@ -187,6 +190,8 @@ public class DefaultLanguage
     public String MelsecFxAckNagative (){ return "PLC反馈的数据无效"; }
     public String MelsecFxAckWrong (){ return "PLC反馈信号错误："; }
     public String MelsecFxCrcCheckFailed (){ return "PLC反馈报文的和校验失败！"; }
+    public String MelsecRandomReadPointsOver (){ return "随机读取的字点数和双字点数之和必须在1到192之间，当前为："; }
+    public String MelsecRandomWritePointsOver (){ return "随机写入的字点数乘12加上双字点数乘14必须在1到1920之间，当前为："; }
 
     /***********************************************************************************
      *
@@ -196,10 +201,12 @@ public class DefaultLanguage
 
     public String SiemensDBAddressNotAllowedLargerThan255 (){ return "DB块数据无法大于255"; }
     public String SiemensReadLengthMustBeEvenNumber (){ return "读取的数据长度必须为偶数"; }
+    public String SiemensReadError (){ return "读取数据异常，代号为："; }
     public String SiemensWriteError (){ return "写入数据异常，代号为："; }
     public String SiemensReadLengthCannotLargerThan19 (){ return "读取的数组数量不允许大于19"; }
     public String SiemensDataLengthCheckFailed (){ return "数据块长度校验失败，请检查是否开启put/get以及关闭db块优化"; }
     public String SiemensFWError (){ return "发生了异常，具体信息查找Fetch/Write协议文档"; }
+    public String SiemensPduLengthTooSmall (){ return "协商的PDU长度过小，无法读写数据："; }
 
     /***********************************************************************************
      *
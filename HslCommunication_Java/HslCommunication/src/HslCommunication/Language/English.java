@@ -38,6 +38,10 @@ public class English extends DefaultLanguage {
     @Override
     public String NotSupportedDataType (){ return "Unsupported DataType, input again"; }
     @Override
+    public String NotSupportedFunction (){ return "The current feature is not supported"; }
+    @Override
+    public String ResponseIdentityNotMatch (){ return "The identity of the response does not match the request: "; }
+    @Override
     public String DataLengthIsNotEnough (){ return "Receive length is not enough，Should:{0},Actual:{1}"; }
     @Override
     public String ReceiveDataTimeout (){ return "Receive timeout: "; }
@@ -282,6 +286,8 @@ public class English extends DefaultLanguage {
     @Override
     public String ModbusLRCCheckFailed (){ return "The LRC checksum check failed for Modbus"; }
     @Override
+    public String ModbusBitAreaNotSplit (){ return "Coils and discrete inputs are read by bit and can not be split into area and offset"; }
+    @Override
     public String ModbusMatchFailed (){ return "Not the standard Modbus protocol"; }
 
 
@@ -306,6 +312,10 @@ public class English extends DefaultLanguage {
     public String MelsecFxAckWrong (){ return "PLC Feedback Signal Error: "; }
     @Override
     public String MelsecFxCrcCheckFailed (){ return "PLC Feedback message and check failed!"; }
+    @Override
+    public String MelsecRandomReadPointsOver (){ return "The word points plus dword points of a random read must be between 1 and 192, current: "; }
+    @Override
+    public String MelsecRandomWritePointsOver (){ return "The word points * 12 plus dword points * 14 of a random write must be between 1 and 1920, current: "; }
 
     /***********************************************************************************
      *
@@ -318,6 +328,8 @@ public class English extends DefaultLanguage {
     @Override
     public String SiemensReadLengthMustBeEvenNumber (){ return "The length of the data read must be an even number"; }
     @Override
+    public String SiemensReadError (){ return "Read data error, code: "; }
+    @Override
     public String SiemensWriteError (){ return "Writes the data exception, the code name is: "; }
     @Override
     public String SiemensReadLengthCannotLargerThan19 (){ return "The number of arrays read does not allow greater than 19"; }
@@ -325,6 +337,8 @@ public class English extends DefaultLanguage {
     public String SiemensDataLengthCheckFailed (){ return "Block length checksum failed, please check if Put/get is turned on and DB block optimization is turned off"; }
     @Override
     public String SiemensFWError (){ return "An exception occurred, the specific information to find the Fetch/write protocol document"; }
+    @Override
+    public String SiemensPduLengthTooSmall (){ return "The negotiated PDU length is too small to read or write data: "; }
 
     /***********************************************************************************
      *
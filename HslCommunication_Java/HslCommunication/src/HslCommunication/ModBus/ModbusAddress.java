@@ -176,7 +176,7 @@ public class ModbusAddress extends DeviceAddressBase {
     /**
      * 创建一个写入单个寄存器的指令
      * @param station 站号
-     * @param data 值
+     * @param data 值，高位在前
      * @return 原始的modbus指令
      */
     public byte[] CreateWriteOneRegister(byte station, byte[] data) {
@@ -185,8 +185,8 @@ public class ModbusAddress extends DeviceAddressBase {
         buffer[1] = ModbusInfo.WriteOneRegister;
         buffer[2] = Utilities.getBytes(this.getAddress())[1];
         buffer[3] = Utilities.getBytes(this.getAddress())[0];
-        buffer[4] = data[1];
-        buffer[5] = data[0];
+        buffer[4] = data[0];
+        buffer[5] = data[1];
         return buffer;
     }
 
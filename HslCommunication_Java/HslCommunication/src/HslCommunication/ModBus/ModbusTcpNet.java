@@ -10,8 +10,7 @@ import HslCommunication.Core.Types.OperateResult;
 import HslCommunication.Core.Types.OperateResultExOne;
 import HslCommunication.StringResources;
 import HslCommunication.Utilities;
-
-import java.io.ByteArrayOutputStream;
+import HslCommunication.Core.Types.OperateResultExTwo;
 
 
 /**
@@ -89,6 +88,24 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
         this.station = station;
     }
 
+    /**
+     * 获取流水线的深度，也就是同一个连接上同时等待反馈的最大报文数量
+     *
+     * @return 流水线的深度
+     */
+    public int getPipelineDepth() {
+        return PipelineDepth;
+    }
+
+    /**
+     * 设置流水线的深度，大于1时超过120个寄存器的批量读写的多条报文连续发送，根据消息号匹配反馈，不再每条报文等待一次往返，服务器需要支持同时处理多条请求
+     *
+     * @param pipelineDepth 流水线的深度，默认为1
+     */
+    public void setPipelineDepth(int pipelineDepth) {
+        this.PipelineDepth = Math.max(pipelineDepth, 1);
+    }
+
     /**
      * 设置多字节数据的反转类型，适用于int,float,double,long类型的数据
      *
@@ -219,41 +236,26 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
      */
     private OperateResultExOne<byte[]> CheckModbusTcpResponse(byte[] send) {
         OperateResultExOne<byte[]> result = ReadFromCoreServer(send);
-        if (result.IsSuccess) {
-            if ((send[7] + 0x80) == result.Content[7]) {
-                // 发生了错误
-                result.IsSuccess = false;
-                result.Message = ModbusInfo.GetDescriptionByErrorCode(result.Content[8]);
-                result.ErrorCode = result.Content[8];
-            }
-        }
-        return result;
+        if (!result.IsSuccess) return result;
+
+        return CheckModbusTcpResponse(send, result.Content);
     }
 
     /**
-     * 读取服务器的数据，需要指定不同的功能码
+     * 检查设备反馈的报文是否是异常码的报文
      *
-     * @param address 地址
-     * @param length  长度
-     * @return 结果数据
+     * @param send     发送的数据信息
+     * @param response 设备反馈的数据信息
+     * @return 带是否成功的结果数据
      */
-    private OperateResultExOne<byte[]> ReadModBusBase(ModbusAddress address, short length) {
-        OperateResultExOne<byte[]> command = BuildReadRegisterCommand(address, length);
-        if (!command.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(command);
-
-        OperateResultExOne<byte[]> resultBytes = CheckModbusTcpResponse(command.Content);
-        if (resultBytes.IsSuccess) {
-            // 二次数据处理
-            if (resultBytes.Content.length >= 9) {
-                byte[] buffer = new byte[resultBytes.Content.length - 9];
-                System.arraycopy(resultBytes.Content, 9, buffer, 0, buffer.length);
-                resultBytes.Content = buffer;
-            }
+    private static OperateResultExOne<byte[]> CheckModbusTcpResponse(byte[] send, byte[] response) {
+        if ((send[7] + 0x80) == (response[7] & 0xFF)) {
+            // 发生了错误
+            return new OperateResultExOne<byte[]>(response[8], ModbusInfo.GetDescriptionByErrorCode(response[8]));
         }
-        return resultBytes;
+        return OperateResultExOne.CreateSuccessResult(response);
     }
 
-
     /**
      * 读取服务器的数据，需要指定不同的功能码
      *
@@ -367,32 +369,87 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
      */
     @Override
     public OperateResultExOne<byte[]> Read(String address, short length) {
+        return ReadByCommands(address, length);
+    }
+
+    /**
+     * 拆分寄存器地址，区域为解析之后的站号及功能码，"100"，"s=1;100"及"x=3;s=1;100"在站号为1时是同一个区域，
+     * 写入的功能码归到对应的读取的区域，偏移为寄存器地址。线圈及离散输入读取的数据每个字节8个点，和寄存器的长度单位不一致，
+     * 返回失败，不参与缓存及合并读取
+     * @param address 地址信息，格式为"100"，"s=1;100"
+     * @return Content1为区域，Content2为偏移地址
+     */
+    @Override
+    public OperateResultExTwo<String, Integer> AnalysisAddressOffset(String address) {
         OperateResultExOne<ModbusAddress> analysis = ModbusInfo.AnalysisReadAddress(address, isAddressStartWithZero);
-        if (!analysis.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(analysis);
+        if (!analysis.IsSuccess) return OperateResultExTwo.CreateFailedResult(analysis);
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        int number = analysis.Content.getStation() < 0 ? station & 0xFF : analysis.Content.getStation();
+        byte function = analysis.Content.getFunction();
+        if (function == ModbusInfo.WriteOneRegister || function == ModbusInfo.WriteRegister) function = ModbusInfo.ReadRegister;
+        if (function == ModbusInfo.WriteOneCoil || function == ModbusInfo.WriteCoil) function = ModbusInfo.ReadCoil;
+        if (function == ModbusInfo.ReadCoil || function == ModbusInfo.ReadDiscrete)
+            return new OperateResultExTwo<>(StringResources.Language.ModbusBitAreaNotSplit());
+        return OperateResultExTwo.CreateSuccessResult("s=" + number + ";x=" + function, analysis.Content.getAddress());
+    }
 
-        int alreadyFinished = 0;
-        while (alreadyFinished < length) {
-            short lengthTmp = (short) Math.min((length - alreadyFinished), 120);
-            OperateResultExOne<byte[]> read = ReadModBusBase(analysis.Content.AddressAdd(alreadyFinished), lengthTmp);
-            if (!read.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(read);
+    /**
+     * 拆分位地址，线圈及离散输入读取的数据按位打包，位索引为0，寄存器的位地址为"100.5"，读取所在的寄存器，寄存器的数据高位在前
+     * @param address 地址信息，格式为"x=1;100"，"100.5"
+     * @return Content1为读取的地址，Content2为位索引
+     */
+    @Override
+    public OperateResultExTwo<String, Integer> AnalysisBitAddress(String address) {
+        if (address.indexOf('.') < 0) return super.AnalysisBitAddress(address);
+        return AnalysisBitAddress(address, true);
+    }
 
-            try {
-                outputStream.write(read.Content);
-            } catch (Exception ex) {
+    /**
+     * 根据区域及偏移地址创建读取的地址，偏移是解析之后的寄存器地址，起始地址为1时需要加回1
+     * @param area 区域，格式为"s=1;x=3"
+     * @param offset 偏移地址
+     * @return 地址信息
+     */
+    @Override
+    public String CreateAddressOffset(String area, int offset) {
+        return area + ";" + (isAddressStartWithZero ? offset : offset + 1);
+    }
 
-            }
-            alreadyFinished += lengthTmp;
+    /**
+     * 构建读取寄存器的报文，每条报文最多读取120个寄存器
+     *
+     * @param address 起始地址
+     * @param length  读取的数量
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
+        OperateResultExOne<ModbusAddress> analysis = ModbusInfo.AnalysisReadAddress(address, isAddressStartWithZero);
+        if (!analysis.IsSuccess) return OperateResultExOne.<byte[][]>CreateFailedResult(analysis);
+
+        byte[][] commands = new byte[(length + 119) / 120][];
+        for (int i = 0; i < commands.length; i++) {
+            short lengthTmp = (short) Math.min(length - i * 120, 120);
+            commands[i] = BuildReadRegisterCommand(analysis.Content.AddressAdd(i * 120), lengthTmp).Content;
         }
+        return OperateResultExOne.CreateSuccessResult(commands);
+    }
 
-        byte[] data = outputStream.toByteArray();
-        try {
-            outputStream.close();
-        } catch (Exception ex) {
+    /**
+     * 校验反馈的报文，并去掉报文头，提取出寄存器的数据
+     *
+     * @param send     发送的报文
+     * @param response 反馈的报文
+     * @return 寄存器的数据
+     */
+    @Override
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
+        OperateResultExOne<byte[]> check = CheckModbusTcpResponse(send, response);
+        if (!check.IsSuccess) return check;
 
-        }
-        return OperateResultExOne.CreateSuccessResult(data);
+        byte[] buffer = new byte[response.length >= 9 ? response.length - 9 : 0];
+        if (buffer.length > 0) System.arraycopy(response, 9, buffer, 0, buffer.length);
+        return OperateResultExOne.CreateSuccessResult(buffer);
     }
 
     /**
@@ -409,7 +466,10 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
             return command;
         }
 
-        return CheckModbusTcpResponse(command.Content);
+        InvalidateReadCache(address, 2);
+        OperateResult write = CheckModbusTcpResponse(command.Content);
+        InvalidateReadCache(address, 2);
+        return write;
     }
 
     /**
@@ -433,12 +493,34 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
      */
     @Override
     public OperateResult Write(String address, byte[] value) {
+        return WriteByCommands(address, value);
+    }
+
+    /**
+     * 构建写入寄存器的报文
+     *
+     * @param address 起始地址
+     * @param value   写入的数据
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
         OperateResultExOne<byte[]> command = BuildWriteRegisterCommand(address, value);
-        if (!command.IsSuccess) {
-            return command;
-        }
+        if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult(command);
+
+        return OperateResultExOne.CreateSuccessResult(new byte[][]{command.Content});
+    }
 
-        return CheckModbusTcpResponse(command.Content);
+    /**
+     * 校验写入寄存器的反馈报文
+     *
+     * @param send     发送的报文
+     * @param response 反馈的报文
+     * @return 是否写入成功
+     */
+    @Override
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
+        return CheckModbusTcpResponse(send, response);
     }
 
     /**
@@ -454,7 +536,11 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
             return command;
         }
 
-        return CheckModbusTcpResponse(command.Content);
+        // 线圈的区域不能拆分，整个缓存失效，部分设备的线圈和寄存器的位共用数据
+        InvalidateReadCache(address, 1);
+        OperateResult write = CheckModbusTcpResponse(command.Content);
+        InvalidateReadCache(address, 1);
+        return write;
     }
 
     /**
@@ -470,7 +556,10 @@ public class ModbusTcpNet extends NetworkDeviceBase<ModbusTcpMessage, ReverseWor
             return command;
         }
 
-        return CheckModbusTcpResponse(command.Content);
+        InvalidateReadCache(address, (values.length + 7) / 8);
+        OperateResult write = CheckModbusTcpResponse(command.Content);
+        InvalidateReadCache(address, (values.length + 7) / 8);
+        return write;
     }
 
     /**
@@ -0,0 +1,337 @@
+package HslCommunication.ModBus;
+
+import HslCommunication.BasicFramework.SoftBuffer;
+import HslCommunication.Core.IMessage.ModbusTcpMessage;
+import HslCommunication.Core.Net.Nio.NioServer;
+import HslCommunication.Core.Net.Nio.NioServerSession;
+import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Transfer.ReverseWordTransform;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+/**
+ * Modbus-Tcp协议的服务器，线圈，离散输入，保持寄存器，输入寄存器各65536个地址，支持功能码01,02,03,04,05,06,0F,10，
+ * 使用NIO的事件循环处理请求，可以用于ModbusTcpNet的仿真及压力测试 ->
+ * The Modbus-Tcp server with 65536 coils, discrete inputs, holding registers and input registers,
+ * supports the function codes 01,02,03,04,05,06,0F,10, requests are processed on the nio event loops
+ */
+public class ModbusTcpServer extends NioServer {
+
+    /**
+     * 实例化一个Modbus-Tcp的服务器，所有的数据初始化为0
+     */
+    public ModbusTcpServer() {
+        super(new ModbusTcpMessage());
+        coilBuffer = new SoftBuffer(DataPoolSize / 8);
+        discreteBuffer = new SoftBuffer(DataPoolSize / 8);
+        registerBuffer = new SoftBuffer(DataPoolSize * 2);
+        inputRegisterBuffer = new SoftBuffer(DataPoolSize * 2);
+        byteTransform = new ReverseWordTransform();
+    }
+
+
+    /**
+     * 获取寄存器数据的变换规则，和ModbusTcpNet的默认规则一致
+     * @return 变换规则
+     */
+    public IByteTransform getByteTransform() {
+        return byteTransform;
+    }
+
+    /**
+     * 读取寄存器的原始数据，地址格式为"100"，输入寄存器为"x=4;100"
+     * @param address 起始地址
+     * @param length 寄存器的数量
+     * @return 寄存器的数据
+     */
+    public OperateResultExOne<byte[]> Read(String address, short length) {
+        OperateResultExOne<ModbusAddress> analysis = ModbusInfo.AnalysisReadAddress(address, true);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+        if (!CheckRange(analysis.Content.getAddress(), length))
+            return new OperateResultExOne<>(StringResources.Language.ModbusTcpFunctionCodeOverBound());
+
+        SoftBuffer buffer = analysis.Content.getFunction() == ModbusInfo.ReadInputRegister ? inputRegisterBuffer : registerBuffer;
+        return OperateResultExOne.CreateSuccessResult(buffer.GetBytes(analysis.Content.getAddress() * 2, length * 2));
+    }
+
+    /**
+     * 读取一个寄存器的short数据
+     * @param address 地址
+     * @return short数据
+     */
+    public OperateResultExOne<Short> ReadInt16(String address) {
+        OperateResultExOne<byte[]> read = Read(address, (short) 1);
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+        return OperateResultExOne.CreateSuccessResult(byteTransform.TransInt16(read.Content, 0));
+    }
+
+    /**
+     * 写入寄存器的原始数据，地址格式为"100"，输入寄存器为"x=4;100"
+     * @param address 起始地址
+     * @param value 数据，长度为偶数
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, byte[] value) {
+        OperateResultExOne<ModbusAddress> analysis = ModbusInfo.AnalysisReadAddress(address, true);
+        if (!analysis.IsSuccess) return analysis;
+        if (!CheckRange(analysis.Content.getAddress(), (value.length + 1) / 2))
+            return new OperateResult(StringResources.Language.ModbusTcpFunctionCodeOverBound());
+
+        SoftBuffer buffer = analysis.Content.getFunction() == ModbusInfo.ReadInputRegister ? inputRegisterBuffer : registerBuffer;
+        buffer.SetBytes(value, analysis.Content.getAddress() * 2);
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入一个short数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, short value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个int数据，占用两个寄存器
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, int value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个float数据，占用两个寄存器
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, float value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 读取线圈
+     * @param address 起始地址
+     * @param length 线圈的数量
+     * @return 线圈的值
+     */
+    public OperateResultExOne<boolean[]> ReadCoil(String address, short length) {
+        return ReadBool(coilBuffer, address, length);
+    }
+
+    /**
+     * 写入线圈
+     * @param address 起始地址
+     * @param values 线圈的值
+     * @return 是否写入成功
+     */
+    public OperateResult WriteCoil(String address, boolean[] values) {
+        return WriteBool(coilBuffer, address, values);
+    }
+
+    /**
+     * 写入一个线圈
+     * @param address 地址
+     * @param value 线圈的值
+     * @return 是否写入成功
+     */
+    public OperateResult WriteCoil(String address, boolean value) {
+        return WriteBool(coilBuffer, address, new boolean[]{value});
+    }
+
+    /**
+     * 读取离散输入
+     * @param address 起始地址
+     * @param length 离散输入的数量
+     * @return 离散输入的值
+     */
+    public OperateResultExOne<boolean[]> ReadDiscrete(String address, short length) {
+        return ReadBool(discreteBuffer, address, length);
+    }
+
+    /**
+     * 写入离散输入，客户端只能读取离散输入，只能在服务器端设置
+     * @param address 起始地址
+     * @param values 离散输入的值
+     * @return 是否写入成功
+     */
+    public OperateResult WriteDiscrete(String address, boolean[] values) {
+        return WriteBool(discreteBuffer, address, values);
+    }
+
+
+    /**
+     * 处理一个Modbus-Tcp的请求，返回正常的反馈或是异常码的反馈
+     * @param session 客户端的会话
+     * @param request 完整的请求报文
+     * @return 反馈的报文
+     */
+    @Override
+    protected byte[] ProcessRequest(NioServerSession session, byte[] request) {
+        if (request.length < 8) return null;
+
+        byte function = request[7];
+        switch (function) {
+            case ModbusInfo.ReadCoil: return ReadBoolResponse(request, coilBuffer);
+            case ModbusInfo.ReadDiscrete: return ReadBoolResponse(request, discreteBuffer);
+            case ModbusInfo.ReadRegister: return ReadRegisterResponse(request, registerBuffer);
+            case ModbusInfo.ReadInputRegister: return ReadRegisterResponse(request, inputRegisterBuffer);
+            case ModbusInfo.WriteOneCoil: return WriteOneCoilResponse(request);
+            case ModbusInfo.WriteOneRegister: return WriteOneRegisterResponse(request);
+            case ModbusInfo.WriteCoil: return WriteCoilResponse(request);
+            case ModbusInfo.WriteRegister: return WriteRegisterResponse(request);
+            default: return ErrorResponse(request, ModbusInfo.FunctionCodeNotSupport);
+        }
+    }
+
+
+    private byte[] ReadBoolResponse(byte[] request, SoftBuffer buffer) {
+        if (request.length < 12) return ErrorResponse(request, ModbusInfo.FunctionCodeReadWriteException);
+        int address = GetUShort(request, 8);
+        int length = GetUShort(request, 10);
+        if (length < 1 || length > MaxReadBits) return ErrorResponse(request, ModbusInfo.FunctionCodeQuantityOver);
+        if (!CheckRange(address, length)) return ErrorResponse(request, ModbusInfo.FunctionCodeOverBound);
+
+        boolean[] values = buffer.GetBool(address, length);
+        byte[] response = CreateResponse(request, 2 + (length + 7) / 8);
+        response[8] = (byte) ((length + 7) / 8);
+        for (int i = 0; i < length; i++) {
+            if (values[i]) response[9 + i / 8] |= (byte) (1 << (i % 8));
+        }
+        return response;
+    }
+
+    private byte[] ReadRegisterResponse(byte[] request, SoftBuffer buffer) {
+        if (request.length < 12) return ErrorResponse(request, ModbusInfo.FunctionCodeReadWriteException);
+        int address = GetUShort(request, 8);
+        int length = GetUShort(request, 10);
+        if (length < 1 || length > MaxReadRegisters) return ErrorResponse(request, ModbusInfo.FunctionCodeQuantityOver);
+        if (!CheckRange(address, length)) return ErrorResponse(request, ModbusInfo.FunctionCodeOverBound);
+
+        byte[] response = CreateResponse(request, 2 + length * 2);
+        response[8] = (byte) (length * 2);
+        buffer.GetBytes(address * 2, response, 9, length * 2);
+        return response;
+    }
+
+    private byte[] WriteOneCoilResponse(byte[] request) {
+        if (request.length < 12) return ErrorResponse(request, ModbusInfo.FunctionCodeReadWriteException);
+        int value = GetUShort(request, 10);
+        if (value != 0xFF00 && value != 0x0000) return ErrorResponse(request, ModbusInfo.FunctionCodeQuantityOver);
+
+        coilBuffer.SetBool(value == 0xFF00, GetUShort(request, 8));
+        return EchoResponse(request);
+    }
+
+    private byte[] WriteOneRegisterResponse(byte[] request) {
+        if (request.length < 12) return ErrorResponse(request, ModbusInfo.FunctionCodeReadWriteException);
+
+        registerBuffer.SetBytes(request, 10, GetUShort(request, 8) * 2, 2);
+        return EchoResponse(request);
+    }
+
+    private byte[] WriteCoilResponse(byte[] request) {
+        if (request.length < 13) return ErrorResponse(request, ModbusInfo.FunctionCodeReadWriteException);
+        int address = GetUShort(request, 8);
+        int length = GetUShort(request, 10);
+        int byteCount = request[12] & 0xFF;
+        if (length < 1 || length > MaxWriteBits || byteCount != (length + 7) / 8 || request.length < 13 + byteCount)
+            return ErrorResponse(request, ModbusInfo.FunctionCodeQuantityOver);
+        if (!CheckRange(address, length)) return ErrorResponse(request, ModbusInfo.FunctionCodeOverBound);
+
+        boolean[] values = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (request[13 + i / 8] & (1 << (i % 8))) != 0;
+        }
+        coilBuffer.SetBool(values, address);
+        return EchoResponse(request);
+    }
+
+    private byte[] WriteRegisterResponse(byte[] request) {
+        if (request.length < 13) return ErrorResponse(request, ModbusInfo.FunctionCodeReadWriteException);
+        int address = GetUShort(request, 8);
+        int length = GetUShort(request, 10);
+        int byteCount = request[12] & 0xFF;
+        if (length < 1 || length > MaxWriteRegisters || byteCount != length * 2 || request.length < 13 + byteCount)
+            return ErrorResponse(request, ModbusInfo.FunctionCodeQuantityOver);
+        if (!CheckRange(address, length)) return ErrorResponse(request, ModbusInfo.FunctionCodeOverBound);
+
+        registerBuffer.SetBytes(request, 13, address * 2, byteCount);
+        return EchoResponse(request);
+    }
+
+    private static byte[] EchoResponse(byte[] request) {
+        // 反馈请求中的地址及数值，写入多个数据时是地址及数量
+        byte[] response = CreateResponse(request, 5);
+        System.arraycopy(request, 8, response, 8, 4);
+        return response;
+    }
+
+    private static byte[] ErrorResponse(byte[] request, byte code) {
+        byte[] response = CreateResponse(request, 2);
+        response[7] = (byte) (request[7] | 0x80);
+        response[8] = code;
+        return response;
+    }
+
+    private static byte[] CreateResponse(byte[] request, int pduLength) {
+        // 复制事务号，协议号及站号，功能码，长度为站号加上PDU
+        byte[] response = new byte[7 + pduLength];
+        System.arraycopy(request, 0, response, 0, 4);
+        response[4] = (byte) ((pduLength + 1) >> 8);
+        response[5] = (byte) (pduLength + 1);
+        response[6] = request[6];
+        response[7] = request[7];
+        return response;
+    }
+
+    private static int GetUShort(byte[] buffer, int index) {
+        return ((buffer[index] & 0xFF) << 8) | (buffer[index + 1] & 0xFF);
+    }
+
+    private static boolean CheckRange(int address, int length) {
+        return address >= 0 && length >= 0 && address + length <= DataPoolSize;
+    }
+
+    private OperateResultExOne<boolean[]> ReadBool(SoftBuffer buffer, String address, short length) {
+        OperateResultExOne<ModbusAddress> analysis = ModbusInfo.AnalysisReadAddress(address, true);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+        if (!CheckRange(analysis.Content.getAddress(), length))
+            return new OperateResultExOne<>(StringResources.Language.ModbusTcpFunctionCodeOverBound());
+
+        return OperateResultExOne.CreateSuccessResult(buffer.GetBool(analysis.Content.getAddress(), length));
+    }
+
+    private OperateResult WriteBool(SoftBuffer buffer, String address, boolean[] values) {
+        OperateResultExOne<ModbusAddress> analysis = ModbusInfo.AnalysisReadAddress(address, true);
+        if (!analysis.IsSuccess) return analysis;
+        if (!CheckRange(analysis.Content.getAddress(), values.length))
+            return new OperateResult(StringResources.Language.ModbusTcpFunctionCodeOverBound());
+
+        buffer.SetBool(values, analysis.Content.getAddress());
+        return OperateResult.CreateSuccessResult();
+    }
+
+
+    @Override
+    public String toString() {
+        return "ModbusTcpServer[" + getPort() + "]";
+    }
+
+
+    private SoftBuffer coilBuffer = null;                       // 线圈
+    private SoftBuffer discreteBuffer = null;                   // 离散输入
+    private SoftBuffer registerBuffer = null;                   // 保持寄存器，每个寄存器高位在前
+    private SoftBuffer inputRegisterBuffer = null;              // 输入寄存器，每个寄存器高位在前
+    private IByteTransform byteTransform = null;                // 寄存器数据的变换规则
+
+    private static final int DataPoolSize = 65536;              // 每种数据的地址数量
+    private static final int MaxReadBits = 2000;                // 一次最多读取的线圈数量
+    private static final int MaxReadRegisters = 125;            // 一次最多读取的寄存器数量
+    private static final int MaxWriteBits = 1968;               // 一次最多写入的线圈数量
+    private static final int MaxWriteRegisters = 123;           // 一次最多写入的寄存器数量
+}
@@ -67,19 +67,36 @@ public class MelsecA1ENet extends NetworkDeviceBase<MelsecA1EBinaryMessage,Regul
      */
     @Override
     public OperateResultExOne<byte[]> Read(String address, short length) {
-        // 获取指令
+        return ReadByCommands(address, length);
+    }
+
+    /**
+     * 构建批量读取数据的A兼容1E帧报文
+     * @param address 起始地址
+     * @param length 读取的数据长度
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
         OperateResultExOne<byte[]> command = BuildReadCommand( address, length, PLCNumber );
         if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult( command );
 
-        // 核心交互
-        OperateResultExOne<byte[]> read = ReadFromCoreServer( command.Content );
-        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult( read );
+        return OperateResultExOne.CreateSuccessResult( new byte[][]{ command.Content } );
+    }
 
+    /**
+     * 校验PLC反馈的错误码，并提取出实际的数据
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 实际的数据
+     */
+    @Override
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
         // 错误代码验证
-        if (read.Content[1] != 0) return new OperateResultExOne<>( read.Content[1], StringResources.Language.MelsecPleaseReferToManulDocument() );
+        if (response[1] != 0) return new OperateResultExOne<>( response[1], StringResources.Language.MelsecPleaseReferToManulDocument() );
 
         // 数据解析，需要传入是否使用位的参数
-        return ExtractActualData( read.Content, command.Content[0] == 0x00 );
+        return ExtractActualData( response, send[0] == 0x00 );
     }
 
 
@@ -137,18 +154,34 @@ public class MelsecA1ENet extends NetworkDeviceBase<MelsecA1EBinaryMessage,Regul
      */
     @Override
     public OperateResult Write(String address, byte[] value) {
-        // 解析指令
+        return WriteByCommands(address, value);
+    }
+
+    /**
+     * 构建批量写入数据的A兼容1E帧报文
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
         OperateResultExOne<byte[]> command = BuildWriteCommand( address, value, PLCNumber );
-        if (!command.IsSuccess) return command;
+        if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult( command );
 
-        // 核心交互
-        OperateResultExOne<byte[]> read = ReadFromCoreServer( command.Content );
-        if (!read.IsSuccess) return read;
+        return OperateResultExOne.CreateSuccessResult( new byte[][]{ command.Content } );
+    }
 
+    /**
+     * 校验PLC反馈的写入报文的错误码
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 写入结果
+     */
+    @Override
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
         // 错误码校验 (在A兼容1E协议中，结束代码后面紧跟的是异常信息的代码)
-        if (read.Content[1] != 0) return new OperateResultExOne<byte[]>( read.Content[1], StringResources.Language.MelsecPleaseReferToManulDocument() );
+        if (response[1] != 0) return new OperateResult( response[1], StringResources.Language.MelsecPleaseReferToManulDocument() );
 
-        // 成功
         return OperateResult.CreateSuccessResult( );
     }
 
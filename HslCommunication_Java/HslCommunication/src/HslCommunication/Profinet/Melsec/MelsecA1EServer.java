@@ -0,0 +1,143 @@
+package HslCommunication.Profinet.Melsec;
+
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.Net.Nio.NioServerSession;
+
+/**
+ * 三菱A兼容1E帧协议的服务器，应答MelsecA1ENet的按位及按字的批量读写，支持X，Y，M，S，D，R软元件，
+ * 软元件的数据及读写的方法和MelsecMcServer一致 ->
+ * The Mitsubishi A compatible 1E frame server, serves the batch bit and word requests of MelsecA1ENet
+ * against the X, Y, M, S, D and R devices, the devices are held in the same way as MelsecMcServer
+ */
+public class MelsecA1EServer extends MelsecMcServer {
+
+    /**
+     * 实例化一个A兼容1E帧协议的服务器，所有的数据初始化为0
+     */
+    public MelsecA1EServer() {
+        super(new A1EFraming());
+    }
+
+
+    /**
+     * 处理一个1E帧的请求，副标题0x00至0x03分别为按位读取，按字读取，按位写入，按字写入
+     * @param session 客户端的会话
+     * @param request 完整的请求报文
+     * @return 反馈的报文
+     */
+    @Override
+    protected byte[] ProcessRequest(NioServerSession session, byte[] request) {
+        byte subtitle = request[0];
+        byte code = GetDeviceCode(request[9]);
+        if (request[8] != 0x20 || code == 0) return ErrorResponse(subtitle, A1EErrorDevice);
+
+        int address = (request[4] & 0xFF) | ((request[5] & 0xFF) << 8) | ((request[6] & 0xFF) << 16) | ((request[7] & 0xFF) << 24);
+        if (address < 0) return ErrorResponse(subtitle, A1EErrorAddressOver);
+        int points = GetPoints(request);
+
+        int result;
+        byte[] data = new byte[0];
+        switch (subtitle) {
+            case 0x00: {
+                boolean[] value = new boolean[points];
+                result = ReadBits(code, address, value);
+                if (result == 0) data = MelsecHelper.TransBoolArrayToByteData(value);
+                break;
+            }
+            case 0x01: {
+                data = new byte[points * 2];
+                result = ReadWords(code, address, points, data, 0);
+                break;
+            }
+            case 0x02: {
+                // 每个字节包含两个点，高4位为前一个点
+                boolean[] value = new boolean[points];
+                for (int i = 0; i < points; i++) {
+                    value[i] = (request[12 + i / 2] & (i % 2 == 0 ? 0x10 : 0x01)) != 0;
+                }
+                result = WriteBits(code, address, value);
+                break;
+            }
+            default: {
+                result = WriteWords(code, address, points, request, 12);
+                break;
+            }
+        }
+        if (result != 0) return ErrorResponse(subtitle, result == ErrorContent ? A1EErrorDevice : A1EErrorAddressOver);
+
+        byte[] response = new byte[2 + data.length];
+        response[0] = (byte) (subtitle | 0x80);
+        response[1] = 0x00;
+        System.arraycopy(data, 0, response, 2, data.length);
+        return response;
+    }
+
+
+    private static byte[] ErrorResponse(byte subtitle, byte error) {
+        // 结束代码0x5B之后为异常代码及0x00
+        return new byte[]{(byte) (subtitle | 0x80), 0x5B, error, 0x00};
+    }
+
+    private static byte GetDeviceCode(byte code) {
+        // 1E帧的软元件代码映射到3E帧的软元件代码，共用软元件的数据
+        switch (code) {
+            case 0x58: return MelsecMcDataType.X.getDataCode();
+            case 0x59: return MelsecMcDataType.Y.getDataCode();
+            case 0x4D: return MelsecMcDataType.M.getDataCode();
+            case 0x53: return MelsecMcDataType.S.getDataCode();
+            case 0x44: return MelsecMcDataType.D.getDataCode();
+            case 0x52: return MelsecMcDataType.R.getDataCode();
+            default: return 0;
+        }
+    }
+
+    private static int GetPoints(byte[] head) {
+        // 点数为0时表示256点
+        int points = head[10] & 0xFF;
+        return points == 0 ? 256 : points;
+    }
+
+
+    @Override
+    public String toString() {
+        return "MelsecA1EServer[" + getPort() + "]";
+    }
+
+
+    private static final byte A1EErrorDevice = 0x56;                                        // 软元件指定错误
+    private static final byte A1EErrorAddressOver = 0x58;                                   // 起始地址或点数超出范围
+
+
+    private static class A1EFraming implements INetMessageFraming {
+        // 12个字节的请求头，按位写入时之后为点数一半的字节，按字写入时之后为点数两倍的字节
+
+        @Override
+        public int ProtocolHeadBytesLength() {
+            return 12;
+        }
+
+        @Override
+        public int GetContentLengthByHeadBytes(byte[] head, byte[] send) {
+            switch (head[0]) {
+                case 0x02: return (GetPoints(head) + 1) / 2;
+                case 0x03: return GetPoints(head) * 2;
+                default: return 0;
+            }
+        }
+
+        @Override
+        public int GetHeadBytesOffset(byte[] head) {
+            return 0;
+        }
+
+        @Override
+        public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token) {
+            return head[0] >= 0x00 && head[0] <= 0x03;
+        }
+
+        @Override
+        public int GetHeadBytesIdentity(byte[] head) {
+            return 0;
+        }
+    }
+}
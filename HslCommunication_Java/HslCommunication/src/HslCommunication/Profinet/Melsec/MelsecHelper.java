@@ -1,11 +1,14 @@
 package HslCommunication.Profinet.Melsec;
 
 import HslCommunication.Core.Types.FunctionOperateExOne;
+import HslCommunication.Core.Types.OperateResult;
 import HslCommunication.Core.Types.OperateResultExOne;
 import HslCommunication.Core.Types.OperateResultExTwo;
 import HslCommunication.StringResources;
 import HslCommunication.Utilities;
 
+import java.io.ByteArrayOutputStream;
+
 /**
  * 所有三菱通讯类的通用辅助工具类，包含了一些通用的静态方法，可以使用本类来获取一些原始的报文信息。详细的操作参见例子
  */
@@ -788,4 +791,221 @@ public class MelsecHelper {
         }
     }
 
+    /**
+     * 检查按字随机读取(0403)的点数，字点数和双字点数之和必须在1到192之间，超出时PLC会拒绝整个请求
+     * @param wordCount 字访问点数
+     * @param dwordCount 双字访问点数
+     * @return 是否满足点数的限制
+     */
+    public static OperateResult CheckRandomReadPoints( int wordCount, int dwordCount )
+    {
+        int points = wordCount + dwordCount;
+        if (points < 1 || points > RandomReadMaxPoints)
+            return new OperateResult( StringResources.Language.MelsecRandomReadPointsOver() + points );
+        return OperateResult.CreateSuccessResult( );
+    }
+
+    /**
+     * 检查按字随机写入(1402)的点数，字点数乘12加上双字点数乘14必须在1到1920之间，超出时PLC会拒绝整个请求
+     * @param wordCount 字访问点数
+     * @param dwordCount 双字访问点数
+     * @return 是否满足点数的限制
+     */
+    public static OperateResult CheckRandomWritePoints( int wordCount, int dwordCount )
+    {
+        int points = wordCount * 12 + dwordCount * 14;
+        if (points < 1 || points > RandomWriteMaxPoints)
+            return new OperateResult( StringResources.Language.MelsecRandomWritePointsOver() + points );
+        return OperateResult.CreateSuccessResult( );
+    }
+
+    private static final int RandomReadMaxPoints = 192;          // 随机读取的最大点数
+    private static final int RandomWriteMaxPoints = 1920;        // 随机写入的字点数乘12加上双字点数乘14的最大值
+
+    /**
+     * 创建按字随机读取的MC核心报文(0403)，字地址读取一个字，双字地址读取两个字，总点数不能超过192
+     * @param wordAddress 按字读取的解析后的地址
+     * @param dwordAddress 按双字读取的解析后的地址
+     * @return 核心报文
+     */
+    public static byte[] BuildReadRandomWordCoreCommand( OperateResultExTwo<MelsecMcDataType, Integer>[] wordAddress, OperateResultExTwo<MelsecMcDataType, Integer>[] dwordAddress )
+    {
+        ByteArrayOutputStream command = new ByteArrayOutputStream( );
+        command.write( 0x03 );                                                    // 随机读取的命令
+        command.write( 0x04 );
+        command.write( 0x00 );                                                    // 以字为单位
+        command.write( 0x00 );
+        command.write( wordAddress.length );                                      // 字访问点数
+        command.write( dwordAddress.length );                                     // 双字访问点数
+        for (int i = 0; i < wordAddress.length; i++) WriteBinaryDevice( command, wordAddress[i] );
+        for (int i = 0; i < dwordAddress.length; i++) WriteBinaryDevice( command, dwordAddress[i] );
+        return command.toByteArray( );
+    }
+
+    /**
+     * 创建按字随机读取的ASCII格式的MC核心报文(0403)
+     * @param wordAddress 按字读取的解析后的地址
+     * @param dwordAddress 按双字读取的解析后的地址
+     * @return 核心报文
+     */
+    public static byte[] BuildAsciiReadRandomWordCoreCommand( OperateResultExTwo<MelsecMcDataType, Integer>[] wordAddress, OperateResultExTwo<MelsecMcDataType, Integer>[] dwordAddress )
+    {
+        ByteArrayOutputStream command = new ByteArrayOutputStream( );
+        WriteAscii( command, "04030000" );                                        // 随机读取的命令及子命令
+        WriteAscii( command, BuildBytesFromData( (byte) wordAddress.length ) );   // 字访问点数
+        WriteAscii( command, BuildBytesFromData( (byte) dwordAddress.length ) );  // 双字访问点数
+        for (int i = 0; i < wordAddress.length; i++) WriteAsciiDevice( command, wordAddress[i] );
+        for (int i = 0; i < dwordAddress.length; i++) WriteAsciiDevice( command, dwordAddress[i] );
+        return command.toByteArray( );
+    }
+
+    /**
+     * 创建按字随机写入的MC核心报文(1402)，字点数乘12加上双字点数乘14不能超过1920
+     * @param wordAddress 按字写入的解析后的地址
+     * @param wordValue 每个字地址写入的数据
+     * @param dwordAddress 按双字写入的解析后的地址
+     * @param dwordValue 每个双字地址写入的数据
+     * @return 核心报文
+     */
+    public static byte[] BuildWriteRandomWordCoreCommand( OperateResultExTwo<MelsecMcDataType, Integer>[] wordAddress, short[] wordValue,
+                                                          OperateResultExTwo<MelsecMcDataType, Integer>[] dwordAddress, int[] dwordValue )
+    {
+        ByteArrayOutputStream command = new ByteArrayOutputStream( );
+        command.write( 0x02 );                                                    // 随机写入的命令
+        command.write( 0x14 );
+        command.write( 0x00 );                                                    // 以字为单位
+        command.write( 0x00 );
+        command.write( wordAddress.length );                                      // 字访问点数
+        command.write( dwordAddress.length );                                     // 双字访问点数
+        for (int i = 0; i < wordAddress.length; i++)
+        {
+            WriteBinaryDevice( command, wordAddress[i] );
+            command.write( wordValue[i] & 0xFF );
+            command.write( (wordValue[i] >> 8) & 0xFF );
+        }
+        for (int i = 0; i < dwordAddress.length; i++)
+        {
+            WriteBinaryDevice( command, dwordAddress[i] );
+            command.write( dwordValue[i] & 0xFF );
+            command.write( (dwordValue[i] >> 8) & 0xFF );
+            command.write( (dwordValue[i] >> 16) & 0xFF );
+            command.write( (dwordValue[i] >> 24) & 0xFF );
+        }
+        return command.toByteArray( );
+    }
+
+    /**
+     * 创建按字随机写入的ASCII格式的MC核心报文(1402)
+     * @param wordAddress 按字写入的解析后的地址
+     * @param wordValue 每个字地址写入的数据
+     * @param dwordAddress 按双字写入的解析后的地址
+     * @param dwordValue 每个双字地址写入的数据
+     * @return 核心报文
+     */
+    public static byte[] BuildAsciiWriteRandomWordCoreCommand( OperateResultExTwo<MelsecMcDataType, Integer>[] wordAddress, short[] wordValue,
+                                                               OperateResultExTwo<MelsecMcDataType, Integer>[] dwordAddress, int[] dwordValue )
+    {
+        ByteArrayOutputStream command = new ByteArrayOutputStream( );
+        WriteAscii( command, "14020000" );                                        // 随机写入的命令及子命令
+        WriteAscii( command, BuildBytesFromData( (byte) wordAddress.length ) );   // 字访问点数
+        WriteAscii( command, BuildBytesFromData( (byte) dwordAddress.length ) );  // 双字访问点数
+        for (int i = 0; i < wordAddress.length; i++)
+        {
+            WriteAsciiDevice( command, wordAddress[i] );
+            WriteAscii( command, BuildBytesFromData( wordValue[i] ) );
+        }
+        for (int i = 0; i < dwordAddress.length; i++)
+        {
+            WriteAsciiDevice( command, dwordAddress[i] );
+            WriteAscii( command, Utilities.getBytes( String.format( "%08x", dwordValue[i] ), "ASCII" ) );
+        }
+        return command.toByteArray( );
+    }
+
+    /**
+     * 创建多个块批量读取的MC核心报文(0406)，字软元件的块和位软元件的块分开指定，位软元件的点数以16位的字为单位，
+     * 反馈的数据先是所有的字块，再是所有的位块。块数不能超过120，总点数不能超过960
+     * @param wordAddress 字软元件的块起始地址
+     * @param wordLength 字软元件的块的点数
+     * @param bitAddress 位软元件的块起始地址
+     * @param bitLength 位软元件的块的字数
+     * @return 核心报文
+     */
+    public static byte[] BuildReadMultiBlockCoreCommand( OperateResultExTwo<MelsecMcDataType, Integer>[] wordAddress, short[] wordLength,
+                                                         OperateResultExTwo<MelsecMcDataType, Integer>[] bitAddress, short[] bitLength )
+    {
+        ByteArrayOutputStream command = new ByteArrayOutputStream( );
+        command.write( 0x06 );                                                    // 多块批量读取的命令
+        command.write( 0x04 );
+        command.write( 0x00 );
+        command.write( 0x00 );
+        command.write( wordAddress.length );                                      // 字软元件的块数
+        command.write( bitAddress.length );                                       // 位软元件的块数
+        for (int i = 0; i < wordAddress.length; i++)
+        {
+            WriteBinaryDevice( command, wordAddress[i] );
+            command.write( wordLength[i] & 0xFF );
+            command.write( (wordLength[i] >> 8) & 0xFF );
+        }
+        for (int i = 0; i < bitAddress.length; i++)
+        {
+            WriteBinaryDevice( command, bitAddress[i] );
+            command.write( bitLength[i] & 0xFF );
+            command.write( (bitLength[i] >> 8) & 0xFF );
+        }
+        return command.toByteArray( );
+    }
+
+    /**
+     * 创建多个块批量读取的ASCII格式的MC核心报文(0406)
+     * @param wordAddress 字软元件的块起始地址
+     * @param wordLength 字软元件的块的点数
+     * @param bitAddress 位软元件的块起始地址
+     * @param bitLength 位软元件的块的字数
+     * @return 核心报文
+     */
+    public static byte[] BuildAsciiReadMultiBlockCoreCommand( OperateResultExTwo<MelsecMcDataType, Integer>[] wordAddress, short[] wordLength,
+                                                              OperateResultExTwo<MelsecMcDataType, Integer>[] bitAddress, short[] bitLength )
+    {
+        ByteArrayOutputStream command = new ByteArrayOutputStream( );
+        WriteAscii( command, "04060000" );                                        // 多块批量读取的命令及子命令
+        WriteAscii( command, BuildBytesFromData( (byte) wordAddress.length ) );   // 字软元件的块数
+        WriteAscii( command, BuildBytesFromData( (byte) bitAddress.length ) );    // 位软元件的块数
+        for (int i = 0; i < wordAddress.length; i++)
+        {
+            WriteAsciiDevice( command, wordAddress[i] );
+            WriteAscii( command, BuildBytesFromData( wordLength[i] ) );
+        }
+        for (int i = 0; i < bitAddress.length; i++)
+        {
+            WriteAsciiDevice( command, bitAddress[i] );
+            WriteAscii( command, BuildBytesFromData( bitLength[i] ) );
+        }
+        return command.toByteArray( );
+    }
+
+    private static void WriteBinaryDevice( ByteArrayOutputStream command, OperateResultExTwo<MelsecMcDataType, Integer> address )
+    {
+        command.write( address.Content2 % 256 );                                  // 起始地址的地位
+        command.write( address.Content2 / 256 % 256 );
+        command.write( address.Content2 / 256 / 256 );
+        command.write( address.Content1.getDataCode( ) );                         // 软元件代码
+    }
+
+    private static void WriteAsciiDevice( ByteArrayOutputStream command, OperateResultExTwo<MelsecMcDataType, Integer> address )
+    {
+        WriteAscii( command, Utilities.getBytes( address.Content1.getAsciiCode( ), "ASCII" ) );      // 软元件类型
+        WriteAscii( command, BuildBytesFromAddress( address.Content2, address.Content1 ) );          // 起始地址
+    }
+
+    private static void WriteAscii( ByteArrayOutputStream command, String value )
+    {
+        WriteAscii( command, Utilities.getBytes( value, "ASCII" ) );
+    }
+
+    private static void WriteAscii( ByteArrayOutputStream command, byte[] value )
+    {
+        command.write( value, 0, value.length );
+    }
+
 }
@@ -41,6 +41,7 @@ public class MelsecMcAsciiNet extends NetworkDeviceBase<MelsecQnA3EAsciiMessage,
 
     private byte NetworkNumber = 0x00;                       // 网络号
     private byte NetworkStationNumber = 0x00;                // 网络站号
+    private int readMergeGap = 8;                            // 多地址读取时合并的最大间隔
 
     /**
      * 获取网络号
@@ -98,25 +99,54 @@ public class MelsecMcAsciiNet extends NetworkDeviceBase<MelsecQnA3EAsciiMessage,
      */
     @Override
     public OperateResultExOne<byte[]> Read(String address, short length) {
-        // 地址分析
+        return ReadByCommands(address, length);
+    }
+
+    /**
+     * 构建批量读取字数据的ASCII格式的MC协议报文
+     * @param address 起始地址
+     * @param length 读取的数据长度
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
         OperateResultExOne<byte[]> coreResult = MelsecHelper.BuildAsciiReadMcCoreCommand( address, length, false, new FunctionOperateExOne<String, OperateResultExTwo<MelsecMcDataType, Integer>>(){
             @Override
             public OperateResultExTwo<MelsecMcDataType, Integer> Action(String content) {
                 return McAnalysisAddress(content);
             }
         });
-        if (!coreResult.IsSuccess) return coreResult;
+        if (!coreResult.IsSuccess) return OperateResultExOne.CreateFailedResult( coreResult );
 
-        // 核心交互
-        OperateResultExOne<byte[]> read = ReadFromCoreServer( PackMcCommand( coreResult.Content, NetworkNumber, NetworkStationNumber ) );
-        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult( read );
+        return OperateResultExOne.CreateSuccessResult( new byte[][]{ PackMcCommand( coreResult.Content, NetworkNumber, NetworkStationNumber ) } );
+    }
 
+    /**
+     * 校验PLC反馈的错误码，并提取出实际的数据
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 实际的数据
+     */
+    @Override
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
         // 错误代码验证
-        short errorCode = (short) Integer.parseInt(Utilities.getString(read.Content,18,4,"ASCII"), 16 );
-        if (errorCode != 0) return new OperateResultExOne<>( errorCode, StringResources.Language.MelsecPleaseReferToManulDocument() );
+        OperateResult check = CheckResponseEndCode( response );
+        if (!check.IsSuccess) return OperateResultExOne.CreateFailedResult( check );
 
         // 数据解析，需要传入是否使用位的参数
-        return ExtractActualData( read.Content, false );
+        return ExtractActualData( response, false );
+    }
+
+    /**
+     * 校验PLC反馈的结束代码，读取及写入的反馈共用
+     * @param response 反馈的报文
+     * @return 结束代码为0时成功
+     */
+    private static OperateResult CheckResponseEndCode( byte[] response )
+    {
+        short errorCode = (short) Integer.parseInt(Utilities.getString(response,18,4,"ASCII"), 16 );
+        if (errorCode != 0) return new OperateResult( errorCode, StringResources.Language.MelsecPleaseReferToManulDocument() );
+        return OperateResult.CreateSuccessResult( );
     }
 
 
@@ -181,26 +211,38 @@ public class MelsecMcAsciiNet extends NetworkDeviceBase<MelsecQnA3EAsciiMessage,
      */
     @Override
     public OperateResult Write(String address, byte[] value) {
+        return WriteByCommands(address, value);
+    }
 
-        // 地址分析
+    /**
+     * 构建批量写入字数据的ASCII格式的MC协议报文
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
         OperateResultExOne<byte[]> coreResult = MelsecHelper.BuildAsciiWriteWordCoreCommand( address, value, new FunctionOperateExOne<String, OperateResultExTwo<MelsecMcDataType, Integer>>(){
             @Override
             public OperateResultExTwo<MelsecMcDataType, Integer> Action(String content) {
                 return McAnalysisAddress(content);
             }
-        } );
-        if (!coreResult.IsSuccess) return coreResult;
+        });
+        if (!coreResult.IsSuccess) return OperateResultExOne.CreateFailedResult( coreResult );
 
-        // 核心交互
-        OperateResultExOne<byte[]> read = ReadFromCoreServer( PackMcCommand( coreResult.Content, NetworkNumber, NetworkStationNumber ) );
-        if (!read.IsSuccess) return read;
+        return OperateResultExOne.CreateSuccessResult( new byte[][]{ PackMcCommand( coreResult.Content, NetworkNumber, NetworkStationNumber ) } );
+    }
 
+    /**
+     * 校验PLC反馈的写入报文的错误码
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 写入结果
+     */
+    @Override
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
         // 错误码验证
-        short errorCode = (short) Integer.parseInt(Utilities.getString(read.Content,18,4,"ASCII"), 16 );
-        if (errorCode != 0) return new OperateResult( errorCode, StringResources.Language.MelsecPleaseReferToManulDocument() );
-
-        // 写入成功
-        return OperateResult.CreateSuccessResult( );
+        return CheckResponseEndCode( response );
     }
 
 
@@ -244,6 +286,153 @@ public class MelsecMcAsciiNet extends NetworkDeviceBase<MelsecQnA3EAsciiMessage,
     }
 
 
+    /**
+     * 随机读取多个字地址及双字地址的数据，一次请求完成，字地址和双字地址的总数不能超过192 ->
+     * Random read of word and dword addresses in one request
+     * @param wordAddress 按字读取的地址，格式为"D100","W1A0"，位软元件读取16个点
+     * @param dwordAddress 按双字读取的地址，可以为空数组
+     * @return 每个字地址及双字地址的数据
+     */
+    public OperateResultExTwo<short[], int[]> ReadRandom( String[] wordAddress, String[] dwordAddress )
+    {
+        OperateResultExOne<OperateResultExTwo<MelsecMcDataType, Integer>[]> words = McAnalysisAddress( wordAddress );
+        if (!words.IsSuccess) return OperateResultExTwo.CreateFailedResult( words );
+        OperateResultExOne<OperateResultExTwo<MelsecMcDataType, Integer>[]> dwords = McAnalysisAddress( dwordAddress );
+        if (!dwords.IsSuccess) return OperateResultExTwo.CreateFailedResult( dwords );
+
+        OperateResult points = MelsecHelper.CheckRandomReadPoints( wordAddress.length, dwordAddress.length );
+        if (!points.IsSuccess) return OperateResultExTwo.CreateFailedResult( points );
+
+        byte[] core = MelsecHelper.BuildAsciiReadRandomWordCoreCommand( words.Content, dwords.Content );
+        OperateResultExOne<byte[]> read = ReadFromCoreServer( PackMcCommand( core, NetworkNumber, NetworkStationNumber ) );
+        if (!read.IsSuccess) return OperateResultExTwo.CreateFailedResult( read );
+
+        // 错误代码验证
+        OperateResult check = CheckResponseEndCode( read.Content );
+        if (!check.IsSuccess) return OperateResultExTwo.CreateFailedResult( check );
+
+        // 先是所有的字数据，再是所有的双字数据
+        byte[] data = ExtractActualRandomData( read.Content, wordAddress.length, dwordAddress.length );
+        if (data.length < wordAddress.length * 2 + dwordAddress.length * 4)
+            return new OperateResultExTwo<>( StringResources.Language.ReceiveDataLengthTooShort() + data.length );
+
+        short[] wordValue = new short[wordAddress.length];
+        for (int i = 0; i < wordValue.length; i++) wordValue[i] = getByteTransform().TransInt16( data, i * 2 );
+        int[] dwordValue = new int[dwordAddress.length];
+        for (int i = 0; i < dwordValue.length; i++) dwordValue[i] = getByteTransform().TransInt32( data, wordValue.length * 2 + i * 4 );
+        return OperateResultExTwo.CreateSuccessResult( wordValue, dwordValue );
+    }
+
+    /**
+     * 随机写入多个字地址及双字地址的数据，一次请求完成，字点数乘12加上双字点数乘14不能超过1920 ->
+     * Random write of word and dword addresses in one request
+     * @param wordAddress 按字写入的地址
+     * @param wordValue 每个字地址写入的数据
+     * @param dwordAddress 按双字写入的地址，可以为空数组
+     * @param dwordValue 每个双字地址写入的数据
+     * @return 写入结果
+     */
+    public OperateResult WriteRandom( String[] wordAddress, short[] wordValue, String[] dwordAddress, int[] dwordValue )
+    {
+        if (wordAddress.length != wordValue.length || dwordAddress.length != dwordValue.length)
+            return new OperateResult( StringResources.Language.TwoParametersLengthIsNotSame() );
+
+        OperateResultExOne<OperateResultExTwo<MelsecMcDataType, Integer>[]> words = McAnalysisAddress( wordAddress );
+        if (!words.IsSuccess) return words;
+        OperateResultExOne<OperateResultExTwo<MelsecMcDataType, Integer>[]> dwords = McAnalysisAddress( dwordAddress );
+        if (!dwords.IsSuccess) return dwords;
+
+        OperateResult points = MelsecHelper.CheckRandomWritePoints( wordAddress.length, dwordAddress.length );
+        if (!points.IsSuccess) return points;
+
+        byte[] core = MelsecHelper.BuildAsciiWriteRandomWordCoreCommand( words.Content, wordValue, dwords.Content, dwordValue );
+        OperateResultExOne<byte[]> read = ReadFromCoreServer( PackMcCommand( core, NetworkNumber, NetworkStationNumber ) );
+        if (!read.IsSuccess) return read;
+
+        return CheckResponseEndCode( read.Content );
+    }
+
+    /**
+     * 一次性读取多个地址的数据，相邻的地址合并，短的地址使用随机读取，长的地址使用多块批量读取，装入尽量少的报文 ->
+     * Read multiple addresses at once, packed into as few frames as possible
+     * @param address 起始地址数组，格式为"M100","D100","W1A0"
+     * @param length 每个地址读取的字数，位软元件的一个字为16个点
+     * @return 每个地址的数据
+     */
+    public OperateResultExOne<byte[][]> ReadMultiple( String[] address, short[] length )
+    {
+        OperateResultExOne<MelsecReadPlan> plan = CreateReadPlan( address, length );
+        if (!plan.IsSuccess) return OperateResultExOne.CreateFailedResult( plan );
+
+        return Read( plan.Content );
+    }
+
+    /**
+     * 创建多个地址的读取计划，周期性的读取同一组地址时，计划只需要创建一次
+     * @param address 起始地址数组，格式为"M100","D100","W1A0"
+     * @param length 每个地址读取的字数，位软元件的一个字为16个点
+     * @return 读取的计划
+     */
+    public OperateResultExOne<MelsecReadPlan> CreateReadPlan( String[] address, short[] length )
+    {
+        OperateResultExOne<OperateResultExTwo<MelsecMcDataType, Integer>[]> analysis = McAnalysisAddress( address );
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult( analysis );
+
+        return MelsecReadPlan.Create( analysis.Content, length, true, readMergeGap );
+    }
+
+    /**
+     * 按照读取的计划从PLC读取数据
+     * @param plan 读取的计划
+     * @return 每个地址的数据，顺序和创建计划时一致
+     */
+    public OperateResultExOne<byte[][]> Read( MelsecReadPlan plan )
+    {
+        byte[][] commands = plan.getCommands( );
+        byte[][] sends = new byte[commands.length][];
+        for (int i = 0; i < commands.length; i++) sends[i] = PackMcCommand( commands[i], NetworkNumber, NetworkStationNumber );
+
+        OperateResultExOne<byte[][]> read = ReadFromCoreServer( sends, PipelineDepth );
+        if (!read.IsSuccess) return read;
+
+        byte[][] data = new byte[read.Content.length][];
+        for (int i = 0; i < data.length; i++)
+        {
+            OperateResult check = CheckResponseEndCode( read.Content[i] );
+            if (!check.IsSuccess) return OperateResultExOne.CreateFailedResult( check );
+            data[i] = ExtractActualRandomData( read.Content[i], plan.getWordCount( i ), plan.getDwordCount( i ) );
+        }
+        return plan.Scatter( data );
+    }
+
+    /**
+     * 获取多地址读取时合并的最大间隔字数
+     * @return 间隔的字数
+     */
+    public int getReadMergeGap() {
+        return readMergeGap;
+    }
+
+    /**
+     * 设置多地址读取时合并的最大间隔字数，两个地址之间的间隔不超过该值时合并为一个数据块，默认为8
+     * @param readMergeGap 间隔的字数
+     */
+    public void setReadMergeGap(int readMergeGap) {
+        this.readMergeGap = readMergeGap;
+    }
+
+    private OperateResultExOne<OperateResultExTwo<MelsecMcDataType, Integer>[]> McAnalysisAddress( String[] address )
+    {
+        OperateResultExTwo<MelsecMcDataType, Integer>[] analysis = new OperateResultExTwo[address.length];
+        for (int i = 0; i < address.length; i++)
+        {
+            analysis[i] = McAnalysisAddress( address[i] );
+            if (!analysis[i].IsSuccess) return OperateResultExOne.CreateFailedResult( analysis[i] );
+        }
+        return OperateResultExOne.CreateSuccessResult( analysis );
+    }
+
+
     /**
      * 返回表示当前对象的字符串
      * @return 字符串
@@ -332,4 +521,35 @@ public class MelsecMcAsciiNet extends NetworkDeviceBase<MelsecQnA3EAsciiMessage,
             return OperateResultExOne.CreateSuccessResult( Content );
         }
     }
+
+    /**
+     * 从PLC随机读取反馈的数据中提取出实际的数据内容，先是按字读取的数据，每个字4个字符，再是按双字读取的数据，每个双字8个字符，
+     * 转换为二进制格式的数据，低位在前
+     * @param response 反馈的数据内容
+     * @param wordCount 按字读取的点数
+     * @param dwordCount 按双字读取的点数
+     * @return 二进制格式的数据
+     */
+    public static byte[] ExtractActualRandomData( byte[] response, int wordCount, int dwordCount )
+    {
+        byte[] Content = new byte[wordCount * 2 + dwordCount * 4];
+        int index = 22;
+        for (int i = 0; i < wordCount && index + 4 <= response.length; i++)
+        {
+            int tmp = Integer.parseInt( Utilities.getString( response, index, 4 ,"ASCII"), 16 );
+            Content[i * 2 + 0] = (byte) tmp;
+            Content[i * 2 + 1] = (byte) (tmp >> 8);
+            index += 4;
+        }
+        for (int i = 0; i < dwordCount && index + 8 <= response.length; i++)
+        {
+            long tmp = Long.parseLong( Utilities.getString( response, index, 8 ,"ASCII"), 16 );
+            Content[wordCount * 2 + i * 4 + 0] = (byte) tmp;
+            Content[wordCount * 2 + i * 4 + 1] = (byte) (tmp >> 8);
+            Content[wordCount * 2 + i * 4 + 2] = (byte) (tmp >> 16);
+            Content[wordCount * 2 + i * 4 + 3] = (byte) (tmp >> 24);
+            index += 8;
+        }
+        return Content;
+    }
 }
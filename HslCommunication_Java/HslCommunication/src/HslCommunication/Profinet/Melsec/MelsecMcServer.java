@@ -0,0 +1,750 @@
+package HslCommunication.Profinet.Melsec;
+
+import HslCommunication.Core.IMessage.INetMessageFraming;
+import HslCommunication.Core.Net.Nio.NioServer;
+import HslCommunication.Core.Net.Nio.NioServerSession;
+import HslCommunication.Core.Thread.SimpleHybirdLock;
+import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Transfer.RegularByteTransform;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import HslCommunication.StringResources;
+import HslCommunication.Utilities;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+
+/**
+ * 三菱MC协议的服务器，支持3E帧的二进制及ASCII格式，应答MelsecMcNet，MelsecMcAsciiNet及KeyenceMcNet的批量读写(0401,1401)，
+ * 随机读写(0403,1402)及多块读取(0406)的请求。每种软元件使用一个基本类型的数组保存，位软元件为boolean数组，字软元件为short数组，
+ * 每种软元件65536个点，用于没有PLC时的压力及延迟测试 ->
+ * The Mitsubishi MC protocol server of the 3E frame in binary or ASCII format, serves the batch, random and multi block
+ * requests of MelsecMcNet, MelsecMcAsciiNet and KeyenceMcNet, every device is held in a primitive array of 65536 points
+ */
+public class MelsecMcServer extends NioServer {
+
+    /**
+     * 实例化一个二进制格式的MC协议服务器，所有的数据初始化为0
+     */
+    public MelsecMcServer() {
+        this(true);
+    }
+
+    /**
+     * 实例化一个MC协议服务器，所有的数据初始化为0
+     * @param isBinary 是否是二进制格式，否则为ASCII格式
+     */
+    public MelsecMcServer(boolean isBinary) {
+        this(isBinary ? new McBinaryFraming() : new McAsciiFraming(), isBinary);
+    }
+
+    /**
+     * 使用其他的请求分帧规则实例化一个服务器，用于共用软元件数据的其他帧格式
+     * @param framing 请求报文的分帧规则
+     */
+    protected MelsecMcServer(INetMessageFraming framing) {
+        this(framing, true);
+    }
+
+    private MelsecMcServer(INetMessageFraming framing, boolean isBinary) {
+        super(framing);
+        this.isBinary = isBinary;
+        this.byteTransform = new RegularByteTransform();
+
+        MelsecMcDataType[] types = new MelsecMcDataType[]{
+                MelsecMcDataType.X, MelsecMcDataType.Y, MelsecMcDataType.M, MelsecMcDataType.D, MelsecMcDataType.W,
+                MelsecMcDataType.L, MelsecMcDataType.F, MelsecMcDataType.V, MelsecMcDataType.B, MelsecMcDataType.R,
+                MelsecMcDataType.S, MelsecMcDataType.Z, MelsecMcDataType.TN, MelsecMcDataType.TS, MelsecMcDataType.TC,
+                MelsecMcDataType.SS, MelsecMcDataType.SC, MelsecMcDataType.SN, MelsecMcDataType.CN, MelsecMcDataType.CS,
+                MelsecMcDataType.CC, MelsecMcDataType.ZR, MelsecMcDataType.Keyence_SM, MelsecMcDataType.Keyence_SD};
+        for (MelsecMcDataType type : types) {
+            int code = type.getDataCode() & 0xFF;
+            if (type.getDataType() == 0x01) bitDevices[code] = new boolean[DeviceSize];
+            else wordDevices[code] = new short[DeviceSize];
+            asciiDevices.put(type.getAsciiCode(), type);
+        }
+    }
+
+
+    /**
+     * 获取是否是二进制格式的服务器
+     * @return 是否二进制
+     */
+    public boolean IsBinary() {
+        return isBinary;
+    }
+
+    /**
+     * 获取数据的变换规则，和MelsecMcNet一致
+     * @return 变换规则
+     */
+    public IByteTransform getByteTransform() {
+        return byteTransform;
+    }
+
+    /**
+     * 按字读取原始的字节数据，低位在前，位软元件每个字包含16个点，地址格式和MelsecMcNet一致，例如D100，M100，X1A0
+     * @param address 起始地址
+     * @param length 字的数量
+     * @return 数据
+     */
+    public OperateResultExOne<byte[]> Read(String address, short length) {
+        OperateResultExTwo<MelsecMcDataType, Integer> analysis = MelsecHelper.McAnalysisAddress(address);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+        byte[] data = new byte[length * 2];
+        int code = ReadWords(analysis.Content1.getDataCode(), analysis.Content2, length, data, 0);
+        if (code != 0) return new OperateResultExOne<>(code, StringResources.Language.MelsecPleaseReferToManulDocument());
+        return OperateResultExOne.CreateSuccessResult(data);
+    }
+
+    /**
+     * 读取位软元件的数据，例如M100，X1A0
+     * @param address 起始地址
+     * @param length 点数
+     * @return bool数组
+     */
+    public OperateResultExOne<boolean[]> ReadBool(String address, short length) {
+        OperateResultExTwo<MelsecMcDataType, Integer> analysis = MelsecHelper.McAnalysisAddress(address);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+        boolean[] value = new boolean[length];
+        int code = ReadBits(analysis.Content1.getDataCode(), analysis.Content2, value);
+        if (code != 0) return new OperateResultExOne<>(code, StringResources.Language.MelsecPleaseReferToManulDocument());
+        return OperateResultExOne.CreateSuccessResult(value);
+    }
+
+    /**
+     * 读取一个位软元件的数据
+     * @param address 地址
+     * @return bool值
+     */
+    public OperateResultExOne<Boolean> ReadBool(String address) {
+        OperateResultExOne<boolean[]> read = ReadBool(address, (short) 1);
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+
+        return OperateResultExOne.CreateSuccessResult(read.Content[0]);
+    }
+
+    /**
+     * 按字写入原始的字节数据，低位在前，长度为奇数时忽略最后一个字节
+     * @param address 起始地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, byte[] value) {
+        OperateResultExTwo<MelsecMcDataType, Integer> analysis = MelsecHelper.McAnalysisAddress(address);
+        if (!analysis.IsSuccess) return analysis;
+
+        int code = WriteWords(analysis.Content1.getDataCode(), analysis.Content2, value.length / 2, value, 0);
+        if (code != 0) return new OperateResult(code, StringResources.Language.MelsecPleaseReferToManulDocument());
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入位软元件的数据
+     * @param address 起始地址
+     * @param value bool数组
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, boolean[] value) {
+        OperateResultExTwo<MelsecMcDataType, Integer> analysis = MelsecHelper.McAnalysisAddress(address);
+        if (!analysis.IsSuccess) return analysis;
+
+        int code = WriteBits(analysis.Content1.getDataCode(), analysis.Content2, value);
+        if (code != 0) return new OperateResult(code, StringResources.Language.MelsecPleaseReferToManulDocument());
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入一个位软元件的数据
+     * @param address 地址
+     * @param value bool值
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, boolean value) {
+        return Write(address, new boolean[]{value});
+    }
+
+    /**
+     * 写入一个short数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, short value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个int数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, int value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个float数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, float value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+
+    /**
+     * 处理一个3E帧的请求，ASCII格式的核心报文先转换为二进制格式处理，反馈的数据再转换为ASCII格式
+     * @param session 客户端的会话
+     * @param request 完整的请求报文
+     * @return 反馈的报文
+     */
+    @Override
+    protected byte[] ProcessRequest(NioServerSession session, byte[] request) {
+        if (isBinary) {
+            if (request.length < 15) return BinaryResponse(request, ErrorLength, new byte[0]);
+
+            OperateResultExOne<byte[]> execute = ExecuteCommand(request, 11);
+            return BinaryResponse(request, execute.IsSuccess ? 0 : execute.ErrorCode, execute.Content);
+        }
+        else {
+            if (request.length < 30) return AsciiResponse(request, ErrorLength, new byte[0]);
+
+            OperateResultExOne<byte[]> core = AsciiCoreToBinary(request, 22);
+            if (!core.IsSuccess) return AsciiResponse(request, core.ErrorCode, null);
+
+            OperateResultExOne<byte[]> execute = ExecuteCommand(core.Content, 0);
+            if (!execute.IsSuccess) return AsciiResponse(request, execute.ErrorCode, null);
+            return AsciiResponse(request, 0, BinaryDataToAscii(core.Content, execute.Content));
+        }
+    }
+
+
+    private OperateResultExOne<byte[]> ExecuteCommand(byte[] core, int index) {
+        int command = GetUShort(core, index);
+        int subCommand = GetUShort(core, index + 2);
+        index += 4;
+        if (command == 0x0401 && subCommand == 0x0001) return ReadBatchBit(core, index);
+        if (command == 0x0401 && subCommand == 0x0000) return ReadBatchWord(core, index);
+        if (command == 0x1401 && subCommand == 0x0001) return WriteBatchBit(core, index);
+        if (command == 0x1401 && subCommand == 0x0000) return WriteBatchWord(core, index);
+        if (command == 0x0403 && subCommand == 0x0000) return ReadRandom(core, index);
+        if (command == 0x1402 && subCommand == 0x0000) return WriteRandom(core, index);
+        if (command == 0x0406 && subCommand == 0x0000) return ReadBlock(core, index);
+        return Failed(ErrorCommand);
+    }
+
+    private OperateResultExOne<byte[]> ReadBatchBit(byte[] core, int index) {
+        if (core.length != index + 6) return Failed(ErrorLength);
+        int points = GetUShort(core, index + 4);
+        if (points > 7168) return Failed(ErrorPointsOver);
+
+        boolean[] value = new boolean[points];
+        int code = ReadBits(core[index + 3], GetAddress(core, index), value);
+        if (code != 0) return Failed(code);
+        return OperateResultExOne.CreateSuccessResult(MelsecHelper.TransBoolArrayToByteData(value));
+    }
+
+    private OperateResultExOne<byte[]> ReadBatchWord(byte[] core, int index) {
+        if (core.length != index + 6) return Failed(ErrorLength);
+        int points = GetUShort(core, index + 4);
+        if (points > 960) return Failed(ErrorPointsOver);
+
+        byte[] data = new byte[points * 2];
+        int code = ReadWords(core[index + 3], GetAddress(core, index), points, data, 0);
+        if (code != 0) return Failed(code);
+        return OperateResultExOne.CreateSuccessResult(data);
+    }
+
+    private OperateResultExOne<byte[]> WriteBatchBit(byte[] core, int index) {
+        if (core.length < index + 6) return Failed(ErrorLength);
+        int points = GetUShort(core, index + 4);
+        if (points > 7168) return Failed(ErrorPointsOver);
+        if (core.length != index + 6 + (points + 1) / 2) return Failed(ErrorLength);
+
+        // 每个字节包含两个点，高4位为前一个点
+        boolean[] value = new boolean[points];
+        for (int i = 0; i < points; i++) {
+            value[i] = (core[index + 6 + i / 2] & (i % 2 == 0 ? 0x10 : 0x01)) != 0;
+        }
+        int code = WriteBits(core[index + 3], GetAddress(core, index), value);
+        if (code != 0) return Failed(code);
+        return OperateResultExOne.CreateSuccessResult(new byte[0]);
+    }
+
+    private OperateResultExOne<byte[]> WriteBatchWord(byte[] core, int index) {
+        if (core.length < index + 6) return Failed(ErrorLength);
+        int points = GetUShort(core, index + 4);
+        if (points > 960) return Failed(ErrorPointsOver);
+        if (core.length != index + 6 + points * 2) return Failed(ErrorLength);
+
+        int code = WriteWords(core[index + 3], GetAddress(core, index), points, core, index + 6);
+        if (code != 0) return Failed(code);
+        return OperateResultExOne.CreateSuccessResult(new byte[0]);
+    }
+
+    private OperateResultExOne<byte[]> ReadRandom(byte[] core, int index) {
+        if (core.length < index + 2) return Failed(ErrorLength);
+        int wordCount = core[index] & 0xFF;
+        int dwordCount = core[index + 1] & 0xFF;
+        if (wordCount + dwordCount == 0 || wordCount + dwordCount > 192) return Failed(ErrorPointsOver);
+        if (core.length != index + 2 + (wordCount + dwordCount) * 4) return Failed(ErrorLength);
+
+        // 先是所有的字数据，再是所有的双字数据
+        byte[] data = new byte[wordCount * 2 + dwordCount * 4];
+        for (int i = 0; i < wordCount + dwordCount; i++) {
+            int offset = index + 2 + i * 4;
+            int code = i < wordCount ?
+                    ReadWords(core[offset + 3], GetAddress(core, offset), 1, data, i * 2) :
+                    ReadWords(core[offset + 3], GetAddress(core, offset), 2, data, wordCount * 2 + (i - wordCount) * 4);
+            if (code != 0) return Failed(code);
+        }
+        return OperateResultExOne.CreateSuccessResult(data);
+    }
+
+    private OperateResultExOne<byte[]> WriteRandom(byte[] core, int index) {
+        if (core.length < index + 2) return Failed(ErrorLength);
+        int wordCount = core[index] & 0xFF;
+        int dwordCount = core[index + 1] & 0xFF;
+        if (wordCount + dwordCount == 0 || wordCount * 12 + dwordCount * 14 > 1920) return Failed(ErrorPointsOver);
+        if (core.length != index + 2 + wordCount * 6 + dwordCount * 8) return Failed(ErrorLength);
+
+        // 先检查所有的软元件，失败的时候不写入任何数据
+        for (int step = 0; step < 2; step++) {
+            int offset = index + 2;
+            for (int i = 0; i < wordCount + dwordCount; i++) {
+                int points = i < wordCount ? 1 : 2;
+                int code = step == 0 ?
+                        CheckWords(core[offset + 3], GetAddress(core, offset), points) :
+                        WriteWords(core[offset + 3], GetAddress(core, offset), points, core, offset + 4);
+                if (code != 0) return Failed(code);
+                offset += 4 + points * 2;
+            }
+        }
+        return OperateResultExOne.CreateSuccessResult(new byte[0]);
+    }
+
+    private OperateResultExOne<byte[]> ReadBlock(byte[] core, int index) {
+        if (core.length < index + 2) return Failed(ErrorLength);
+        int blockCount = (core[index] & 0xFF) + (core[index + 1] & 0xFF);
+        if (blockCount == 0 || blockCount > 120) return Failed(ErrorPointsOver);
+        if (core.length != index + 2 + blockCount * 6) return Failed(ErrorLength);
+
+        // 字块及位块都按照字读取，位块的点数为字数
+        int total = 0;
+        for (int i = 0; i < blockCount; i++) total += GetUShort(core, index + 2 + i * 6 + 4);
+        if (total > 960) return Failed(ErrorPointsOver);
+
+        byte[] data = new byte[total * 2];
+        int position = 0;
+        for (int i = 0; i < blockCount; i++) {
+            int offset = index + 2 + i * 6;
+            int points = GetUShort(core, offset + 4);
+            int code = ReadWords(core[offset + 3], GetAddress(core, offset), points, data, position);
+            if (code != 0) return Failed(code);
+            position += points * 2;
+        }
+        return OperateResultExOne.CreateSuccessResult(data);
+    }
+
+
+    private OperateResultExOne<byte[]> AsciiCoreToBinary(byte[] request, int index) {
+        // ASCII格式的核心报文转换为二进制格式，地址及数据的格式和MelsecHelper的ASCII报文一致
+        int command = ParseHex(request, index, 4);
+        int subCommand = ParseHex(request, index + 4, 4);
+        if (command < 0 || subCommand < 0) return Failed(ErrorCommand);
+
+        ByteArrayOutputStream core = new ByteArrayOutputStream();
+        WriteUShort(core, command);
+        WriteUShort(core, subCommand);
+        int position = index + 8;
+        try {
+            switch (command) {
+                case 0x0401:
+                case 0x1401: {
+                    position = ParseAsciiDevice(request, position, core);
+                    int points = ParseHex(request, position, 4);
+                    if (points < 0) return Failed(ErrorContent);
+                    WriteUShort(core, points);
+                    position += 4;
+                    if (command == 0x0401) break;
+
+                    if (subCommand == 0x0001) {
+                        for (int i = 0; i < points; i += 2) {
+                            int value = request[position + i] == '1' ? 0x10 : 0x00;
+                            if (i + 1 < points && request[position + i + 1] == '1') value |= 0x01;
+                            core.write(value);
+                        }
+                        position += points;
+                    }
+                    else {
+                        for (int i = 0; i < points; i++, position += 4) {
+                            int value = ParseHex(request, position, 4);
+                            if (value < 0) return Failed(ErrorContent);
+                            WriteUShort(core, value);
+                        }
+                    }
+                    break;
+                }
+                case 0x0403:
+                case 0x1402:
+                case 0x0406: {
+                    int wordCount = ParseHex(request, position, 2);
+                    int dwordCount = ParseHex(request, position + 2, 2);
+                    if (wordCount < 0 || dwordCount < 0) return Failed(ErrorContent);
+                    core.write(wordCount);
+                    core.write(dwordCount);
+                    position += 4;
+                    for (int i = 0; i < wordCount + dwordCount; i++) {
+                        position = ParseAsciiDevice(request, position, core);
+                        if (command == 0x0403) continue;
+
+                        // 随机写入的字数据或双字数据，多块读取的点数
+                        int length = command == 0x1402 && i >= wordCount ? 8 : 4;
+                        long value = Long.parseLong(Utilities.getString(request, position, length, "ASCII"), 16);
+                        for (int j = 0; j < length / 2; j++) core.write((int) (value >> (j * 8)));
+                        position += length;
+                    }
+                    break;
+                }
+                default: return Failed(ErrorCommand);
+            }
+        }
+        catch (IndexOutOfBoundsException ex) {
+            return Failed(ErrorLength);
+        }
+        catch (IllegalArgumentException ex) {
+            return Failed(ErrorContent);
+        }
+
+        if (position != request.length) return Failed(ErrorLength);
+        return OperateResultExOne.CreateSuccessResult(core.toByteArray());
+    }
+
+    private int ParseAsciiDevice(byte[] request, int index, ByteArrayOutputStream core) {
+        // 2个字符的软元件代码，6个字符的地址，按照软元件的进制解析
+        MelsecMcDataType type = asciiDevices.get(Utilities.getString(request, index, 2, "ASCII").toUpperCase());
+        if (type == null) throw new IllegalArgumentException();
+
+        int address = Integer.parseInt(Utilities.getString(request, index + 2, 6, "ASCII"), type.getFromBase() == 10 ? 10 : 16);
+        core.write(address);
+        core.write(address >> 8);
+        core.write(address >> 16);
+        core.write(type.getDataCode());
+        return index + 8;
+    }
+
+    private static byte[] BinaryDataToAscii(byte[] core, byte[] data) {
+        int command = GetUShort(core, 0);
+        if (command == 0x0401 && GetUShort(core, 2) == 0x0001) {
+            // 位读取每个点一个字符
+            int points = GetUShort(core, 8);
+            byte[] ascii = new byte[points];
+            for (int i = 0; i < points; i++) {
+                ascii[i] = (data[i / 2] & (i % 2 == 0 ? 0x10 : 0x01)) != 0 ? (byte) '1' : (byte) '0';
+            }
+            return ascii;
+        }
+
+        // 每个字4个字符，随机读取的双字8个字符，高位在前
+        int wordCount = command == 0x0403 ? core[4] & 0xFF : data.length / 2;
+        int dwordCount = command == 0x0403 ? core[5] & 0xFF : 0;
+        byte[] ascii = new byte[wordCount * 4 + dwordCount * 8];
+        for (int i = 0; i < wordCount; i++) WriteHex(ascii, i * 4, GetUShort(data, i * 2), 4);
+        for (int i = 0; i < dwordCount; i++) {
+            int offset = wordCount * 2 + i * 4;
+            WriteHex(ascii, wordCount * 4 + i * 8, GetUShort(data, offset + 2), 4);
+            WriteHex(ascii, wordCount * 4 + i * 8 + 4, GetUShort(data, offset), 4);
+        }
+        return ascii;
+    }
+
+    private static byte[] BinaryResponse(byte[] request, int endCode, byte[] data) {
+        // 异常的时候附带9个字节的出错信息，网络号至站号及请求的指令
+        if (endCode != 0) {
+            data = new byte[9];
+            System.arraycopy(request, 2, data, 0, 5);
+            System.arraycopy(request, 11, data, 5, Math.max(0, Math.min(4, request.length - 11)));
+        }
+
+        byte[] response = new byte[11 + data.length];
+        response[0] = (byte) 0xD0;
+        response[1] = 0x00;
+        System.arraycopy(request, 2, response, 2, 5);
+        response[7] = (byte) (data.length + 2);
+        response[8] = (byte) ((data.length + 2) >> 8);
+        response[9] = (byte) endCode;
+        response[10] = (byte) (endCode >> 8);
+        System.arraycopy(data, 0, response, 11, data.length);
+        return response;
+    }
+
+    private static byte[] AsciiResponse(byte[] request, int endCode, byte[] data) {
+        // 异常的时候附带18个字符的出错信息，网络号至站号及请求的指令
+        if (endCode != 0) {
+            data = new byte[18];
+            System.arraycopy(request, 4, data, 0, 10);
+            for (int i = 10; i < 18; i++) data[i] = 22 + i - 10 < request.length ? request[22 + i - 10] : (byte) '0';
+        }
+
+        byte[] response = new byte[22 + data.length];
+        response[0] = 'D';
+        response[1] = '0';
+        response[2] = '0';
+        response[3] = '0';
+        System.arraycopy(request, 4, response, 4, 10);
+        WriteHex(response, 14, data.length + 4, 4);
+        WriteHex(response, 18, endCode, 4);
+        System.arraycopy(data, 0, response, 22, data.length);
+        return response;
+    }
+
+
+    /**
+     * 检查按字访问的软元件及范围，位软元件每个字包含16个点
+     * @param code 软元件代码
+     * @param address 起始地址
+     * @param points 字的数量
+     * @return 结束代码，0表示成功
+     */
+    int CheckWords(byte code, int address, int points) {
+        int key = code & 0xFF;
+        if (bitDevices[key] != null) return address + points * 16 <= DeviceSize ? 0 : ErrorAddressOver;
+        if (wordDevices[key] != null) return address + points <= DeviceSize ? 0 : ErrorAddressOver;
+        return ErrorContent;
+    }
+
+    /**
+     * 按字读取软元件的数据，低位在前，位软元件每个字包含16个点，第一个点为最低位
+     * @param code 软元件代码
+     * @param address 起始地址
+     * @param points 字的数量
+     * @param dest 目标数组
+     * @param index 目标数组的起始索引
+     * @return 结束代码，0表示成功
+     */
+    int ReadWords(byte code, int address, int points, byte[] dest, int index) {
+        int check = CheckWords(code, address, points);
+        if (check != 0) return check;
+
+        boolean[] bits = bitDevices[code & 0xFF];
+        short[] words = wordDevices[code & 0xFF];
+        memoryLock.Enter();
+        try {
+            for (int i = 0; i < points; i++) {
+                int value = 0;
+                if (bits != null) {
+                    for (int j = 0; j < 16; j++) if (bits[address + i * 16 + j]) value |= 1 << j;
+                }
+                else {
+                    value = words[address + i];
+                }
+                dest[index + i * 2] = (byte) value;
+                dest[index + i * 2 + 1] = (byte) (value >> 8);
+            }
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+    /**
+     * 按字写入软元件的数据，低位在前，位软元件每个字包含16个点，第一个点为最低位
+     * @param code 软元件代码
+     * @param address 起始地址
+     * @param points 字的数量
+     * @param source 数据数组
+     * @param index 数据数组的起始索引
+     * @return 结束代码，0表示成功
+     */
+    int WriteWords(byte code, int address, int points, byte[] source, int index) {
+        int check = CheckWords(code, address, points);
+        if (check != 0) return check;
+
+        boolean[] bits = bitDevices[code & 0xFF];
+        short[] words = wordDevices[code & 0xFF];
+        memoryLock.Enter();
+        try {
+            for (int i = 0; i < points; i++) {
+                int value = (source[index + i * 2] & 0xFF) | ((source[index + i * 2 + 1] & 0xFF) << 8);
+                if (bits != null) {
+                    for (int j = 0; j < 16; j++) bits[address + i * 16 + j] = (value & (1 << j)) != 0;
+                }
+                else {
+                    words[address + i] = (short) value;
+                }
+            }
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+    /**
+     * 读取位软元件的数据，字软元件不支持按位读取
+     * @param code 软元件代码
+     * @param address 起始地址
+     * @param dest 目标数组，长度为读取的点数
+     * @return 结束代码，0表示成功
+     */
+    int ReadBits(byte code, int address, boolean[] dest) {
+        boolean[] bits = bitDevices[code & 0xFF];
+        if (bits == null) return ErrorContent;
+        if (address + dest.length > DeviceSize) return ErrorAddressOver;
+
+        memoryLock.Enter();
+        try {
+            System.arraycopy(bits, address, dest, 0, dest.length);
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+    /**
+     * 写入位软元件的数据，字软元件不支持按位写入
+     * @param code 软元件代码
+     * @param address 起始地址
+     * @param value 写入的数据
+     * @return 结束代码，0表示成功
+     */
+    int WriteBits(byte code, int address, boolean[] value) {
+        boolean[] bits = bitDevices[code & 0xFF];
+        if (bits == null) return ErrorContent;
+        if (address + value.length > DeviceSize) return ErrorAddressOver;
+
+        memoryLock.Enter();
+        try {
+            System.arraycopy(value, 0, bits, address, value.length);
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+
+    private static OperateResultExOne<byte[]> Failed(int endCode) {
+        return new OperateResultExOne<>(endCode, StringResources.Language.MelsecPleaseReferToManulDocument());
+    }
+
+    private static int GetAddress(byte[] buffer, int index) {
+        return (buffer[index] & 0xFF) | ((buffer[index + 1] & 0xFF) << 8) | ((buffer[index + 2] & 0xFF) << 16);
+    }
+
+    private static int GetUShort(byte[] buffer, int index) {
+        return (buffer[index] & 0xFF) | ((buffer[index + 1] & 0xFF) << 8);
+    }
+
+    private static void WriteUShort(ByteArrayOutputStream stream, int value) {
+        stream.write(value);
+        stream.write(value >> 8);
+    }
+
+    private static int ParseHex(byte[] buffer, int index, int length) {
+        if (index + length > buffer.length) return -1;
+        int value = 0;
+        for (int i = index; i < index + length; i++) {
+            int digit = Character.digit(buffer[i], 16);
+            if (digit < 0) return -1;
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    private static void WriteHex(byte[] buffer, int index, int value, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            buffer[index + i] = (byte) HexChars[value & 0x0F];
+            value >>= 4;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return "MelsecMcServer[" + getPort() + "]";
+    }
+
+
+    private boolean isBinary = true;                                                        // 是否二进制格式
+    private IByteTransform byteTransform = null;                                            // 数据的变换规则
+    private boolean[][] bitDevices = new boolean[256][];                                    // 按照软元件代码索引的位软元件
+    private short[][] wordDevices = new short[256][];                                       // 按照软元件代码索引的字软元件
+    private HashMap<String, MelsecMcDataType> asciiDevices = new HashMap<>();               // ASCII格式的软元件代码
+    private SimpleHybirdLock memoryLock = new SimpleHybirdLock();                           // 软元件数据的同步锁
+
+    private static final int DeviceSize = 65536;                                            // 每种软元件的点数
+    private static final char[] HexChars = "0123456789ABCDEF".toCharArray();                // 十六进制的字符
+    private static final int ErrorPointsOver = 0xC051;                                      // 点数超出范围
+    private static final int ErrorAddressOver = 0xC056;                                     // 地址超出范围
+    private static final int ErrorCommand = 0xC059;                                         // 指令或子指令错误
+    static final int ErrorContent = 0xC05C;                                                 // 请求的内容错误，例如软元件不存在
+    private static final int ErrorLength = 0xC061;                                          // 请求数据的长度不一致
+
+
+    private static class McBinaryFraming implements INetMessageFraming {
+        // 二进制格式的请求，副标题0x50 0x00，第7，8个字节为之后的长度，低位在前
+
+        @Override
+        public int ProtocolHeadBytesLength() {
+            return 9;
+        }
+
+        @Override
+        public int GetContentLengthByHeadBytes(byte[] head, byte[] send) {
+            return (head[7] & 0xFF) | ((head[8] & 0xFF) << 8);
+        }
+
+        @Override
+        public int GetHeadBytesOffset(byte[] head) {
+            return 0;
+        }
+
+        @Override
+        public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token) {
+            return head[0] == 0x50 && head[1] == 0x00;
+        }
+
+        @Override
+        public int GetHeadBytesIdentity(byte[] head) {
+            return 0;
+        }
+    }
+
+    private static class McAsciiFraming implements INetMessageFraming {
+        // ASCII格式的请求，副标题"5000"，第14至17个字符为之后的长度，十六进制
+
+        @Override
+        public int ProtocolHeadBytesLength() {
+            return 18;
+        }
+
+        @Override
+        public int GetContentLengthByHeadBytes(byte[] head, byte[] send) {
+            return ParseHex(head, 14, 4);
+        }
+
+        @Override
+        public int GetHeadBytesOffset(byte[] head) {
+            return 0;
+        }
+
+        @Override
+        public boolean CheckHeadBytesLegal(byte[] head, byte[] send, byte[] token) {
+            return head[0] == '5' && head[1] == '0' && head[2] == '0' && head[3] == '0' && ParseHex(head, 14, 4) >= 0;
+        }
+
+        @Override
+        public int GetHeadBytesIdentity(byte[] head) {
+            return 0;
+        }
+    }
+}
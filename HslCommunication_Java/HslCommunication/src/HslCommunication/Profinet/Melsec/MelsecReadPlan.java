@@ -0,0 +1,290 @@
+package HslCommunication.Profinet.Melsec;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import HslCommunication.StringResources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * 三菱MC协议多地址读取的计划，同一种软元件相邻的地址合并为一个数据块，一到两个字的数据块使用随机读取(0403)，
+ * 更长的数据块使用多块批量读取(0406)，再装入尽量少的报文，读取之后按照原来的地址拆分数据。计划可以重复使用 ->
+ * The read plan of multiple melsec addresses, short ranges use random read (0403), longer ranges use multi-block read (0406), packed into as few frames as possible
+ */
+public class MelsecReadPlan {
+
+    private MelsecReadPlan() {
+    }
+
+
+    /**
+     * 根据地址列表创建读取的计划，所有的长度都以字为单位，位软元件的一个字为16个点
+     * @param address 解析后的地址
+     * @param length 每个地址读取的字数
+     * @param isAscii 是否生成ASCII格式的报文
+     * @param mergeGap 两个地址之间间隔的字数小于等于该值时合并读取
+     * @return 读取的计划
+     */
+    public static OperateResultExOne<MelsecReadPlan> Create(OperateResultExTwo<MelsecMcDataType, Integer>[] address, short[] length, boolean isAscii, int mergeGap) {
+        if (address.length != length.length) return new OperateResultExOne<>(StringResources.Language.TwoParametersLengthIsNotSame());
+
+        MelsecReadPlan plan = new MelsecReadPlan();
+        plan.tagBlock = new int[address.length];
+        plan.tagOffset = new int[address.length];
+        plan.tagLength = new int[address.length];
+
+        // 按照软元件及地址排序之后合并，位软元件只有相差16的整数倍时才能合并
+        Integer[] order = new Integer[address.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        final OperateResultExTwo<MelsecMcDataType, Integer>[] tags = address;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int codeA = tags[a].Content1.getDataCode() & 0xFF;
+                int codeB = tags[b].Content1.getDataCode() & 0xFF;
+                if (codeA != codeB) return Integer.compare(codeA, codeB);
+                return Integer.compare(tags[a].Content2, tags[b].Content2);
+            }
+        });
+
+        ArrayList<Block> blocks = new ArrayList<>();
+        Block current = null;
+        for (int i = 0; i < order.length; i++) {
+            OperateResultExTwo<MelsecMcDataType, Integer> tag = address[order[i]];
+            int unit = tag.Content1.getDataType() == 1 ? 16 : 1;
+            int start = tag.Content2;
+            int words = Math.max(length[order[i]], 0);
+            if (current == null || current.type.getDataCode() != tag.Content1.getDataCode() ||
+                    start > current.start + current.words * unit + mergeGap * unit || (start - current.start) % unit != 0) {
+                current = new Block(tag.Content1, start, words);
+                blocks.add(current);
+            }
+            else {
+                current.words = Math.max(current.words, (start - current.start) / unit + words);
+            }
+            plan.tagBlock[order[i]] = blocks.size() - 1;
+            plan.tagOffset[order[i]] = (start - current.start) / unit;
+            plan.tagLength[order[i]] = words;
+        }
+
+        // 一到两个字的数据块随机读取，其他的按照960个字拆分后多块读取
+        ArrayList<Segment> randomSegments = new ArrayList<>();
+        ArrayList<Segment> blockSegments = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (block.words <= 2) {
+                randomSegments.add(new Segment(i, 0, Math.max(block.words, 1)));
+            }
+            else {
+                for (int offset = 0; offset < block.words; offset += MultiBlockMaxPoints) {
+                    blockSegments.add(new Segment(i, offset, Math.min(block.words - offset, MultiBlockMaxPoints)));
+                }
+            }
+        }
+
+        // 多块读取首次适应递减的装箱，限制块数及总点数
+        Collections.sort(blockSegments, new Comparator<Segment>() {
+            @Override
+            public int compare(Segment a, Segment b) {
+                return Integer.compare(b.words, a.words);
+            }
+        });
+        ArrayList<Frame> frames = new ArrayList<>();
+        for (int i = 0; i < blockSegments.size(); i++) {
+            Frame frame = FindBlockFrame(frames, blockSegments.get(i).words);
+            if (frame == null) {
+                frame = new Frame(false);
+                frames.add(frame);
+            }
+            frame.Add(blockSegments.get(i));
+        }
+
+        // 随机读取的数据优先放到多块读取的空余位置，剩下的按照192点装箱
+        Frame randomFrame = null;
+        for (int i = 0; i < randomSegments.size(); i++) {
+            Segment segment = randomSegments.get(i);
+            Frame frame = FindBlockFrame(frames, segment.words);
+            if (frame != null) {
+                frame.Add(segment);
+                continue;
+            }
+
+            if (randomFrame == null || randomFrame.segments.size() >= RandomMaxPoints) {
+                randomFrame = new Frame(true);
+                frames.add(randomFrame);
+            }
+            randomFrame.Add(segment);
+        }
+
+        plan.blocks = blocks.toArray(new Block[0]);
+        plan.frames = frames.toArray(new Frame[0]);
+        plan.commands = new byte[plan.frames.length][];
+        for (int i = 0; i < plan.frames.length; i++) {
+            plan.commands[i] = plan.frames[i].BuildCommand(plan.blocks, isAscii);
+        }
+        return OperateResultExOne.CreateSuccessResult(plan);
+    }
+
+    private static Frame FindBlockFrame(ArrayList<Frame> frames, int words) {
+        for (int i = 0; i < frames.size(); i++) {
+            Frame frame = frames.get(i);
+            if (!frame.isRandom && frame.segments.size() < MultiBlockMaxBlocks && frame.points + words <= MultiBlockMaxPoints) return frame;
+        }
+        return null;
+    }
+
+
+    /**
+     * 获取需要发送的所有的MC核心报文，还需要按照通讯的格式打包
+     * @return 核心报文数组
+     */
+    public byte[][] getCommands() {
+        return commands;
+    }
+
+    /**
+     * 获取指定报文反馈的数据中，按字读取的点数，这部分数据在前面
+     * @param index 报文的索引
+     * @return 字的点数
+     */
+    public int getWordCount(int index) {
+        return frames[index].points - frames[index].dwordCount * 2;
+    }
+
+    /**
+     * 获取指定报文反馈的数据中，按双字读取的点数，这部分数据在后面
+     * @param index 报文的索引
+     * @return 双字的点数
+     */
+    public int getDwordCount(int index) {
+        return frames[index].dwordCount;
+    }
+
+    /**
+     * 将每条报文反馈的数据按照原来的地址拆分为每个地址的数据
+     * @param data 每条报文反馈的实际数据，按照二进制的格式，每个字两个字节，低位在前
+     * @return 每个地址的数据，顺序和创建计划时一致
+     */
+    public OperateResultExOne<byte[][]> Scatter(byte[][] data) {
+        if (data.length != frames.length) return new OperateResultExOne<>(StringResources.Language.TwoParametersLengthIsNotSame());
+
+        byte[][] buffers = new byte[blocks.length][];
+        for (int i = 0; i < blocks.length; i++) buffers[i] = new byte[Math.max(blocks[i].words, 1) * 2];
+
+        for (int i = 0; i < frames.length; i++) {
+            if (data[i].length < frames[i].points * 2)
+                return new OperateResultExOne<>(StringResources.Language.ReceiveDataLengthTooShort() + data[i].length);
+
+            int index = 0;
+            for (int j = 0; j < frames[i].order.size(); j++) {
+                Segment segment = frames[i].order.get(j);
+                System.arraycopy(data[i], index, buffers[segment.block], segment.offset * 2, segment.words * 2);
+                index += segment.words * 2;
+            }
+        }
+
+        byte[][] results = new byte[tagBlock.length][];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = Arrays.copyOfRange(buffers[tagBlock[i]], tagOffset[i] * 2, (tagOffset[i] + tagLength[i]) * 2);
+        }
+        return OperateResultExOne.CreateSuccessResult(results);
+    }
+
+
+    private Block[] blocks = null;                  // 合并之后的数据块
+    private Frame[] frames = null;                  // 每条报文
+    private byte[][] commands = null;               // 每条报文的核心报文
+    private int[] tagBlock = null;                  // 每个地址所在的数据块
+    private int[] tagOffset = null;                 // 每个地址在数据块中的字偏移
+    private int[] tagLength = null;                 // 每个地址的字数
+
+    private static final int RandomMaxPoints = 192;          // 随机读取的最大点数
+    private static final int MultiBlockMaxBlocks = 120;      // 多块读取的最大块数
+    private static final int MultiBlockMaxPoints = 960;      // 多块读取的最大点数
+
+
+    private static class Block {
+        Block(MelsecMcDataType type, int start, int words) {
+            this.type = type;
+            this.start = start;
+            this.words = words;
+        }
+
+        MelsecMcDataType type;
+        int start;
+        int words;
+    }
+
+    private static class Segment {
+        Segment(int block, int offset, int words) {
+            this.block = block;
+            this.offset = offset;
+            this.words = words;
+        }
+
+        int block;
+        int offset;
+        int words;
+    }
+
+    private static class Frame {
+        Frame(boolean isRandom) {
+            this.isRandom = isRandom;
+        }
+
+        void Add(Segment segment) {
+            segments.add(segment);
+            points += segment.words;
+            if (isRandom && segment.words == 2) dwordCount++;
+        }
+
+        byte[] BuildCommand(Block[] blocks, boolean isAscii) {
+            // 反馈数据的顺序，随机读取是先字后双字，多块读取是先字软元件后位软元件
+            ArrayList<Segment> first = new ArrayList<>();
+            ArrayList<Segment> second = new ArrayList<>();
+            for (int i = 0; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                boolean isSecond = isRandom ? segment.words == 2 : blocks[segment.block].type.getDataType() == 1;
+                if (isSecond) second.add(segment);
+                else first.add(segment);
+            }
+            order = new ArrayList<>(first);
+            order.addAll(second);
+
+            OperateResultExTwo<MelsecMcDataType, Integer>[] firstAddress = CreateAddress(blocks, first);
+            OperateResultExTwo<MelsecMcDataType, Integer>[] secondAddress = CreateAddress(blocks, second);
+            if (isRandom) {
+                return isAscii ? MelsecHelper.BuildAsciiReadRandomWordCoreCommand(firstAddress, secondAddress) :
+                        MelsecHelper.BuildReadRandomWordCoreCommand(firstAddress, secondAddress);
+            }
+
+            short[] firstLength = new short[first.size()];
+            for (int i = 0; i < firstLength.length; i++) firstLength[i] = (short) first.get(i).words;
+            short[] secondLength = new short[second.size()];
+            for (int i = 0; i < secondLength.length; i++) secondLength[i] = (short) second.get(i).words;
+            return isAscii ? MelsecHelper.BuildAsciiReadMultiBlockCoreCommand(firstAddress, firstLength, secondAddress, secondLength) :
+                    MelsecHelper.BuildReadMultiBlockCoreCommand(firstAddress, firstLength, secondAddress, secondLength);
+        }
+
+        private static OperateResultExTwo<MelsecMcDataType, Integer>[] CreateAddress(Block[] blocks, ArrayList<Segment> segments) {
+            OperateResultExTwo<MelsecMcDataType, Integer>[] address = new OperateResultExTwo[segments.size()];
+            for (int i = 0; i < address.length; i++) {
+                Block block = blocks[segments.get(i).block];
+                int unit = block.type.getDataType() == 1 ? 16 : 1;
+                address[i] = new OperateResultExTwo<>();
+                address[i].Content1 = block.type;
+                address[i].Content2 = block.start + segments.get(i).offset * unit;
+            }
+            return address;
+        }
+
+        boolean isRandom;
+        ArrayList<Segment> segments = new ArrayList<>();
+        ArrayList<Segment> order = null;
+        int points = 0;
+        int dwordCount = 0;
+    }
+}
@@ -11,6 +11,7 @@ import HslCommunication.StringResources;
 import HslCommunication.Utilities;
 
 import java.net.Socket;
+import java.util.regex.Pattern;
 
 /**
  * 欧姆龙Fins帧协议通讯类
@@ -151,7 +152,7 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
      * @param cmd 指令
      * @return 字节
      */
-    private byte[] PackCommand(byte[] cmd) {
+    protected byte[] PackCommand(byte[] cmd) {
         byte[] buffer = new byte[26 + cmd.length];
         System.arraycopy(handSingle, 0, buffer, 0, 4);
 
@@ -280,29 +281,145 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
     /**
      * 从欧姆龙PLC中读取想要的数据，返回读取结果，读取单位为字
      * @param address 读取地址，格式为"D100","C100","W100","H100","A100"
-     * @param length 读取的数据长度，字最大值960，位最大值7168
+     * @param length 读取的数据长度，超过999个字时自动拆分为多次读取
      * @return 带成功标志的结果数据对象
      */
     @Override
     public OperateResultExOne<byte[]> Read(String address, short length) {
-        //获取指令
-        OperateResultExOne<byte[]> command = BuildReadCommand(address, length, false);
-        if (!command.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(command);
+        return ReadByCommands(address, length);
+    }
 
-        // 核心数据交互
-        OperateResultExOne<byte[]> read = ReadFromCoreServer(command.Content);
-        if (!read.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(read);
+    /**
+     * 拆分字地址，区域为D，C，W，H，A，带有位的地址不支持拆分
+     * @param address 地址信息，格式为"D100","C100","W100","H100","A100"
+     * @return Content1为区域，Content2为偏移地址
+     */
+    @Override
+    public OperateResultExTwo<String, Integer> AnalysisAddressOffset(String address) {
+        return AnalysisAddressOffset(address, AddressOffsetPattern);
+    }
 
-        // 数据有效性分析
-        OperateResultExOne<byte[]> valid = ResponseValidAnalysis(read.Content, true);
-        if (!valid.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(valid);
+    private static final Pattern AddressOffsetPattern = Pattern.compile("^([DCWHAdcwha])(\\d+)$");
+
+    /**
+     * 拆分位地址，读取所在的字，字的数据高位在前
+     * @param address 地址信息，格式为"D100.0","C100.15"
+     * @return Content1为读取的地址，Content2为位索引
+     */
+    @Override
+    public OperateResultExTwo<String, Integer> AnalysisBitAddress(String address) {
+        return AnalysisBitAddress(address, true);
+    }
+
+    /**
+     * 构建读取字数据的FINS报文
+     * @param address 起始地址
+     * @param length 读取的字的数量
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
+        OperateResultExTwo<OmronFinsDataType, byte[]> analysis = AnalysisAddress(address, false);
+        if (!analysis.IsSuccess) return OperateResultExOne.<byte[][]>CreateFailedResult(analysis);
+
+        // 超过一帧能够读取的字数时拆分为多条报文
+        int start = (analysis.Content2[0] & 0xFF) * 256 + (analysis.Content2[1] & 0xFF);
+        int count = Math.max((length + OmronReadPlan.ReadMaxWords - 1) / OmronReadPlan.ReadMaxWords, 1);
+        byte[][] commands = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            int offset = i * OmronReadPlan.ReadMaxWords;
+            commands[i] = PackCommand(OmronReadPlan.BuildReadWordCommand(analysis.Content1, start + offset, Math.min(length - offset, OmronReadPlan.ReadMaxWords)));
+        }
+        return OperateResultExOne.CreateSuccessResult(commands);
+    }
 
-        // 读取到了正确的数据
-        return OperateResultExOne.CreateSuccessResult(valid.Content);
+    /**
+     * 分析PLC反馈的报文的有效性，并提取出实际的数据
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 实际的数据
+     */
+    @Override
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
+        return CheckResponse(response, true);
     }
 
 
 
+    /**
+     * 批量读取多个地址的字数据，相邻的地址合并读取，零散的地址使用多区域读取(0104)，报文数量尽可能的少
+     * @param address 起始地址数组，格式为"D100","C100","W100","H100","A100"
+     * @param length 每个地址读取的字数
+     * @return 每个地址的数据，顺序和地址数组一致
+     */
+    public OperateResultExOne<byte[][]> ReadMultiple(String[] address, short[] length) {
+        OperateResultExOne<OmronReadPlan> plan = CreateReadPlan(address, length);
+        if (!plan.IsSuccess) return OperateResultExOne.CreateFailedResult(plan);
+
+        return Read(plan.Content);
+    }
+
+    /**
+     * 创建多个地址的读取计划，周期性的读取同一组地址时，计划只需要创建一次
+     * @param address 起始地址数组，格式为"D100","C100","W100","H100","A100"
+     * @param length 每个地址读取的字数
+     * @return 读取的计划
+     */
+    public OperateResultExOne<OmronReadPlan> CreateReadPlan(String[] address, short[] length) {
+        OperateResultExTwo<OmronFinsDataType, Integer>[] list = new OperateResultExTwo[address.length];
+        for (int i = 0; i < address.length; i++) {
+            OperateResultExTwo<OmronFinsDataType, byte[]> analysis = AnalysisAddress(address[i], false);
+            if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+            list[i] = new OperateResultExTwo<>();
+            list[i].Content1 = analysis.Content1;
+            list[i].Content2 = (analysis.Content2[0] & 0xFF) * 256 + (analysis.Content2[1] & 0xFF);
+        }
+        return OmronReadPlan.Create(list, length, readMergeGap);
+    }
+
+    /**
+     * 按照读取的计划从PLC读取数据
+     * @param plan 读取的计划
+     * @return 每个地址的数据，顺序和创建计划时一致
+     */
+    public OperateResultExOne<byte[][]> Read(OmronReadPlan plan) {
+        byte[][] commands = plan.getCommands();
+        byte[][] sends = new byte[commands.length][];
+        for (int i = 0; i < commands.length; i++) sends[i] = PackCommand(commands[i]);
+
+        OperateResultExOne<byte[][]> read = ReadFromCoreServer(sends, PipelineDepth);
+        if (!read.IsSuccess) return read;
+
+        byte[][] data = new byte[read.Content.length][];
+        for (int i = 0; i < data.length; i++) {
+            OperateResultExOne<byte[]> valid = CheckResponse(read.Content[i], true);
+            if (!valid.IsSuccess) return OperateResultExOne.CreateFailedResult(valid);
+
+            // 结束码不为0时命令没有执行，忽略网络中继及CPU异常的标志位
+            if ((valid.ErrorCode & 0x7F3F) != 0) return new OperateResultExOne<>(valid.ErrorCode, valid.Message);
+            data[i] = valid.Content;
+        }
+        return plan.Scatter(data);
+    }
+
+    /**
+     * 获取多地址读取时合并的最大间隔字数
+     * @return 间隔的字数
+     */
+    public int getReadMergeGap() {
+        return readMergeGap;
+    }
+
+    /**
+     * 设置多地址读取时合并的最大间隔字数，两个地址之间的间隔不超过该值时合并为一个数据块，默认为8
+     * @param readMergeGap 间隔的字数
+     */
+    public void setReadMergeGap(int readMergeGap) {
+        this.readMergeGap = readMergeGap;
+    }
+
+
     /**
      * 从欧姆龙PLC中批量读取位软元件，返回读取结果
      * @param address 读取地址，格式为"D100","C100","W100","H100","A100"
@@ -319,7 +436,7 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
         if (!read.IsSuccess) return OperateResultExOne.<boolean[]>CreateFailedResult(read);
 
         // 数据有效性分析
-        OperateResultExOne<byte[]> valid = ResponseValidAnalysis(read.Content, true);
+        OperateResultExOne<byte[]> valid = CheckResponse(read.Content, true);
         if (!valid.IsSuccess) return OperateResultExOne.<boolean[]>CreateFailedResult(valid);
 
         // 返回正确的数据信息
@@ -354,20 +471,32 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
      */
     @Override
     public OperateResult Write(String address, byte[] value) {
-        //获取指令
-        OperateResultExOne<byte[]> command = BuildWriteCommand(address, value, false);
-        if (!command.IsSuccess) return command;
+        return WriteByCommands(address, value);
+    }
 
-        // 核心数据交互
-        OperateResultExOne<byte[]> read = ReadFromCoreServer(command.Content);
-        if (!read.IsSuccess) return read;
+    /**
+     * 构建写入字数据的FINS报文
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
+        OperateResultExOne<byte[]> command = BuildWriteCommand(address, value, false);
+        if (!command.IsSuccess) return OperateResultExOne.<byte[][]>CreateFailedResult(command);
 
-        // 数据有效性分析
-        OperateResultExOne<byte[]> valid = ResponseValidAnalysis(read.Content, false);
-        if (!valid.IsSuccess) return valid;
+        return OperateResultExOne.CreateSuccessResult(new byte[][]{command.Content});
+    }
 
-        // 成功
-        return OperateResult.CreateSuccessResult();
+    /**
+     * 分析PLC反馈的写入报文的有效性
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 写入结果
+     */
+    @Override
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
+        return CheckResponse(response, false);
     }
 
 
@@ -401,11 +530,13 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
         if (!command.IsSuccess) return command;
 
         // 核心数据交互
+        InvalidateReadCache(address, buffer.length);
         OperateResultExOne<byte[]> read = ReadFromCoreServer(command.Content);
+        InvalidateReadCache(address, buffer.length);
         if (!read.IsSuccess) return read;
 
         // 数据有效性分析
-        OperateResultExOne<byte[]> valid = ResponseValidAnalysis(read.Content, false);
+        OperateResultExOne<byte[]> valid = CheckResponse(read.Content, false);
         if (!valid.IsSuccess) return valid;
 
         // 写入成功
@@ -413,6 +544,9 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
     }
 
 
+    private int readMergeGap = 8;                            // 多地址读取时合并的最大间隔
+
+
     // 握手信号
     // 46494E530000000C0000000000000000000000D6
     private final byte[] handSingle = new byte[]
@@ -512,6 +646,16 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
         return result;
     }
 
+    /**
+     * 校验PLC反馈的报文，并提取出实际的数据，UDP等其他的传输方式重写该方法
+     * @param response PLC反馈的完整报文
+     * @param isRead 是否处于读取状态
+     * @return 成功的数据结果
+     */
+    protected OperateResultExOne<byte[]> CheckResponse(byte[] response, boolean isRead) {
+        return ResponseValidAnalysis(response, isRead);
+    }
+
     /**
      * 对于PLC的反馈数据，进行验证
      * @param response PLC反馈数据
@@ -531,26 +675,39 @@ public class OmronFinsNet extends NetworkDeviceBase<FinsMessage,ReverseWordTrans
             int err = Utilities.getInt(buffer, 0);
             if (err > 0) return new OperateResultExOne<byte[]>(err, GetStatusDescription(err));
 
-            if (response.length >= 30) {
-                err = response[28] * 256 + response[29];
-                //if (err > 0)  return new OperateResultExOne<byte[]>(err,StringResources.Language.OmronReceiveDataError());
-                OperateResultExOne<byte[]> success = OperateResultExOne.CreateSuccessResult(new byte[0]);
-                if (!isRead) {
-                    // 写入操作
-                    success.ErrorCode = err;
-                    success.Message = GetStatusDescription(err);
-                    return success;
-                } else {
-                    // 读取操作
-                    byte[] content = new byte[response.length - 30];
-                    if (content.length > 0) {
-                        System.arraycopy(response, 30, content, 0, content.length);
-                    }
-                    success.ErrorCode = err;
-                    success.Message = GetStatusDescription(err);
-                    success.Content = content;
-                    return success;
+            return ResponseValidAnalysis(response, 30, isRead);
+        }
+
+        return new OperateResultExOne<byte[]>( StringResources.Language.OmronReceiveDataError() );
+    }
+
+    /**
+     * 对于PLC的反馈数据，按照实际数据之前的报文长度进行验证，TCP方式为30，UDP方式为14
+     * @param response PLC反馈数据
+     * @param headLength 实际数据之前的报文长度，包含命令码及结束码
+     * @param isRead 是否处于读取状态
+     * @return 成功的数据结果
+     */
+    public static OperateResultExOne<byte[]> ResponseValidAnalysis(byte[] response, int headLength, boolean isRead) {
+        if (response.length >= headLength) {
+            int err = (response[headLength - 2] & 0xFF) * 256 + (response[headLength - 1] & 0xFF);
+            //if (err > 0)  return new OperateResultExOne<byte[]>(err,StringResources.Language.OmronReceiveDataError());
+            OperateResultExOne<byte[]> success = OperateResultExOne.CreateSuccessResult(new byte[0]);
+            if (!isRead) {
+                // 写入操作
+                success.ErrorCode = err;
+                success.Message = GetStatusDescription(err);
+                return success;
+            } else {
+                // 读取操作
+                byte[] content = new byte[response.length - headLength];
+                if (content.length > 0) {
+                    System.arraycopy(response, headLength, content, 0, content.length);
                 }
+                success.ErrorCode = err;
+                success.Message = GetStatusDescription(err);
+                success.Content = content;
+                return success;
             }
         }
 
@@ -0,0 +1,384 @@
+package HslCommunication.Profinet.Omron;
+
+import HslCommunication.Core.IMessage.FinsMessage;
+import HslCommunication.Core.Net.Nio.NioServer;
+import HslCommunication.Core.Net.Nio.NioServerSession;
+import HslCommunication.Core.Thread.SimpleHybirdLock;
+import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Transfer.ReverseWordTransform;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+
+/**
+ * 欧姆龙FINS/TCP协议的服务器，应答OmronFinsNet连接时的节点地址握手，支持DM，CIO，WR，HR，AR区域按字及按位的读写(0101,0102)
+ * 及多区域读取(0104)。每个区域使用一个short数组保存，65536个字，可以通过setResponseDelay设置每个请求的延时及抖动，
+ * 用于测试流水线，连接池及批量读取在真实的PLC响应时间下的效果 ->
+ * The Omron FINS/TCP server, answers the node address handshake of OmronFinsNet, serves the memory area read, write and
+ * multiple read commands of the DM, CIO, WR, HR and AR areas, the response delay can be configured to simulate a real plc
+ */
+public class OmronFinsServer extends NioServer {
+
+    /**
+     * 实例化一个FINS/TCP协议的服务器，所有的数据初始化为0
+     */
+    public OmronFinsServer() {
+        super(new FinsMessage());
+        byteTransform = new ReverseWordTransform();
+
+        OmronFinsDataType[] types = new OmronFinsDataType[]{
+                OmronFinsDataType.DM, OmronFinsDataType.CIO, OmronFinsDataType.WR, OmronFinsDataType.HR, OmronFinsDataType.AR};
+        for (OmronFinsDataType type : types) {
+            short[] words = new short[AreaSize];
+            areas[type.getWordCode() & 0xFF] = words;
+            areas[type.getBitCode() & 0xFF] = words;
+        }
+    }
+
+
+    /**
+     * 获取服务器的节点号，握手时反馈给客户端
+     * @return 节点号
+     */
+    public byte getNodeNumber() {
+        return nodeNumber;
+    }
+
+    /**
+     * 设置服务器的节点号，握手时反馈给客户端，客户端之后使用该节点号作为目标节点
+     * @param nodeNumber 节点号
+     */
+    public void setNodeNumber(byte nodeNumber) {
+        this.nodeNumber = nodeNumber;
+    }
+
+    /**
+     * 获取数据的变换规则，和OmronFinsNet一致
+     * @return 变换规则
+     */
+    public IByteTransform getByteTransform() {
+        return byteTransform;
+    }
+
+    /**
+     * 按字读取原始的字节数据，每个字高位在前，地址格式为D100，C100，W100，H100，A100
+     * @param address 起始地址
+     * @param length 字的数量
+     * @return 数据
+     */
+    public OperateResultExOne<byte[]> Read(String address, short length) {
+        OperateResultExTwo<OmronFinsDataType, byte[]> analysis = OmronFinsNet.AnalysisAddress(address, false);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+        byte[] data = new byte[length * 2];
+        int code = ReadWords(analysis.Content1.getWordCode(), GetUShort(analysis.Content2, 0), length, data, 0);
+        if (code != 0) return new OperateResultExOne<>(code, OmronFinsNet.GetStatusDescription(code));
+        return OperateResultExOne.CreateSuccessResult(data);
+    }
+
+    /**
+     * 读取一个位，地址格式为D100.1，C100.15
+     * @param address 地址
+     * @return bool值
+     */
+    public OperateResultExOne<Boolean> ReadBool(String address) {
+        OperateResultExTwo<OmronFinsDataType, byte[]> analysis = OmronFinsNet.AnalysisAddress(address, true);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+        byte[] data = new byte[1];
+        int code = ReadBits(analysis.Content1.getBitCode(), GetUShort(analysis.Content2, 0), analysis.Content2[2], 1, data, 0);
+        if (code != 0) return new OperateResultExOne<>(code, OmronFinsNet.GetStatusDescription(code));
+        return OperateResultExOne.CreateSuccessResult(data[0] != 0);
+    }
+
+    /**
+     * 按字写入原始的字节数据，每个字高位在前，长度为奇数时忽略最后一个字节
+     * @param address 起始地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, byte[] value) {
+        OperateResultExTwo<OmronFinsDataType, byte[]> analysis = OmronFinsNet.AnalysisAddress(address, false);
+        if (!analysis.IsSuccess) return analysis;
+
+        int code = WriteWords(analysis.Content1.getWordCode(), GetUShort(analysis.Content2, 0), value.length / 2, value, 0);
+        if (code != 0) return new OperateResult(code, OmronFinsNet.GetStatusDescription(code));
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入一个位，地址格式为D100.1，C100.15
+     * @param address 地址
+     * @param value bool值
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, boolean value) {
+        OperateResultExTwo<OmronFinsDataType, byte[]> analysis = OmronFinsNet.AnalysisAddress(address, true);
+        if (!analysis.IsSuccess) return analysis;
+
+        byte[] data = new byte[]{value ? (byte) 0x01 : (byte) 0x00};
+        int code = WriteBits(analysis.Content1.getBitCode(), GetUShort(analysis.Content2, 0), analysis.Content2[2], 1, data, 0);
+        if (code != 0) return new OperateResult(code, OmronFinsNet.GetStatusDescription(code));
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入一个short数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, short value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个int数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, int value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个float数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, float value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+
+    /**
+     * 处理一个FINS/TCP的请求，命令码0为节点地址的握手，命令码2为FINS帧
+     * @param session 客户端的会话
+     * @param request 完整的请求报文
+     * @return 反馈的报文
+     */
+    @Override
+    protected byte[] ProcessRequest(NioServerSession session, byte[] request) {
+        if (request.length < 16) return null;
+        int command = GetInt(request, 8);
+        if (command == 0x00 && request.length >= 20) return HandshakeResponse(request);
+        if (command != 0x02 || request.length < 28) return null;
+
+        int code = GetUShort(request, 26);
+        switch (code) {
+            case 0x0101: return ReadResponse(request);
+            case 0x0102: return WriteResponse(request);
+            case 0x0104: return MultiReadResponse(request);
+            default: return FinsResponse(request, UndefinedCommand, 0);
+        }
+    }
+
+
+    private byte[] HandshakeResponse(byte[] request) {
+        // 反馈客户端的节点号及服务器的节点号，客户端的节点号为0时由服务器分配
+        byte[] response = new byte[24];
+        System.arraycopy(request, 0, response, 0, 4);
+        response[7] = 0x10;
+        response[11] = 0x01;
+        System.arraycopy(request, 16, response, 16, 4);
+        if (GetInt(request, 16) == 0) response[19] = (byte) (nodeNumber + 1);
+        response[23] = nodeNumber;
+        return response;
+    }
+
+    private byte[] ReadResponse(byte[] request) {
+        if (request.length != 34) return FinsResponse(request, request.length < 34 ? CommandTooShort : CommandTooLong, 0);
+
+        byte area = request[28];
+        int count = GetUShort(request, 32);
+        if (count > MaxWords) return FinsResponse(request, CommandTooLong, 0);
+
+        boolean isBit = IsBitArea(area);
+        byte[] response = FinsResponse(request, 0, isBit ? count : count * 2);
+        int end = isBit ?
+                ReadBits(area, GetUShort(request, 29), request[31], count, response, 30) :
+                ReadWords(area, GetUShort(request, 29), count, response, 30);
+        return end == 0 ? response : FinsResponse(request, end, 0);
+    }
+
+    private byte[] WriteResponse(byte[] request) {
+        if (request.length < 34) return FinsResponse(request, CommandTooShort, 0);
+
+        byte area = request[28];
+        int count = GetUShort(request, 32);
+        boolean isBit = IsBitArea(area);
+        int length = isBit ? count : count * 2;
+        if (request.length != 34 + length) return FinsResponse(request, request.length < 34 + length ? CommandTooShort : CommandTooLong, 0);
+
+        int end = isBit ?
+                WriteBits(area, GetUShort(request, 29), request[31], count, request, 34) :
+                WriteWords(area, GetUShort(request, 29), count, request, 34);
+        return FinsResponse(request, end, 0);
+    }
+
+    private byte[] MultiReadResponse(byte[] request) {
+        // 每一项为区域码及地址，反馈区域码及数据，字为2个字节，位为1个字节
+        int count = (request.length - 28) / 4;
+        if (count == 0 || (request.length - 28) % 4 != 0) return FinsResponse(request, CommandTooShort, 0);
+        if (count > MaxMultiItems) return FinsResponse(request, CommandTooLong, 0);
+
+        int length = 0;
+        for (int i = 0; i < count; i++) length += IsBitArea(request[28 + i * 4]) ? 2 : 3;
+
+        byte[] response = FinsResponse(request, 0, length);
+        int index = 30;
+        for (int i = 0; i < count; i++) {
+            int offset = 28 + i * 4;
+            byte area = request[offset];
+            response[index] = area;
+            int end = IsBitArea(area) ?
+                    ReadBits(area, GetUShort(request, offset + 1), request[offset + 3], 1, response, index + 1) :
+                    ReadWords(area, GetUShort(request, offset + 1), 1, response, index + 1);
+            if (end != 0) return FinsResponse(request, end, 0);
+            index += IsBitArea(area) ? 2 : 3;
+        }
+        return response;
+    }
+
+    private static byte[] FinsResponse(byte[] request, int endCode, int dataLength) {
+        // FINS/TCP的报文头，FINS的响应头交换源地址及目标地址，命令码及结束码
+        byte[] response = new byte[30 + dataLength];
+        System.arraycopy(request, 0, response, 0, 4);
+        int length = response.length - 8;
+        response[4] = (byte) (length >> 24);
+        response[5] = (byte) (length >> 16);
+        response[6] = (byte) (length >> 8);
+        response[7] = (byte) length;
+        response[11] = 0x02;
+        response[16] = (byte) 0xC0;
+        response[17] = 0x00;
+        response[18] = 0x02;
+        response[19] = request[22];
+        response[20] = request[23];
+        response[21] = request[24];
+        response[22] = request[19];
+        response[23] = request[20];
+        response[24] = request[21];
+        response[25] = request[25];
+        response[26] = request[26];
+        response[27] = request[27];
+        response[28] = (byte) (endCode >> 8);
+        response[29] = (byte) endCode;
+        return response;
+    }
+
+
+    private int ReadWords(byte area, int address, int count, byte[] dest, int index) {
+        short[] words = areas[area & 0xFF];
+        if (words == null || IsBitArea(area)) return AreaTypeError;
+        if (address + count > AreaSize) return AddressRangeExceeded;
+
+        memoryLock.Enter();
+        try {
+            for (int i = 0; i < count; i++) {
+                dest[index + i * 2] = (byte) (words[address + i] >> 8);
+                dest[index + i * 2 + 1] = (byte) words[address + i];
+            }
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+    private int WriteWords(byte area, int address, int count, byte[] source, int index) {
+        short[] words = areas[area & 0xFF];
+        if (words == null || IsBitArea(area)) return AreaTypeError;
+        if (address + count > AreaSize) return AddressRangeExceeded;
+
+        memoryLock.Enter();
+        try {
+            for (int i = 0; i < count; i++) {
+                words[address + i] = (short) (((source[index + i * 2] & 0xFF) << 8) | (source[index + i * 2 + 1] & 0xFF));
+            }
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+    private int ReadBits(byte area, int address, int bit, int count, byte[] dest, int index) {
+        // 位地址为字地址乘16加上位号，超过15的位继续读取之后的字
+        short[] words = areas[area & 0xFF];
+        if (words == null || !IsBitArea(area)) return AreaTypeError;
+        if (bit < 0 || bit > 15) return AddressRangeExceeded;
+        int start = address * 16 + bit;
+        if (start + count > AreaSize * 16) return AddressRangeExceeded;
+
+        memoryLock.Enter();
+        try {
+            for (int i = 0; i < count; i++) {
+                int position = start + i;
+                dest[index + i] = (words[position / 16] & (1 << (position % 16))) != 0 ? (byte) 0x01 : (byte) 0x00;
+            }
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+    private int WriteBits(byte area, int address, int bit, int count, byte[] source, int index) {
+        short[] words = areas[area & 0xFF];
+        if (words == null || !IsBitArea(area)) return AreaTypeError;
+        if (bit < 0 || bit > 15) return AddressRangeExceeded;
+        int start = address * 16 + bit;
+        if (start + count > AreaSize * 16) return AddressRangeExceeded;
+
+        memoryLock.Enter();
+        try {
+            for (int i = 0; i < count; i++) {
+                int position = start + i;
+                if (source[index + i] != 0) words[position / 16] |= (short) (1 << (position % 16));
+                else words[position / 16] &= (short) ~(1 << (position % 16));
+            }
+        }
+        finally {
+            memoryLock.Leave();
+        }
+        return 0;
+    }
+
+
+    private static boolean IsBitArea(byte area) {
+        // 位的区域码为0x02及0x30至0x33，字的区域码最高位为1
+        return (area & 0x80) == 0;
+    }
+
+    private static int GetUShort(byte[] buffer, int index) {
+        return ((buffer[index] & 0xFF) << 8) | (buffer[index + 1] & 0xFF);
+    }
+
+    private static int GetInt(byte[] buffer, int index) {
+        return ((buffer[index] & 0xFF) << 24) | ((buffer[index + 1] & 0xFF) << 16) | ((buffer[index + 2] & 0xFF) << 8) | (buffer[index + 3] & 0xFF);
+    }
+
+
+    @Override
+    public String toString() {
+        return "OmronFinsServer[" + getPort() + "]";
+    }
+
+
+    private short[][] areas = new short[256][];                                             // 按照区域码索引的数据，位及字的区域码共用
+    private IByteTransform byteTransform = null;                                            // 数据的变换规则
+    private volatile byte nodeNumber = 0x01;                                                // 服务器的节点号
+    private SimpleHybirdLock memoryLock = new SimpleHybirdLock();                           // 区域数据的同步锁
+
+    private static final int AreaSize = 65536;                                              // 每个区域的字数
+    private static final int MaxWords = 999;                                                // 单次读取的最大字数
+    private static final int MaxMultiItems = 167;                                           // 多区域读取的最大项数
+    private static final int UndefinedCommand = 0x0401;                                     // 不支持的命令
+    private static final int CommandTooLong = 0x1001;                                       // 命令过长
+    private static final int CommandTooShort = 0x1002;                                      // 命令过短
+    private static final int AreaTypeError = 0x1101;                                        // 区域类型错误
+    private static final int AddressRangeExceeded = 0x1103;                                 // 地址超出范围
+}
@@ -0,0 +1,355 @@
+package HslCommunication.Profinet.Omron;
+
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.StringResources;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 欧姆龙Fins帧协议的UDP通讯类，不需要建立连接及握手，每条报文分配独立的SID，多个线程的请求可以同时等待反馈，
+ * 根据SID匹配反馈的报文，超时没有反馈时重发报文 ->
+ * Omron fins protocol over udp, every request gets its own SID so that multiple requests can be in flight, lost requests are retransmitted
+ */
+public class OmronFinsUdp extends OmronFinsNet {
+
+    /**
+     * 实例化一个欧姆龙Fins帧协议的UDP通讯对象
+     */
+    public OmronFinsUdp() {
+        super();
+    }
+
+    /**
+     * 实例化一个欧姆龙Fins帧协议的UDP通讯对象
+     * @param ipAddress PLC的Ip地址
+     * @param port PLC的端口，默认为9600
+     */
+    public OmronFinsUdp(String ipAddress, int port) {
+        super(ipAddress, port);
+    }
+
+
+    /**
+     * 获取一次发送之后等待反馈的时间，超过该时间没有反馈就重发报文，单位毫秒
+     * @return 等待的时间
+     */
+    public int getRetransmitTimeOut() {
+        return retransmitTimeOut;
+    }
+
+    /**
+     * 设置一次发送之后等待反馈的时间，超过该时间没有反馈就重发报文，单位毫秒，默认1000
+     * @param retransmitTimeOut 等待的时间
+     */
+    public void setRetransmitTimeOut(int retransmitTimeOut) {
+        this.retransmitTimeOut = retransmitTimeOut;
+    }
+
+    /**
+     * 获取没有反馈时重发的次数
+     * @return 重发的次数
+     */
+    public int getRetransmitCount() {
+        return retransmitCount;
+    }
+
+    /**
+     * 设置没有反馈时重发的次数，默认2次，为0时不重发
+     * @param retransmitCount 重发的次数
+     */
+    public void setRetransmitCount(int retransmitCount) {
+        this.retransmitCount = retransmitCount;
+    }
+
+    /**
+     * 获取一次读写多条报文时，同时等待反馈的最大报文数量
+     * @return 报文数量
+     */
+    public int getPipelineDepth() {
+        return PipelineDepth;
+    }
+
+    /**
+     * 设置一次读写多条报文时，同时等待反馈的最大报文数量，默认为1，依次交互
+     * @param pipelineDepth 报文数量
+     */
+    public void setPipelineDepth(int pipelineDepth) {
+        PipelineDepth = pipelineDepth;
+    }
+
+
+    /**
+     * 将普通的指令打包成完整的指令，UDP方式没有FINS/TCP的报文头，SID在发送的时候分配
+     * @param cmd 指令
+     * @return 字节
+     */
+    @Override
+    protected byte[] PackCommand(byte[] cmd) {
+        byte[] buffer = new byte[10 + cmd.length];
+        buffer[0] = ICF;
+        buffer[1] = RSV;
+        buffer[2] = GCT;
+        buffer[3] = DNA;
+        buffer[4] = DA1;
+        buffer[5] = DA2;
+        buffer[6] = SNA;
+        buffer[7] = getSA1();
+        buffer[8] = SA2;
+        buffer[9] = SID;
+        System.arraycopy(cmd, 0, buffer, 10, cmd.length);
+        return buffer;
+    }
+
+    /**
+     * 校验PLC反馈的报文，UDP方式的实际数据从第14个字节开始
+     * @param response PLC反馈的完整报文
+     * @param isRead 是否处于读取状态
+     * @return 成功的数据结果
+     */
+    @Override
+    protected OperateResultExOne<byte[]> CheckResponse(byte[] response, boolean isRead) {
+        return ResponseValidAnalysis(response, 14, isRead);
+    }
+
+
+    /**
+     * 打开本地的UDP端口，并且启动接收的线程，不需要和PLC进行握手，不调用的话在第一次通讯时自动打开
+     * @return 打开的结果
+     */
+    @Override
+    public OperateResult ConnectServer() {
+        synchronized (lock) {
+            CloseUdpSocket();
+            OperateResultExOne<DatagramSocket> socket = GetAvailableUdpSocket();
+            if (!socket.IsSuccess) return socket;
+        }
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 关闭本地的UDP端口，正在等待反馈的请求返回失败
+     * @return 关闭的结果
+     */
+    @Override
+    public OperateResult ConnectClose() {
+        synchronized (lock) {
+            CloseUdpSocket();
+        }
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 发送一条FINS报文，并等待SID相同的反馈报文
+     * @param send 发送的完整的报文信息
+     * @return 接收的完整的报文信息
+     */
+    @Override
+    public OperateResultExOne<byte[]> ReadFromCoreServer(byte[] send) {
+        OperateResultExOne<byte[][]> read = ReadFromCoreServer(new byte[][]{send}, 1);
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
+
+        return OperateResultExOne.CreateSuccessResult(read.Content[0]);
+    }
+
+    /**
+     * 发送多条FINS报文，最多同时有depth条报文等待反馈，根据SID匹配反馈的报文
+     * @param sends 发送的完整的报文信息
+     * @param depth 同时等待反馈的最大报文数量
+     * @return 接收的完整的报文信息，顺序和发送的报文一致
+     */
+    @Override
+    public OperateResultExOne<byte[][]> ReadFromCoreServer(byte[][] sends, int depth) {
+        OperateResultExOne<DatagramSocket> socket = GetAvailableUdpSocket();
+        if (!socket.IsSuccess) return OperateResultExOne.CreateFailedResult(socket);
+
+        if (depth < 1) depth = 1;
+        FinsRequest[] requests = new FinsRequest[sends.length];
+        byte[][] results = new byte[sends.length][];
+        int next = 0;
+        for (int i = 0; i < sends.length; i++) {
+            // 保持窗口内的报文都已经发送
+            while (next < sends.length && next < i + depth) {
+                OperateResultExOne<FinsRequest> send = SendRequest(socket.Content, sends[next]);
+                if (!send.IsSuccess) {
+                    CancelRequests(requests, i, next);
+                    return OperateResultExOne.CreateFailedResult(send);
+                }
+                requests[next++] = send.Content;
+            }
+
+            OperateResultExOne<byte[]> read = WaitResponse(socket.Content, requests[i]);
+            if (!read.IsSuccess) {
+                CancelRequests(requests, i + 1, next);
+                return OperateResultExOne.CreateFailedResult(read);
+            }
+            results[i] = read.Content;
+        }
+        return OperateResultExOne.CreateSuccessResult(results);
+    }
+
+    /**
+     * UDP方式不阻塞的通讯没有单独的实现，在当前的线程中同步完成
+     * @param send 发送的完整的报文信息
+     * @param callback 接收完整报文的回调
+     */
+    @Override
+    public void BeginReadFromCoreServer(byte[] send, ActionOperateExOne<OperateResultExOne<byte[]>> callback) {
+        callback.Action(ReadFromCoreServer(send));
+    }
+
+
+    private OperateResultExOne<FinsRequest> SendRequest(DatagramSocket socket, byte[] send) {
+        if (send.length < 12) return new OperateResultExOne<>(StringResources.Language.OmronReceiveDataError());
+
+        // SID按照顺序分配，跳过正在等待反馈的SID，刚刚完成的SID要等其他的SID用完之后才会再次使用，避免迟到的重复反馈被错误的匹配
+        FinsRequest request = new FinsRequest(socket, Arrays.copyOf(send, send.length));
+        boolean allocated = false;
+        for (int i = 0; i < 256 && !allocated; i++) {
+            request.sid = sidCounter.incrementAndGet() & 0xFF;
+            request.send[9] = (byte) request.sid;
+            allocated = pendingRequests.putIfAbsent(request.sid, request) == null;
+        }
+        if (!allocated) return new OperateResultExOne<>(StringResources.Language.ConnectionIsNotAvailable());
+
+        try {
+            socket.send(new DatagramPacket(request.send, request.send.length));
+        }
+        catch (IOException ex) {
+            pendingRequests.remove(request.sid, request);
+            return new OperateResultExOne<>(ex.getMessage());
+        }
+        return OperateResultExOne.CreateSuccessResult(request);
+    }
+
+    private OperateResultExOne<byte[]> WaitResponse(DatagramSocket socket, FinsRequest request) {
+        try {
+            for (int i = 0; i <= retransmitCount; i++) {
+                if (i > 0) socket.send(new DatagramPacket(request.send, request.send.length));
+                if (request.latch.await(retransmitTimeOut, TimeUnit.MILLISECONDS)) {
+                    if (request.response == null) return new OperateResultExOne<>(StringResources.Language.ConnectionIsNotAvailable());
+                    return OperateResultExOne.CreateSuccessResult(request.response);
+                }
+            }
+        }
+        catch (IOException | InterruptedException ex) {
+            pendingRequests.remove(request.sid, request);
+            return new OperateResultExOne<>(ex.getMessage());
+        }
+
+        pendingRequests.remove(request.sid, request);
+        return new OperateResultExOne<>(StringResources.Language.ReceiveDataTimeout() + retransmitTimeOut * (retransmitCount + 1));
+    }
+
+    private void CancelRequests(FinsRequest[] requests, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (requests[i] != null) pendingRequests.remove(requests[i].sid, requests[i]);
+        }
+    }
+
+    private OperateResultExOne<DatagramSocket> GetAvailableUdpSocket() {
+        DatagramSocket socket = udpSocket;
+        if (socket != null) return OperateResultExOne.CreateSuccessResult(socket);
+
+        synchronized (lock) {
+            if (udpSocket != null) return OperateResultExOne.CreateSuccessResult(udpSocket);
+            try {
+                socket = new DatagramSocket();
+                socket.connect(new InetSocketAddress(getIpAddress(), getPort()));
+            }
+            catch (Exception ex) {
+                if (socket != null) socket.close();
+                return new OperateResultExOne<>(ex.getMessage());
+            }
+
+            final DatagramSocket receiveSocket = socket;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ReceiveBackground(receiveSocket);
+                }
+            }, "HslFinsUdpReceive");
+            thread.setDaemon(true);
+            thread.start();
+
+            udpSocket = socket;
+            return OperateResultExOne.CreateSuccessResult(socket);
+        }
+    }
+
+    private void ReceiveBackground(DatagramSocket socket) {
+        byte[] buffer = new byte[4096];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+            }
+            catch (IOException ex) {
+                break;
+            }
+
+            // 反馈的SID及命令码必须和请求的一致，否则丢弃
+            if (packet.getLength() < 14) continue;
+            int sid = buffer[9] & 0xFF;
+            FinsRequest request = pendingRequests.get(sid);
+            if (request == null || buffer[10] != request.send[10] || buffer[11] != request.send[11]) continue;
+            if (!pendingRequests.remove(sid, request)) continue;
+
+            request.response = Arrays.copyOf(buffer, packet.getLength());
+            request.latch.countDown();
+        }
+
+        // 端口关闭之后，正在等待的请求直接返回失败
+        for (FinsRequest request : pendingRequests.values()) {
+            if (request.socket == socket && pendingRequests.remove(request.sid, request)) request.latch.countDown();
+        }
+    }
+
+    private void CloseUdpSocket() {
+        if (udpSocket != null) udpSocket.close();
+        udpSocket = null;
+    }
+
+
+    /**
+     * 返回表示当前对象的字符串
+     *
+     * @return 字符串
+     */
+    @Override
+    public String toString() {
+        return "OmronFinsUdp";
+    }
+
+
+    private final Object lock = new Object();                                                      // 打开端口的同步锁
+    private volatile DatagramSocket udpSocket = null;                                              // 本地的UDP端口
+    private final ConcurrentHashMap<Integer, FinsRequest> pendingRequests = new ConcurrentHashMap<>();  // 等待反馈的请求
+    private final AtomicInteger sidCounter = new AtomicInteger(0);                                 // 分配SID的计数
+    private int retransmitTimeOut = 1000;                                                          // 重发的等待时间
+    private int retransmitCount = 2;                                                               // 重发的次数
+
+
+    private static class FinsRequest {
+        FinsRequest(DatagramSocket socket, byte[] send) {
+            this.socket = socket;
+            this.send = send;
+        }
+
+        DatagramSocket socket;
+        byte[] send;
+        int sid = 0;
+        volatile byte[] response = null;
+        CountDownLatch latch = new CountDownLatch(1);
+    }
+}
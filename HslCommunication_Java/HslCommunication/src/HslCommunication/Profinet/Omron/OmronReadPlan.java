@@ -0,0 +1,291 @@
+package HslCommunication.Profinet.Omron;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import HslCommunication.StringResources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+
+/**
+ * 欧姆龙FINS协议多地址读取的计划，同一个区域相邻的字地址合并为一个数据块，较长的数据块使用批量读取(0101)并按照帧的大小拆分，
+ * 零散的字使用多区域读取(0104)只读取需要的字，报文的数量尽量少，读取之后按照原来的地址拆分数据。计划可以重复使用 ->
+ * The read plan of multiple omron addresses, long ranges use memory area read (0101) split at the frame limit, scattered words use multiple memory area read (0104)
+ */
+public class OmronReadPlan {
+
+    private OmronReadPlan() {
+    }
+
+
+    /**
+     * 根据地址列表创建读取的计划，所有的长度都以字为单位
+     * @param address 解析后的地址，Content1为数据类型，Content2为字地址
+     * @param length 每个地址读取的字数
+     * @param mergeGap 两个地址之间间隔的字数小于等于该值时合并读取
+     * @return 读取的计划
+     */
+    public static OperateResultExOne<OmronReadPlan> Create(OperateResultExTwo<OmronFinsDataType, Integer>[] address, short[] length, int mergeGap) {
+        if (address.length != length.length) return new OperateResultExOne<>(StringResources.Language.TwoParametersLengthIsNotSame());
+
+        OmronReadPlan plan = new OmronReadPlan();
+        plan.tagBlock = new int[address.length];
+        plan.tagOffset = new int[address.length];
+        plan.tagLength = new int[address.length];
+
+        // 按照区域及地址排序之后合并
+        Integer[] order = new Integer[address.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        final OperateResultExTwo<OmronFinsDataType, Integer>[] tags = address;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int codeA = tags[a].Content1.getWordCode() & 0xFF;
+                int codeB = tags[b].Content1.getWordCode() & 0xFF;
+                if (codeA != codeB) return Integer.compare(codeA, codeB);
+                return Integer.compare(tags[a].Content2, tags[b].Content2);
+            }
+        });
+
+        ArrayList<Block> blocks = new ArrayList<>();
+        Block current = null;
+        for (int i = 0; i < order.length; i++) {
+            OperateResultExTwo<OmronFinsDataType, Integer> tag = address[order[i]];
+            int start = tag.Content2;
+            int words = Math.max(length[order[i]], 0);
+            if (current == null || current.type.getWordCode() != tag.Content1.getWordCode() || start > current.start + current.words + mergeGap) {
+                current = new Block(tag.Content1, start, words);
+                blocks.add(current);
+            }
+            else {
+                current.words = Math.max(current.words, start - current.start + words);
+            }
+            current.covered.set(start - current.start, start - current.start + Math.max(words, 1));
+            plan.tagBlock[order[i]] = blocks.size() - 1;
+            plan.tagOffset[order[i]] = start - current.start;
+            plan.tagLength[order[i]] = words;
+        }
+
+        // 多区域读取只读取实际需要的字，从需要的字最多的数据块开始，只要能减少多区域读取的报文数量，就改为单独的批量读取
+        Integer[] blockOrder = new Integer[blocks.size()];
+        int multiItems = 0;
+        for (int i = 0; i < blockOrder.length; i++) {
+            blockOrder[i] = i;
+            multiItems += blocks.get(i).covered.cardinality();
+        }
+        final ArrayList<Block> list = blocks;
+        Arrays.sort(blockOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(list.get(b).covered.cardinality(), list.get(a).covered.cardinality());
+            }
+        });
+        for (int i = 0; i < blockOrder.length; i++) {
+            Block block = blocks.get(blockOrder[i]);
+            int count = block.covered.cardinality();
+            if (FrameCount(multiItems - count) < FrameCount(multiItems)) {
+                block.isMultiArea = false;
+                multiItems -= count;
+            }
+        }
+
+        ArrayList<Frame> frames = new ArrayList<>();
+        Frame multiFrame = null;
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            if (!block.isMultiArea) {
+                int words = Math.max(block.words, 1);
+                for (int offset = 0; offset < words; offset += ReadMaxWords) {
+                    Frame frame = new Frame(false);
+                    frame.Add(new Segment(i, offset, Math.min(words - offset, ReadMaxWords)));
+                    frames.add(frame);
+                }
+            }
+            else {
+                for (int offset = block.covered.nextSetBit(0); offset >= 0; offset = block.covered.nextSetBit(offset + 1)) {
+                    if (multiFrame == null || multiFrame.segments.size() >= MultiAreaMaxItems) {
+                        multiFrame = new Frame(true);
+                        frames.add(multiFrame);
+                    }
+                    multiFrame.Add(new Segment(i, offset, 1));
+                }
+            }
+        }
+
+        plan.blocks = blocks.toArray(new Block[0]);
+        plan.frames = frames.toArray(new Frame[0]);
+        plan.commands = new byte[plan.frames.length][];
+        for (int i = 0; i < plan.frames.length; i++) {
+            plan.commands[i] = plan.frames[i].BuildCommand(plan.blocks);
+        }
+        return OperateResultExOne.CreateSuccessResult(plan);
+    }
+
+    private static int FrameCount(int items) {
+        return (items + MultiAreaMaxItems - 1) / MultiAreaMaxItems;
+    }
+
+
+    /**
+     * 获取需要发送的所有的FINS命令，从命令码开始，还需要加上FINS的报文头
+     * @return 命令数组
+     */
+    public byte[][] getCommands() {
+        return commands;
+    }
+
+    /**
+     * 获取原始的地址数量
+     * @return 地址数量
+     */
+    public int getTagCount() {
+        return tagBlock.length;
+    }
+
+    /**
+     * 将每条命令反馈的数据按照原来的地址拆分为每个地址的数据
+     * @param data 每条命令反馈的数据，从结束码之后开始，多区域读取的每一项包含一个字节的区域码
+     * @return 每个地址的数据，顺序和创建计划时一致
+     */
+    public OperateResultExOne<byte[][]> Scatter(byte[][] data) {
+        if (data.length != frames.length) return new OperateResultExOne<>(StringResources.Language.TwoParametersLengthIsNotSame());
+
+        // 计划可能在多个线程中使用，每次拆分使用独立的缓存
+        byte[][] buffers = new byte[blocks.length][];
+        for (int i = 0; i < blocks.length; i++) buffers[i] = new byte[Math.max(blocks[i].words, 1) * 2];
+
+        for (int i = 0; i < frames.length; i++) {
+            Frame frame = frames[i];
+            int need = frame.isMultiArea ? frame.segments.size() * 3 : frame.segments.get(0).words * 2;
+            if (data[i].length < need)
+                return new OperateResultExOne<>(StringResources.Language.ReceiveDataLengthTooShort() + data[i].length);
+
+            if (frame.isMultiArea) {
+                for (int j = 0; j < frame.segments.size(); j++) {
+                    Segment segment = frame.segments.get(j);
+                    System.arraycopy(data[i], j * 3 + 1, buffers[segment.block], segment.offset * 2, 2);
+                }
+            }
+            else {
+                Segment segment = frame.segments.get(0);
+                System.arraycopy(data[i], 0, buffers[segment.block], segment.offset * 2, segment.words * 2);
+            }
+        }
+
+        byte[][] results = new byte[tagBlock.length][];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = Arrays.copyOfRange(buffers[tagBlock[i]], tagOffset[i] * 2, (tagOffset[i] + tagLength[i]) * 2);
+        }
+        return OperateResultExOne.CreateSuccessResult(results);
+    }
+
+
+    /**
+     * 构建批量读取字数据的FINS命令(0101)
+     * @param type 数据类型
+     * @param address 字地址
+     * @param length 读取的字数
+     * @return 命令
+     */
+    static byte[] BuildReadWordCommand(OmronFinsDataType type, int address, int length) {
+        byte[] command = new byte[8];
+        command[0] = 0x01;
+        command[1] = 0x01;
+        command[2] = type.getWordCode();
+        command[3] = (byte) (address / 256);
+        command[4] = (byte) (address % 256);
+        command[5] = 0x00;
+        command[6] = (byte) (length / 256);
+        command[7] = (byte) (length % 256);
+        return command;
+    }
+
+    /**
+     * 构建多区域读取字数据的FINS命令(0104)，每一项读取一个字
+     * @param type 每一项的数据类型
+     * @param address 每一项的字地址
+     * @return 命令
+     */
+    static byte[] BuildMultiAreaReadCommand(OmronFinsDataType[] type, int[] address) {
+        byte[] command = new byte[2 + type.length * 4];
+        command[0] = 0x01;
+        command[1] = 0x04;
+        for (int i = 0; i < type.length; i++) {
+            command[2 + i * 4] = type[i].getWordCode();
+            command[3 + i * 4] = (byte) (address[i] / 256);
+            command[4 + i * 4] = (byte) (address[i] % 256);
+            command[5 + i * 4] = 0x00;
+        }
+        return command;
+    }
+
+
+    private Block[] blocks = null;                  // 合并之后的数据块
+    private Frame[] frames = null;                  // 每条命令
+    private byte[][] commands = null;               // 每条命令的报文
+    private int[] tagBlock = null;                  // 每个地址所在的数据块
+    private int[] tagOffset = null;                 // 每个地址在数据块中的字偏移
+    private int[] tagLength = null;                 // 每个地址的字数
+
+    static final int ReadMaxWords = 999;                     // 单次批量读取的最大字数，受FINS帧的大小限制
+    private static final int MultiAreaMaxItems = 167;        // 多区域读取的最大项数
+
+
+    private static class Block {
+        Block(OmronFinsDataType type, int start, int words) {
+            this.type = type;
+            this.start = start;
+            this.words = words;
+        }
+
+        OmronFinsDataType type;
+        int start;
+        int words;
+        BitSet covered = new BitSet();          // 实际需要读取的字
+        boolean isMultiArea = true;             // 是否使用多区域读取
+    }
+
+    private static class Segment {
+        Segment(int block, int offset, int words) {
+            this.block = block;
+            this.offset = offset;
+            this.words = words;
+        }
+
+        int block;
+        int offset;
+        int words;
+    }
+
+    private static class Frame {
+        Frame(boolean isMultiArea) {
+            this.isMultiArea = isMultiArea;
+        }
+
+        void Add(Segment segment) {
+            segments.add(segment);
+        }
+
+        byte[] BuildCommand(Block[] blocks) {
+            if (!isMultiArea) {
+                Segment segment = segments.get(0);
+                Block block = blocks[segment.block];
+                return BuildReadWordCommand(block.type, block.start + segment.offset, segment.words);
+            }
+
+            OmronFinsDataType[] type = new OmronFinsDataType[segments.size()];
+            int[] address = new int[segments.size()];
+            for (int i = 0; i < type.length; i++) {
+                Block block = blocks[segments.get(i).block];
+                type[i] = block.type;
+                address[i] = block.start + segments.get(i).offset;
+            }
+            return BuildMultiAreaReadCommand(type, address);
+        }
+
+        boolean isMultiArea;
+        ArrayList<Segment> segments = new ArrayList<>();
+    }
+}
@@ -47,32 +47,37 @@ public class SiemensFetchWriteNet extends NetworkDeviceBase<FetchWriteMessage, R
      */
     @Override
     public OperateResultExOne<byte[]> Read(String address, short length) {
-        OperateResultExOne<byte[]> result = new OperateResultExOne<byte[]>();
+        return ReadByCommands(address, length);
+    }
+
+    /**
+     * 构建读取数据的Fetch报文
+     * @param address 起始地址
+     * @param length 读取的数量
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
         OperateResultExOne<byte[]> command = BuildReadCommand(address, length);
-        if (!command.IsSuccess) {
-            result.CopyErrorFromOther(command);
-            return result;
-        }
+        if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult(command);
 
-        OperateResultExOne<byte[]> read = ReadFromCoreServer(command.Content);
-        if (read.IsSuccess) {
-            if (read.Content[8] == 0x00) {
-                // 分析结果
-                byte[] buffer = new byte[read.Content.length - 16];
-                System.arraycopy(read.Content, 16, buffer, 0, buffer.length);
+        return OperateResultExOne.CreateSuccessResult(new byte[][]{command.Content});
+    }
 
-                result.Content = buffer;
-                result.IsSuccess = true;
-            } else {
-                result.ErrorCode = read.Content[8];
-                result.Message = "发生了异常，具体信息查找Fetch/Write协议文档";
-            }
-        } else {
-            result.ErrorCode = read.ErrorCode;
-            result.Message = read.Message;
-        }
+    /**
+     * 校验PLC反馈的报文，并提取出实际的数据
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 实际的数据
+     */
+    @Override
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
+        if (response[8] != 0x00) return new OperateResultExOne<byte[]>(response[8], StringResources.Language.SiemensFWError());
 
-        return result;
+        // 分析结果
+        byte[] buffer = new byte[response.length - 16];
+        System.arraycopy(response, 16, buffer, 0, buffer.length);
+        return OperateResultExOne.CreateSuccessResult(buffer);
     }
 
 
@@ -96,28 +101,34 @@ public class SiemensFetchWriteNet extends NetworkDeviceBase<FetchWriteMessage, R
      */
     @Override
     public OperateResult Write(String address, byte[] value) {
-        OperateResult result = new OperateResult();
+        return WriteByCommands(address, value);
+    }
 
+    /**
+     * 构建写入数据的Write报文
+     * @param address 起始地址
+     * @param value 原始数据
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
         OperateResultExOne<byte[]> command = BuildWriteCommand(address, value);
-        if (!command.IsSuccess) {
-            result.CopyErrorFromOther(command);
-            return result;
-        }
+        if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult(command);
 
+        return OperateResultExOne.CreateSuccessResult(new byte[][]{command.Content});
+    }
 
-        OperateResultExOne<byte[]> write = ReadFromCoreServer(command.Content);
-        if (write.IsSuccess) {
-            if (write.Content[8] != 0x00) {
-                // 写入异常
-                result.Message = "写入数据异常，代号为：" + String.valueOf(write.Content[8]);
-            } else {
-                result.IsSuccess = true;  // 写入成功
-            }
-        } else {
-            result.ErrorCode = write.ErrorCode;
-            result.Message = write.Message;
-        }
-        return result;
+    /**
+     * 校验PLC反馈的写入报文
+     * @param send 发送的报文
+     * @param response PLC反馈的报文
+     * @return 写入结果
+     */
+    @Override
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
+        if (response[8] != 0x00) return new OperateResult(response[8], StringResources.Language.SiemensWriteError() + response[8]);
+
+        return OperateResult.CreateSuccessResult();
     }
 
     /**
@@ -0,0 +1,251 @@
+package HslCommunication.Profinet.Siemens;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExThree;
+import HslCommunication.StringResources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * 西门子多地址读取的计划，同一个区域或DB块里相邻及重叠的地址合并为一个数据块，再按照PDU的大小装入尽量少的报文，读取之后按照原来的地址拆分数据。
+ * 计划可以重复使用，适合周期性的扫描一组变量 ->
+ * The read plan of multiple siemens addresses, adjacent and overlapping ranges are merged, then packed into as few PDUs as possible
+ */
+public class SiemensReadPlan {
+
+    private SiemensReadPlan() {
+    }
+
+
+    /**
+     * 根据地址列表创建读取的计划
+     * @param address 解析后的地址，Content1为数据类型，Content2为位偏移，Content3为DB块号
+     * @param length 每个地址读取的字节长度
+     * @param pduLength PLC允许的PDU长度
+     * @param mergeGap 两个地址之间的间隔小于等于该字节数时合并读取
+     * @return 读取的计划
+     */
+    public static OperateResultExOne<SiemensReadPlan> Create(OperateResultExThree<Byte, Integer, Integer>[] address, short[] length, int pduLength, int mergeGap) {
+        if (address.length != length.length) return new OperateResultExOne<>(StringResources.Language.TwoParametersLengthIsNotSame());
+
+        SiemensReadPlan plan = new SiemensReadPlan();
+        plan.tagBlock = new int[address.length];
+        plan.tagOffset = new int[address.length];
+        plan.tagLength = new int[address.length];
+
+        // 按照区域，DB块，偏移排序之后合并
+        Integer[] order = new Integer[address.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        final OperateResultExThree<Byte, Integer, Integer>[] tags = address;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                if (tags[a].Content1.byteValue() != tags[b].Content1.byteValue()) return Integer.compare(tags[a].Content1 & 0xFF, tags[b].Content1 & 0xFF);
+                if (tags[a].Content3.intValue() != tags[b].Content3.intValue()) return Integer.compare(tags[a].Content3, tags[b].Content3);
+                return Integer.compare(tags[a].Content2, tags[b].Content2);
+            }
+        });
+
+        ArrayList<Block> blocks = new ArrayList<>();
+        Block current = null;
+        for (int i = 0; i < order.length; i++) {
+            OperateResultExThree<Byte, Integer, Integer> tag = address[order[i]];
+            int start = tag.Content2 / 8;
+            int end = start + Math.max(length[order[i]], 0);
+            if (current == null || current.area != tag.Content1 || current.db != tag.Content3 || start > current.end + mergeGap) {
+                current = new Block(tag.Content1, tag.Content3, start, end);
+                blocks.add(current);
+            }
+            else {
+                current.end = Math.max(current.end, end);
+            }
+            plan.tagBlock[order[i]] = blocks.size() - 1;
+            plan.tagOffset[order[i]] = start - current.start;
+            plan.tagLength[order[i]] = end - start;
+        }
+
+        // 超过单个PDU的数据块拆分为多个读取项
+        int maxItemLength = pduLength - 18;
+        int maxItemCount = Math.min((pduLength - 12) / 12, 255);
+        ArrayList<Item> items = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            int blockLength = block.end - block.start;
+            for (int offset = 0; offset < blockLength || offset == 0; offset += maxItemLength) {
+                items.add(new Item(i, offset, Math.min(blockLength - offset, maxItemLength)));
+                if (blockLength == 0) break;
+            }
+        }
+
+        // 首次适应递减的装箱，请求和反馈的长度都不能超过PDU
+        Collections.sort(items, new Comparator<Item>() {
+            @Override
+            public int compare(Item a, Item b) {
+                return Integer.compare(b.length, a.length);
+            }
+        });
+        ArrayList<ArrayList<Item>> packs = new ArrayList<>();
+        ArrayList<Integer> packSize = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            int cost = 4 + item.length + (item.length % 2);
+            int index = -1;
+            for (int j = 0; j < packs.size(); j++) {
+                if (packs.get(j).size() < maxItemCount && packSize.get(j) + cost <= pduLength) {
+                    index = j;
+                    break;
+                }
+            }
+            if (index < 0) {
+                packs.add(new ArrayList<Item>());
+                packSize.add(14);
+                index = packs.size() - 1;
+            }
+            packs.get(index).add(item);
+            packSize.set(index, packSize.get(index) + cost);
+        }
+
+        plan.blocks = blocks.toArray(new Block[0]);
+        plan.packs = new Item[packs.size()][];
+        plan.commands = new byte[packs.size()][];
+        for (int i = 0; i < packs.size(); i++) {
+            Item[] pack = packs.get(i).toArray(new Item[0]);
+            OperateResultExThree<Byte, Integer, Integer>[] list = new OperateResultExThree[pack.length];
+            short[] lengthList = new short[pack.length];
+            for (int j = 0; j < pack.length; j++) {
+                Block block = plan.blocks[pack[j].block];
+                list[j] = new OperateResultExThree<>();
+                list[j].Content1 = block.area;
+                list[j].Content2 = (block.start + pack[j].offset) * 8;
+                list[j].Content3 = block.db;
+                lengthList[j] = (short) pack[j].length;
+            }
+
+            plan.packs[i] = pack;
+            plan.commands[i] = SiemensS7Net.PackReadCommand(list, lengthList);
+        }
+        return OperateResultExOne.CreateSuccessResult(plan);
+    }
+
+
+    /**
+     * 获取需要发送的所有的读取报文
+     * @return 报文数组
+     */
+    public byte[][] getCommands() {
+        return commands;
+    }
+
+    /**
+     * 获取原始的地址数量
+     * @return 地址数量
+     */
+    public int getTagCount() {
+        return tagBlock.length;
+    }
+
+    /**
+     * 将PLC反馈的报文按照原来的地址拆分为每个地址的数据
+     * @param responses 每条读取报文对应的反馈报文
+     * @return 每个地址的数据，顺序和创建计划时一致
+     */
+    public OperateResultExOne<byte[][]> Scatter(byte[][] responses) {
+        if (responses.length != commands.length) return new OperateResultExOne<>(StringResources.Language.TwoParametersLengthIsNotSame());
+
+        // 计划可能在多个线程中使用，每次拆分使用独立的缓存
+        byte[][] buffers = new byte[blocks.length][];
+        for (int i = 0; i < blocks.length; i++) buffers[i] = new byte[blocks[i].end - blocks[i].start];
+
+        for (int i = 0; i < responses.length; i++) {
+            OperateResultExOne<byte[][]> parse = ParseReadResponse(responses[i], packs[i].length);
+            if (!parse.IsSuccess) return parse;
+
+            for (int j = 0; j < packs[i].length; j++) {
+                Item item = packs[i][j];
+                byte[] data = parse.Content[j];
+                if (data.length < item.length)
+                    return new OperateResultExOne<>(StringResources.Language.SiemensDataLengthCheckFailed());
+                System.arraycopy(data, 0, buffers[item.block], item.offset, item.length);
+            }
+        }
+
+        byte[][] results = new byte[tagBlock.length][];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new byte[tagLength[i]];
+            System.arraycopy(buffers[tagBlock[i]], tagOffset[i], results[i], 0, tagLength[i]);
+        }
+        return OperateResultExOne.CreateSuccessResult(results);
+    }
+
+    /**
+     * 按照S7协议的格式解析读取的反馈报文，提取出每个读取项的数据
+     * @param response 反馈的完整报文，包含TPKT及COTP的报文头
+     * @param itemCount 请求的读取项的数量
+     * @return 每个读取项的数据
+     */
+    public static OperateResultExOne<byte[][]> ParseReadResponse(byte[] response, int itemCount) {
+        if (response.length < 21 || (response[20] & 0xFF) != itemCount)
+            return new OperateResultExOne<>(StringResources.Language.SiemensDataLengthCheckFailed());
+        if (response[17] != 0x00 || response[18] != 0x00)
+            return new OperateResultExOne<>(((response[17] & 0xFF) << 8) | (response[18] & 0xFF), StringResources.Language.SiemensReadError() + (((response[17] & 0xFF) << 8) | (response[18] & 0xFF)));
+
+        byte[][] results = new byte[itemCount][];
+        int index = 21;
+        for (int i = 0; i < itemCount; i++) {
+            if (index + 4 > response.length)
+                return new OperateResultExOne<>(StringResources.Language.SiemensDataLengthCheckFailed());
+
+            int returnCode = response[index] & 0xFF;
+            int transportSize = response[index + 1] & 0xFF;
+            int length = ((response[index + 2] & 0xFF) << 8) | (response[index + 3] & 0xFF);
+            if (returnCode != 0xFF) return new OperateResultExOne<>(returnCode, StringResources.Language.SiemensReadError() + returnCode);
+
+            // 位，字节，字的长度单位为位，其他的为字节
+            if (transportSize == 0x03 || transportSize == 0x04 || transportSize == 0x05) length = (length + 7) / 8;
+            if (index + 4 + length > response.length)
+                return new OperateResultExOne<>(StringResources.Language.SiemensDataLengthCheckFailed());
+
+            results[i] = Arrays.copyOfRange(response, index + 4, index + 4 + length);
+            index += 4 + length + (length % 2);
+        }
+        return OperateResultExOne.CreateSuccessResult(results);
+    }
+
+
+    private Block[] blocks = null;                  // 合并之后的数据块
+    private Item[][] packs = null;                  // 每条报文包含的读取项
+    private byte[][] commands = null;               // 每条读取报文
+    private int[] tagBlock = null;                  // 每个地址所在的数据块
+    private int[] tagOffset = null;                 // 每个地址在数据块中的偏移
+    private int[] tagLength = null;                 // 每个地址的长度
+
+
+    private static class Block {
+        Block(byte area, int db, int start, int end) {
+            this.area = area;
+            this.db = db;
+            this.start = start;
+            this.end = end;
+        }
+
+        byte area;
+        int db;
+        int start;
+        int end;
+    }
+
+    private static class Item {
+        Item(int block, int offset, int length) {
+            this.block = block;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        int block;
+        int offset;
+        int length;
+    }
+}
@@ -10,10 +10,12 @@ import HslCommunication.Core.Types.OperateResultExThree;
 import HslCommunication.StringResources;
 import HslCommunication.Utilities;
 
-import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.Arrays;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import java.util.regex.Pattern;
 
 /**
  * 西门子的数据交互类，采用s7协议实现
@@ -135,6 +137,15 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
         OperateResultExOne<byte[]> read_second = ReadFromCoreServer(socket, plcHead2);
         if (!read_second.IsSuccess) return read_second;
 
+        // 提取协商之后的PDU长度，请求的是960，PLC反馈的是它支持的最大长度和960的较小值，读写的报文按照这个长度拆分
+        if (read_second.Content.length >= 27) {
+            int pdu = (read_second.Content[25] & 0xFF) * 256 + (read_second.Content[26] & 0xFF);
+            if (pdu <= MinPduLength) return new OperateResult(StringResources.Language.SiemensPduLengthTooSmall() + pdu);
+            // 连接池的每个连接分别协商，握手是依次进行的，报文按照所有连接中最小的PDU长度拆分
+            pduLength = getConnectionPool() != null && isPduNegotiated ? Math.min(pduLength, pdu) : pdu;
+            isPduNegotiated = true;
+        }
+
         // 返回成功的信号
         return OperateResult.CreateSuccessResult();
     }
@@ -172,42 +183,74 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
      */
     @Override
     public OperateResultExOne<byte[]> Read(String address, short length) {
-        OperateResultExThree<Byte, Integer, Integer> addressResult = AnalysisAddress(address);
-        if (!addressResult.IsSuccess) return OperateResultExOne.<byte[]>CreateFailedResult(addressResult);
+        return ReadByCommands(address, length);
+    }
+
+    /**
+     * 拆分字节地址，区域为I，Q，M，V或是DB块，偏移为字节地址，带有位的地址不支持拆分
+     * @param address 地址信息，格式为I100，M100，Q100，DB20.100
+     * @return Content1为区域，Content2为偏移地址
+     */
+    @Override
+    public OperateResultExTwo<String, Integer> AnalysisAddressOffset(String address) {
+        return AnalysisAddressOffset(address, AddressOffsetPattern);
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    private static final Pattern AddressOffsetPattern = Pattern.compile("^(I|Q|M|V|DB\\d+\\.)(\\d+)$");
+
+    /**
+     * 拆分位地址，读取所在的字节，DB块的位地址为DB20.100.3，其他区域为M100.3，没有位的地址读取第0位
+     * @param address 地址信息，格式为M100.3，DB20.100.3
+     * @return Content1为读取的地址，Content2为位索引
+     */
+    @Override
+    public OperateResultExTwo<String, Integer> AnalysisBitAddress(String address) {
+        int dots = address.length() - address.replace(".", "").length();
+        if (dots != (address.startsWith("D") ? 2 : 1)) return super.AnalysisBitAddress(address);
+        return AnalysisBitAddress(address, false);
+    }
+
+    /**
+     * 构建读取字节数据的报文，每条报文读取的字节数由连接时协商的PDU长度决定
+     * @param address 起始地址，格式为I100，M100，Q100，DB20.100
+     * @param length 读取的数量，以字节为单位
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildReadCommands(String address, short length) {
+        OperateResultExThree<Byte, Integer, Integer> addressResult = AnalysisAddress(address);
+        if (!addressResult.IsSuccess) return OperateResultExOne.CreateFailedResult(addressResult);
 
-        short alreadyFinished = 0;
-        while (alreadyFinished < length) {
-            short readLength = (short) Math.min(length - alreadyFinished, 200);
+        int maxLength = pduLength - 18;
+        byte[][] commands = new byte[(length + maxLength - 1) / maxLength][];
+        for (int i = 0; i < commands.length; i++) {
+            short readLength = (short) Math.min(length - i * maxLength, maxLength);
 
             OperateResultExThree<Byte, Integer, Integer>[] list = new OperateResultExThree[1];
             list[0] = addressResult;
 
-            OperateResultExOne<byte[]> read = Read(list, new short[]{readLength});
-            if (read.IsSuccess) {
-                try {
-                    outputStream.write(read.Content);
-                } catch (Exception ex) {
+            OperateResultExOne<byte[]> command = BuildReadCommand(list, new short[]{readLength});
+            if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult(command);
 
-                }
-            } else {
-                return read;
-            }
-
-            alreadyFinished += readLength;
+            commands[i] = command.Content;
             addressResult.Content2 += readLength * 8;
         }
+        return OperateResultExOne.CreateSuccessResult(commands);
+    }
 
-        byte[] buffer = outputStream.toByteArray();
-
-        try {
-            outputStream.close();
-        } catch (Exception ex) {
-
+    /**
+     * 从PLC反馈的报文中按照请求的每个数据块的长度提取实际的数据
+     * @param send 发送的读取报文
+     * @param response PLC反馈的报文
+     * @return 实际的数据
+     */
+    @Override
+    protected OperateResultExOne<byte[]> ExtractReadResponse(byte[] send, byte[] response) {
+        short[] length = new short[send[18] & 0xFF];
+        for (int i = 0; i < length.length; i++) {
+            length[i] = (short) ((send[23 + i * 12] & 0xFF) * 256 + (send[24 + i * 12] & 0xFF));
         }
-
-        return OperateResultExOne.CreateSuccessResult(buffer);
+        return ExtractActualData(response, length);
     }
 
 
@@ -245,13 +288,48 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
 
 
     /**
-     * 一次性从PLC获取所有的数据，按照先后顺序返回一个统一的Buffer，需要按照顺序处理，两个数组长度必须一致
+     * 一次性从PLC获取所有的数据，按照先后顺序返回一个统一的Buffer，需要按照顺序处理，两个数组长度必须一致，地址的数量没有限制
      * @param address 起始地址数组
      * @param length 数据长度数组
      * @return 结果数据对象
      */
     public OperateResultExOne<byte[]> Read(String[] address, short[] length) {
+        OperateResultExOne<byte[][]> read = ReadMultiple(address, length);
+        if (!read.IsSuccess) return OperateResultExOne.CreateFailedResult(read);
 
+        int count = 0;
+        for (int i = 0; i < read.Content.length; i++) count += read.Content[i].length;
+
+        byte[] buffer = new byte[count];
+        int index = 0;
+        for (int i = 0; i < read.Content.length; i++) {
+            System.arraycopy(read.Content[i], 0, buffer, index, read.Content[i].length);
+            index += read.Content[i].length;
+        }
+        return OperateResultExOne.CreateSuccessResult(buffer);
+    }
+
+    /**
+     * 一次性从PLC读取多个地址的数据，相邻及重叠的地址合并读取，并按照PDU的大小装入尽量少的报文，返回每个地址的数据 ->
+     * Read multiple addresses at once, adjacent and overlapping addresses are merged and packed into as few PDUs as possible
+     * @param address 起始地址数组，格式为I100，M100，Q100，DB20.100
+     * @param length 每个地址读取的字节长度
+     * @return 每个地址的数据
+     */
+    public OperateResultExOne<byte[][]> ReadMultiple(String[] address, short[] length) {
+        OperateResultExOne<SiemensReadPlan> plan = CreateReadPlan(address, length);
+        if (!plan.IsSuccess) return OperateResultExOne.CreateFailedResult(plan);
+
+        return Read(plan.Content);
+    }
+
+    /**
+     * 创建多个地址的读取计划，周期性的读取同一组地址时，计划只需要创建一次，计划按照当前协商的PDU长度创建，应该在连接之后创建
+     * @param address 起始地址数组，格式为I100，M100，Q100，DB20.100
+     * @param length 每个地址读取的字节长度
+     * @return 读取的计划
+     */
+    public OperateResultExOne<SiemensReadPlan> CreateReadPlan(String[] address, short[] length) {
         OperateResultExThree<Byte, Integer, Integer>[] list = new OperateResultExThree[address.length];
         for (int i = 0; i < address.length; i++) {
             OperateResultExThree<Byte, Integer, Integer> tmp = AnalysisAddress(address[i]);
@@ -260,40 +338,68 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
             list[i] = tmp;
         }
 
-        return Read(list, length);
+        return SiemensReadPlan.Create(list, length, pduLength, readMergeGap);
     }
 
+    /**
+     * 按照读取的计划从PLC读取数据
+     * @param plan 读取的计划
+     * @return 每个地址的数据，顺序和创建计划时一致
+     */
+    public OperateResultExOne<byte[][]> Read(SiemensReadPlan plan) {
+        OperateResultExOne<byte[][]> read = ReadFromCoreServer(plan.getCommands(), PipelineDepth);
+        if (!read.IsSuccess) return read;
+
+        return plan.Scatter(read.Content);
+    }
 
     /**
-     * 读取真实的数据
-     * @param address 起始地址
-     * @param length 长度
-     * @return 结果类对象
+     * 获取连接时和PLC协商的PDU长度，未连接时为240，S7-1500通常为960
+     * @return PDU长度
      */
-    private OperateResultExOne<byte[]> Read(OperateResultExThree<Byte, Integer, Integer>[] address, short[] length) {
+    public int getPduLength() {
+        return pduLength;
+    }
 
-        OperateResultExOne<byte[]> command = BuildReadCommand(address, length);
-        if (!command.IsSuccess) return command;
+    /**
+     * 获取多地址读取时合并的最大间隔字节数，两个地址之间的间隔不超过该值时合并为一个读取项
+     * @return 间隔的字节数
+     */
+    public int getReadMergeGap() {
+        return readMergeGap;
+    }
 
-        OperateResultExOne<byte[]> read = ReadFromCoreServer(command.Content);
-        if (!read.IsSuccess) return read;
+    /**
+     * 设置多地址读取时合并的最大间隔字节数，默认为16，一个单独的读取项在请求和反馈中大约占用16个字节
+     * @param readMergeGap 间隔的字节数
+     */
+    public void setReadMergeGap(int readMergeGap) {
+        this.readMergeGap = readMergeGap;
+    }
 
+    /**
+     * 从PLC反馈的读取报文中提取出每个数据块的数据，按照顺序拼接
+     * @param content PLC反馈的报文
+     * @param length 每个数据块的长度
+     * @return 结果类对象
+     */
+    private static OperateResultExOne<byte[]> ExtractActualData(byte[] content, short[] length) {
         int receiveCount = 0;
         for (int i = 0; i < length.length; i++) {
             receiveCount += length[i];
         }
 
-        if (read.Content.length >= 21 && read.Content[20] == length.length) {
+        if (content.length >= 21 && content[20] == length.length) {
             // 分析结果
             byte[] buffer = new byte[receiveCount];
             int kk = 0;
             int ll = 0;
-            for (int ii = 21; ii < read.Content.length; ii++) {
-                if ((ii + 1) < read.Content.length) {
-                    if (read.Content[ii] == (byte) 0xFF &&
-                            read.Content[ii + 1] == 0x04) {
+            for (int ii = 21; ii < content.length; ii++) {
+                if ((ii + 1) < content.length) {
+                    if (content[ii] == (byte) 0xFF &&
+                            content[ii + 1] == 0x04) {
                         // 有数据
-                        System.arraycopy(read.Content, ii + 4, buffer, ll, length[kk]);
+                        System.arraycopy(content, ii + 4, buffer, ll, length[kk]);
                         ii += length[kk] + 3;
                         ll += length[kk];
                         kk++;
@@ -303,7 +409,7 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
 
             return OperateResultExOne.CreateSuccessResult(buffer);
         } else {
-            return new OperateResultExOne<byte[]>(read.ErrorCode,StringResources.Language.SiemensDataLengthCheckFailed());
+            return new OperateResultExOne<byte[]>(StringResources.Language.SiemensDataLengthCheckFailed());
         }
     }
 
@@ -340,8 +446,19 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
         OperateResultExOne<byte[]> write = ReadFromCoreServer(entireValue);
         if (!write.IsSuccess) return write;
 
-        if (write.Content[write.Content.length - 1] != (byte) 0xFF) {
-            return new OperateResult(write.Content[write.Content.length - 1], StringResources.Language.SiemensWriteError() + write.Content[write.Content.length - 1]);
+        return CheckWriteResponse(entireValue, write.Content);
+    }
+
+    /**
+     * 校验PLC反馈的写入报文，最后一个字节为0xFF时表示写入成功
+     * @param send 发送的写入报文
+     * @param response PLC反馈的报文
+     * @return 写入结果
+     */
+    @Override
+    protected OperateResult CheckWriteResponse(byte[] send, byte[] response) {
+        if (response[response.length - 1] != (byte) 0xFF) {
+            return new OperateResult(response[response.length - 1], StringResources.Language.SiemensWriteError() + response[response.length - 1]);
         } else {
             return OperateResult.CreateSuccessResult();
         }
@@ -357,27 +474,36 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
      */
     @Override
     public OperateResult Write(String address, byte[] value) {
+        return WriteByCommands(address, value);
+    }
+
+    /**
+     * 构建写入字节数据的报文，每条报文写入的字节数由连接时协商的PDU长度决定
+     * @param address 起始地址，格式为I100，M100，Q100，DB20.100
+     * @param value 写入的数据
+     * @return 完整的报文数组
+     */
+    @Override
+    protected OperateResultExOne<byte[][]> BuildWriteCommands(String address, byte[] value) {
         OperateResultExThree<Byte, Integer, Integer> analysis = AnalysisAddress( address );
         if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult( analysis );
 
         int length = value.length;
-        int alreadyFinished = 0;
-        while (alreadyFinished < length)
+        int maxLength = pduLength - 28;
+        byte[][] commands = new byte[(length + maxLength - 1) / maxLength][];
+        for (int i = 0; i < commands.length; i++)
         {
-            short writeLength = (short) Math.min( length - alreadyFinished, 200 );
+            int alreadyFinished = i * maxLength;
+            short writeLength = (short) Math.min( length - alreadyFinished, maxLength );
             byte[] buffer = getByteTransform().TransByte( value, alreadyFinished, writeLength );
 
             OperateResultExOne<byte[]> command = BuildWriteByteCommand( analysis, buffer );
-            if (!command.IsSuccess) return command;
-
-            OperateResult write = WriteBase( command.Content );
-            if (!write.IsSuccess) return write;
+            if (!command.IsSuccess) return OperateResultExOne.CreateFailedResult( command );
 
-            alreadyFinished += writeLength;
+            commands[i] = command.Content;
             analysis.Content2 += writeLength * 8;
         }
-
-        return OperateResult.CreateSuccessResult( );
+        return OperateResultExOne.CreateSuccessResult( commands );
     }
 
 
@@ -394,7 +520,106 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
         OperateResultExOne<byte[]> command = BuildWriteBitCommand(address, value);
         if (!command.IsSuccess) return command;
 
-        return WriteBase(command.Content);
+        InvalidateReadCache(address, 1);
+        OperateResult write = WriteBase(command.Content);
+        InvalidateReadCache(address, 1);
+        return write;
+    }
+
+
+    /**
+     * 批量写入多个地址的数据，按照原来的顺序装入尽量少的写入报文，每条报文不超过协商的PDU长度，返回每个数据项的写入结果。
+     * 只有通讯失败时整体返回失败，某条报文的反馈无法解析时该报文里的数据项失败 ->
+     * Write multiple items in batch, items are packed in order into as few write jobs as the PDU allows, and the result of each item is returned
+     * @param items 写入的数据项
+     * @return 每个数据项的写入结果，顺序和输入一致
+     */
+    public OperateResultExOne<OperateResult[]> Write(SiemensWriteItem[] items) {
+        OperateResult[] results = new OperateResult[items.length];
+        ArrayList<OperateResultExThree<Byte, Integer, Integer>> chunkAddress = new ArrayList<>();
+        ArrayList<byte[]> chunkData = new ArrayList<>();
+        ArrayList<Boolean> chunkBit = new ArrayList<>();
+        ArrayList<Integer> chunkItem = new ArrayList<>();
+
+        // 超过单条报文的数据拆分为多个写入项
+        int maxLength = pduLength - 28;
+        for (int i = 0; i < items.length; i++) {
+            OperateResultExThree<Byte, Integer, Integer> analysis = AnalysisAddress(items[i].getAddress());
+            if (!analysis.IsSuccess) {
+                results[i] = analysis;
+                continue;
+            }
+
+            results[i] = OperateResult.CreateSuccessResult();
+            byte[] value = items[i].getValue();
+            for (int offset = 0; offset < value.length || offset == 0; offset += maxLength) {
+                int length = Math.min(value.length - offset, maxLength);
+                OperateResultExThree<Byte, Integer, Integer> address = new OperateResultExThree<>();
+                address.Content1 = analysis.Content1;
+                address.Content2 = analysis.Content2 + offset * 8;
+                address.Content3 = analysis.Content3;
+
+                chunkAddress.add(address);
+                chunkData.add(Arrays.copyOfRange(value, offset, offset + length));
+                chunkBit.add(items[i].isBit());
+                chunkItem.add(i);
+                if (value.length == 0) break;
+            }
+        }
+
+        // 按照顺序装箱，保证写入的先后顺序不变
+        ArrayList<byte[]> commands = new ArrayList<>();
+        ArrayList<int[]> commandItems = new ArrayList<>();
+        int start = 0;
+        while (start < chunkData.size()) {
+            int end = start;
+            int size = 12;
+            while (end < chunkData.size() && size + 16 + chunkData.get(end).length + chunkData.get(end).length % 2 <= pduLength) {
+                size += 16 + chunkData.get(end).length + chunkData.get(end).length % 2;
+                end++;
+            }
+            if (end == start) end++;
+
+            int count = end - start;
+            OperateResultExThree<Byte, Integer, Integer>[] address = new OperateResultExThree[count];
+            byte[][] data = new byte[count][];
+            boolean[] isBit = new boolean[count];
+            int[] itemIndex = new int[count];
+            for (int i = 0; i < count; i++) {
+                address[i] = chunkAddress.get(start + i);
+                data[i] = chunkData.get(start + i);
+                isBit[i] = chunkBit.get(start + i);
+                itemIndex[i] = chunkItem.get(start + i);
+            }
+            commands.add(PackWriteCommand(address, data, isBit));
+            commandItems.add(itemIndex);
+            start = end;
+        }
+
+        for (int i = 0; i < items.length; i++) InvalidateReadCache(items[i].getAddress(), items[i].getValue().length);
+        OperateResultExOne<byte[][]> write = ReadFromCoreServer(commands.toArray(new byte[0][]), PipelineDepth);
+        for (int i = 0; i < items.length; i++) InvalidateReadCache(items[i].getAddress(), items[i].getValue().length);
+        if (!write.IsSuccess) return OperateResultExOne.CreateFailedResult(write);
+
+        for (int i = 0; i < write.Content.length; i++) {
+            byte[] response = write.Content[i];
+            int[] itemIndex = commandItems.get(i);
+            if (response.length < 21 + itemIndex.length || (response[20] & 0xFF) != itemIndex.length) {
+                // 反馈无法解析时只有这条报文里的数据项失败，其他报文的结果依然有效
+                for (int j = 0; j < itemIndex.length; j++) {
+                    if (results[itemIndex[j]].IsSuccess)
+                        results[itemIndex[j]] = new OperateResult(StringResources.Language.SiemensDataLengthCheckFailed());
+                }
+                continue;
+            }
+
+            for (int j = 0; j < itemIndex.length; j++) {
+                int code = response[21 + j] & 0xFF;
+                if (code != 0xFF && results[itemIndex[j]].IsSuccess)
+                    results[itemIndex[j]] = new OperateResult(code, StringResources.Language.SiemensWriteError() + code);
+            }
+        }
+        return OperateResultExOne.CreateSuccessResult(results);
     }
 
 
@@ -500,7 +725,7 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
     private byte[] plcHead2 = new byte[]
             {
                     0x03,0x00,0x00,0x19,0x02,(byte) 0xF0,(byte) 0x80,0x32,0x01,0x00,0x00,0x04,0x00,0x00,0x08,0x00,0x00,
-                    (byte) 0xF0,0x00,0x00,0x01,0x00,0x01,0x01,(byte) 0xE0
+                    (byte) 0xF0,0x00,0x00,0x01,0x00,0x01,0x03,(byte) 0xC0
             };
     private byte[] plcOrderNumber = new byte[]
             {
@@ -531,6 +756,10 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
 
     private byte plc_slot = 0;
     private byte plc_rack = 0;
+    private volatile int pduLength = 240;       // 连接时和PLC协商的PDU长度
+    private boolean isPduNegotiated = false;    // 是否已经有连接协商过PDU长度
+    static final int MinPduLength = 28;         // 写入请求的报文头长度，协商的PDU长度不大于这个值时无法读写
+    private int readMergeGap = 16;              // 多地址读取时合并的最大间隔
 
     /**
      * 返回表示当前对象的字符串
@@ -643,6 +872,16 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
         if (address.length != length.length) throw new RuntimeException(StringResources.Language.TwoParametersLengthIsNotSame());
         if (length.length > 19) throw new RuntimeException(StringResources.Language.SiemensReadLengthCannotLargerThan19());
 
+        return OperateResultExOne.CreateSuccessResult(PackReadCommand(address, length));
+    }
+
+    /**
+     * 生成读取数据的报文，读取项的数量只受PDU长度的限制，由调用者保证
+     * @param address 解析后的地址
+     * @param length 每个地址的读取长度
+     * @return 报文
+     */
+    static byte[] PackReadCommand(OperateResultExThree<Byte, Integer, Integer>[] address, short[] length) {
         int readCount = length.length;
 
         byte[] _PLCCommand = new byte[19 + readCount * 12];
@@ -711,7 +950,7 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
             _PLCCommand[30 + ii * 12] = (byte) (address[ii].Content2 % 256);
         }
 
-        return OperateResultExOne.CreateSuccessResult(_PLCCommand);
+        return _PLCCommand;
     }
 
 
@@ -866,6 +1105,86 @@ public class SiemensS7Net extends NetworkDeviceBase<S7Message, ReverseBytesTrans
     }
 
 
+    /**
+     * 生成一个写入多个数据项的指令，数据项的数量及长度只受PDU长度的限制，由调用者保证
+     * @param address 解析后的地址
+     * @param data 每个数据项的数据
+     * @param isBit 每个数据项是否是位写入
+     * @return 报文
+     */
+    static byte[] PackWriteCommand(OperateResultExThree<Byte, Integer, Integer>[] address, byte[][] data, boolean[] isBit) {
+        int count = address.length;
+        int dataLength = 0;
+        for (int i = 0; i < count; i++) {
+            dataLength += 4 + data[i].length;
+            if (i < count - 1) dataLength += data[i].length % 2;
+        }
+
+        byte[] _PLCCommand = new byte[19 + count * 12 + dataLength];
+        _PLCCommand[0] = 0x03;
+        _PLCCommand[1] = 0x00;
+        // 长度
+        _PLCCommand[2] = (byte) (_PLCCommand.length / 256);
+        _PLCCommand[3] = (byte) (_PLCCommand.length % 256);
+        // 固定
+        _PLCCommand[4] = 0x02;
+        _PLCCommand[5] = (byte) 0xF0;
+        _PLCCommand[6] = (byte) 0x80;
+        _PLCCommand[7] = 0x32;
+        // 命令 发
+        _PLCCommand[8] = 0x01;
+        // 标识序列号
+        _PLCCommand[9] = 0x00;
+        _PLCCommand[10] = 0x00;
+        _PLCCommand[11] = 0x00;
+        _PLCCommand[12] = 0x01;
+        // 参数的长度
+        _PLCCommand[13] = (byte) ((2 + count * 12) / 256);
+        _PLCCommand[14] = (byte) ((2 + count * 12) % 256);
+        // 数据的长度
+        _PLCCommand[15] = (byte) (dataLength / 256);
+        _PLCCommand[16] = (byte) (dataLength % 256);
+        // 读写指令
+        _PLCCommand[17] = 0x05;
+        // 写入数据块个数
+        _PLCCommand[18] = (byte) count;
+
+        int index = 19 + count * 12;
+        for (int i = 0; i < count; i++) {
+            // 固定，返回数据长度
+            _PLCCommand[19 + i * 12] = 0x12;
+            _PLCCommand[20 + i * 12] = 0x0A;
+            _PLCCommand[21 + i * 12] = 0x10;
+            // 写入方式，1是按位，2是按字
+            _PLCCommand[22 + i * 12] = isBit[i] ? (byte) 0x01 : (byte) 0x02;
+            // 写入数据的个数
+            _PLCCommand[23 + i * 12] = (byte) (data[i].length / 256);
+            _PLCCommand[24 + i * 12] = (byte) (data[i].length % 256);
+            // DB块编号，如果访问的是DB块的话
+            _PLCCommand[25 + i * 12] = (byte) (address[i].Content3 / 256);
+            _PLCCommand[26 + i * 12] = (byte) (address[i].Content3 % 256);
+            // 写入数据的类型
+            _PLCCommand[27 + i * 12] = address[i].Content1;
+            // 偏移位置
+            _PLCCommand[28 + i * 12] = (byte) (address[i].Content2 / 256 / 256 % 256);
+            _PLCCommand[29 + i * 12] = (byte) (address[i].Content2 / 256 % 256);
+            _PLCCommand[30 + i * 12] = (byte) (address[i].Content2 % 256);
+
+            // 数据部分，按位写入时长度为位数，按字写入时长度为字节数乘8
+            int bitLength = isBit[i] ? data[i].length : data[i].length * 8;
+            _PLCCommand[index] = 0x00;
+            _PLCCommand[index + 1] = isBit[i] ? (byte) 0x03 : (byte) 0x04;
+            _PLCCommand[index + 2] = (byte) (bitLength / 256);
+            _PLCCommand[index + 3] = (byte) (bitLength % 256);
+            System.arraycopy(data[i], 0, _PLCCommand, index + 4, data[i].length);
+            index += 4 + data[i].length;
+            if (i < count - 1) index += data[i].length % 2;
+        }
+
+        return _PLCCommand;
+    }
+
+
     /**
      * 生成一个写入位数据的指令
      * @param address 起始地址
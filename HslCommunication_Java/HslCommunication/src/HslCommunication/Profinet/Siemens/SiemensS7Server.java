@@ -0,0 +1,461 @@
+package HslCommunication.Profinet.Siemens;
+
+import HslCommunication.BasicFramework.SoftBuffer;
+import HslCommunication.Core.IMessage.S7Message;
+import HslCommunication.Core.Net.Nio.NioServer;
+import HslCommunication.Core.Net.Nio.NioServerSession;
+import HslCommunication.Core.Transfer.IByteTransform;
+import HslCommunication.Core.Transfer.ReverseBytesTransform;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExThree;
+import HslCommunication.StringResources;
+import HslCommunication.Utilities;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 西门子S7协议的服务器，应答SiemensS7Net连接时的COTP及通信参数的握手，包括S200及S200Smart的握手报文，支持I，Q，M，DB块，T，C区域的读写，
+ * 多个数据项的读写及订货号的读取。每个区域及DB块的大小为65536字节，DB块在第一次访问时创建，最大的PDU长度可以设置，用于测试多地址读取及PDU长度的影响 ->
+ * The Siemens S7 server, answers the COTP and setup communication handshake of SiemensS7Net, serves the read and write var requests
+ * against the in-memory I, Q, M, DB, T and C areas, the maximum PDU length granted at setup can be configured
+ */
+public class SiemensS7Server extends NioServer {
+
+    /**
+     * 实例化一个西门子S7协议的服务器，所有的数据初始化为0
+     */
+    public SiemensS7Server() {
+        super(new S7Message());
+        byteTransform = new ReverseBytesTransform();
+    }
+
+
+    /**
+     * 获取服务器支持的最大PDU长度
+     * @return PDU长度
+     */
+    public int getPduLength() {
+        return pduLength;
+    }
+
+    /**
+     * 设置服务器支持的最大PDU长度，S7-1200为240，S7-1500为960，握手时和真实的PLC一样反馈客户端请求的长度和这个值的较小值，
+     * 之后超过协商的PDU长度的请求及反馈返回错误
+     * @param pduLength PDU长度，最小为客户端能够接受的长度，即写入请求的报文头加上一个字节
+     */
+    public void setPduLength(int pduLength) {
+        this.pduLength = Math.max(pduLength, SiemensS7Net.MinPduLength + 1);
+    }
+
+    /**
+     * 获取读取订货号时反馈的订货号
+     * @return 订货号
+     */
+    public String getOrderNumber() {
+        return orderNumber;
+    }
+
+    /**
+     * 设置读取订货号时反馈的订货号，最多20个字符
+     * @param orderNumber 订货号
+     */
+    public void setOrderNumber(String orderNumber) {
+        this.orderNumber = orderNumber;
+    }
+
+    /**
+     * 获取数据的变换规则，和SiemensS7Net一致
+     * @return 变换规则
+     */
+    public IByteTransform getByteTransform() {
+        return byteTransform;
+    }
+
+    /**
+     * 读取原始的字节数据，地址格式为I100，Q100，M100，DB1.100，T100，C100
+     * @param address 起始地址
+     * @param length 字节长度
+     * @return 数据
+     */
+    public OperateResultExOne<byte[]> Read(String address, short length) {
+        OperateResultExThree<Byte, Integer, Integer> analysis = SiemensS7Net.AnalysisAddress(address);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+        SoftBuffer buffer = GetAreaBuffer(analysis.Content1, analysis.Content3);
+        int index = analysis.Content2 / 8;
+        if (buffer == null) return new OperateResultExOne<>(StringResources.Language.NotSupportedDataType());
+        if (length < 0 || index + length > AreaSize)
+            return new OperateResultExOne<>(StringResources.Language.SiemensReadError() + ReturnAddressOutOfRange);
+
+        return OperateResultExOne.CreateSuccessResult(buffer.GetBytes(index, length));
+    }
+
+    /**
+     * 读取一个位，地址格式为I100.0，M100.1，DB1.100.2
+     * @param address 地址
+     * @return bool值
+     */
+    public OperateResultExOne<Boolean> ReadBool(String address) {
+        OperateResultExThree<Byte, Integer, Integer> analysis = SiemensS7Net.AnalysisAddress(address);
+        if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+        SoftBuffer buffer = GetAreaBuffer(analysis.Content1, analysis.Content3);
+        if (buffer == null) return new OperateResultExOne<>(StringResources.Language.NotSupportedDataType());
+        if (analysis.Content2 >= AreaSize * 8)
+            return new OperateResultExOne<>(StringResources.Language.SiemensReadError() + ReturnAddressOutOfRange);
+
+        return OperateResultExOne.CreateSuccessResult(buffer.GetBool(analysis.Content2));
+    }
+
+    /**
+     * 写入原始的字节数据，地址格式为I100，Q100，M100，DB1.100，T100，C100
+     * @param address 起始地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, byte[] value) {
+        OperateResultExThree<Byte, Integer, Integer> analysis = SiemensS7Net.AnalysisAddress(address);
+        if (!analysis.IsSuccess) return analysis;
+
+        SoftBuffer buffer = GetAreaBuffer(analysis.Content1, analysis.Content3);
+        int index = analysis.Content2 / 8;
+        if (buffer == null) return new OperateResult(StringResources.Language.NotSupportedDataType());
+        if (index + value.length > AreaSize)
+            return new OperateResult(StringResources.Language.SiemensWriteError() + ReturnAddressOutOfRange);
+
+        buffer.SetBytes(value, index);
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入一个位，地址格式为I100.0，M100.1，DB1.100.2
+     * @param address 地址
+     * @param value bool值
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, boolean value) {
+        OperateResultExThree<Byte, Integer, Integer> analysis = SiemensS7Net.AnalysisAddress(address);
+        if (!analysis.IsSuccess) return analysis;
+
+        SoftBuffer buffer = GetAreaBuffer(analysis.Content1, analysis.Content3);
+        if (buffer == null) return new OperateResult(StringResources.Language.NotSupportedDataType());
+        if (analysis.Content2 >= AreaSize * 8)
+            return new OperateResult(StringResources.Language.SiemensWriteError() + ReturnAddressOutOfRange);
+
+        buffer.SetBool(value, analysis.Content2);
+        return OperateResult.CreateSuccessResult();
+    }
+
+    /**
+     * 写入一个short数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, short value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个int数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, int value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+    /**
+     * 写入一个float数据
+     * @param address 地址
+     * @param value 数据
+     * @return 是否写入成功
+     */
+    public OperateResult Write(String address, float value) {
+        return Write(address, byteTransform.TransByte(value));
+    }
+
+
+    /**
+     * 处理一个S7协议的请求，包括COTP的连接请求，通信参数的协商，读写数据及读取订货号
+     * @param session 客户端的会话
+     * @param request 完整的请求报文
+     * @return 反馈的报文
+     */
+    @Override
+    protected byte[] ProcessRequest(NioServerSession session, byte[] request) {
+        if (request.length < 7) return null;
+        if (request[5] == (byte) 0xE0) return ConnectConfirm(request);
+        if (request[5] != (byte) 0xF0 || request.length < 19 || request[7] != 0x32) return null;
+
+        int pdu = GetSessionPduLength(session);
+        if (request.length - 7 > pdu) return ErrorResponse(request, PduSizeError);
+        if (request[8] == 0x07) return UserDataResponse(request);
+        if (request[8] != 0x01) return ErrorResponse(request, FunctionNotSupport);
+
+        switch (request[17]) {
+            case (byte) 0xF0: return SetupResponse(session, request);
+            case 0x04: return ReadResponse(request, pdu);
+            case 0x05: return WriteResponse(request);
+            default: return ErrorResponse(request, FunctionNotSupport);
+        }
+    }
+
+
+    private byte[] ConnectConfirm(byte[] request) {
+        // 连接确认，参数和请求一致，目标引用为客户端的源引用
+        byte[] response = request.clone();
+        response[5] = (byte) 0xD0;
+        if (response.length >= 10) {
+            response[6] = request[8];
+            response[7] = request[9];
+            response[8] = 0x00;
+            response[9] = 0x01;
+        }
+        return response;
+    }
+
+    private int GetSessionPduLength(NioServerSession session) {
+        // 协商之前按照服务器支持的最大长度检查
+        Object tag = session.getTag();
+        return tag instanceof Integer ? (Integer) tag : pduLength;
+    }
+
+    private byte[] SetupResponse(NioServerSession session, byte[] request) {
+        // 和真实的PLC一样，反馈客户端请求的PDU长度和自身支持的最大长度的较小值，之后的请求按照这个长度检查
+        int pdu = pduLength;
+        if (request.length >= 25) {
+            int requested = (request[23] & 0xFF) * 256 + (request[24] & 0xFF);
+            if (requested > 0) pdu = Math.min(requested, pdu);
+        }
+        session.setTag(pdu);
+
+        byte[] response = CreateResponse(request, 0x03, 8, 0);
+        System.arraycopy(request, 17, response, 19, Math.min(6, request.length - 17));
+        response[25] = (byte) (pdu >> 8);
+        response[26] = (byte) pdu;
+        return response;
+    }
+
+    private byte[] ReadResponse(byte[] request, int pdu) {
+        int count = request[18] & 0xFF;
+        if (request.length < 19 + count * 12) return ErrorResponse(request, FunctionNotSupport);
+
+        // 先检查每个数据项并计算反馈的数据长度，失败的数据项只有4个字节，超过PDU长度时返回错误
+        byte[] codes = new byte[count];
+        int dataLength = 0;
+        for (int i = 0; i < count; i++) {
+            codes[i] = CheckReadItem(request, 19 + i * 12);
+            int itemLength = codes[i] == ReturnSuccess ? GetReadItemLength(request, 19 + i * 12) : 0;
+            dataLength += 4 + itemLength;
+            if (i < count - 1) dataLength += itemLength % 2;
+        }
+        if (14 + dataLength > pdu) return ErrorResponse(request, PduSizeError);
+
+        byte[] response = CreateResponse(request, 0x03, 2, dataLength);
+        response[19] = 0x04;
+        response[20] = (byte) count;
+        int index = 21;
+        for (int i = 0; i < count; i++) {
+            response[index] = codes[i];
+            if (codes[i] != ReturnSuccess) {
+                index += 4;
+                continue;
+            }
+
+            int offset = 19 + i * 12;
+            int itemLength = GetReadItemLength(request, offset);
+            boolean isBit = request[offset + 3] == 0x01;
+            int bitLength = isBit ? itemLength : itemLength * 8;
+            response[index + 1] = isBit ? (byte) 0x03 : (byte) 0x04;
+            response[index + 2] = (byte) (bitLength >> 8);
+            response[index + 3] = (byte) bitLength;
+            ReadItem(request, offset, response, index + 4, itemLength);
+            index += 4 + itemLength;
+            if (i < count - 1) index += itemLength % 2;
+        }
+        return response;
+    }
+
+    private byte CheckReadItem(byte[] request, int offset) {
+        if (GetAreaBuffer(request[offset + 8], GetUShort(request, offset + 6)) == null) return ReturnObjectNotExist;
+
+        int length = GetReadItemLength(request, offset);
+        int address = GetBitAddress(request, offset);
+        if (request[offset + 3] == 0x01 ? address + length > AreaSize * 8 : address / 8 + length > AreaSize) return ReturnAddressOutOfRange;
+        return ReturnSuccess;
+    }
+
+    private void ReadItem(byte[] request, int offset, byte[] response, int index, int length) {
+        SoftBuffer buffer = GetAreaBuffer(request[offset + 8], GetUShort(request, offset + 6));
+        int address = GetBitAddress(request, offset);
+        if (request[offset + 3] == 0x01) {
+            for (int i = 0; i < length; i++) response[index + i] = buffer.GetBool(address + i) ? (byte) 0x01 : (byte) 0x00;
+        }
+        else {
+            buffer.GetBytes(address / 8, response, index, length);
+        }
+    }
+
+    private byte[] WriteResponse(byte[] request) {
+        int count = request[18] & 0xFF;
+        int index = 17 + GetUShort(request, 13);
+        if (request.length < 19 + count * 12) return ErrorResponse(request, FunctionNotSupport);
+
+        byte[] response = CreateResponse(request, 0x03, 2, count);
+        response[19] = 0x05;
+        response[20] = (byte) count;
+        for (int i = 0; i < count; i++) {
+            if (index + 4 > request.length) {
+                response[21 + i] = ReturnDataTypeNotSupport;
+                continue;
+            }
+
+            // 数据的长度，位为位数，每个位占用一个字节，字节按照位计算，其他的类型为字节数
+            int transport = request[index + 1] & 0xFF;
+            int length = GetUShort(request, index + 2);
+            if (transport == 0x04) length /= 8;
+
+            response[21 + i] = index + 4 + length > request.length ? ReturnDataTypeNotSupport :
+                    WriteItem(request, 19 + i * 12, request, index + 4, length);
+            index += 4 + length;
+            if (i < count - 1) index += length % 2;
+        }
+        return response;
+    }
+
+    private byte WriteItem(byte[] request, int offset, byte[] data, int index, int length) {
+        SoftBuffer buffer = GetAreaBuffer(request[offset + 8], GetUShort(request, offset + 6));
+        if (buffer == null) return ReturnObjectNotExist;
+
+        int address = GetBitAddress(request, offset);
+        if (request[offset + 3] == 0x01) {
+            if (address + length > AreaSize * 8) return ReturnAddressOutOfRange;
+            for (int i = 0; i < length; i++) buffer.SetBool((data[index + i] & 0x01) != 0, address + i);
+        }
+        else {
+            if (address / 8 + length > AreaSize) return ReturnAddressOutOfRange;
+            buffer.SetBytes(data, index, address / 8, length);
+        }
+        return ReturnSuccess;
+    }
+
+    private byte[] UserDataResponse(byte[] request) {
+        // 只支持读取SZL 0x0011，模块的订货号
+        if (request.length < 33 || GetUShort(request, 29) != 0x0011) return ErrorResponse(request, FunctionNotSupport);
+
+        byte[] response = new byte[125];
+        response[0] = 0x03;
+        response[2] = (byte) (response.length >> 8);
+        response[3] = (byte) response.length;
+        response[4] = 0x02;
+        response[5] = (byte) 0xF0;
+        response[6] = (byte) 0x80;
+        response[7] = 0x32;
+        response[8] = 0x07;
+        response[11] = request[11];
+        response[12] = request[12];
+        response[14] = 12;
+        response[15] = 0x00;
+        response[16] = 96;
+        System.arraycopy(new byte[]{0x00, 0x01, 0x12, 0x08, 0x12, (byte) 0x84, 0x01, 0x01, 0x00, 0x00, 0x00, 0x00}, 0, response, 17, 12);
+        response[29] = (byte) 0xFF;
+        response[30] = 0x09;
+        response[32] = 92;
+        response[34] = 0x11;
+        response[38] = 28;
+        response[40] = 3;
+
+        byte[] number = Utilities.getBytes(orderNumber == null ? "" : orderNumber, "ASCII");
+        for (int i = 0; i < 3; i++) {
+            int item = 41 + i * 28;
+            response[item + 1] = i == 0 ? (byte) 0x01 : i == 1 ? (byte) 0x06 : (byte) 0x07;
+            for (int j = 0; j < 20; j++) response[item + 2 + j] = j < number.length ? number[j] : (byte) 0x20;
+        }
+        return response;
+    }
+
+    private byte[] ErrorResponse(byte[] request, int error) {
+        // 不带数据的应答，错误类别及错误码
+        byte[] response = CreateResponse(request, 0x02, 0, 0);
+        response[17] = (byte) (error >> 8);
+        response[18] = (byte) error;
+        return response;
+    }
+
+    private static byte[] CreateResponse(byte[] request, int rosctr, int parameterLength, int dataLength) {
+        byte[] response = new byte[19 + parameterLength + dataLength];
+        response[0] = 0x03;
+        response[2] = (byte) (response.length >> 8);
+        response[3] = (byte) response.length;
+        response[4] = 0x02;
+        response[5] = (byte) 0xF0;
+        response[6] = (byte) 0x80;
+        response[7] = 0x32;
+        response[8] = (byte) rosctr;
+        response[11] = request[11];
+        response[12] = request[12];
+        response[13] = (byte) (parameterLength >> 8);
+        response[14] = (byte) parameterLength;
+        response[15] = (byte) (dataLength >> 8);
+        response[16] = (byte) dataLength;
+        return response;
+    }
+
+    private static int GetReadItemLength(byte[] request, int offset) {
+        // 反馈的字节数，按照传输类型计算，位读取时每个位占用一个字节
+        int count = GetUShort(request, offset + 4);
+        switch (request[offset + 3]) {
+            case 0x04: case 0x05: case 0x1C: case 0x1D: return count * 2;
+            case 0x06: case 0x07: case 0x08: return count * 4;
+            default: return count;
+        }
+    }
+
+    private static int GetBitAddress(byte[] request, int offset) {
+        return ((request[offset + 9] & 0xFF) << 16) | ((request[offset + 10] & 0xFF) << 8) | (request[offset + 11] & 0xFF);
+    }
+
+    private static int GetUShort(byte[] buffer, int index) {
+        return ((buffer[index] & 0xFF) << 8) | (buffer[index + 1] & 0xFF);
+    }
+
+    private SoftBuffer GetAreaBuffer(byte area, int db) {
+        int key;
+        switch (area) {
+            case (byte) 0x81: case (byte) 0x82: case (byte) 0x83: case 0x1C: case 0x1D: key = (area & 0xFF) << 16; break;
+            case (byte) 0x84: key = 0x840000 | db; break;
+            default: return null;
+        }
+
+        SoftBuffer buffer = areas.get(key);
+        if (buffer == null) {
+            SoftBuffer create = new SoftBuffer(AreaSize);
+            buffer = areas.putIfAbsent(key, create);
+            if (buffer == null) buffer = create;
+        }
+        return buffer;
+    }
+
+
+    @Override
+    public String toString() {
+        return "SiemensS7Server[" + getPort() + "]";
+    }
+
+
+    private ConcurrentHashMap<Integer, SoftBuffer> areas = new ConcurrentHashMap<>();      // 每个区域及DB块的数据
+    private IByteTransform byteTransform = null;                                           // 数据的变换规则
+    private volatile int pduLength = 240;                                                  // 服务器支持的最大PDU长度
+    private volatile String orderNumber = "6ES7 215-1AG40-0XB0 ";                          // 订货号
+
+    private static final int AreaSize = 65536;                                             // 每个区域及DB块的字节数
+    private static final byte ReturnSuccess = (byte) 0xFF;                                 // 数据项读写成功
+    private static final byte ReturnAddressOutOfRange = 0x05;                              // 地址越界
+    private static final byte ReturnDataTypeNotSupport = 0x06;                             // 数据类型不支持
+    private static final byte ReturnObjectNotExist = 0x0A;                                 // 区域不存在
+    private static final int FunctionNotSupport = 0x8104;                                  // 不支持的功能
+    private static final int PduSizeError = 0x8500;                                       // 报文超过了PDU长度
+}
@@ -0,0 +1,59 @@
+package HslCommunication.Profinet.Siemens;
+
+/**
+ * 西门子批量写入的一个数据项，可以是按照字节写入，也可以是写入一个位
+ */
+public class SiemensWriteItem {
+
+    /**
+     * 实例化一个按照字节写入的数据项
+     * @param address 起始地址，格式为I100，M100，Q100，DB20.100
+     * @param value 写入的字节数据
+     */
+    public SiemensWriteItem(String address, byte[] value) {
+        this.address = address;
+        this.value = value == null ? new byte[0] : value;
+        this.isBit = false;
+    }
+
+    /**
+     * 实例化一个写入位的数据项
+     * @param address 位地址，格式为M100.6，DB20.100.0
+     * @param value 写入的位数据
+     */
+    public SiemensWriteItem(String address, boolean value) {
+        this.address = address;
+        this.value = new byte[]{value ? (byte) 0x01 : (byte) 0x00};
+        this.isBit = true;
+    }
+
+
+    /**
+     * 获取写入的地址
+     * @return 地址
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * 获取写入的数据，位写入时为一个字节的0或1
+     * @return 数据
+     */
+    public byte[] getValue() {
+        return value;
+    }
+
+    /**
+     * 获取是否是写入位
+     * @return 是否位写入
+     */
+    public boolean isBit() {
+        return isBit;
+    }
+
+
+    private String address = "";
+    private byte[] value = null;
+    private boolean isBit = false;
+}
@@ -174,9 +174,7 @@ public class Utilities {
      * @return double值
      */
     public static double getDouble(byte[] bytes,int index) {
-        long l = getLong(bytes, index);
-        System.out.println(l);
-        return Double.longBitsToDouble(l);
+        return Double.longBitsToDouble(getLong(bytes, index));
     }
 
     /**
@@ -0,0 +1,139 @@
+package HslCommunication.Core.Net.NetworkBase;
+
+import HslCommunication.Core.Net.Nio.NioEventLoopGroup;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.ModBus.ModbusTcpNet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步读取的测试，没有事件循环组时不在调用者的线程中读取，NIO模式下并发的读取同一个区域只发送一条报文
+ */
+public class NetworkDeviceBaseAsyncTest {
+
+    @After
+    public void Close() throws IOException {
+        if (group != null) group.Shutdown();
+        if (server != null) server.close();
+    }
+
+    @Test
+    public void BlockingReadLeavesCallerThread() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread[] readThread = new Thread[1];
+        ModbusTcpNet device = new ModbusTcpNet() {
+            @Override
+            public OperateResultExOne<byte[]> Read(String address, short length) {
+                readThread[0] = Thread.currentThread();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    return new OperateResultExOne<>(ex.getMessage());
+                }
+                return OperateResultExOne.CreateSuccessResult(new byte[length * 2]);
+            }
+        };
+
+        // 同步的读取阻塞时异步的方法立即返回
+        CompletableFuture<OperateResultExOne<byte[]>> read = device.ReadAsync("0", (short) 2);
+        CompletableFuture<OperateResultExOne<Short>> value = device.ReadInt16Async("0");
+        Assert.assertFalse(read.isDone());
+        Assert.assertFalse(value.isDone());
+
+        release.countDown();
+        Assert.assertTrue(read.get(5, TimeUnit.SECONDS).IsSuccess);
+        Assert.assertTrue(value.get(5, TimeUnit.SECONDS).IsSuccess);
+        Assert.assertNotSame(Thread.currentThread(), readThread[0]);
+    }
+
+    @Test
+    public void NioReadsJoinTheFlight() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        StartServer(release);
+        group = new NioEventLoopGroup(1);
+        ModbusTcpNet device = new ModbusTcpNet("127.0.0.1", server.getLocalPort(), (byte) 1);
+        device.setNioEventLoopGroup(group);
+        device.setReadCoalescing(true);
+
+        // 第一个读取的反馈返回之前，被包含的地址的读取都合并到这个请求中
+        CompletableFuture<OperateResultExOne<byte[]>> first = device.ReadAsync("0", (short) 10);
+        CompletableFuture<OperateResultExOne<byte[]>> second = device.ReadAsync("2", (short) 2);
+        CompletableFuture<OperateResultExOne<byte[]>> third = device.ReadAsync("0", (short) 10);
+        Assert.assertEquals(2, device.getReadCoalescingCount());
+
+        release.countDown();
+        Assert.assertArrayEquals(Registers(0, 10), first.get(5, TimeUnit.SECONDS).Content);
+        Assert.assertArrayEquals(Registers(2, 2), second.get(5, TimeUnit.SECONDS).Content);
+        Assert.assertArrayEquals(Registers(0, 10), third.get(5, TimeUnit.SECONDS).Content);
+        Assert.assertEquals(1, requestCount.get());
+
+        // 请求完成之后的读取重新发送报文
+        Assert.assertArrayEquals(Registers(4, 1), device.ReadAsync("4", (short) 1).get(5, TimeUnit.SECONDS).Content);
+        Assert.assertEquals(2, requestCount.get());
+    }
+
+
+    private void StartServer(final CountDownLatch release) throws IOException {
+        // 按照Modbus-Tcp协议反馈寄存器的数据，每个寄存器的值为其地址，收到释放的信号之前不反馈
+        server = new ServerSocket(0);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try (Socket socket = server.accept()) {
+                    DataInputStream input = new DataInputStream(socket.getInputStream());
+                    OutputStream output = socket.getOutputStream();
+                    while (true) {
+                        byte[] request = new byte[12];
+                        input.readFully(request);
+                        requestCount.incrementAndGet();
+                        release.await();
+
+                        int start = ((request[8] & 0xFF) << 8) | (request[9] & 0xFF);
+                        int count = ((request[10] & 0xFF) << 8) | (request[11] & 0xFF);
+                        byte[] data = Registers(start, count);
+                        byte[] response = new byte[9 + data.length];
+                        System.arraycopy(request, 0, response, 0, 4);
+                        response[4] = (byte) ((3 + data.length) >> 8);
+                        response[5] = (byte) (3 + data.length);
+                        response[6] = request[6];
+                        response[7] = request[7];
+                        response[8] = (byte) data.length;
+                        System.arraycopy(data, 0, response, 9, data.length);
+                        output.write(response);
+                    }
+                }
+                catch (Exception ex) {
+                    // 测试结束时关闭
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static byte[] Registers(int start, int count) {
+        byte[] buffer = new byte[count * 2];
+        for (int i = 0; i < count; i++) {
+            buffer[i * 2] = (byte) ((start + i) >> 8);
+            buffer[i * 2 + 1] = (byte) (start + i);
+        }
+        return buffer;
+    }
+
+
+    private ServerSocket server = null;
+    private NioEventLoopGroup group = null;
+    private final AtomicInteger requestCount = new AtomicInteger(0);
+}
@@ -0,0 +1,223 @@
+package HslCommunication.Core.Net.NetworkBase;
+
+import HslCommunication.Core.Types.FunctionOperate;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.ModBus.ModbusTcpNet;
+import HslCommunication.ModBus.ModbusTcpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接池的测试，创建连接失败时归还许可，空闲的连接被定时关闭，并发取出的连接数量不超过上限，握手依次进行
+ */
+public class NetworkSocketPoolTest {
+
+    @Before
+    public void Start() throws IOException {
+        listener = new ServerSocket(0);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (true) accepted.add(listener.accept());
+                }
+                catch (IOException ex) {
+                    // 测试结束时关闭
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @After
+    public void Close() throws IOException {
+        listener.close();
+        for (Socket socket : new ArrayList<>(accepted)) socket.close();
+    }
+
+    @Test
+    public void FailedConnectReleasesPermit() {
+        final AtomicInteger attempts = new AtomicInteger(0);
+        NetworkSocketPool pool = new NetworkSocketPool(1, new FunctionOperate<OperateResultExOne<Socket>>() {
+            @Override
+            public OperateResultExOne<Socket> Action() {
+                int attempt = attempts.incrementAndGet();
+                if (attempt == 1) return new OperateResultExOne<>("refused");
+                if (attempt == 2) throw new IllegalStateException("handshake");
+                return Connect();
+            }
+        });
+
+        // 只有一个许可，失败及抛出异常时没有归还许可的话第三次获取会超时
+        Assert.assertFalse(pool.Acquire(100).IsSuccess);
+        try {
+            pool.Acquire(100);
+            Assert.fail();
+        }
+        catch (IllegalStateException ex) {
+            Assert.assertEquals("handshake", ex.getMessage());
+        }
+        OperateResultExOne<NetworkSocketPool.PooledSocket> acquire = pool.Acquire(100);
+        Assert.assertTrue(acquire.Message, acquire.IsSuccess);
+
+        // 许可被占用时等待超时
+        Assert.assertFalse(pool.Acquire(100).IsSuccess);
+        pool.Release(acquire.Content, false);
+        Assert.assertTrue(pool.Acquire(100).IsSuccess);
+        Assert.assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void EvictTimerClosesIdleSockets() throws InterruptedException {
+        NetworkSocketPool pool = new NetworkSocketPool(2, new FunctionOperate<OperateResultExOne<Socket>>() {
+            @Override
+            public OperateResultExOne<Socket> Action() {
+                return Connect();
+            }
+        });
+        pool.setIdleTimeOut(100);
+
+        OperateResultExOne<NetworkSocketPool.PooledSocket> first = pool.Acquire(1000);
+        OperateResultExOne<NetworkSocketPool.PooledSocket> second = pool.Acquire(1000);
+        pool.Release(first.Content, false);
+        pool.Release(second.Content, false);
+        Assert.assertEquals(2, pool.getIdleConnections());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getIdleConnections() > 0) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(first.Content.getSocket().isClosed());
+        Assert.assertTrue(second.Content.getSocket().isClosed());
+    }
+
+    @Test
+    public void ConcurrentBorrowersShareTheLimit() throws InterruptedException {
+        final AtomicInteger created = new AtomicInteger(0);
+        final NetworkSocketPool pool = new NetworkSocketPool(2, new FunctionOperate<OperateResultExOne<Socket>>() {
+            @Override
+            public OperateResultExOne<Socket> Action() {
+                created.incrementAndGet();
+                return Connect();
+            }
+        });
+
+        final AtomicInteger inUse = new AtomicInteger(0);
+        final AtomicInteger maxInUse = new AtomicInteger(0);
+        final AtomicInteger failed = new AtomicInteger(0);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 20; j++) {
+                        OperateResultExOne<NetworkSocketPool.PooledSocket> acquire = pool.Acquire(5000);
+                        if (!acquire.IsSuccess) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        int count = inUse.incrementAndGet();
+                        synchronized (maxInUse) {
+                            if (count > maxInUse.get()) maxInUse.set(count);
+                        }
+                        Thread.yield();
+                        inUse.decrementAndGet();
+                        pool.Release(acquire.Content, false);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        // 所有的请求都成功，同时使用的连接不超过2个，并且连接被重复使用
+        Assert.assertEquals(0, failed.get());
+        Assert.assertTrue(maxInUse.get() <= 2);
+        Assert.assertTrue(created.get() <= 2);
+        Assert.assertTrue(pool.getIdleConnections() <= 2);
+    }
+
+    @Test
+    public void HandshakesDoNotOverlap() throws InterruptedException {
+        ModbusTcpServer server = new ModbusTcpServer();
+        Assert.assertTrue(server.ServerStart(0).IsSuccess);
+        final AtomicInteger handshaking = new AtomicInteger(0);
+        final AtomicInteger overlapped = new AtomicInteger(0);
+        final AtomicInteger handshakes = new AtomicInteger(0);
+        final ModbusTcpNet device = new ModbusTcpNet("127.0.0.1", server.getPort(), (byte) 1) {
+            @Override
+            protected OperateResult InitializationOnConnect(Socket socket) {
+                if (handshaking.incrementAndGet() > 1) overlapped.incrementAndGet();
+                try {
+                    Thread.sleep(20);
+                }
+                catch (InterruptedException ex) {
+                    return new OperateResult(ex.getMessage());
+                }
+                handshakes.incrementAndGet();
+                handshaking.decrementAndGet();
+                return OperateResult.CreateSuccessResult();
+            }
+        };
+        device.setConnectionPoolSize(4);
+
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicInteger failed = new AtomicInteger(0);
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        }
+                        catch (InterruptedException ex) {
+                            return;
+                        }
+                        if (!device.ReadInt16("0").IsSuccess) failed.incrementAndGet();
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread thread : threads) thread.join();
+
+            Assert.assertEquals(0, failed.get());
+            Assert.assertTrue(handshakes.get() >= 1);
+            Assert.assertEquals(0, overlapped.get());
+        }
+        finally {
+            device.ConnectClose();
+            server.ServerClose();
+        }
+    }
+
+
+    private OperateResultExOne<Socket> Connect() {
+        try {
+            return OperateResultExOne.CreateSuccessResult(new Socket("127.0.0.1", listener.getLocalPort()));
+        }
+        catch (IOException ex) {
+            return new OperateResultExOne<>(ex.getMessage());
+        }
+    }
+
+
+    private ServerSocket listener = null;
+    private final List<Socket> accepted = Collections.synchronizedList(new ArrayList<Socket>());
+}
@@ -0,0 +1,38 @@
+package HslCommunication.Core.Net.Nio;
+
+import HslCommunication.ModBus.ModbusTcpServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * NIO服务器的测试，重复启动时返回成功，不再创建新的事件循环组
+ */
+public class NioServerTest {
+
+    @Test
+    public void StartTwiceKeepsOneGroup() {
+        ModbusTcpServer server = new ModbusTcpServer();
+        try {
+            Assert.assertTrue(server.ServerStart(0).IsSuccess);
+            int port = server.getPort();
+            int loops = LoopThreads();
+
+            Assert.assertTrue(server.ServerStart(0).IsSuccess);
+            Assert.assertEquals(port, server.getPort());
+            Assert.assertTrue(LoopThreads() <= loops);
+        }
+        finally {
+            server.ServerClose();
+        }
+    }
+
+
+    private static int LoopThreads() {
+        // 之前的测试关闭的事件循环可能还没有退出，数量只会减少
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().startsWith("HslNioEventLoop-")) count++;
+        }
+        return count;
+    }
+}
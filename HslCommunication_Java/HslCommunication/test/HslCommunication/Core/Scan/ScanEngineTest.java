@@ -0,0 +1,177 @@
+package HslCommunication.Core.Scan;
+
+import HslCommunication.Core.Types.ActionOperateExOne;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExThree;
+import HslCommunication.Profinet.Siemens.SiemensPLCS;
+import HslCommunication.Profinet.Siemens.SiemensS7Net;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * 扫描引擎的测试，位点位按照位索引解析，添加点位之后重新合并数据块时没有变化的点位不再通知
+ */
+public class ScanEngineTest {
+
+    @Before
+    public void Start() {
+        device = new MemoryS7Net();
+        engine = new ScanEngine(1);
+        engine.AddListener(new ActionOperateExOne<ScanTag>() {
+            @Override
+            public void Action(ScanTag content) {
+                synchronized (events) {
+                    events.add(content);
+                }
+            }
+        });
+    }
+
+    @After
+    public void Close() {
+        engine.Shutdown();
+    }
+
+    @Test
+    public void BoolTagsDecodeTheBit() throws InterruptedException {
+        device.Memory("M")[100] = 0x08;
+        device.Memory("DB1")[10] = 0x01;
+        ScanTag m3 = engine.AddTag(device, "M100.3", ScanDataType.Bool, ScanRate);
+        ScanTag m2 = engine.AddTag(device, "M100.2", ScanDataType.Bool, ScanRate);
+        ScanTag db0 = engine.AddTag(device, "DB1.10.0", ScanDataType.Bool, ScanRate);
+        ScanTag db1 = engine.AddTag(device, "DB1.10.1", ScanDataType.Bool, ScanRate);
+        engine.AddTag(device, "M102", ScanDataType.Int16, ScanRate);
+
+        engine.Start();
+        WaitScans(2);
+        Assert.assertEquals(Boolean.TRUE, m3.getValue());
+        Assert.assertEquals(Boolean.FALSE, m2.getValue());
+        Assert.assertEquals(Boolean.TRUE, db0.getValue());
+        Assert.assertEquals(Boolean.FALSE, db1.getValue());
+
+        // 位点位读取所在的字节，M区及DB1各合并为一次读取，地址中不带有位
+        Assert.assertEquals(new HashSet<>(Arrays.asList("M100", "DB1.10")), device.Addresses());
+
+        // 同一个字节的其他位变化时，值没有变化的位点位不通知
+        ClearEvents();
+        device.Memory("M")[100] = 0x0C;
+        WaitScans(2);
+        Assert.assertEquals(Boolean.TRUE, m2.getValue());
+        Assert.assertTrue(Events().contains(m2));
+        Assert.assertFalse(Events().contains(m3));
+    }
+
+    @Test
+    public void AddTagKeepsLastValues() throws InterruptedException {
+        ScanTag first = engine.AddTag(device, "M10", ScanDataType.Int16, ScanRate);
+        ScanTag second = engine.AddTag(device, "M12", ScanDataType.Int16, ScanRate);
+        engine.Start();
+        WaitScans(2);
+        Assert.assertTrue(Events().contains(first));
+        Assert.assertTrue(Events().contains(second));
+
+        // 添加点位之后数据块重新合并，原有的点位没有变化时不再通知
+        ClearEvents();
+        ScanTag third = engine.AddTag(device, "M14", ScanDataType.Int16, ScanRate);
+        WaitScans(2);
+        Assert.assertEquals(Arrays.asList(third), Events());
+
+        ClearEvents();
+        device.Memory("M")[13] = 0x05;
+        WaitScans(2);
+        Assert.assertEquals(Arrays.asList(second), Events());
+        Assert.assertEquals((short) 5, second.getValue());
+    }
+
+    @Test
+    public void SplitBitAddress() {
+        Assert.assertEquals("M100", device.AnalysisBitAddress("M100.3").Content1);
+        Assert.assertEquals(3, device.AnalysisBitAddress("M100.3").Content2.intValue());
+        Assert.assertEquals("DB1.10", device.AnalysisBitAddress("DB1.10.7").Content1);
+        Assert.assertEquals(7, device.AnalysisBitAddress("DB1.10.7").Content2.intValue());
+
+        // 没有位的地址读取第0位
+        Assert.assertEquals("DB1.10", device.AnalysisBitAddress("DB1.10").Content1);
+        Assert.assertEquals(0, device.AnalysisBitAddress("DB1.10").Content2.intValue());
+        Assert.assertFalse(device.AnalysisBitAddress("M100.8").IsSuccess);
+    }
+
+
+    private void WaitScans(int count) throws InterruptedException {
+        // 扫描完成之后才通知，等待之后的一次扫描完成
+        long target = engine.getScanCount() + count;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (engine.getScanCount() < target) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private List<ScanTag> Events() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+
+    private void ClearEvents() {
+        synchronized (events) {
+            events.clear();
+        }
+    }
+
+
+    private MemoryS7Net device = null;
+    private ScanEngine engine = null;
+    private final ArrayList<ScanTag> events = new ArrayList<>();
+
+    private static final int ScanRate = 20;
+
+
+    /**
+     * 从内存中读取数据的西门子设备，不连接PLC
+     */
+    private static class MemoryS7Net extends SiemensS7Net {
+        MemoryS7Net() {
+            super(SiemensPLCS.S1200);
+        }
+
+        @Override
+        public OperateResultExOne<byte[]> Read(String address, short length) {
+            OperateResultExThree<Byte, Integer, Integer> analysis = AnalysisAddress(address);
+            if (!analysis.IsSuccess) return OperateResultExOne.CreateFailedResult(analysis);
+
+            synchronized (addresses) {
+                addresses.add(address);
+            }
+            byte[] memory = Memory(address.startsWith("D") ? "DB" + analysis.Content3 : address.substring(0, 1));
+            int start = analysis.Content2 / 8;
+            return OperateResultExOne.CreateSuccessResult(Arrays.copyOfRange(memory, start, start + length));
+        }
+
+        synchronized byte[] Memory(String area) {
+            byte[] memory = areas.get(area);
+            if (memory == null) {
+                memory = new byte[1024];
+                areas.put(area, memory);
+            }
+            return memory;
+        }
+
+        HashSet<String> Addresses() {
+            synchronized (addresses) {
+                return new HashSet<>(addresses);
+            }
+        }
+
+        private final HashMap<String, byte[]> areas = new HashMap<>();
+        private final HashSet<String> addresses = new HashSet<>();
+    }
+}
@@ -0,0 +1,120 @@
+package HslCommunication.Core.Transfer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 字节变换的测试，四种数据格式下int，float，long，double的报文字节顺序，以及生成之后按照返回新数组和写入指定数组两种方式解析的往返结果
+ */
+public class ByteTransformTest {
+
+    @Test
+    public void Int32WireOrder() {
+        // 0x01020304按照ABCD为01 02 03 04，其余格式为字节或字的交换
+        AssertInt32(DataFormat.ABCD, 0x01, 0x02, 0x03, 0x04);
+        AssertInt32(DataFormat.BADC, 0x02, 0x01, 0x04, 0x03);
+        AssertInt32(DataFormat.CDAB, 0x03, 0x04, 0x01, 0x02);
+        AssertInt32(DataFormat.DCBA, 0x04, 0x03, 0x02, 0x01);
+    }
+
+    @Test
+    public void Int64WireOrder() {
+        AssertInt64(DataFormat.ABCD, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08);
+        AssertInt64(DataFormat.BADC, 0x02, 0x01, 0x04, 0x03, 0x06, 0x05, 0x08, 0x07);
+        AssertInt64(DataFormat.CDAB, 0x07, 0x08, 0x05, 0x06, 0x03, 0x04, 0x01, 0x02);
+        AssertInt64(DataFormat.DCBA, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01);
+    }
+
+    @Test
+    public void ArraysRoundTrip() {
+        // 三种变换类的每种格式，从不对齐的位置开始解析，写入数组的偏移位置，结果和逐个解析的一致
+        int[] ints = new int[]{0x01020304, -1, Integer.MIN_VALUE, 0x7F00FF80, 0};
+        long[] longs = new long[]{0x0102030405060708L, -1L, Long.MIN_VALUE, 0x7F00FF8012345678L, 0L};
+        float[] floats = new float[]{1.5f, -0.0f, Float.MAX_VALUE, Float.MIN_VALUE, Float.intBitsToFloat(0x01020304)};
+        double[] doubles = new double[]{1.5d, -0.0d, Double.MAX_VALUE, Double.MIN_VALUE, Double.longBitsToDouble(0x0102030405060708L)};
+
+        for (ByteTransformBase transform : new ByteTransformBase[]{new RegularByteTransform(), new ReverseWordTransform(), new ReverseBytesTransform()}) {
+            for (DataFormat format : DataFormat.values()) {
+                transform.setDataFormat(format);
+                String name = transform.getClass().getSimpleName() + " " + format;
+
+                byte[] buffer = Shift(transform.TransByte(ints), 3);
+                Assert.assertArrayEquals(name, ints, transform.TransInt32(buffer, 3, ints.length));
+                int[] intValues = new int[ints.length + 2];
+                transform.TransInt32(buffer, 3, intValues, 2, ints.length);
+                for (int i = 0; i < ints.length; i++) {
+                    Assert.assertEquals(name, ints[i], intValues[i + 2]);
+                    Assert.assertEquals(name, ints[i], transform.TransInt32(buffer, 3 + i * 4));
+                }
+
+                buffer = Shift(transform.TransByte(longs), 5);
+                Assert.assertArrayEquals(name, longs, transform.TransInt64(buffer, 5, longs.length));
+                long[] longValues = new long[longs.length + 1];
+                transform.TransInt64(buffer, 5, longValues, 1, longs.length);
+                for (int i = 0; i < longs.length; i++) {
+                    Assert.assertEquals(name, longs[i], longValues[i + 1]);
+                    Assert.assertEquals(name, longs[i], transform.TransInt64(buffer, 5 + i * 8));
+                }
+
+                buffer = Shift(transform.TransByte(floats), 1);
+                Assert.assertArrayEquals(name, floats, transform.TransSingle(buffer, 1, floats.length), 0f);
+                float[] floatValues = new float[floats.length + 3];
+                transform.TransSingle(buffer, 1, floatValues, 3, floats.length);
+                for (int i = 0; i < floats.length; i++) {
+                    Assert.assertEquals(name, Float.floatToIntBits(floats[i]), Float.floatToIntBits(floatValues[i + 3]));
+                    Assert.assertEquals(name, Float.floatToIntBits(floats[i]), Float.floatToIntBits(transform.TransSingle(buffer, 1 + i * 4)));
+                }
+
+                buffer = Shift(transform.TransByte(doubles), 7);
+                Assert.assertArrayEquals(name, doubles, transform.TransDouble(buffer, 7, doubles.length), 0d);
+                double[] doubleValues = new double[doubles.length + 1];
+                transform.TransDouble(buffer, 7, doubleValues, 1, doubles.length);
+                for (int i = 0; i < doubles.length; i++) {
+                    Assert.assertEquals(name, Double.doubleToLongBits(doubles[i]), Double.doubleToLongBits(doubleValues[i + 1]));
+                    Assert.assertEquals(name, Double.doubleToLongBits(doubles[i]), Double.doubleToLongBits(transform.TransDouble(buffer, 7 + i * 8)));
+                }
+            }
+        }
+    }
+
+
+    private static void AssertInt32(DataFormat format, int... wire) {
+        RegularByteTransform transform = new RegularByteTransform();
+        transform.setDataFormat(format);
+        byte[] expect = Bytes(wire);
+
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(0x01020304));
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(new int[]{0x01020304}));
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(Float.intBitsToFloat(0x01020304)));
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(new float[]{Float.intBitsToFloat(0x01020304)}));
+        Assert.assertEquals(format.toString(), 0x01020304, transform.TransInt32(expect, 0));
+        Assert.assertEquals(format.toString(), 0x01020304, Float.floatToIntBits(transform.TransSingle(expect, 0)));
+    }
+
+    private static void AssertInt64(DataFormat format, int... wire) {
+        RegularByteTransform transform = new RegularByteTransform();
+        transform.setDataFormat(format);
+        byte[] expect = Bytes(wire);
+        long value = 0x0102030405060708L;
+
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(value));
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(new long[]{value}));
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(Double.longBitsToDouble(value)));
+        Assert.assertArrayEquals(format.toString(), expect, transform.TransByte(new double[]{Double.longBitsToDouble(value)}));
+        Assert.assertEquals(format.toString(), value, transform.TransInt64(expect, 0));
+        Assert.assertEquals(format.toString(), value, Double.doubleToLongBits(transform.TransDouble(expect, 0)));
+    }
+
+    private static byte[] Shift(byte[] data, int index) {
+        // 数据放在缓存中不对齐的位置
+        byte[] buffer = new byte[index + data.length + 1];
+        System.arraycopy(data, 0, buffer, index, data.length);
+        return buffer;
+    }
+
+    private static byte[] Bytes(int... values) {
+        byte[] buffer = new byte[values.length];
+        for (int i = 0; i < values.length; i++) buffer[i] = (byte) values[i];
+        return buffer;
+    }
+}
@@ -0,0 +1,85 @@
+package HslCommunication.ModBus;
+
+import HslCommunication.Core.Net.NetworkBase.DeviceReadCache;
+import HslCommunication.Core.Types.OperateResultExOne;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Modbus-Tcp客户端读取缓存的测试，线圈按位读取，不能和寄存器一样按照字拆分缓存
+ */
+public class ModbusTcpNetTest {
+
+    @Before
+    public void Start() {
+        server = new ModbusTcpServer();
+        Assert.assertTrue(server.ServerStart(0).IsSuccess);
+        client = new ModbusTcpNet("127.0.0.1", server.getPort(), (byte) 1);
+        new DeviceReadCache(client, 60000);
+    }
+
+    @After
+    public void Close() {
+        client.ConnectClose();
+        server.ServerClose();
+    }
+
+    @Test
+    public void CoilAreaIsNotSplit() {
+        Assert.assertFalse(client.AnalysisAddressOffset("x=1;100").IsSuccess);
+        Assert.assertFalse(client.AnalysisAddressOffset("x=2;100").IsSuccess);
+        Assert.assertFalse(client.AnalysisAddressOffset("x=5;100").IsSuccess);
+        Assert.assertFalse(client.AnalysisAddressOffset("x=15;100").IsSuccess);
+        Assert.assertEquals("s=1;x=3", client.AnalysisAddressOffset("x=16;100").Content1);
+    }
+
+    @Test
+    public void ReadCoilsThroughCache() {
+        boolean[] coils = new boolean[16];
+        coils[3] = true;
+        coils[12] = true;
+        server.WriteCoil("0", coils);
+
+        // 16个线圈反馈2个字节，之后读取其中的一段得到的是实际的位，不是按照寄存器拆分的字节
+        OperateResultExOne<byte[]> read = client.Read("x=1;0", (short) 16);
+        Assert.assertTrue(read.Message, read.IsSuccess);
+        Assert.assertArrayEquals(new byte[]{0x08, 0x10}, read.Content);
+
+        read = client.Read("x=1;0", (short) 1);
+        Assert.assertTrue(read.Message, read.IsSuccess);
+        Assert.assertArrayEquals(new byte[]{0x00}, read.Content);
+
+        OperateResultExOne<boolean[]> part = client.ReadCoil("8", (short) 8);
+        Assert.assertTrue(part.Message, part.IsSuccess);
+        Assert.assertArrayEquals(new boolean[]{false, false, false, false, true, false, false, false}, part.Content);
+
+        // 服务器的线圈变化之后客户端读取到新的值
+        server.WriteCoil("3", false);
+        read = client.Read("x=1;0", (short) 16);
+        Assert.assertArrayEquals(new byte[]{0x00, 0x10}, read.Content);
+
+        // 客户端写入线圈之后读取到新的值
+        Assert.assertTrue(client.WriteCoil("0", true).IsSuccess);
+        Assert.assertTrue(client.ReadCoil("0").Content);
+    }
+
+    @Test
+    public void CoilWriteInvalidatesRegisterCache() {
+        server.Write("0", (short) 1);
+        Assert.assertEquals(1, client.ReadInt16("0").Content.shortValue());
+
+        // 寄存器的数据缓存之后不再访问服务器
+        server.Write("0", (short) 2);
+        Assert.assertEquals(1, client.ReadInt16("0").Content.shortValue());
+
+        // 线圈的区域不能拆分，写入线圈使整个缓存失效
+        Assert.assertTrue(client.WriteCoil("0", true).IsSuccess);
+        Assert.assertEquals(2, client.ReadInt16("0").Content.shortValue());
+    }
+
+
+    private ModbusTcpServer server = null;
+    private ModbusTcpNet client = null;
+}
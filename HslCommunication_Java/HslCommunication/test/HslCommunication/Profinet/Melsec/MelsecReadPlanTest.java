@@ -0,0 +1,202 @@
+package HslCommunication.Profinet.Melsec;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 三菱MC读取计划的测试，位软元件按16点一个字对齐合并，随机读取(0403)的字及双字分开排列，
+ * 随机读取最多192点，多块读取(0406)最多120块及960点
+ */
+public class MelsecReadPlanTest {
+
+    @Test
+    public void BitDevicesMergeOnWordBoundary() {
+        // M0和M16相差一个字，合并为两个字的数据块按双字读取，M0和M8不在字的边界上，分别按字读取
+        MelsecReadPlan aligned = Plan(Tags(MelsecMcDataType.M, 0, MelsecMcDataType.M, 16), new short[]{1, 1});
+        Assert.assertEquals(0, aligned.getWordCount(0));
+        Assert.assertEquals(1, aligned.getDwordCount(0));
+
+        OperateResultExTwo<MelsecMcDataType, Integer>[] address = Tags(MelsecMcDataType.M, 0, MelsecMcDataType.M, 8);
+        short[] length = new short[]{1, 1};
+        MelsecReadPlan plan = Plan(address, length);
+        Assert.assertEquals(2, plan.getWordCount(0));
+        Assert.assertEquals(0, plan.getDwordCount(0));
+        Assert.assertEquals(0, Device(plan.getCommands()[0], 0));
+        Assert.assertEquals(8, Device(plan.getCommands()[0], 1));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void RandomReadPutsWordsFirst() {
+        // M32及D500按双字读取，D100及D300按字读取，报文中先列出所有的字，再列出所有的双字，反馈的数据顺序相同
+        OperateResultExTwo<MelsecMcDataType, Integer>[] address = Tags(
+                MelsecMcDataType.D, 500, MelsecMcDataType.D, 100, MelsecMcDataType.M, 32, MelsecMcDataType.D, 300);
+        short[] length = new short[]{2, 1, 2, 1};
+
+        MelsecReadPlan plan = Plan(address, length);
+        byte[] command = plan.getCommands()[0];
+        Assert.assertEquals(1, plan.getCommands().length);
+        Assert.assertEquals(2, plan.getWordCount(0));
+        Assert.assertEquals(2, plan.getDwordCount(0));
+        Assert.assertEquals(2, command[4]);
+        Assert.assertEquals(2, command[5]);
+        Assert.assertArrayEquals(new int[]{100, 300, 32, 500},
+                new int[]{Device(command, 0), Device(command, 1), Device(command, 2), Device(command, 3)});
+        Assert.assertEquals(MelsecMcDataType.M.getDataCode(), command[6 + 2 * 4 + 3]);
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void RandomReadStopsAt192Points() {
+        // 双字也只占一个访问点，100个字及100个双字共200点，分为192及8
+        OperateResultExTwo<MelsecMcDataType, Integer>[] address = new OperateResultExTwo[200];
+        short[] length = new short[200];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = Tag(MelsecMcDataType.D, i * 10);
+            length[i] = (short) (i % 2 + 1);
+        }
+
+        MelsecReadPlan plan = Plan(address, length);
+        Assert.assertEquals(2, plan.getCommands().length);
+        Assert.assertEquals(192, plan.getWordCount(0) + plan.getDwordCount(0));
+        Assert.assertEquals(8, plan.getWordCount(1) + plan.getDwordCount(1));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void MultiBlockStopsAt120Blocks() {
+        // 121个3字的数据块，点数只有363，块数超过120
+        OperateResultExTwo<MelsecMcDataType, Integer>[] address = new OperateResultExTwo[121];
+        short[] length = new short[121];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = Tag(MelsecMcDataType.D, i * 10);
+            length[i] = 3;
+        }
+
+        MelsecReadPlan plan = Plan(address, length);
+        Assert.assertEquals(2, plan.getCommands().length);
+        Assert.assertEquals(120, plan.getCommands()[0][4]);
+        Assert.assertEquals(1, plan.getCommands()[1][4]);
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void MultiBlockStopsAt960Points() {
+        // 1000字的数据块拆分为960及40，三个400字的数据块装入两个之后为800点，第三个超出960点，40点装入第二条报文的空余位置
+        OperateResultExTwo<MelsecMcDataType, Integer>[] address = Tags(
+                MelsecMcDataType.D, 0, MelsecMcDataType.D, 1000, MelsecMcDataType.D, 2000, MelsecMcDataType.D, 5000);
+        short[] length = new short[]{400, 400, 400, 1000};
+
+        MelsecReadPlan plan = Plan(address, length);
+        Assert.assertEquals(3, plan.getCommands().length);
+        Assert.assertEquals(960, Points(plan.getCommands()[0]));
+        Assert.assertEquals(840, Points(plan.getCommands()[1]));
+        Assert.assertEquals(400, Points(plan.getCommands()[2]));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void AsciiCommands() {
+        // ASCII格式的点数及长度为十六进制的字符，十进制的软元件的地址为6位十进制的字符
+        OperateResultExOne<MelsecReadPlan> random = MelsecReadPlan.Create(
+                Tags(MelsecMcDataType.D, 300, MelsecMcDataType.M, 16), new short[]{1, 2}, true, 0);
+        Assert.assertTrue(random.Message, random.IsSuccess);
+        Assert.assertEquals("040300000101D*000300M*000016", new String(random.Content.getCommands()[0]));
+
+        OperateResultExOne<MelsecReadPlan> block = MelsecReadPlan.Create(
+                Tags(MelsecMcDataType.M, 32, MelsecMcDataType.D, 0), new short[]{3, 20}, true, 0);
+        Assert.assertTrue(block.Message, block.IsSuccess);
+        Assert.assertEquals("040600000101D*0000000014M*0000320003", new String(block.Content.getCommands()[0]));
+    }
+
+    @Test
+    public void ScatterRejectsShortData() {
+        MelsecReadPlan plan = Plan(Tags(MelsecMcDataType.D, 0), new short[]{10});
+
+        Assert.assertFalse(plan.Scatter(new byte[][]{new byte[19]}).IsSuccess);
+        Assert.assertFalse(plan.Scatter(new byte[0][]).IsSuccess);
+    }
+
+
+    private static MelsecReadPlan Plan(OperateResultExTwo<MelsecMcDataType, Integer>[] address, short[] length) {
+        OperateResultExOne<MelsecReadPlan> create = MelsecReadPlan.Create(address, length, false, 0);
+        Assert.assertTrue(create.Message, create.IsSuccess);
+        return create.Content;
+    }
+
+    private static void AssertScatter(MelsecReadPlan plan, OperateResultExTwo<MelsecMcDataType, Integer>[] address, short[] length) {
+        byte[][] data = new byte[plan.getCommands().length][];
+        for (int i = 0; i < data.length; i++) data[i] = Answer(plan.getCommands()[i]);
+
+        OperateResultExOne<byte[][]> scatter = plan.Scatter(data);
+        Assert.assertTrue(scatter.Message, scatter.IsSuccess);
+        for (int i = 0; i < address.length; i++) {
+            byte[] expect = new byte[length[i] * 2];
+            Fill(expect, 0, address[i].Content1.getDataCode(), address[i].Content2, length[i]);
+            Assert.assertArrayEquals(expect, scatter.Content[i]);
+        }
+    }
+
+    private static byte[] Answer(byte[] command) {
+        // 模拟PLC的反馈，随机读取每一项为一个字或双字，多块读取每一项为块的长度
+        boolean isRandom = command[0] == 0x03;
+        int first = command[4] & 0xFF;
+        int count = first + (command[5] & 0xFF);
+        int[] words = new int[count];
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            words[i] = isRandom ? (i < first ? 1 : 2) : BlockLength(command, i);
+            total += words[i];
+        }
+
+        byte[] data = new byte[total * 2];
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            int entry = 6 + i * (isRandom ? 4 : 6);
+            Fill(data, index, command[entry + 3], Device(command, i), words[i]);
+            index += words[i] * 2;
+        }
+        return data;
+    }
+
+    private static void Fill(byte[] data, int index, byte code, int device, int words) {
+        // 每个字的值由软元件代码及地址决定，低位在前，位软元件的一个字为16个点
+        int unit = code == MelsecMcDataType.M.getDataCode() ? 16 : 1;
+        for (int i = 0; i < words; i++) {
+            int value = (code & 0xFF) * 131 + device + i * unit;
+            data[index + i * 2] = (byte) value;
+            data[index + i * 2 + 1] = (byte) (value >> 8);
+        }
+    }
+
+    private static int Device(byte[] command, int item) {
+        // 二进制的报文中随机读取每项4个字节，多块读取每项6个字节，起始的3个字节为地址
+        int entry = 6 + item * (command[0] == 0x03 ? 4 : 6);
+        return (command[entry] & 0xFF) | ((command[entry + 1] & 0xFF) << 8) | ((command[entry + 2] & 0xFF) << 16);
+    }
+
+    private static int BlockLength(byte[] command, int item) {
+        return (command[10 + item * 6] & 0xFF) | ((command[11 + item * 6] & 0xFF) << 8);
+    }
+
+    private static int Points(byte[] command) {
+        int points = 0;
+        for (int i = 0; i < command[4] + command[5]; i++) points += BlockLength(command, i);
+        return points;
+    }
+
+    private static OperateResultExTwo<MelsecMcDataType, Integer>[] Tags(Object... typeAndAddress) {
+        OperateResultExTwo<MelsecMcDataType, Integer>[] tags = new OperateResultExTwo[typeAndAddress.length / 2];
+        for (int i = 0; i < tags.length; i++) tags[i] = Tag((MelsecMcDataType) typeAndAddress[i * 2], (Integer) typeAndAddress[i * 2 + 1]);
+        return tags;
+    }
+
+    private static OperateResultExTwo<MelsecMcDataType, Integer> Tag(MelsecMcDataType type, int address) {
+        OperateResultExTwo<MelsecMcDataType, Integer> tag = new OperateResultExTwo<>();
+        tag.Content1 = type;
+        tag.Content2 = address;
+        return tag;
+    }
+}
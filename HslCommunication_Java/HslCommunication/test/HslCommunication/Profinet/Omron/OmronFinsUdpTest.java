@@ -0,0 +1,181 @@
+package HslCommunication.Profinet.Omron;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 欧姆龙FINS/UDP的测试，由测试线程扮演PLC，控制反馈的顺序，丢弃请求，以及反馈错误的结束码
+ */
+public class OmronFinsUdpTest {
+
+    @Before
+    public void Start() throws IOException {
+        plc = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!plc.isClosed()) {
+                    DatagramPacket packet = new DatagramPacket(new byte[4096], 4096);
+                    try {
+                        plc.receive(packet);
+                    }
+                    catch (IOException ex) {
+                        break;
+                    }
+                    requests.add(packet);
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+
+        client = new OmronFinsUdp("127.0.0.1", plc.getLocalPort());
+        client.setRetransmitTimeOut(2000);
+    }
+
+    @After
+    public void Close() {
+        client.ConnectClose();
+        plc.close();
+    }
+
+    @Test
+    public void RepliesMatchedBySid() throws Exception {
+        // D0开始的2500个字分为三条命令同时发送，反馈按照相反的顺序到达，另有SID未知及命令码不同的反馈需要丢弃
+        client.setPipelineDepth(3);
+        CompletableFuture<OperateResultExOne<byte[][]>> read = Async(new String[]{"D0"}, new short[]{2500});
+        DatagramPacket[] sent = new DatagramPacket[]{Receive(), Receive(), Receive()};
+        Assert.assertEquals(3, SidsOf(sent).length);
+
+        DatagramPacket stray = Copy(sent[0]);
+        stray.getData()[9] = (byte) (Sid(sent[0]) + Sid(sent[1]) + Sid(sent[2]));
+        Respond(stray, 0, Data(stray));
+        DatagramPacket otherCommand = Copy(sent[0]);
+        otherCommand.getData()[11] = 0x02;
+        Respond(otherCommand, 0, new byte[4]);
+        for (int i = sent.length - 1; i >= 0; i--) Respond(sent[i], 0, Data(sent[i]));
+
+        OperateResultExOne<byte[][]> result = read.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(result.Message, result.IsSuccess);
+        Assert.assertEquals(5000, result.Content[0].length);
+        for (int i = 0; i < 2500; i += 499) {
+            byte[] expect = new byte[2];
+            OmronReadPlanTest.Put(expect, 0, OmronFinsDataType.DM.getWordCode(), i);
+            Assert.assertArrayEquals(expect, Arrays.copyOfRange(result.Content[0], i * 2, i * 2 + 2));
+        }
+    }
+
+    @Test
+    public void LostRequestIsRetransmitted() throws Exception {
+        // 第一次发送没有反馈，等待超时之后以相同的SID重发
+        client.setRetransmitTimeOut(100);
+        CompletableFuture<OperateResultExOne<byte[][]>> read = Async(new String[]{"D100"}, new short[]{1});
+        DatagramPacket lost = Receive();
+        DatagramPacket again = Receive();
+        Assert.assertArrayEquals(Bytes(lost), Bytes(again));
+        Respond(again, 0, Data(again));
+
+        OperateResultExOne<byte[][]> result = read.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(result.Message, result.IsSuccess);
+        Assert.assertArrayEquals(Data(again), result.Content[0]);
+    }
+
+    @Test
+    public void RetransmitGivesUp() throws Exception {
+        client.setRetransmitTimeOut(100);
+        client.setRetransmitCount(1);
+        CompletableFuture<OperateResultExOne<byte[][]>> read = Async(new String[]{"D100"}, new short[]{1});
+        Receive();
+        Receive();
+
+        Assert.assertFalse(read.get(5, TimeUnit.SECONDS).IsSuccess);
+        Assert.assertNull(requests.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void EndCodeFailsPlanRead() throws Exception {
+        // 结束码0x0401为不支持的命令，读取失败并带有结束码；只有CPU异常的标志位时数据依然有效
+        CompletableFuture<OperateResultExOne<byte[][]>> read = Async(new String[]{"D0", "D1"}, new short[]{1, 1});
+        Respond(Receive(), 0x0401, new byte[0]);
+        OperateResultExOne<byte[][]> result = read.get(5, TimeUnit.SECONDS);
+        Assert.assertFalse(result.IsSuccess);
+        Assert.assertEquals(0x0401, result.ErrorCode);
+
+        read = Async(new String[]{"D0", "D1"}, new short[]{1, 1});
+        DatagramPacket request = Receive();
+        Respond(request, 0x0040, Data(request));
+        result = read.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(result.Message, result.IsSuccess);
+        Assert.assertEquals(2, result.Content.length);
+    }
+
+
+    private CompletableFuture<OperateResultExOne<byte[][]>> Async(final String[] address, final short[] length) {
+        return CompletableFuture.supplyAsync(new Supplier<OperateResultExOne<byte[][]>>() {
+            @Override
+            public OperateResultExOne<byte[][]> get() {
+                return client.ReadMultiple(address, length);
+            }
+        });
+    }
+
+    private DatagramPacket Receive() throws InterruptedException {
+        DatagramPacket packet = requests.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(packet);
+        return packet;
+    }
+
+    private void Respond(DatagramPacket request, int endCode, byte[] data) throws IOException {
+        // UDP的反馈为10个字节的报文头，命令码，结束码及数据，SID和请求的一致
+        byte[] response = new byte[14 + data.length];
+        System.arraycopy(request.getData(), 0, response, 0, 12);
+        response[0] = (byte) 0xC0;
+        response[12] = (byte) (endCode >> 8);
+        response[13] = (byte) endCode;
+        System.arraycopy(data, 0, response, 14, data.length);
+        plc.send(new DatagramPacket(response, response.length, request.getSocketAddress()));
+    }
+
+    private static byte[] Data(DatagramPacket request) {
+        return OmronReadPlanTest.Reply(Arrays.copyOfRange(request.getData(), 10, request.getLength()));
+    }
+
+    private static byte[] Bytes(DatagramPacket packet) {
+        return Arrays.copyOf(packet.getData(), packet.getLength());
+    }
+
+    private static DatagramPacket Copy(DatagramPacket packet) {
+        DatagramPacket copy = new DatagramPacket(Bytes(packet), packet.getLength());
+        copy.setSocketAddress(packet.getSocketAddress());
+        return copy;
+    }
+
+    private static int Sid(DatagramPacket packet) {
+        return packet.getData()[9] & 0xFF;
+    }
+
+    private static int[] SidsOf(DatagramPacket[] packets) {
+        int[] sids = new int[packets.length];
+        for (int i = 0; i < sids.length; i++) sids[i] = Sid(packets[i]);
+        return Arrays.stream(sids).distinct().toArray();
+    }
+
+
+    private DatagramSocket plc = null;
+    private OmronFinsUdp client = null;
+    private final BlockingQueue<DatagramPacket> requests = new LinkedBlockingQueue<>();
+}
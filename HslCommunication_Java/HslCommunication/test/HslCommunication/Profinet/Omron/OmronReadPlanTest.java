@@ -0,0 +1,161 @@
+package HslCommunication.Profinet.Omron;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 欧姆龙读取计划的测试，批量读取(0101)一次最多999个字，多区域读取(0104)一次最多167项，
+ * 只有能减少多区域读取的报文数量时，数据块才改为批量读取
+ */
+public class OmronReadPlanTest {
+
+    @Test
+    public void BatchReadSplitsAt999Words() {
+        // D100开始的2500个字拆分为999，999，502，每条命令的起始地址紧接上一条
+        OperateResultExTwo<OmronFinsDataType, Integer>[] address = Words(OmronFinsDataType.DM, 100, 1090);
+        short[] length = new short[]{2500, 20};
+
+        OmronReadPlan plan = Plan(address, length, 0);
+        Assert.assertEquals(3, plan.getCommands().length);
+        Assert.assertArrayEquals(new int[]{100, 999}, Batch(plan.getCommands()[0]));
+        Assert.assertArrayEquals(new int[]{1099, 999}, Batch(plan.getCommands()[1]));
+        Assert.assertArrayEquals(new int[]{2098, 502}, Batch(plan.getCommands()[2]));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void MultiAreaReadSplitsAt167Items() {
+        // 334个不相邻的字正好两条多区域读取，任何一个改为批量读取都不能减少报文数量
+        OperateResultExTwo<OmronFinsDataType, Integer>[] address = new OperateResultExTwo[334];
+        short[] length = new short[334];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = Word(i % 2 == 0 ? OmronFinsDataType.DM : OmronFinsDataType.HR, i * 3);
+            length[i] = 1;
+        }
+
+        OmronReadPlan plan = Plan(address, length, 0);
+        Assert.assertEquals(2, plan.getCommands().length);
+        Assert.assertEquals(167, MultiItems(plan.getCommands()[0]));
+        Assert.assertEquals(167, MultiItems(plan.getCommands()[1]));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void BatchReadSavesMultiAreaFrame() {
+        // 168项需要两条多区域读取，D0改为批量读取之后剩下167项，总共还是两条，但是多区域读取只有一条
+        OperateResultExTwo<OmronFinsDataType, Integer>[] address = new OperateResultExTwo[168];
+        short[] length = new short[168];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = Word(OmronFinsDataType.DM, i * 2);
+            length[i] = 1;
+        }
+
+        OmronReadPlan plan = Plan(address, length, 0);
+        Assert.assertEquals(2, plan.getCommands().length);
+        Assert.assertArrayEquals(new int[]{0, 1}, Batch(plan.getCommands()[0]));
+        Assert.assertEquals(167, MultiItems(plan.getCommands()[1]));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void MultiAreaReadsOnlyCoveredWords() {
+        // D0和D3的间隔在mergeGap之内合并为一个数据块，但是多区域读取只读取D0和D3，不读取中间的字
+        OperateResultExTwo<OmronFinsDataType, Integer>[] address = new OperateResultExTwo[]{
+                Word(OmronFinsDataType.CIO, 5), Word(OmronFinsDataType.DM, 3), Word(OmronFinsDataType.DM, 0)};
+        short[] length = new short[]{1, 1, 1};
+
+        OmronReadPlan plan = Plan(address, length, 5);
+        byte[] command = plan.getCommands()[0];
+        Assert.assertEquals(1, plan.getCommands().length);
+        Assert.assertEquals(3, MultiItems(command));
+        Assert.assertArrayEquals(new int[]{0x82, 0}, MultiItem(command, 0));
+        Assert.assertArrayEquals(new int[]{0x82, 3}, MultiItem(command, 1));
+        Assert.assertArrayEquals(new int[]{0xB0, 5}, MultiItem(command, 2));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void ScatterRejectsShortData() {
+        OmronReadPlan plan = Plan(Words(OmronFinsDataType.DM, 0), new short[]{10}, 0);
+
+        Assert.assertFalse(plan.Scatter(new byte[][]{new byte[19]}).IsSuccess);
+        Assert.assertFalse(plan.Scatter(new byte[0][]).IsSuccess);
+    }
+
+
+    private static OmronReadPlan Plan(OperateResultExTwo<OmronFinsDataType, Integer>[] address, short[] length, int mergeGap) {
+        OperateResultExOne<OmronReadPlan> create = OmronReadPlan.Create(address, length, mergeGap);
+        Assert.assertTrue(create.Message, create.IsSuccess);
+        for (byte[] command : create.Content.getCommands()) {
+            Assert.assertEquals(0x01, command[0]);
+            Assert.assertTrue(command[1] == 0x01 ? Batch(command)[1] <= 999 : MultiItems(command) <= 167);
+        }
+        return create.Content;
+    }
+
+    private static void AssertScatter(OmronReadPlan plan, OperateResultExTwo<OmronFinsDataType, Integer>[] address, short[] length) {
+        byte[][] data = new byte[plan.getCommands().length][];
+        for (int i = 0; i < data.length; i++) data[i] = Reply(plan.getCommands()[i]);
+
+        OperateResultExOne<byte[][]> scatter = plan.Scatter(data);
+        Assert.assertTrue(scatter.Message, scatter.IsSuccess);
+        for (int i = 0; i < address.length; i++) {
+            byte[] expect = new byte[length[i] * 2];
+            for (int j = 0; j < length[i]; j++) Put(expect, j * 2, address[i].Content1.getWordCode(), address[i].Content2 + j);
+            Assert.assertArrayEquals(expect, scatter.Content[i]);
+        }
+    }
+
+    static byte[] Reply(byte[] command) {
+        // 批量读取反馈连续的字，多区域读取的每一项是区域码加上一个字，高位在前
+        if (command[1] == 0x01) {
+            int[] batch = Batch(command);
+            byte[] data = new byte[batch[1] * 2];
+            for (int i = 0; i < batch[1]; i++) Put(data, i * 2, command[2], batch[0] + i);
+            return data;
+        }
+
+        byte[] data = new byte[MultiItems(command) * 3];
+        for (int i = 0; i < MultiItems(command); i++) {
+            data[i * 3] = command[2 + i * 4];
+            Put(data, i * 3 + 1, command[2 + i * 4], MultiItem(command, i)[1]);
+        }
+        return data;
+    }
+
+    static void Put(byte[] data, int index, byte code, int word) {
+        int value = (code & 0xFF) * 131 + word;
+        data[index] = (byte) (value >> 8);
+        data[index + 1] = (byte) value;
+    }
+
+    private static int[] Batch(byte[] command) {
+        // 起始字地址及字数
+        return new int[]{((command[3] & 0xFF) << 8) | (command[4] & 0xFF), ((command[6] & 0xFF) << 8) | (command[7] & 0xFF)};
+    }
+
+    private static int MultiItems(byte[] command) {
+        return command[1] == 0x04 ? (command.length - 2) / 4 : 0;
+    }
+
+    private static int[] MultiItem(byte[] command, int index) {
+        // 区域码及字地址
+        int offset = 2 + index * 4;
+        return new int[]{command[offset] & 0xFF, ((command[offset + 1] & 0xFF) << 8) | (command[offset + 2] & 0xFF)};
+    }
+
+    private static OperateResultExTwo<OmronFinsDataType, Integer>[] Words(OmronFinsDataType type, int... words) {
+        OperateResultExTwo<OmronFinsDataType, Integer>[] tags = new OperateResultExTwo[words.length];
+        for (int i = 0; i < words.length; i++) tags[i] = Word(type, words[i]);
+        return tags;
+    }
+
+    private static OperateResultExTwo<OmronFinsDataType, Integer> Word(OmronFinsDataType type, int word) {
+        OperateResultExTwo<OmronFinsDataType, Integer> tag = new OperateResultExTwo<>();
+        tag.Content1 = type;
+        tag.Content2 = word;
+        return tag;
+    }
+}
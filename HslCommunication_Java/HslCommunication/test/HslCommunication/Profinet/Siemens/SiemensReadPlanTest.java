@@ -0,0 +1,221 @@
+package HslCommunication.Profinet.Siemens;
+
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExThree;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 西门子读取计划的测试，PDU长度同时限制了一条报文的读取项数量，单个读取项的长度及反馈的总长度，
+ * 反馈中每个读取项有自己的返回码，长度的单位由传输尺寸决定
+ */
+public class SiemensReadPlanTest {
+
+    @Test
+    public void ItemCountFollowsPdu() {
+        // 请求头12个字节，每个读取项12个字节，PDU为240时最多19项，480时最多39项
+        OperateResultExThree<Byte, Integer, Integer>[] address = new OperateResultExThree[50];
+        short[] length = new short[50];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = Db(1, i * 10);
+            length[i] = 1;
+        }
+
+        Assert.assertArrayEquals(new int[]{19, 19, 12}, ItemCounts(Plan(address, length, 240, 0)));
+        Assert.assertArrayEquals(new int[]{39, 11}, ItemCounts(Plan(address, length, 480, 0)));
+        AssertScatter(Plan(address, length, 480, 0), address, length);
+    }
+
+    @Test
+    public void SplitAreaAcrossPdus() {
+        // PDU为480时单个读取项最多462个字节，DB1的1000个字节拆分为462，462，76，
+        // 前两项的反馈都是14+4+462=480，第三项不能再装入，每项一条报文，地址首尾相接
+        OperateResultExThree<Byte, Integer, Integer>[] address = new OperateResultExThree[]{Db(1, 0)};
+        short[] length = new short[]{1000};
+
+        SiemensReadPlan plan = Plan(address, length, 480, 0);
+        Assert.assertArrayEquals(new int[]{1, 1, 1}, ItemCounts(plan));
+        Assert.assertEquals(462, ItemLength(plan.getCommands()[0], 0));
+        Assert.assertEquals(0, ItemByte(plan.getCommands()[0], 0));
+        Assert.assertEquals(462, ItemByte(plan.getCommands()[1], 0));
+        Assert.assertEquals(924, ItemByte(plan.getCommands()[2], 0));
+        Assert.assertEquals(76, ItemLength(plan.getCommands()[2], 0));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void TagStraddlesSplitItems() {
+        // DB1.0长度200及DB1.200长度40合并为240个字节，PDU为240时拆分为222及18，DB1.200的数据来自两个读取项
+        OperateResultExThree<Byte, Integer, Integer>[] address = new OperateResultExThree[]{Db(1, 200), Db(1, 0)};
+        short[] length = new short[]{40, 200};
+
+        SiemensReadPlan plan = Plan(address, length, 240, 0);
+        Assert.assertArrayEquals(new int[]{1, 1}, ItemCounts(plan));
+        Assert.assertEquals(222, ItemLength(plan.getCommands()[0], 0));
+        Assert.assertEquals(222, ItemByte(plan.getCommands()[1], 0));
+        Assert.assertEquals(18, ItemLength(plan.getCommands()[1], 0));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void MergeWithinGapAndArea() {
+        // DB1.0及DB1.6间隔2个字节，mergeGap为2时合并，M区和DB2是不同的区域，不会合并到DB1
+        OperateResultExThree<Byte, Integer, Integer>[] address = new OperateResultExThree[]{
+                Db(1, 0), Db(1, 6), Db(2, 4), M(0)};
+        short[] length = new short[]{4, 2, 2, 8};
+
+        Assert.assertArrayEquals(new int[]{4}, ItemCounts(Plan(address, length, 240, 1)));
+        SiemensReadPlan plan = Plan(address, length, 240, 2);
+        Assert.assertArrayEquals(new int[]{3}, ItemCounts(plan));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void PackLargestItemsFirst() {
+        // PDU为480时先装入200，反馈为14+204=218，之后的三个100每个占104，装入两个之后为426，第三个超出
+        OperateResultExThree<Byte, Integer, Integer>[] address = new OperateResultExThree[]{Db(1, 0), Db(2, 0), Db(3, 0), Db(4, 0)};
+        short[] length = new short[]{100, 100, 100, 200};
+
+        SiemensReadPlan plan = Plan(address, length, 480, 0);
+        Assert.assertArrayEquals(new int[]{3, 1}, ItemCounts(plan));
+        Assert.assertEquals(200, ItemLength(plan.getCommands()[0], 0));
+        AssertScatter(plan, address, length);
+    }
+
+    @Test
+    public void TransportSizeSetsLengthUnit() {
+        // 位(0x03)，字节(0x04)，整数(0x05)的长度单位为位，字符串(0x09)的长度单位为字节，奇数长度的数据后面补齐一个字节
+        byte[] response = Response(
+                Item(0xFF, 0x03, 1, 0x01),
+                Item(0xFF, 0x04, 24, 0x11, 0x12, 0x13),
+                Item(0xFF, 0x05, 16, 0x21, 0x22),
+                Item(0xFF, 0x09, 3, 0x31, 0x32, 0x33));
+
+        OperateResultExOne<byte[][]> parse = SiemensReadPlan.ParseReadResponse(response, 4);
+        Assert.assertTrue(parse.Message, parse.IsSuccess);
+        Assert.assertArrayEquals(new byte[]{0x01}, parse.Content[0]);
+        Assert.assertArrayEquals(new byte[]{0x11, 0x12, 0x13}, parse.Content[1]);
+        Assert.assertArrayEquals(new byte[]{0x21, 0x22}, parse.Content[2]);
+        Assert.assertArrayEquals(new byte[]{0x31, 0x32, 0x33}, parse.Content[3]);
+    }
+
+    @Test
+    public void ItemReturnCodeFails() {
+        // 第二项地址超出范围(0x05)，整个读取失败并带有该返回码
+        byte[] response = Response(Item(0xFF, 0x04, 16, 0x01, 0x02), Item(0x05, 0x00, 0), Item(0xFF, 0x04, 8, 0x03));
+        OperateResultExOne<byte[][]> parse = SiemensReadPlan.ParseReadResponse(response, 3);
+        Assert.assertFalse(parse.IsSuccess);
+        Assert.assertEquals(0x05, parse.ErrorCode);
+
+        // 报文头的错误类及错误码
+        response = Response(Item(0xFF, 0x04, 8, 0x01));
+        response[17] = (byte) 0x85;
+        Assert.assertEquals(0x8500, SiemensReadPlan.ParseReadResponse(response, 1).ErrorCode);
+
+        // 读取项数量和请求的不一致，数据长度超出报文
+        Assert.assertFalse(SiemensReadPlan.ParseReadResponse(Response(Item(0xFF, 0x04, 8, 0x01)), 2).IsSuccess);
+        Assert.assertFalse(SiemensReadPlan.ParseReadResponse(Response(Item(0xFF, 0x04, 32, 0x01)), 1).IsSuccess);
+    }
+
+
+    private static SiemensReadPlan Plan(OperateResultExThree<Byte, Integer, Integer>[] address, short[] length, int pduLength, int mergeGap) {
+        OperateResultExOne<SiemensReadPlan> create = SiemensReadPlan.Create(address, length, pduLength, mergeGap);
+        Assert.assertTrue(create.Message, create.IsSuccess);
+        for (byte[] command : create.Content.getCommands()) {
+            // TPKT及COTP之后的请求及反馈都不能超过PDU
+            Assert.assertTrue(command.length - 7 <= pduLength);
+            Assert.assertTrue(Respond(command).length - 7 <= pduLength);
+        }
+        return create.Content;
+    }
+
+    private static int[] ItemCounts(SiemensReadPlan plan) {
+        int[] counts = new int[plan.getCommands().length];
+        for (int i = 0; i < counts.length; i++) counts[i] = plan.getCommands()[i][18] & 0xFF;
+        return counts;
+    }
+
+    private static void AssertScatter(SiemensReadPlan plan, OperateResultExThree<Byte, Integer, Integer>[] address, short[] length) {
+        byte[][] responses = new byte[plan.getCommands().length][];
+        for (int i = 0; i < responses.length; i++) responses[i] = Respond(plan.getCommands()[i]);
+
+        OperateResultExOne<byte[][]> scatter = plan.Scatter(responses);
+        Assert.assertTrue(scatter.Message, scatter.IsSuccess);
+        for (int i = 0; i < address.length; i++) {
+            byte[] expect = new byte[length[i]];
+            for (int j = 0; j < expect.length; j++) expect[j] = Plc(address[i].Content1, address[i].Content3, address[i].Content2 / 8 + j);
+            Assert.assertArrayEquals(expect, scatter.Content[i]);
+        }
+    }
+
+    private static byte[] Respond(byte[] command) {
+        // 模拟PLC按照请求的每个读取项，以字节的传输尺寸反馈数据
+        byte[][] items = new byte[command[18] & 0xFF][];
+        for (int i = 0; i < items.length; i++) {
+            int[] data = new int[ItemLength(command, i)];
+            int db = ((command[25 + i * 12] & 0xFF) << 8) | (command[26 + i * 12] & 0xFF);
+            for (int j = 0; j < data.length; j++) data[j] = Plc(command[27 + i * 12], db, ItemByte(command, i) + j);
+            items[i] = Item(0xFF, 0x04, data.length * 8, data);
+        }
+        return Response(items);
+    }
+
+    private static byte[] Item(int returnCode, int transportSize, int length, int... data) {
+        // 返回码，传输尺寸，长度，数据，不包含补齐的字节
+        byte[] item = new byte[4 + data.length];
+        item[0] = (byte) returnCode;
+        item[1] = (byte) transportSize;
+        item[2] = (byte) (length >> 8);
+        item[3] = (byte) length;
+        for (int i = 0; i < data.length; i++) item[4 + i] = (byte) data[i];
+        return item;
+    }
+
+    private static byte[] Response(byte[]... items) {
+        // 除了最后一项，数据长度为奇数的读取项补齐一个字节
+        int size = 21;
+        for (int i = 0; i < items.length; i++) size += items[i].length + (i < items.length - 1 ? items[i].length % 2 : 0);
+
+        byte[] response = new byte[size];
+        response[0] = 0x03;
+        response[2] = (byte) (size >> 8);
+        response[3] = (byte) size;
+        response[7] = 0x32;
+        response[8] = 0x03;
+        response[19] = 0x04;
+        response[20] = (byte) items.length;
+        int index = 21;
+        for (int i = 0; i < items.length; i++) {
+            System.arraycopy(items[i], 0, response, index, items[i].length);
+            index += items[i].length + items[i].length % 2;
+        }
+        return response;
+    }
+
+    private static int ItemLength(byte[] command, int index) {
+        return ((command[23 + index * 12] & 0xFF) << 8) | (command[24 + index * 12] & 0xFF);
+    }
+
+    private static int ItemByte(byte[] command, int index) {
+        // 请求中的地址是位地址
+        return (((command[28 + index * 12] & 0xFF) << 16) | ((command[29 + index * 12] & 0xFF) << 8) | (command[30 + index * 12] & 0xFF)) / 8;
+    }
+
+    private static byte Plc(byte area, int db, int offset) {
+        return (byte) (area * 31 + db * 7 + offset * 3 + offset / 85);
+    }
+
+    private static OperateResultExThree<Byte, Integer, Integer> Db(int db, int offset) {
+        OperateResultExThree<Byte, Integer, Integer> tag = new OperateResultExThree<>();
+        tag.Content1 = (byte) 0x84;
+        tag.Content2 = offset * 8;
+        tag.Content3 = db;
+        return tag;
+    }
+
+    private static OperateResultExThree<Byte, Integer, Integer> M(int offset) {
+        OperateResultExThree<Byte, Integer, Integer> tag = Db(0, offset);
+        tag.Content1 = (byte) 0x83;
+        return tag;
+    }
+}
@@ -0,0 +1,119 @@
+package HslCommunication.Profinet.Siemens;
+
+import HslCommunication.Core.Net.Nio.NioServerSession;
+import HslCommunication.Core.Types.OperateResult;
+import HslCommunication.Core.Types.OperateResultExOne;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 西门子客户端和服务器的测试，服务器的PDU长度很小，读写的数据必须按照协商的长度拆分为多条报文，
+ * 服务器对超过PDU长度的报文返回错误，批量写入时某条报文的反馈无法解析只影响该报文里的数据项
+ */
+public class SiemensS7NetTest {
+
+    @Before
+    public void Start() {
+        server = new SiemensS7Server() {
+            @Override
+            protected byte[] ProcessRequest(NioServerSession session, byte[] request) {
+                // 指定的第几条写入报文只反馈到数据项数量为止，缺少每一项的返回码
+                byte[] response = super.ProcessRequest(session, request);
+                if (response == null || request.length < 18 || request[17] != 0x05 || writes.incrementAndGet() != truncateWrite) return response;
+
+                byte[] truncated = Arrays.copyOf(response, 21);
+                truncated[3] = (byte) truncated.length;
+                truncated[16] = 0;
+                return truncated;
+            }
+        };
+        server.setPduLength(64);
+        Assert.assertTrue(server.ServerStart(0).IsSuccess);
+        client = new SiemensS7Net(SiemensPLCS.S1200, "127.0.0.1");
+        client.setPort(server.getPort());
+        // 报文按照握手时协商的PDU长度拆分，先建立连接
+        Assert.assertTrue(client.ConnectServer().IsSuccess);
+        Assert.assertEquals(64, client.getPduLength());
+    }
+
+    @After
+    public void Close() {
+        client.ConnectClose();
+        server.ServerClose();
+    }
+
+    @Test
+    public void PduLengthAllowsProtocolMinimum() {
+        SiemensS7Server other = new SiemensS7Server();
+        other.setPduLength(29);
+        Assert.assertEquals(29, other.getPduLength());
+        other.setPduLength(10);
+        Assert.assertEquals(29, other.getPduLength());
+    }
+
+    @Test
+    public void ReadSplitsAcrossPdus() {
+        // PDU为64时每条读取报文最多46个字节，200个字节分为5条
+        byte[] data = Data(200, 7);
+        Assert.assertTrue(server.Write("DB1.10", data).IsSuccess);
+
+        OperateResultExOne<byte[]> read = client.Read("DB1.10", (short) 200);
+        Assert.assertTrue(read.Message, read.IsSuccess);
+        Assert.assertArrayEquals(data, read.Content);
+
+        // 多地址读取的读取计划同样按照协商的长度拆分
+        OperateResultExOne<byte[][]> multiple = client.ReadMultiple(new String[]{"DB1.10", "M0"}, new short[]{120, 50});
+        Assert.assertTrue(multiple.Message, multiple.IsSuccess);
+        Assert.assertArrayEquals(Arrays.copyOf(data, 120), multiple.Content[0]);
+        Assert.assertEquals(50, multiple.Content[1].length);
+    }
+
+    @Test
+    public void WriteSplitsAcrossPdus() {
+        // 每条写入报文最多36个字节，200个字节分为6条
+        byte[] data = Data(200, 11);
+        OperateResult write = client.Write("DB2.3", data);
+        Assert.assertTrue(write.Message, write.IsSuccess);
+
+        OperateResultExOne<byte[]> read = server.Read("DB2.3", (short) 200);
+        Assert.assertTrue(read.Message, read.IsSuccess);
+        Assert.assertArrayEquals(data, read.Content);
+    }
+
+
+    @Test
+    public void MalformedFrameFailsItsOwnItems() {
+        // 每个数据项30个字节，PDU为64时每条报文只能装入一项，第二条报文的反馈缺少返回码
+        truncateWrite = 2;
+        SiemensWriteItem[] items = new SiemensWriteItem[]{
+                new SiemensWriteItem("DB3.0", Data(30, 3)),
+                new SiemensWriteItem("DB3.40", Data(30, 5)),
+                new SiemensWriteItem("DB3.80", Data(30, 7))};
+
+        OperateResultExOne<OperateResult[]> write = client.Write(items);
+        Assert.assertTrue(write.Message, write.IsSuccess);
+        Assert.assertTrue(write.Content[0].Message, write.Content[0].IsSuccess);
+        Assert.assertFalse(write.Content[1].IsSuccess);
+        Assert.assertTrue(write.Content[2].Message, write.Content[2].IsSuccess);
+        Assert.assertArrayEquals(Data(30, 3), server.Read("DB3.0", (short) 30).Content);
+        Assert.assertArrayEquals(Data(30, 7), server.Read("DB3.80", (short) 30).Content);
+    }
+
+
+    private static byte[] Data(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) data[i] = (byte) (i * seed + i / 13);
+        return data;
+    }
+
+
+    private SiemensS7Server server = null;
+    private SiemensS7Net client = null;
+    private final AtomicInteger writes = new AtomicInteger(0);
+    private volatile int truncateWrite = 0;
+}
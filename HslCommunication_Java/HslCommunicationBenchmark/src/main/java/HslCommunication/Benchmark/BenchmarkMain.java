@@ -0,0 +1,27 @@
+package HslCommunication.Benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试的入口，参数和JMH的命令行一致，默认附加GC的分析，输出每次操作分配的字节数 ->
+ * The entry of the benchmarks, accepts the JMH command line and always adds the gc profiler for the allocation rate
+ */
+public class BenchmarkMain {
+
+    /**
+     * 运行基准测试，例如 java -jar benchmarks.jar ByteTransform -f 1
+     * @param args JMH的命令行参数
+     * @throws Exception 参数错误或是运行失败
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,86 @@
+package HslCommunication.Benchmark;
+
+import HslCommunication.Core.Transfer.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字节变换的批量解析及生成的基准测试，分别测试三种变换规则，以及解析到新数组和已有数组的区别
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ByteTransformBenchmark {
+
+    @Param({"Regular", "ReverseWord", "ReverseBytes"})
+    public String transform;
+
+    @Param({"CDAB", "ABCD"})
+    public String dataFormat;
+
+    @Param({"1000"})
+    public int length;
+
+    private IByteTransform byteTransform = null;
+    private byte[] buffer = null;
+    private short[] shorts = null;
+    private float[] floats = null;
+    private double[] doubles = null;
+
+    @Setup
+    public void Setup() {
+        if (transform.equals("ReverseWord")) byteTransform = new ReverseWordTransform();
+        else if (transform.equals("ReverseBytes")) byteTransform = new ReverseBytesTransform();
+        else byteTransform = new RegularByteTransform();
+        byteTransform.setDataFormat(DataFormat.valueOf(dataFormat));
+
+        buffer = new byte[length * 8];
+        new Random(1).nextBytes(buffer);
+        shorts = new short[length];
+        floats = new float[length];
+        doubles = new double[length];
+    }
+
+    @Benchmark
+    public short[] TransInt16Array() {
+        return byteTransform.TransInt16(buffer, 0, length);
+    }
+
+    @Benchmark
+    public short[] TransInt16Into() {
+        byteTransform.TransInt16(buffer, 0, shorts, 0, length);
+        return shorts;
+    }
+
+    @Benchmark
+    public float[] TransSingleArray() {
+        return byteTransform.TransSingle(buffer, 0, length);
+    }
+
+    @Benchmark
+    public float[] TransSingleInto() {
+        byteTransform.TransSingle(buffer, 0, floats, 0, length);
+        return floats;
+    }
+
+    @Benchmark
+    public double[] TransDoubleInto() {
+        byteTransform.TransDouble(buffer, 0, doubles, 0, length);
+        return doubles;
+    }
+
+    @Benchmark
+    public float TransSingleScalar() {
+        return byteTransform.TransSingle(buffer, 12);
+    }
+
+    @Benchmark
+    public byte[] TransByteFloatArray() {
+        return byteTransform.TransByte(floats);
+    }
+}
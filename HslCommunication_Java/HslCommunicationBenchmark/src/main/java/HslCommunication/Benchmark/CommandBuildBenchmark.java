@@ -0,0 +1,69 @@
+package HslCommunication.Benchmark;
+
+import HslCommunication.Core.Types.FunctionOperateExOne;
+import HslCommunication.Core.Types.OperateResultExOne;
+import HslCommunication.Core.Types.OperateResultExTwo;
+import HslCommunication.ModBus.ModbusAddress;
+import HslCommunication.Profinet.Melsec.MelsecHelper;
+import HslCommunication.Profinet.Melsec.MelsecMcDataType;
+import HslCommunication.Profinet.Omron.OmronFinsDataType;
+import HslCommunication.Profinet.Omron.OmronFinsNet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各个协议的地址解析及读取报文生成的基准测试，每次读写设备都会执行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBuildBenchmark {
+
+    private FunctionOperateExOne<String, OperateResultExTwo<MelsecMcDataType, Integer>> mcAnalysis = null;
+    private ModbusAddress modbusAddress = null;
+
+    @Setup
+    public void Setup() {
+        mcAnalysis = new FunctionOperateExOne<String, OperateResultExTwo<MelsecMcDataType, Integer>>() {
+            @Override
+            public OperateResultExTwo<MelsecMcDataType, Integer> Action(String content) {
+                return MelsecHelper.McAnalysisAddress(content);
+            }
+        };
+        modbusAddress = new ModbusAddress("100");
+    }
+
+    @Benchmark
+    public OperateResultExOne<byte[]> SiemensBuildReadCommand() {
+        return HslCommunication.Profinet.Siemens.SiemensS7Net.BuildReadCommand("DB1.100", (short) 100);
+    }
+
+    @Benchmark
+    public OperateResultExOne<byte[]> MelsecBuildReadMcCoreCommand() {
+        return MelsecHelper.BuildReadMcCoreCommand("D100", (short) 100, false, mcAnalysis);
+    }
+
+    @Benchmark
+    public byte[] ModbusCreateReadRegister() {
+        return modbusAddress.CreateReadRegister((byte) 1, 100);
+    }
+
+    @Benchmark
+    public byte[] ModbusAnalysisAndCreateReadRegister() {
+        return new ModbusAddress("s=2;100").CreateReadRegister((byte) 1, 100);
+    }
+
+    @Benchmark
+    public OperateResultExTwo<OmronFinsDataType, byte[]> OmronAnalysisAddress() {
+        return OmronFinsNet.AnalysisAddress("D100", false);
+    }
+
+    @Benchmark
+    public OperateResultExTwo<OmronFinsDataType, byte[]> OmronAnalysisBitAddress() {
+        return OmronFinsNet.AnalysisAddress("W10.5", true);
+    }
+}
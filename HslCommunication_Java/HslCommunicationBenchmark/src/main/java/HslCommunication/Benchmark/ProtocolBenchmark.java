@@ -0,0 +1,62 @@
+package HslCommunication.Benchmark;
+
+import HslCommunication.BasicFramework.SoftBasic;
+import HslCommunication.Core.Net.HslProtocol;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hsl协议的报文生成及解析，以及十六进制字符串转换的基准测试，超过10K的数据会压缩
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtocolBenchmark {
+
+    @Param({"64", "4096", "20000"})
+    public int size;
+
+    private UUID token = null;
+    private byte[] data = null;
+    private byte[] head = null;
+    private byte[] content = null;
+
+    @Setup
+    public void Setup() {
+        token = UUID.randomUUID();
+        data = new byte[size];
+        new Random(1).nextBytes(data);
+
+        byte[] command = HslProtocol.CommandBytes(1001, token, data);
+        head = new byte[HslProtocol.HeadByteLength];
+        content = new byte[command.length - HslProtocol.HeadByteLength];
+        System.arraycopy(command, 0, head, 0, head.length);
+        System.arraycopy(command, head.length, content, 0, content.length);
+    }
+
+    @Benchmark
+    public byte[] CommandBytes() {
+        return HslProtocol.CommandBytes(1001, token, data);
+    }
+
+    @Benchmark
+    public byte[] CommandAnalysis() {
+        return HslProtocol.CommandAnalysis(head, content);
+    }
+
+    @Benchmark
+    public String ByteToHexString() {
+        return SoftBasic.ByteToHexString(data);
+    }
+
+    @Benchmark
+    public String ByteToHexStringSegment() {
+        return SoftBasic.ByteToHexString(data, ' ');
+    }
+}